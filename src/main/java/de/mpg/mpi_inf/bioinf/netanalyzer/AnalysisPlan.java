@@ -0,0 +1,524 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
+
+/**
+ * Selection of the metrics to be computed by a network analyzer.
+ * <p>
+ * A plan is created from the set of metrics requested by the user. The requested metrics are extended
+ * by all the metrics they depend on, and the plan tells the analyzers which computational kernels are
+ * needed for the resulting set. Kernels that no selected metric needs are not run.
+ * </p>
+ * <p>
+ * Betweenness and stress can be approximated by traversing from a sample of source nodes only; see
+ * {@link BetweennessSampler}. In this case they do not require the traversals from all nodes.
+ * </p>
+ * <p>
+ * The distribution of the shortest path lengths can be estimated by HyperANF (see
+ * {@link de.mpg.mpi_inf.bioinf.netanalyzer.graph.HyperAnf}) instead of traversing from every node,
+ * provided that no other metric in the plan needs the exact distances.
+ * </p>
+ * <p>
+ * The clustering coefficients of high-degree nodes can be approximated by sampling pairs of their
+ * neighbors; see {@link ClusteringSampler}.
+ * </p>
+ * <p>
+ * Instead of computing closeness and betweenness for every node, a plan can ask for the <code>k</code>
+ * top-ranked nodes only; see {@link ClosenessRanking} and {@link BetweennessRanking}. Ranked metrics do
+ * not require the traversals from all nodes either.
+ * </p>
+ */
+public final class AnalysisPlan {
+
+	/**
+	 * Plan that includes all metrics.
+	 */
+	public static final AnalysisPlan ALL = new AnalysisPlan(EnumSet.allOf(Metric.class));
+
+	/**
+	 * Creates a plan for the metrics selected in the given plugin settings.
+	 * 
+	 * @param aSettings
+	 *            Plugin settings.
+	 * @return Plan for the metrics enabled in <code>aSettings</code>.
+	 */
+	public static AnalysisPlan fromSettings(PluginSettings aSettings) {
+		final Set<Metric> metrics = EnumSet.noneOf(Metric.class);
+		if (aSettings.getComputeClustering()) {
+			metrics.add(Metric.CLUSTERING);
+		}
+		if (aSettings.getComputeTopologicalCoefficient()) {
+			metrics.add(Metric.TOPOLOGICAL_COEFFICIENT);
+		}
+		if (aSettings.getComputeNeighborhoodConnectivity()) {
+			metrics.add(Metric.NEIGHBORHOOD_CONNECTIVITY);
+		}
+		if (aSettings.getComputeDiameter()) {
+			metrics.add(Metric.DIAMETER);
+		}
+		if (aSettings.getComputeShortestPaths()) {
+			metrics.add(Metric.SHORTEST_PATHS);
+		}
+		if (aSettings.getComputeCloseness()) {
+			metrics.add(Metric.CLOSENESS);
+		}
+		if (aSettings.getComputeRadiality()) {
+			metrics.add(Metric.RADIALITY);
+		}
+		if (aSettings.getComputeBetweenness()) {
+			metrics.add(Metric.BETWEENNESS);
+		}
+		if (aSettings.getComputeStress()) {
+			metrics.add(Metric.STRESS);
+		}
+		if (aSettings.getComputePageRank()) {
+			metrics.add(Metric.PAGE_RANK);
+		}
+		if (aSettings.getComputeEigenvector()) {
+			metrics.add(Metric.EIGENVECTOR);
+		}
+		if (aSettings.getComputeKatz()) {
+			metrics.add(Metric.KATZ);
+		}
+		if (aSettings.getComputeCoreness()) {
+			metrics.add(Metric.CORENESS);
+		}
+		final AnalysisPlan plan = aSettings.getApproximateBetweenness() ? new AnalysisPlan(metrics,
+				aSettings.getBetweennessEpsilon(), aSettings.getBetweennessDelta()) : new AnalysisPlan(metrics);
+		final AnalysisPlan estimated = aSettings.getEstimateShortestPaths() ? plan.estimatePaths() : plan;
+		final AnalysisPlan sampled = aSettings.getApproximateClustering() ? estimated.approximateClustering(
+				aSettings.getClusteringSamples(), aSettings.getClusteringDegreeLimit()) : estimated;
+		return aSettings.getTopK() > 0 ? sampled.topK(aSettings.getTopK()) : sampled;
+	}
+
+	/**
+	 * Creates a plan for the metrics listed in the given text.
+	 * 
+	 * @param aMetrics
+	 *            Comma-separated list of metric keys (see {@link Metric#getKey()}), or <code>all</code>
+	 *            for all metrics. An empty list selects the degrees and simple parameters only.
+	 * @return Plan for the listed metrics.
+	 * @throws IllegalArgumentException
+	 *             If the list contains an unknown key.
+	 */
+	public static AnalysisPlan parse(String aMetrics) {
+		final String text = aMetrics.trim();
+		if ("all".equalsIgnoreCase(text)) {
+			return ALL;
+		}
+		final Set<Metric> metrics = EnumSet.noneOf(Metric.class);
+		for (final String key : text.split(",")) {
+			if (key.trim().length() != 0) {
+				metrics.add(Metric.forKey(key.trim()));
+			}
+		}
+		return new AnalysisPlan(metrics);
+	}
+
+	/**
+	 * Initializes a new instance of <code>AnalysisPlan</code>.
+	 * 
+	 * @param aRequested
+	 *            Metrics requested by the user. The plan also includes all metrics they depend on.
+	 */
+	public AnalysisPlan(Collection<Metric> aRequested) {
+		this(aRequested, 0, 0);
+	}
+
+	/**
+	 * Initializes a new instance of <code>AnalysisPlan</code> that approximates betweenness and stress.
+	 * 
+	 * @param aRequested
+	 *            Metrics requested by the user. The plan also includes all metrics they depend on.
+	 * @param aEpsilon
+	 *            Maximum error of the normalized betweenness of a node; <code>0</code> if betweenness
+	 *            and stress must be computed exactly.
+	 * @param aDelta
+	 *            Probability that the error of some node exceeds <code>aEpsilon</code>; must be in the
+	 *            range (0, 1) unless <code>aEpsilon</code> is <code>0</code>.
+	 * @throws IllegalArgumentException
+	 *             If <code>aEpsilon</code> is negative, or if it is positive and <code>aDelta</code> is
+	 *             not in the range (0, 1).
+	 */
+	public AnalysisPlan(Collection<Metric> aRequested, double aEpsilon, double aDelta) {
+		this(aRequested, aEpsilon, aDelta, false, 0, 0, 0);
+	}
+
+	/**
+	 * Initializes a new instance of <code>AnalysisPlan</code>.
+	 * 
+	 * @param aRequested
+	 *            Metrics requested by the user.
+	 * @param aEpsilon
+	 *            Maximum error of the normalized betweenness of a node; <code>0</code> for exact
+	 *            computation.
+	 * @param aDelta
+	 *            Probability that the error of some node exceeds <code>aEpsilon</code>.
+	 * @param aEstimatePaths
+	 *            Flag indicating if the shortest path lengths may be estimated.
+	 * @param aClusteringSamples
+	 *            Number of pairs of neighbors sampled for approximating clustering coefficients;
+	 *            <code>0</code> if they must be computed exactly.
+	 * @param aClusteringDegreeLimit
+	 *            Largest degree of the nodes whose clustering coefficients are computed exactly.
+	 * @param aTopK
+	 *            Number of top-ranked nodes by closeness and betweenness; <code>0</code> if these are
+	 *            computed for all nodes.
+	 * @throws IllegalArgumentException
+	 *             If the approximation parameters are invalid.
+	 */
+	private AnalysisPlan(Collection<Metric> aRequested, double aEpsilon, double aDelta, boolean aEstimatePaths,
+			int aClusteringSamples, int aClusteringDegreeLimit, int aTopK) {
+		if (aEpsilon < 0 || (aEpsilon > 0 && !(aDelta > 0 && aDelta < 1)) || aClusteringSamples < 0
+				|| aClusteringDegreeLimit < 0 || aTopK < 0) {
+			throw new IllegalArgumentException();
+		}
+		betweennessEpsilon = aEpsilon;
+		betweennessDelta = aEpsilon > 0 ? aDelta : 0;
+		estimatePaths = aEstimatePaths;
+		clusteringSamples = aClusteringSamples;
+		clusteringDegreeLimit = aClusteringSamples > 0 ? aClusteringDegreeLimit : 0;
+		topK = aTopK;
+		requested = aRequested.isEmpty() ? EnumSet.noneOf(Metric.class) : EnumSet.copyOf(aRequested);
+		metrics = EnumSet.noneOf(Metric.class);
+		final Deque<Metric> toResolve = new ArrayDeque<Metric>(aRequested);
+		while (!toResolve.isEmpty()) {
+			final Metric metric = toResolve.pop();
+			if (metrics.add(metric) && !(isApproximate() && isSampled(metric)) && !(topK > 0 && isRankable(metric))) {
+				Collections.addAll(toResolve, metric.getDependencies());
+			}
+		}
+	}
+
+	/**
+	 * Creates a plan for the same metrics as this one, in which betweenness and stress are
+	 * approximated.
+	 * 
+	 * @param aEpsilon
+	 *            Maximum error of the normalized betweenness of a node; <code>0</code> for exact
+	 *            computation.
+	 * @param aDelta
+	 *            Probability that the error of some node exceeds <code>aEpsilon</code>.
+	 * @return New plan with the given approximation parameters.
+	 * @throws IllegalArgumentException
+	 *             If the parameters are invalid; see {@link #AnalysisPlan(Collection, double, double)}.
+	 */
+	public AnalysisPlan approximate(double aEpsilon, double aDelta) {
+		return new AnalysisPlan(requested, aEpsilon, aDelta, estimatePaths, clusteringSamples,
+				clusteringDegreeLimit, topK);
+	}
+
+	/**
+	 * Creates a plan for the same metrics as this one, in which the shortest path lengths are
+	 * estimated whenever no other metric needs the exact distances.
+	 * 
+	 * @return New plan that allows estimating the shortest path lengths.
+	 * @see #isPathsEstimated()
+	 */
+	public AnalysisPlan estimatePaths() {
+		return new AnalysisPlan(requested, betweennessEpsilon, betweennessDelta, true, clusteringSamples,
+				clusteringDegreeLimit, topK);
+	}
+
+	/**
+	 * Creates a plan for the same metrics as this one, in which the clustering coefficients of
+	 * high-degree nodes are approximated.
+	 * 
+	 * @param aSamples
+	 *            Number of pairs of neighbors to sample in the whole network; must be positive.
+	 * @param aDegreeLimit
+	 *            Largest degree of the nodes whose clustering coefficients are computed exactly;
+	 *            <code>0</code> to approximate all clustering coefficients.
+	 * @return New plan with the given sampling parameters.
+	 * @throws IllegalArgumentException
+	 *             If <code>aSamples</code> is not positive or <code>aDegreeLimit</code> is negative.
+	 */
+	public AnalysisPlan approximateClustering(int aSamples, int aDegreeLimit) {
+		if (aSamples <= 0) {
+			throw new IllegalArgumentException();
+		}
+		return new AnalysisPlan(requested, betweennessEpsilon, betweennessDelta, estimatePaths, aSamples,
+				aDegreeLimit, topK);
+	}
+
+	/**
+	 * Creates a plan for the same metrics as this one, in which closeness and betweenness are computed
+	 * for the top-ranked nodes only.
+	 * 
+	 * @param aK
+	 *            Number of top-ranked nodes; <code>0</code> to compute closeness and betweenness for
+	 *            all nodes.
+	 * @return New plan with the given number of top-ranked nodes.
+	 * @throws IllegalArgumentException
+	 *             If <code>aK</code> is negative.
+	 */
+	public AnalysisPlan topK(int aK) {
+		return new AnalysisPlan(requested, betweennessEpsilon, betweennessDelta, estimatePaths,
+				clusteringSamples, clusteringDegreeLimit, aK);
+	}
+
+	/**
+	 * Gets the number of top-ranked nodes by closeness and betweenness.
+	 * 
+	 * @return Number of top-ranked nodes; <code>0</code> if closeness and betweenness are computed for
+	 *         all nodes.
+	 */
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * Checks if the given metric is computed for the top-ranked nodes only.
+	 * 
+	 * @param aMetric
+	 *            Metric to be checked.
+	 * @return <code>true</code> if <code>aMetric</code> is closeness or betweenness, it is in this plan
+	 *         and a number of top-ranked nodes is specified; <code>false</code> otherwise.
+	 */
+	public boolean isRanked(Metric aMetric) {
+		return topK > 0 && isRankable(aMetric) && metrics.contains(aMetric);
+	}
+
+	/**
+	 * Checks if the clustering coefficients of high-degree nodes are approximated by sampling.
+	 * 
+	 * @return <code>true</code> if clustering coefficients are in this plan and a sample budget is
+	 *         specified; <code>false</code> if they are computed exactly.
+	 */
+	public boolean isClusteringSampled() {
+		return clusteringSamples > 0 && metrics.contains(Metric.CLUSTERING);
+	}
+
+	/**
+	 * Gets the number of pairs of neighbors sampled for approximating clustering coefficients.
+	 * 
+	 * @return Sample budget for the whole network; <code>0</code> if clustering coefficients are
+	 *         computed exactly.
+	 */
+	public int getClusteringSamples() {
+		return clusteringSamples;
+	}
+
+	/**
+	 * Gets the largest degree of the nodes whose clustering coefficients are computed exactly.
+	 * 
+	 * @return Degree limit of the exact clustering coefficients; <code>0</code> if they are all
+	 *         approximated or all computed exactly.
+	 */
+	public int getClusteringDegreeLimit() {
+		return clusteringDegreeLimit;
+	}
+
+	/**
+	 * Checks if the given metric is to be computed.
+	 * 
+	 * @param aMetric
+	 *            Metric to be checked.
+	 * @return <code>true</code> if <code>aMetric</code> was requested or is required by a requested
+	 *         metric; <code>false</code> otherwise.
+	 */
+	public boolean computes(Metric aMetric) {
+		return metrics.contains(aMetric);
+	}
+
+	/**
+	 * Checks if betweenness and stress are approximated by sampling source nodes.
+	 * 
+	 * @return <code>true</code> if an error bound for betweenness is specified; <code>false</code> if
+	 *         betweenness and stress are computed exactly.
+	 */
+	public boolean isApproximate() {
+		return betweennessEpsilon > 0;
+	}
+
+	/**
+	 * Gets the maximum error of the approximated betweenness.
+	 * 
+	 * @return Maximum error of the normalized betweenness of a node; <code>0</code> if betweenness is
+	 *         computed exactly.
+	 */
+	public double getBetweennessEpsilon() {
+		return betweennessEpsilon;
+	}
+
+	/**
+	 * Gets the probability that the approximated betweenness exceeds its error bound.
+	 * 
+	 * @return Probability that the error of some node exceeds {@link #getBetweennessEpsilon()};
+	 *         <code>0</code> if betweenness is computed exactly.
+	 */
+	public double getBetweennessDelta() {
+		return betweennessDelta;
+	}
+
+	/**
+	 * Checks if the shortest path lengths are estimated instead of computed by traversals.
+	 * 
+	 * @return <code>true</code> if estimation was allowed and none of closeness of all nodes, radiality
+	 *         and exact betweenness or stress is in this plan; <code>false</code> otherwise.
+	 */
+	public boolean isPathsEstimated() {
+		return estimatePaths && metrics.contains(Metric.SHORTEST_PATHS)
+				&& !(metrics.contains(Metric.CLOSENESS) && !isRanked(Metric.CLOSENESS))
+				&& !metrics.contains(Metric.RADIALITY) && !(needsDependencies() && !isApproximate());
+	}
+
+	/**
+	 * Checks if a breadth-first traversal from every node is needed.
+	 * 
+	 * @return <code>true</code> if at least one of the metrics in this plan is based on shortest paths
+	 *         and the path lengths are not estimated; <code>false</code> otherwise.
+	 */
+	public boolean needsTraversal() {
+		return metrics.contains(Metric.SHORTEST_PATHS) && !isPathsEstimated();
+	}
+
+	/**
+	 * Checks if the dependencies on the shortest paths are to be accumulated during the traversals.
+	 * 
+	 * @return <code>true</code> if stress or the betweenness of all nodes is in this plan;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean needsDependencies() {
+		return (metrics.contains(Metric.BETWEENNESS) && !isRanked(Metric.BETWEENNESS))
+				|| metrics.contains(Metric.STRESS);
+	}
+
+	/**
+	 * Gets the metrics in this plan.
+	 * 
+	 * @return Unmodifiable set of the requested metrics and their dependencies.
+	 */
+	public Set<Metric> getMetrics() {
+		return Collections.unmodifiableSet(metrics);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder();
+		for (final Metric metric : metrics) {
+			if (text.length() != 0) {
+				text.append(',');
+			}
+			text.append(metric.getKey());
+		}
+		if (isApproximate()) {
+			text.append(';').append(betweennessEpsilon).append(';').append(betweennessDelta);
+		}
+		if (isPathsEstimated()) {
+			text.append(";estimated");
+		}
+		if (isClusteringSampled()) {
+			text.append(";clustering;").append(clusteringSamples).append(';').append(clusteringDegreeLimit);
+		}
+		if (topK > 0) {
+			text.append(";top;").append(topK);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Checks if the given metric is accumulated from the sampled sources when approximating.
+	 * 
+	 * @param aMetric
+	 *            Metric to be checked.
+	 * @return <code>true</code> if <code>aMetric</code> is betweenness or stress; <code>false</code>
+	 *         otherwise.
+	 */
+	private static boolean isSampled(Metric aMetric) {
+		return aMetric == Metric.BETWEENNESS || aMetric == Metric.STRESS;
+	}
+
+	/**
+	 * Checks if the given metric can be computed for the top-ranked nodes only.
+	 * 
+	 * @param aMetric
+	 *            Metric to be checked.
+	 * @return <code>true</code> if <code>aMetric</code> is closeness or betweenness; <code>false</code>
+	 *         otherwise.
+	 */
+	private static boolean isRankable(Metric aMetric) {
+		return aMetric == Metric.CLOSENESS || aMetric == Metric.BETWEENNESS;
+	}
+
+	/**
+	 * Metrics requested by the user.
+	 */
+	private final Set<Metric> requested;
+
+	/**
+	 * Requested metrics, together with the metrics they depend on.
+	 */
+	private final Set<Metric> metrics;
+
+	/**
+	 * Maximum error of the normalized betweenness; <code>0</code> for exact computation.
+	 */
+	private final double betweennessEpsilon;
+
+	/**
+	 * Probability that the error of the approximated betweenness exceeds {@link #betweennessEpsilon}.
+	 */
+	private final double betweennessDelta;
+
+	/**
+	 * Flag indicating if the shortest path lengths may be estimated.
+	 */
+	private final boolean estimatePaths;
+
+	/**
+	 * Number of pairs of neighbors sampled for approximating clustering coefficients; <code>0</code>
+	 * for exact computation.
+	 */
+	private final int clusteringSamples;
+
+	/**
+	 * Largest degree of the nodes whose clustering coefficients are computed exactly when sampling.
+	 */
+	private final int clusteringDegreeLimit;
+
+	/**
+	 * Number of top-ranked nodes by closeness and betweenness; <code>0</code> if these are computed
+	 * for all nodes.
+	 */
+	private final int topK;
+}
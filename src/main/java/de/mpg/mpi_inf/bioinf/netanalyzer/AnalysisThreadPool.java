@@ -0,0 +1,227 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
+
+/**
+ * Thread pool shared by all network analyses.
+ * <p>
+ * The pool is created when the plugin is started and shut down when it is stopped (see
+ * {@link CyActivator}). All analyzers submit their worker tasks to this pool instead of creating
+ * threads of their own, so the number of threads performing analysis at any time is bounded by the
+ * parallelism defined in the plugin's settings, regardless of how many networks, interpretations or
+ * connected components are analyzed. Threads running analyses of their own, like the analysts of the
+ * batch analysis, reserve their share of the parallelism (see {@link #reserve()}), and the pool is
+ * shrunk accordingly. Idle threads of the pool are released after a timeout.
+ * </p>
+ */
+public final class AnalysisThreadPool {
+
+	/**
+	 * Creates the shared analysis thread pool, unless it is already running.
+	 */
+	public static synchronized void start() {
+		if (executor == null || executor.isShutdown()) {
+			final int poolSize = getPoolSize();
+			executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new WorkerFactory());
+			executor.allowCoreThreadTimeOut(true);
+		}
+	}
+
+	/**
+	 * Shuts down the shared analysis thread pool.
+	 * <p>
+	 * Tasks already submitted to the pool are completed, but no new tasks are accepted. A subsequent
+	 * call to {@link #getExecutor()} creates a new pool.
+	 * </p>
+	 */
+	public static synchronized void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Gets the shared analysis thread pool.
+	 * <p>
+	 * The pool is created if it is not running, and its size is adjusted if the parallelism in the
+	 * plugin's settings or the number of reserved threads has changed since the last call.
+	 * </p>
+	 * <p>
+	 * Note that tasks submitted to the pool must not wait for the completion of other tasks in the
+	 * pool, as this might lead to a deadlock when all threads are busy.
+	 * </p>
+	 * 
+	 * @return Executor to which analysis tasks are submitted.
+	 */
+	public static synchronized ExecutorService getExecutor() {
+		start();
+		final int poolSize = getPoolSize();
+		if (executor.getMaximumPoolSize() != poolSize) {
+			if (poolSize > executor.getMaximumPoolSize()) {
+				executor.setMaximumPoolSize(poolSize);
+				executor.setCorePoolSize(poolSize);
+			} else {
+				executor.setCorePoolSize(poolSize);
+				executor.setMaximumPoolSize(poolSize);
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Reserves a thread of the parallelism for an analysis coordinated outside the pool.
+	 * <p>
+	 * A thread that runs an analysis, such as an analyst of the batch analysis, performs the serial
+	 * steps of the analysis itself and submits only the parallel steps to the pool. While the thread
+	 * is reserved, the pool is smaller by one thread, but keeps at least one thread, so that the
+	 * reserved threads and the pool together do not exceed the parallelism. Threads of the pool which
+	 * are busy when the pool is shrunk finish their current tasks. Every call to this method must be
+	 * followed by a call to {@link #release()}.
+	 * </p>
+	 */
+	static synchronized void reserve() {
+		reserved++;
+		getExecutor();
+	}
+
+	/**
+	 * Releases a thread reserved by {@link #reserve()}, returning it to the pool.
+	 */
+	static synchronized void release() {
+		reserved--;
+		getExecutor();
+	}
+
+	/**
+	 * Gets the maximum number of threads used for network analysis.
+	 * 
+	 * @return Parallelism specified in the plugin's settings or, if it is not a positive number, the
+	 *         number of processors available to the Java virtual machine.
+	 */
+	public static int getParallelism() {
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		final int parallelism = settings != null ? settings.getParallelism() : 0;
+		if (parallelism > 0) {
+			return parallelism;
+		}
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Gets the number of threads in the pool.
+	 * 
+	 * @return Parallelism, without the threads reserved for analyses coordinated outside the pool; at
+	 *         least <code>1</code>.
+	 */
+	private static int getPoolSize() {
+		return Math.max(1, getParallelism() - reserved);
+	}
+
+	/**
+	 * Factory creating the daemon worker threads of the pool, and of other threads working for the
+	 * analyses.
+	 */
+	static final class WorkerFactory implements ThreadFactory {
+
+		/**
+		 * Initializes a new instance of <code>WorkerFactory</code> creating worker threads of the pool.
+		 */
+		public WorkerFactory() {
+			this(THREAD_NAME);
+		}
+
+		/**
+		 * Initializes a new instance of <code>WorkerFactory</code>.
+		 * 
+		 * @param aName Prefix of the names of the created threads.
+		 */
+		public WorkerFactory(String aName) {
+			name = aName;
+			threadCount = new AtomicInteger();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+		 */
+		public Thread newThread(Runnable aTask) {
+			final Thread thread = new Thread(aTask, name + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+		/**
+		 * Prefix of the names of the created threads.
+		 */
+		private final String name;
+
+		/**
+		 * Number of threads created by this factory.
+		 */
+		private final AtomicInteger threadCount;
+	}
+
+	/**
+	 * Private constructor; this class is not meant to be instantiated.
+	 */
+	private AnalysisThreadPool() {
+		// No instances
+	}
+
+	/**
+	 * Time, in seconds, an idle thread of the pool is kept alive.
+	 */
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	/**
+	 * Prefix of the names of the worker threads.
+	 */
+	private static final String THREAD_NAME = "NetworkAnalyzer-";
+
+	/**
+	 * Shared thread pool; <code>null</code> if the pool is not running.
+	 */
+	private static ThreadPoolExecutor executor;
+
+	/**
+	 * Number of threads of the parallelism reserved for analyses coordinated outside the pool.
+	 */
+	private static int reserved;
+}
@@ -53,12 +53,14 @@ final class AttributeSetup {
 		createAttr(nodeTable,Messages.getAttr("nue"), Integer.class);
 		createAttr(nodeTable,Messages.getAttr("rad"), Double.class);
 		createAttr(nodeTable,Messages.getAttr("tco"), Double.class);
+		createAttr(nodeTable,Messages.getAttr("art"), Boolean.class);
 	}
 
 	private static void createCommonNodeAttributes(CyTable nodeTable) {
 		createAttr(nodeTable,Messages.getAttr("apl"), Double.class); 
 		createAttr(nodeTable,Messages.getAttr("cco"), Double.class);
 		createAttr(nodeTable,Messages.getAttr("clc"), Double.class);
+		createAttr(nodeTable,Messages.getAttr("cor"), Integer.class);
 		createAttr(nodeTable,Messages.getAttr("isn"), Boolean.class);
 		createAttr(nodeTable,Messages.getAttr("pmn"), Integer.class);
 		createAttr(nodeTable,Messages.getAttr("slo"), Integer.class);
@@ -70,6 +72,22 @@ final class AttributeSetup {
 		createAttr(edgeTable,Messages.getAttr("ebt"),Double.class);
 	}
 	
+	static void createBridgeAttribute(CyTable edgeTable) {
+		createAttr(edgeTable,Messages.getAttr("brg"),Boolean.class);
+	}
+	
+	static void createBetweennessErrorAttribute(CyTable networkTable) {
+		createAttr(networkTable,Messages.getAttr("nbe"),Double.class);
+	}
+	
+	static void createHarmonicClosenessAttribute(CyTable nodeTable) {
+		createAttr(nodeTable,Messages.getAttr("hcc"),Double.class);
+	}
+
+	static void createSpectralAttribute(CyTable nodeTable, String col) {
+		createAttr(nodeTable,col,Double.class);
+	}
+
 	static void createEdgeDuplicateAttribute(CyTable edgeTable) {
 		createAttr(edgeTable,Messages.getAttr("dpe"),Integer.class);
 	}
@@ -32,9 +32,13 @@ import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.cytoscape.io.read.CyNetworkReader;
 import org.cytoscape.io.read.CyNetworkReaderManager;
@@ -52,10 +56,27 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStatus;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
 import de.mpg.mpi_inf.bioinf.netanalyzer.ui.BatchAnalysisDialog;
 
 /**
  * Class for batch analysis of networks.
+ * <p>
+ * The analysis is pipelined. While networks are analyzed, a loader thread reads and inspects the next
+ * input files, up to the number of files given in the plugin's settings. Several networks are analyzed
+ * at once, by at most half as many analyst threads as the analysis parallelism, as long as their
+ * estimated memory fits in the batch memory budget; a network exceeding the budget is analyzed alone.
+ * An analyst runs the serial steps of its analysis and submits the parallel steps to the
+ * {@link AnalysisThreadPool}. While it analyzes a network, it reserves a thread of the pool, so that
+ * the analysts and the pool together use no more threads than the analysis parallelism. The messages
+ * and the reports of a network are published once it and all networks before it in the input list are
+ * done, so they appear in the order of the input files.
+ * </p>
+ * <p>
+ * Unless disabled in the plugin's settings, the results are also stored in a {@link BatchResultCache}.
+ * When the contents of an input file, the selected metrics and the plugin version are unchanged, the
+ * cached results are copied to the output directory and the file is not loaded at all.
+ * </p>
  * 
  * @author Yassen Assenov
  * @author Nadezhda Doncheva
@@ -76,7 +97,6 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 *            Parameter specifying which interpretations to be applied to each network.
 	 */
 	public BatchNetworkAnalyzer(File aOutputDir, List<File> aInputFiles, Interpretations aInterpr, CyNetworkManager netMgr, CyNetworkReaderManager cyNetworkViewReaderMgr) {
-		analyzer = null;
 		cancelled = false;
 		dialog = null;
 		progress = 0;
@@ -84,9 +104,10 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		inputFiles = aInputFiles;
 		interpretations = aInterpr;
 		reports = new ArrayList<NetworkAnalysisReport>();
-		scale = 0.0;
-		analyzing = false;
-		subProgress = 0;
+		cache = null;
+		items = new BatchItem[0];
+		running = new ArrayList<BatchItem>();
+		published = 0;
 		this.netMgr = netMgr;
 		this.cyNetworkViewReaderMgr = cyNetworkViewReaderMgr;
 	}
@@ -101,8 +122,10 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	public void cancel() {
 		cancelled = true;
 		synchronized (this) {
-			if (analyzer != null) {
-				analyzer.cancel();
+			for (final BatchItem item : running) {
+				if (item.analyzer != null) {
+					item.analyzer.cancel();
+				}
 			}
 		}
 	}
@@ -114,124 +137,323 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 */
 	@Override
 	public Object construct() {
-		progress = 0;
-		for (final File inputFile : inputFiles) {
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		final int fileCount = inputFiles.size();
+		cache = settings.getUseBatchCache() ? new BatchResultCache(BatchResultCache.getDefaultDirectory(),
+				settings, interpretations) : null;
+		final int prefetch = Math.max(0, settings.getBatchPrefetch());
+		// Every running analyst takes a thread from the shared pool; at least half of the pool is kept
+		// for the parallel steps of the analyses
+		final int analystCount = Math.max(1, AnalysisThreadPool.getParallelism() / 2);
+		final MemoryBudget budget = new MemoryBudget(getMemoryBudget(settings), analystCount);
+		final ExecutorService loader = Executors.newSingleThreadExecutor(
+				new AnalysisThreadPool.WorkerFactory(LOADER_NAME));
+		final ExecutorService analysts = Executors.newFixedThreadPool(analystCount,
+				new AnalysisThreadPool.WorkerFactory(ANALYST_NAME));
+		final List<Future<?>> loads = new ArrayList<Future<?>>(fileCount);
+		synchronized (this) {
+			progress = 0;
+			published = 0;
+			items = new BatchItem[fileCount];
+			for (int i = 0; i < fileCount; i++) {
+				items[i] = new BatchItem(inputFiles.get(i));
+			}
+		}
 
-			// Make a new network in cytoscape from a filename in
-			// the network-directory
-			CyNetwork network = null;
-			try {
-				write(Messages.SM_LOADING + inputFile.getName() + " ... ");
-				if (!inputFile.isFile()) {
-					throw new RuntimeException();
+		int started = 0;
+		try {
+			for (; started < fileCount && !cancelled; started++) {
+				// Keep the next input files loading while this one waits for its analysis
+				while (loads.size() < fileCount && loads.size() <= started + prefetch) {
+					final BatchItem next = items[loads.size()];
+					loads.add(loader.submit(new Runnable() {
+						public void run() {
+							load(next);
+						}
+					}));
 				}
-				CyNetworkReader reader = cyNetworkViewReaderMgr.getReader(inputFile.toURI(), inputFile.getName());
-				try {
-					// TODO Use the Task's task monitor 
-					reader.run(new SampleTaskMonitor());
-				} catch (Exception ex) {
-					return null;
+				loads.get(started).get();
+				final BatchItem item = items[started];
+				if (item.network == null) {
+					complete(item);
+					continue;
+				}
+
+				// Wait until the analyses already running leave enough memory for this one
+				budget.acquire(item.memory);
+				if (cancelled) {
+					budget.release(item.memory);
+					break;
+				}
+				synchronized (this) {
+					running.add(item);
+				}
+				analysts.execute(new Runnable() {
+					public void run() {
+						AnalysisThreadPool.reserve();
+						try {
+							analyze(item);
+						} finally {
+							AnalysisThreadPool.release();
+							budget.release(item.memory);
+							complete(item);
+						}
+					}
+				});
+			}
+		} catch (InterruptedException ex) {
+			cancel();
+		} catch (ExecutionException ex) {
+			throw new InnerException(ex.getCause());
+		} finally {
+			loader.shutdown();
+			analysts.shutdown();
+			awaitTermination(loader);
+			awaitTermination(analysts);
+
+			// Unload the networks loaded ahead of a cancelled analysis
+			for (int i = started; i < fileCount; i++) {
+				final CyNetwork network = items[i].network;
+				if (network != null) {
+					try {
+						netMgr.destroyNetwork(network);
+					} catch (Exception ex) {
+						// Network already removed (by another plugin); ignore
+					}
 				}
-				network = reader.getNetworks()[0];
-				network.getRow(network).set(CyNetwork.NAME, inputFile.getName());
-			} catch (RuntimeException e) {
-				writeLine(Messages.SM_READERROR);
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_NOT_OPENED));
-				progress += PROGRESS_PER_NET;
-				continue;
 			}
+		}
+		if (cancelled) {
+			writeLine(Messages.SM_ANALYSISC);
+		}
+		return null;
+	}
+
+	/**
+	 * Loads and inspects the network of an input file.
+	 * <p>
+	 * This method is called by the loader thread. If the results of the file are cached, they are
+	 * restored instead. If the network is loaded and has interpretations to be analyzed, it is stored
+	 * in the item; otherwise, the item records the error.
+	 * </p>
+	 * 
+	 * @param aItem
+	 *            Item of the input file to be loaded.
+	 */
+	private void load(BatchItem aItem) {
+		if (cancelled) {
+			return;
+		}
 
-			// Get all possible interpretations for the network
-			NetworkInspection inspection = null;
+		// Reuse the cached results of an unchanged input file
+		final File inputFile = aItem.inputFile;
+		if (cache != null && inputFile.isFile()) {
 			try {
-				inspection = CyNetworkUtils.inspectNetwork(network);
-			} catch (IllegalArgumentException e) {
-				writeLine(Messages.SM_DONE);
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_EMPTY));
-				unloadNetwork(inputFile, network);
-				continue;
-			} catch (NullPointerException e) {
-				reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_FILE_INVALID));
-				progress += PROGRESS_PER_NET;
-				continue;
+				aItem.hash = BatchResultCache.hashFile(inputFile);
+				if (restore(aItem)) {
+					return;
+				}
+			} catch (IOException ex) {
+				// File could not be read; the reader below reports the error
 			}
+		}
 
-			final NetworkInterpretation[] interprs = filterInterpretations(getInterpretations(inspection));
-			final int intCount = interprs.length;
-			final int advance = PROGRESS_PER_NET / intCount;
+		// Make a new network in cytoscape from a filename in
+		// the network-directory
+		CyNetwork network = null;
+		aItem.log.append(Messages.SM_LOADING + inputFile.getName() + " ... ");
+		try {
+			if (!inputFile.isFile()) {
+				throw new RuntimeException();
+			}
+			CyNetworkReader reader = cyNetworkViewReaderMgr.getReader(inputFile.toURI(), inputFile.getName());
+			// TODO Use the Task's task monitor 
+			reader.run(new SampleTaskMonitor());
+			network = reader.getNetworks()[0];
+			network.getRow(network).set(CyNetwork.NAME, inputFile.getName());
+		} catch (Exception e) {
+			aItem.log.append(Messages.SM_READERROR + "\n");
+			aItem.reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_NOT_OPENED));
+			return;
+		}
+
+		// Get all possible interpretations for the network
+		NetworkInspection inspection = null;
+		try {
+			inspection = CyNetworkUtils.inspectNetwork(network);
+		} catch (IllegalArgumentException e) {
+			aItem.log.append(Messages.SM_DONE + "\n");
+			aItem.reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_EMPTY));
+			unloadNetwork(aItem, network);
+			return;
+		} catch (NullPointerException e) {
+			aItem.reports.add(new NetworkAnalysisReport(inputFile, null, AnalysisError.NETWORK_FILE_INVALID));
+			return;
+		}
+		aItem.log.append(Messages.SM_DONE + "\n");
+		aItem.interpretations = filterInterpretations(getInterpretations(inspection));
+		aItem.memory = estimateMemory(network);
+		aItem.network = network;
+	}
 
-			// Run NetworkAnalyzer on all accepted interpretations
-			writeLine(Messages.SM_DONE);
-			for (int j = 0; j < intCount; progress += advance, ++j) {
+	/**
+	 * Analyzes all accepted interpretations of a loaded network, saves the results and unloads the
+	 * network.
+	 * <p>
+	 * This method is called by an analysis thread; several networks may be analyzed at once. The
+	 * interpretations of the network share a single {@link NetworkSnapshot}.
+	 * </p>
+	 * 
+	 * @param aItem
+	 *            Item of the loaded network.
+	 */
+	private void analyze(BatchItem aItem) {
+		final File inputFile = aItem.inputFile;
+		final CyNetwork network = aItem.network;
+		final NetworkInterpretation[] interprs = aItem.interpretations;
+		final int intCount = interprs.length;
+		// The interpretations are views of one snapshot of the network
+		final NetworkSnapshot snapshot = new NetworkSnapshot(network);
+		final List<String> cachedIDs = new ArrayList<String>(intCount);
+
+		// Run NetworkAnalyzer on all accepted interpretations
+		for (int j = 0; j < intCount && !cancelled; ++j) {
+			// Run the analysis for an interpretation
+			final NetworkInterpretation interpretation = interprs[j];
+			try {
+				final NetworkAnalyzer analyzer;
+				if (interpretation.isDirected()) {
+					analyzer = new DirNetworkAnalyzer(network, null, interpretation);
+				} else {
+					analyzer = new UndirNetworkAnalyzer(network, null, interpretation);
+				}
+				analyzer.setSnapshot(snapshot);
+				aItem.log.append(Messages.DI_ANALYZINGINTERP1 + (j + 1) + Messages.DI_ANALYZINGINTERP2 + intCount
+						+ "\n");
+				synchronized (this) {
+					aItem.analyzer = analyzer;
+					aItem.scale = (double) PROGRESS_PER_NET / intCount / Math.max(1, analyzer.getMaxProgress());
+				}
 				if (cancelled) {
-					writeLine(Messages.SM_ANALYSISC);
-					return null;
+					analyzer.cancel();
 				}
+				analyzer.computeAll();
+				synchronized (this) {
+					aItem.analyzer = null;
+					aItem.progress = PROGRESS_PER_NET * (j + 1) / intCount;
+				}
+				if (cancelled) {
+					break;
+				}
+				final NetworkStats stats = analyzer.getStats();
 
-				// Run the analysis for an interpretation
-				final NetworkInterpretation interpretation = interprs[j];
+				final String networkName = network.getRow(network).get("name",String.class);
+				stats.setTitle(networkName + interpretation.getInterpretSuffix());
+				final String id = createID(interpretation);
+				final String extendedName = networkName + id;
 				try {
-					if (interpretation.isDirected()) {
-						analyzer = new DirNetworkAnalyzer(network, null, interpretation);
-					} else {
-						analyzer = new UndirNetworkAnalyzer(network, null, interpretation);
-					}
-					writeLine(Messages.DI_ANALYZINGINTERP1 + (j + 1) + Messages.DI_ANALYZINGINTERP2 + intCount);
-					final int maxProgress = analyzer.getMaxProgress();
-					scale = (double) advance / (double) maxProgress;
-					analyzing = true;
-					subProgress = 0;
-					analyzer.computeAll();
-					analyzing = false;
-					if (cancelled) {
-						writeLine(Messages.SM_ANALYSISC);
-						return null;
-					}
-					final NetworkStats stats = analyzer.getStats();
-					synchronized (this) {
-						analyzer = null;
-					}
-
-					final String networkName = network.getRow(network).get("name",String.class);
-					stats.setTitle(networkName + interpretation.getInterpretSuffix());
-					final String extendedName = networkName + createID(interpretation);
-					try {
-						if (SettingsSerializer.getPluginSettings().getUseNodeAttributes()) {
-							if (!saveNodeAttributes(network, interpretation.isDirected(), outputDir,
-									extendedName)) {
-								writeLine(Messages.SM_ATTRIBUTESNOTSAVED);
-							}
+					File attributesFile = null;
+					if (SettingsSerializer.getPluginSettings().getUseNodeAttributes()) {
+						if (saveNodeAttributes(network, analyzer, outputDir,
+								extendedName)) {
+							attributesFile = new File(outputDir, extendedName + ".nattributes");
+						} else {
+							aItem.log.append(Messages.SM_ATTRIBUTESNOTSAVED + "\n");
 						}
-						File netstatFile = new File(outputDir, extendedName + ".netstats");
-						StatsSerializer.save(stats, netstatFile);
-						writeLine(Messages.SM_RESULTSSAVED);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation, netstatFile));
-					} catch (SecurityException ex) {
-						writeError(Messages.SM_SAVEERROR);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation,
-								AnalysisError.OUTPUT_NOT_CREATED));
-					} catch (FileNotFoundException ex) {
-						writeError(Messages.SM_SAVEERROR);
-						reports.add(new NetworkAnalysisReport(inputFile, interpretation,
-								AnalysisError.OUTPUT_NOT_CREATED));
-					} catch (IOException e) {
-						writeError(Messages.SM_SAVEERROR);
-						reports
-								.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.OUTPUT_IO_ERROR));
 					}
-
-					if (cancelled) {
-						writeLine(Messages.SM_ANALYSISC);
-						return null;
+					File netstatFile = new File(outputDir, extendedName + ".netstats");
+					StatsSerializer.save(stats, netstatFile);
+					aItem.log.append(Messages.SM_RESULTSSAVED + "\n");
+					aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation, netstatFile));
+					if (aItem.hash != null) {
+						try {
+							cache.store(aItem.hash, inputFile, id, netstatFile, attributesFile);
+							cachedIDs.add(id);
+						} catch (IOException ex) {
+							// Results are saved; they are only missing from the cache
+						}
 					}
-				} catch (Exception e) {
-					reports.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.INTERNAL_ERROR));
+				} catch (SecurityException ex) {
+					aItem.log.append(Messages.SM_SAVEERROR + "\n");
+					aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+							AnalysisError.OUTPUT_NOT_CREATED));
+				} catch (FileNotFoundException ex) {
+					aItem.log.append(Messages.SM_SAVEERROR + "\n");
+					aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+							AnalysisError.OUTPUT_NOT_CREATED));
+				} catch (IOException e) {
+					aItem.log.append(Messages.SM_SAVEERROR + "\n");
+					aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+							AnalysisError.OUTPUT_IO_ERROR));
 				}
+			} catch (Exception e) {
+				aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation, AnalysisError.INTERNAL_ERROR));
+			}
+		}
+
+		// Cache the file once the results of all its interpretations are cached
+		if (aItem.hash != null && !cancelled && cachedIDs.size() == intCount) {
+			try {
+				cache.storeInterpretations(aItem.hash, inputFile, cachedIDs);
+			} catch (IOException ex) {
+				// The file is analyzed again in the next batch analysis
 			}
+		}
+
+		unloadNetwork(aItem, network);
+	}
 
-			unloadNetwork(inputFile, network);
+	/**
+	 * Restores the cached results of all interpretations of an input file to the output directory.
+	 * 
+	 * @param aItem
+	 *            Item of the input file; the hash of its contents must be computed.
+	 * @return <code>true</code> if the results of the file are cached; <code>false</code> if its network
+	 *         must be analyzed.
+	 */
+	private boolean restore(BatchItem aItem) {
+		final File inputFile = aItem.inputFile;
+		final String[] ids = cache.getInterpretations(aItem.hash, inputFile);
+		if (ids == null) {
+			return false;
+		}
+		aItem.log.append(Messages.SM_RESTORING + inputFile.getName() + " ... " + Messages.SM_DONE + "\n");
+		for (final String id : ids) {
+			final NetworkInterpretation interpretation = parseID(id);
+			final String extendedName = inputFile.getName() + id;
+			final File netstatFile = new File(outputDir, extendedName + ".netstats");
+			try {
+				cache.restore(aItem.hash, inputFile, id, netstatFile, new File(outputDir, extendedName
+						+ ".nattributes"));
+				aItem.log.append(Messages.SM_RESULTSRESTORED + "\n");
+				aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation, netstatFile));
+			} catch (IOException ex) {
+				aItem.log.append(Messages.SM_SAVEERROR + "\n");
+				aItem.reports.add(new NetworkAnalysisReport(inputFile, interpretation,
+						AnalysisError.OUTPUT_IO_ERROR));
+			}
+		}
+		aItem.log.append("\n");
+		return true;
+	}
+
+	/**
+	 * Marks an input file as done and publishes the messages and the reports of all files done, up to
+	 * the first file still loading or being analyzed.
+	 * 
+	 * @param aItem
+	 *            Item of the input file that is done.
+	 */
+	private synchronized void complete(BatchItem aItem) {
+		running.remove(aItem);
+		aItem.done = true;
+		aItem.analyzer = null;
+		progress += PROGRESS_PER_NET;
+		while (published < items.length && items[published].done) {
+			final BatchItem item = items[published++];
+			write(item.log.toString());
+			reports.addAll(item.reports);
 		}
-		return null;
 	}
 
 	/**
@@ -274,8 +496,8 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 * 
 	 * @param aNetwork
 	 *            Target network.
-	 * @param aDir
-	 *            Flag indicating if the network interpretation is directed.
+	 * @param aAnalyzer
+	 *            Analyzer of the network interpretation, which has finished its analysis.
 	 * @param aOutputDir
 	 *            Output directory for writing files as chosen by the user.
 	 * @param aExtendedName
@@ -283,15 +505,10 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 * @return <code>true</code> if any node attributes where present and have been saved, and <code>false</code>
 	 *         otherwise.
 	 */
-	private boolean saveNodeAttributes(CyNetwork aNetwork, boolean aDir, File aOutputDir,
+	private boolean saveNodeAttributes(CyNetwork aNetwork, NetworkAnalyzer aAnalyzer, File aOutputDir,
 			String aExtendedName) {
 		// get node attributes computed in the last analysis run
-		Set<String> netAnayzerAttr = new HashSet<String>();
-		if (aDir) {
-			netAnayzerAttr = Messages.getDirNodeAttributes();
-		} else {
-			netAnayzerAttr = Messages.getUndirNodeAttributes();
-		}
+		final Set<String> netAnayzerAttr = aAnalyzer.getComputedNodeAttributes();
 		if (netAnayzerAttr.size() == 0) {
 			return false;
 
@@ -309,9 +526,11 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 				final String id = aNetwork.getRow(n).get("name", String.class);
 				writer.write(id);
 				for (final String attr : netAnayzerAttr) {
+					// Missing values are left empty, so that the values stay under their headers
 					final Object attrValue = aNetwork.getRow(n).getRaw(attr);
+					writer.write("\t");
 					if (attrValue != null) {
-						writer.write("\t" + attrValue.toString());
+						writer.write(attrValue.toString());
 					}
 				}
 				writer.write("\n");
@@ -324,6 +543,54 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		return true;
 	}
 
+	/**
+	 * Gets the memory budget of the networks analyzed at once.
+	 * 
+	 * @param aSettings
+	 *            Settings of the plugin.
+	 * @return Budget in bytes, as given in the settings or, if not given, a quarter of the maximum heap
+	 *         size.
+	 */
+	private static long getMemoryBudget(PluginSettings aSettings) {
+		final int budget = aSettings.getBatchMemoryBudget();
+		if (budget > 0) {
+			return (long) budget << 20;
+		}
+		return Runtime.getRuntime().maxMemory() / 4;
+	}
+
+	/**
+	 * Estimates the memory needed to analyze an interpretation of the given network.
+	 * <p>
+	 * The estimate covers the array representation of the network, the per-node results and the
+	 * traversal storage of the analysis threads. It does not include the network itself, which is
+	 * already loaded.
+	 * </p>
+	 * 
+	 * @param aNetwork
+	 *            Loaded network.
+	 * @return Estimated memory in bytes.
+	 */
+	private static long estimateMemory(CyNetwork aNetwork) {
+		return (long) aNetwork.getNodeCount() * NODE_MEMORY + (long) aNetwork.getEdgeCount() * EDGE_MEMORY;
+	}
+
+	/**
+	 * Waits until all tasks of an executor that is shut down are completed.
+	 * 
+	 * @param aExecutor
+	 *            Executor that is shut down.
+	 */
+	private static void awaitTermination(ExecutorService aExecutor) {
+		try {
+			while (!aExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+				// Wait for the running analyses, which stop soon when cancelled
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -344,12 +611,15 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	 * 
 	 * @return Number of steps completed in the analysis process.
 	 */
-	public int getCurrentProgress() {
-		if (analyzing) {
-			subProgress = +analyzer.getCurrentProgress();
-			return (progress + (int) (subProgress * scale));
+	public synchronized int getCurrentProgress() {
+		double current = progress;
+		for (final BatchItem item : running) {
+			current += item.progress;
+			if (item.analyzer != null) {
+				current += item.analyzer.getCurrentProgress() * item.scale;
+			}
 		}
-		return progress;
+		return (int) current;
 	}
 
 	/**
@@ -415,6 +685,19 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		return newName;
 	}
 
+	/**
+	 * Creates the network interpretation identified by the given ID.
+	 * 
+	 * @param aID
+	 *            Identifier of a network interpretation, as created by
+	 *            {@link #createID(NetworkInterpretation)}.
+	 * @return Network interpretation with the flags encoded in <code>aID</code>.
+	 */
+	private static NetworkInterpretation parseID(String aID) {
+		final boolean directed = aID.startsWith("-d");
+		return new NetworkInterpretation(null, directed, aID.length() > 2);
+	}
+
 	/**
 	 * Gets the network interpretations from the network inspection.
 	 * 
@@ -432,22 +715,24 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	private static final int PROGRESS_PER_NET = 12;
 
 	/**
-	 * Unloads the network from Cytoscape and writes a message in the batch analysis dialog.
+	 * Unloads the network of an input file from Cytoscape and records a message for the batch analysis
+	 * dialog.
 	 * 
-	 * @param inputFile
-	 *            File from which the network was loaded.
-	 * @param network
+	 * @param aItem
+	 *            Item of the input file from which the network was loaded.
+	 * @param aNetwork
 	 *            Network to be unloaded.
 	 */
-	private void unloadNetwork(final File inputFile, CyNetwork network) {
+	private void unloadNetwork(BatchItem aItem, CyNetwork aNetwork) {
 		// Unload the network
-		write(Messages.SM_UNLOADING + inputFile.getName() + " ... ");
+		aItem.log.append(Messages.SM_UNLOADING + aItem.inputFile.getName() + " ... ");
 		try {
-			netMgr.destroyNetwork(network);
+			netMgr.destroyNetwork(aNetwork);
 		} catch (Exception ex) {
 			// Network already removed (by another plugin); ignore
 		}
-		writeLine(Messages.SM_DONE + "\n");
+		aItem.log.append(Messages.SM_DONE + "\n\n");
+		aItem.network = null;
 	}
 
 	/**
@@ -472,28 +757,10 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 		write(aMessage + "\n");
 	}
 
-	/**
-	 * Writes an error message, followed by a new line, to the user in the batch analysis dialog.
-	 * 
-	 * @param aMessage
-	 *            An error message to be written to the user.
-	 */
-	private void writeError(String aMessage) {
-		if (dialog != null) {
-			dialog.write(aMessage + "\n");
-		}
-	}
-
-	/**
-	 * Instance of <code>UndirNetowkrAnalyzer</code> or <code>DirNetowkrAnalyzer</code> responsible for the network
-	 * parameters computation.
-	 */
-	private NetworkAnalyzer analyzer;
-
 	/**
 	 * Flag indicating if the analysis has been canceled.
 	 */
-	private boolean cancelled;
+	private volatile boolean cancelled;
 
 	/**
 	 * Dialog showing the progress of the batch analysis.
@@ -526,18 +793,191 @@ public class BatchNetworkAnalyzer extends SwingWorker {
 	private List<NetworkAnalysisReport> reports;
 
 	/**
-	 * Scaling factor needed for showing the analysis progress.
+	 * Cache of the results of unchanged input files; <code>null</code> if the cache is not used.
+	 */
+	private BatchResultCache cache;
+
+	/**
+	 * Input files of the batch analysis, in the order of {@link #inputFiles}.
+	 */
+	private BatchItem[] items;
+
+	/**
+	 * Input files whose networks are currently analyzed.
+	 */
+	private List<BatchItem> running;
+
+	/**
+	 * Number of input files whose messages and reports are published.
+	 */
+	private int published;
+
+	/**
+	 * Name prefix of the thread loading the input files.
+	 */
+	private static final String LOADER_NAME = "NetworkAnalyzer-BatchLoader-";
+
+	/**
+	 * Name prefix of the threads analyzing the loaded networks.
 	 */
-	private double scale;
+	private static final String ANALYST_NAME = "NetworkAnalyzer-BatchAnalyst-";
 
 	/**
-	 * Flag indicating if parameters are computed by <code>NetworkAnalyzer</code>.
+	 * Estimated memory, in bytes, needed per node to analyze a network.
 	 */
-	private boolean analyzing;
+	private static final long NODE_MEMORY = 1024;
 
 	/**
-	 * Progress of <code>NetworkAnalyzer</code> analysis for a single network interpretation.
+	 * Estimated memory, in bytes, needed per edge to analyze a network.
 	 */
-	private double subProgress;
+	private static final long EDGE_MEMORY = 128;
+
+	/**
+	 * State of a single input file in the batch analysis.
+	 */
+	private static final class BatchItem {
+
+		/**
+		 * Initializes a new instance of <code>BatchItem</code>.
+		 * 
+		 * @param aInputFile
+		 *            Input file of the network.
+		 */
+		public BatchItem(File aInputFile) {
+			inputFile = aInputFile;
+			log = new StringBuilder();
+			reports = new ArrayList<NetworkAnalysisReport>(2);
+		}
 
+		/**
+		 * Input file of the network.
+		 */
+		final File inputFile;
+
+		/**
+		 * Messages to the user, published when all input files before this one are done.
+		 */
+		final StringBuilder log;
+
+		/**
+		 * Reports describing the success or failure of the analysis of the network.
+		 */
+		final List<NetworkAnalysisReport> reports;
+
+		/**
+		 * SHA-256 hash of the contents of the input file; <code>null</code> if the cache is not used or
+		 * the file could not be read.
+		 */
+		String hash;
+
+		/**
+		 * Loaded network; <code>null</code> if it is not loaded yet, could not be loaded or is
+		 * already unloaded.
+		 */
+		CyNetwork network;
+
+		/**
+		 * Interpretations of the network to be analyzed.
+		 */
+		NetworkInterpretation[] interpretations;
+
+		/**
+		 * Estimated memory, in bytes, needed to analyze the network.
+		 */
+		long memory;
+
+		/**
+		 * Analyzer of the current interpretation; <code>null</code> if no interpretation is analyzed.
+		 */
+		NetworkAnalyzer analyzer;
+
+		/**
+		 * Scaling factor converting the progress of {@link #analyzer} to batch progress steps.
+		 */
+		double scale;
+
+		/**
+		 * Batch progress steps of the interpretations analyzed so far.
+		 */
+		int progress;
+
+		/**
+		 * Flag indicating if the network is analyzed or could not be analyzed.
+		 */
+		boolean done;
+	}
+
+	/**
+	 * Memory budget limiting the networks analyzed at once.
+	 * <p>
+	 * A network is admitted when its estimate fits in the remaining budget and fewer networks than
+	 * the number of analyst threads are running. A network exceeding the whole budget is admitted once
+	 * no other network is analyzed, so that the batch always progresses.
+	 * </p>
+	 */
+	private static final class MemoryBudget {
+
+		/**
+		 * Initializes a new instance of <code>MemoryBudget</code>.
+		 * 
+		 * @param aCapacity
+		 *            Memory, in bytes, available for the networks analyzed at once.
+		 * @param aMaxRunning
+		 *            Maximum number of networks analyzed at once.
+		 */
+		public MemoryBudget(long aCapacity, int aMaxRunning) {
+			capacity = aCapacity;
+			maxRunning = Math.max(1, aMaxRunning);
+			used = 0;
+			running = 0;
+		}
+
+		/**
+		 * Waits until a network with the given memory estimate can be analyzed and reserves its memory.
+		 * 
+		 * @param aMemory
+		 *            Estimated memory, in bytes, of the network.
+		 * @throws InterruptedException
+		 *             If the calling thread is interrupted while waiting.
+		 */
+		public synchronized void acquire(long aMemory) throws InterruptedException {
+			while (running >= maxRunning || (running > 0 && used + aMemory > capacity)) {
+				wait();
+			}
+			used += aMemory;
+			running++;
+		}
+
+		/**
+		 * Releases the memory reserved for a network whose analysis is finished.
+		 * 
+		 * @param aMemory
+		 *            Estimated memory, in bytes, of the network, as given to {@link #acquire(long)}.
+		 */
+		public synchronized void release(long aMemory) {
+			used -= aMemory;
+			running--;
+			notifyAll();
+		}
+
+		/**
+		 * Memory, in bytes, available for the networks analyzed at once.
+		 */
+		private final long capacity;
+
+		/**
+		 * Maximum number of networks analyzed at once.
+		 */
+		private final int maxRunning;
+
+		/**
+		 * Memory, in bytes, reserved by the networks currently analyzed.
+		 */
+		private long used;
+
+		/**
+		 * Number of networks currently analyzed.
+		 */
+		private int running;
+	}
 }
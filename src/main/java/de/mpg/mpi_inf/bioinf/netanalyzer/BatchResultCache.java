@@ -0,0 +1,464 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Interpretations;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
+
+/**
+ * Content-addressed cache of the results of the batch analysis.
+ * <p>
+ * The results of an interpretation of a network are stored under a key made of the SHA-256 hash of the
+ * contents of the input file, the name of the file, the interpretation, the selection of metrics with
+ * their parameters and the version of the plugin. For every input file, the cache also stores the
+ * interpretations that were analyzed, so that the batch analysis can restore all results of an unchanged
+ * file without loading it.
+ * </p>
+ * <p>
+ * Every entry is a directory named after the hash of its key. The files of an entry are written to
+ * temporary files first and then renamed, and the network statistics file, which marks a result entry as
+ * complete, is written last. Hence an interrupted analysis never leaves an entry that appears complete.
+ * In addition, every result entry stores the SHA-256 hashes of its files, and the list of interpretations
+ * of an input file ends with the hash of the list. Entries whose contents do not match their hashes, for
+ * example files truncated or modified outside the plugin, are treated as missing, and the input file is
+ * analyzed again. Entries are never removed by the plugin; the cache directory can be deleted at any time.
+ * </p>
+ */
+public final class BatchResultCache {
+
+	/**
+	 * Gets the default directory of the cache.
+	 * 
+	 * @return Directory <code>NetworkAnalyzer-cache</code> in the configuration directory of Cytoscape.
+	 */
+	public static File getDefaultDirectory() {
+		return new File(Plugin.cytoscapeDir, DIRECTORY_NAME);
+	}
+
+	/**
+	 * Computes the hash of the contents of the given file.
+	 * 
+	 * @param aFile File to be hashed.
+	 * @return SHA-256 hash of the contents of <code>aFile</code> as a hexadecimal string.
+	 * @throws IOException If an I/O error occurs while reading the file.
+	 */
+	public static String hashFile(File aFile) throws IOException {
+		final MessageDigest digest = createDigest();
+		final InputStream in = new FileInputStream(aFile);
+		try {
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Initializes a new instance of <code>BatchResultCache</code>.
+	 * 
+	 * @param aDirectory Directory of the cache; created when the first result is stored.
+	 * @param aSettings Plugin settings that determine the computed results.
+	 * @param aInterpretations Interpretations the batch analysis applies to every network.
+	 */
+	public BatchResultCache(File aDirectory, PluginSettings aSettings, Interpretations aInterpretations) {
+		directory = aDirectory;
+		version = getPluginVersion();
+		interpretations = aInterpretations.name();
+		settings = AnalysisPlan.fromSettings(aSettings) + ";" + aSettings.getPageRankDamping() + ";"
+				+ aSettings.getKatzAttenuation() + ";" + aSettings.getSpectralSolver() + ";"
+				+ aSettings.getUseNodeAttributes();
+	}
+
+	/**
+	 * Gets the interpretations analyzed for the given input file.
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @return IDs of the analyzed interpretations, as created by the batch analysis; <code>null</code>
+	 *         if the file is not in the cache, or the list of its interpretations or the result of one
+	 *         of them is missing, incomplete or corrupt.
+	 */
+	public String[] getInterpretations(String aHash, File aInputFile) {
+		final File file = new File(getFileEntry(aHash, aInputFile), INTERPRETATIONS_FILE);
+		if (!file.isFile()) {
+			return null;
+		}
+		final List<String> ids = new ArrayList<String>();
+		try {
+			final BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF8);
+			try {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					if (line.length() != 0) {
+						ids.add(line);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+			// The last line is the hash of the interpretations
+			final String hash = ids.isEmpty() ? null : ids.remove(ids.size() - 1);
+			if (ids.isEmpty() || !hash.equals(hashLines(ids))) {
+				return null;
+			}
+			for (final String id : ids) {
+				if (!isComplete(getResultEntry(aHash, aInputFile, id))) {
+					return null;
+				}
+			}
+		} catch (IOException ex) {
+			return null;
+		}
+		return ids.toArray(new String[ids.size()]);
+	}
+
+	/**
+	 * Copies the cached results of an interpretation to the given output files.
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @param aInterprID ID of the interpretation.
+	 * @param aNetstats Network statistics file to be written.
+	 * @param aAttributes Node attributes file to be written, if such a file is cached.
+	 * @throws IOException If the results are not in the cache or an I/O error occurs while copying.
+	 */
+	public void restore(String aHash, File aInputFile, String aInterprID, File aNetstats, File aAttributes)
+			throws IOException {
+		final File entry = getResultEntry(aHash, aInputFile, aInterprID);
+		final File attributes = new File(entry, NATTRIBUTES_FILE);
+		if (attributes.isFile()) {
+			Files.copy(attributes.toPath(), aAttributes.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		Files.copy(new File(entry, NETSTATS_FILE).toPath(), aNetstats.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Stores the results of an interpretation in the cache.
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @param aInterprID ID of the interpretation.
+	 * @param aNetstats Network statistics file of the interpretation.
+	 * @param aAttributes Node attributes file of the interpretation; <code>null</code> if none was saved.
+	 * @throws IOException If an I/O error occurs while writing to the cache.
+	 */
+	public void store(String aHash, File aInputFile, String aInterprID, File aNetstats, File aAttributes)
+			throws IOException {
+		final File entry = getResultEntry(aHash, aInputFile, aInterprID);
+		createDirectory(entry);
+		final File attributes = new File(entry, NATTRIBUTES_FILE);
+		final List<String> hashes = new ArrayList<String>(2);
+		hashes.add(hashFile(aNetstats));
+		if (aAttributes != null) {
+			hashes.add(hashFile(aAttributes));
+			copyAtomically(aAttributes, attributes);
+		} else {
+			Files.deleteIfExists(attributes.toPath());
+		}
+		writeAtomically(hashes, new File(entry, HASHES_FILE));
+		copyAtomically(aNetstats, new File(entry, NETSTATS_FILE));
+	}
+
+	/**
+	 * Stores the interpretations analyzed for the given input file.
+	 * <p>
+	 * This method must be called after the results of all interpretations are stored.
+	 * </p>
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @param aInterprIDs IDs of the analyzed interpretations.
+	 * @throws IOException If an I/O error occurs while writing to the cache.
+	 */
+	public void storeInterpretations(String aHash, File aInputFile, List<String> aInterprIDs) throws IOException {
+		final File entry = getFileEntry(aHash, aInputFile);
+		createDirectory(entry);
+		final List<String> lines = new ArrayList<String>(aInterprIDs);
+		lines.add(hashLines(aInterprIDs));
+		writeAtomically(lines, new File(entry, INTERPRETATIONS_FILE));
+	}
+
+	/**
+	 * Checks if the given result entry is complete and its files match their hashes.
+	 * 
+	 * @param aEntry Directory of the result entry.
+	 * @return <code>true</code> if the entry can be restored; <code>false</code> otherwise.
+	 * @throws IOException If an I/O error occurs while reading the entry.
+	 */
+	private static boolean isComplete(File aEntry) throws IOException {
+		final File netstats = new File(aEntry, NETSTATS_FILE);
+		final File hashes = new File(aEntry, HASHES_FILE);
+		if (!netstats.isFile() || !hashes.isFile()) {
+			return false;
+		}
+		final List<String> lines = Files.readAllLines(hashes.toPath(), UTF8);
+		if (lines.isEmpty() || !lines.get(0).equals(hashFile(netstats))) {
+			return false;
+		}
+		final File attributes = new File(aEntry, NATTRIBUTES_FILE);
+		if (lines.size() == 1) {
+			return !attributes.exists();
+		}
+		return attributes.isFile() && lines.get(1).equals(hashFile(attributes));
+	}
+
+	/**
+	 * Gets the entry storing the interpretations analyzed for an input file.
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @return Directory of the entry.
+	 */
+	private File getFileEntry(String aHash, File aInputFile) {
+		return getEntry("file;" + aHash + ";" + aInputFile.getName() + ";" + interpretations + ";" + version);
+	}
+
+	/**
+	 * Gets the entry storing the results of an interpretation of a network.
+	 * 
+	 * @param aHash Hash of the contents of the input file.
+	 * @param aInputFile Input file of the network.
+	 * @param aInterprID ID of the interpretation.
+	 * @return Directory of the entry.
+	 */
+	private File getResultEntry(String aHash, File aInputFile, String aInterprID) {
+		return getEntry("result;" + aHash + ";" + aInputFile.getName() + ";" + aInterprID + ";" + settings
+				+ ";" + version);
+	}
+
+	/**
+	 * Gets the entry of the given key.
+	 * 
+	 * @param aKey Key of the entry.
+	 * @return Directory of the entry, named after the SHA-256 hash of <code>aKey</code>.
+	 */
+	private File getEntry(String aKey) {
+		return new File(directory, toHex(createDigest().digest(aKey.getBytes(UTF8))));
+	}
+
+	/**
+	 * Creates the given directory, if it does not exist.
+	 * 
+	 * @param aDirectory Directory to be created, together with its parent directories.
+	 * @throws IOException If the directory could not be created.
+	 */
+	private static void createDirectory(File aDirectory) throws IOException {
+		Files.createDirectories(aDirectory.toPath());
+	}
+
+	/**
+	 * Copies a file, such that the target appears only when it is complete.
+	 * 
+	 * @param aSource File to be copied.
+	 * @param aTarget Target file; replaced if it exists.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void copyAtomically(File aSource, File aTarget) throws IOException {
+		final File temp = File.createTempFile(TEMP_PREFIX, null, aTarget.getParentFile());
+		try {
+			Files.copy(aSource.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			moveAtomically(temp, aTarget);
+		} finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	/**
+	 * Writes lines of text to a file, such that the file appears only when it is complete.
+	 * 
+	 * @param aLines Lines to be written.
+	 * @param aTarget Target file; replaced if it exists.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void writeAtomically(List<String> aLines, File aTarget) throws IOException {
+		final File temp = File.createTempFile(TEMP_PREFIX, null, aTarget.getParentFile());
+		try {
+			Files.write(temp.toPath(), aLines, UTF8);
+			moveAtomically(temp, aTarget);
+		} finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	/**
+	 * Renames a file, atomically if the file system supports it.
+	 * 
+	 * @param aSource File to be renamed.
+	 * @param aTarget New name of the file; replaced if it exists.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private static void moveAtomically(File aSource, File aTarget) throws IOException {
+		try {
+			Files.move(aSource.toPath(), aTarget.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			Files.move(aSource.toPath(), aTarget.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Gets the version of the plugin.
+	 * 
+	 * @return Version of the bundle of the plugin; the implementation version of its package if it does
+	 *         not run as a bundle.
+	 */
+	private static String getPluginVersion() {
+		final Bundle bundle = FrameworkUtil.getBundle(BatchResultCache.class);
+		if (bundle != null) {
+			return bundle.getVersion().toString();
+		}
+		final String version = BatchResultCache.class.getPackage().getImplementationVersion();
+		return version != null ? version : "unknown";
+	}
+
+	/**
+	 * Creates a new SHA-256 message digest.
+	 * 
+	 * @return Newly created message digest.
+	 */
+	private static MessageDigest createDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			// Every Java platform supports SHA-256
+			throw new InnerException(ex);
+		}
+	}
+
+	/**
+	 * Computes the hash of the given lines of text.
+	 * 
+	 * @param aLines Lines to be hashed.
+	 * @return SHA-256 hash of the lines, each followed by a line feed, as a hexadecimal string.
+	 */
+	private static String hashLines(List<String> aLines) {
+		final MessageDigest digest = createDigest();
+		for (final String line : aLines) {
+			digest.update((line + "\n").getBytes(UTF8));
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Converts the given bytes to a hexadecimal string.
+	 * 
+	 * @param aBytes Bytes to be converted.
+	 * @return String of two lowercase hexadecimal digits per byte.
+	 */
+	private static String toHex(byte[] aBytes) {
+		final char[] text = new char[aBytes.length * 2];
+		for (int i = 0; i < aBytes.length; i++) {
+			text[2 * i] = HEX_DIGITS[(aBytes[i] >> 4) & 0xF];
+			text[2 * i + 1] = HEX_DIGITS[aBytes[i] & 0xF];
+		}
+		return new String(text);
+	}
+
+	/**
+	 * Directory of the cache.
+	 */
+	private final File directory;
+
+	/**
+	 * Version of the plugin.
+	 */
+	private final String version;
+
+	/**
+	 * Interpretations the batch analysis applies to every network.
+	 */
+	private final String interpretations;
+
+	/**
+	 * Selection of metrics and their parameters, as part of the keys of the results.
+	 */
+	private final String settings;
+
+	/**
+	 * Name of the cache directory in the configuration directory of Cytoscape.
+	 */
+	private static final String DIRECTORY_NAME = "NetworkAnalyzer-cache";
+
+	/**
+	 * Name of the file storing the analyzed interpretations of an input file.
+	 */
+	private static final String INTERPRETATIONS_FILE = "interpretations";
+
+	/**
+	 * Name of the cached network statistics file.
+	 */
+	private static final String NETSTATS_FILE = "result.netstats";
+
+	/**
+	 * Name of the cached node attributes file.
+	 */
+	private static final String NATTRIBUTES_FILE = "result.nattributes";
+
+	/**
+	 * Name of the file storing the hashes of the cached network statistics and node attributes files.
+	 */
+	private static final String HASHES_FILE = "result.sha256";
+
+	/**
+	 * Prefix of the temporary files written to the cache.
+	 */
+	private static final String TEMP_PREFIX = "tmp";
+
+	/**
+	 * Size, in bytes, of the buffer for reading input files.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Character set of the keys and of the files of interpretations.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Hexadecimal digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+}
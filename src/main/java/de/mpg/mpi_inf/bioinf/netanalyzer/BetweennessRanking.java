@@ -0,0 +1,693 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+
+/**
+ * Computation of the nodes with the highest betweenness centrality in an undirected network.
+ * <p>
+ * The betweenness of a node is normalized by the number of pairs of other nodes in its connected
+ * component, as in {@link UndirNetworkAnalyzer}. Components of up to {@link #EXACT_COMPONENT_SIZE}
+ * nodes are cheaper to compute exactly than to sample, and their betweenness is accumulated from
+ * every node. In the larger components, the betweenness is estimated by adaptive sampling (Borassi
+ * and Natale, <i>KADABRA is an adaptive algorithm for betweenness via random approximation</i>,
+ * 2016): every sample is a pair of distinct nodes <code>(s, t)</code> of a component, drawn with
+ * probability proportional to <code>n / (n - 2)</code> for a component of <code>n</code> nodes, and
+ * a uniformly random shortest path between them, found by a balanced bidirectional traversal. The
+ * fraction of samples whose path passes through a node, multiplied by the sum <code>W</code> of the
+ * component weights, is an unbiased estimate of its normalized betweenness.
+ * </p>
+ * <p>
+ * Samples are drawn in rounds of doubling size. After every round, the nodes are ranked by their
+ * estimates and every estimate is given a confidence interval by the empirical Bernstein bound, with
+ * the failure probability divided among all nodes and rounds. Sampling stops once the intervals of
+ * the top-ranked nodes are separated from the intervals of all other nodes, i.e. the top-ranked set
+ * is stable with probability at least <code>1 - &delta;</code>, or once all intervals are narrower
+ * than <code>&epsilon;</code> by Hoeffding's inequality.
+ * </p>
+ */
+final class BetweennessRanking {
+
+	/**
+	 * Initializes a new instance of <code>BetweennessRanking</code>.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer computing the ranking; no work is started once it is cancelled.
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aComponents
+	 *            Labeling of the nodes of <code>aGraph</code> by connected component.
+	 * @param aPlan
+	 *            Plan of the analysis; it specifies the number of top-ranked nodes and, if betweenness
+	 *            is approximated, the error bound and its probability.
+	 */
+	public BetweennessRanking(NetworkAnalyzer aAnalyzer, GraphSnapshot aGraph, ComponentLabeling aComponents,
+			AnalysisPlan aPlan) {
+		analyzer = aAnalyzer;
+		graph = aGraph;
+		components = aComponents;
+		componentNodes = aComponents.getComponentNodes();
+		componentOffsets = aComponents.getComponentOffsets();
+		offsets = aGraph.getNeighborOffsets();
+		neighbors = aGraph.getNeighbors();
+		nodeCount = aGraph.getNodeCount();
+		k = Math.min(aPlan.getTopK(), nodeCount);
+		top = new TopNodes(k);
+		nextBatch = new AtomicInteger();
+		epsilon = aPlan.isApproximate() ? aPlan.getBetweennessEpsilon() : DEFAULT_EPSILON;
+		delta = aPlan.isApproximate() ? aPlan.getBetweennessDelta() : DEFAULT_DELTA;
+		values = new double[nodeCount];
+		bounds = new double[nodeCount];
+
+		final List<Integer> exact = new ArrayList<Integer>();
+		final List<Integer> sampled = new ArrayList<Integer>();
+		for (int c = 0; c < aComponents.getComponentCount(); c++) {
+			final int size = aComponents.getSize(c);
+			if (size > EXACT_COMPONENT_SIZE) {
+				sampled.add(c);
+			} else if (size > 2) {
+				exact.add(c);
+			}
+		}
+		exactComponents = toArray(exact);
+		sampledComponents = toArray(sampled);
+		cumulativeWeights = new double[sampledComponents.length];
+		double weight = 0;
+		for (int i = 0; i < sampledComponents.length; i++) {
+			final double size = aComponents.getSize(sampledComponents[i]);
+			weight += size / (size - 2);
+			cumulativeWeights[i] = weight;
+		}
+		totalWeight = weight;
+	}
+
+	/**
+	 * Computes the top-ranked nodes.
+	 * 
+	 * @return <code>true</code> if the ranking was computed; <code>false</code> if the analysis was
+	 *         cancelled.
+	 */
+	public boolean rank() {
+		final ComponentScheduler scheduler = new ComponentScheduler(analyzer);
+		final int parallelism = AnalysisThreadPool.getParallelism();
+		if (exactComponents.length != 0) {
+			final List<Runnable> workers = new ArrayList<Runnable>();
+			final AtomicInteger next = new AtomicInteger();
+			final long[] stress = new long[nodeCount];
+			final double[] edgeBetweenness = new double[graph.getPairCount()];
+			for (int i = 0; i < Math.min(parallelism, exactComponents.length); i++) {
+				workers.add(new ExactWorker(next, stress, edgeBetweenness));
+			}
+			if (!scheduler.runAll(workers)) {
+				return false;
+			}
+		}
+
+		long sampleCount = 0;
+		if (sampledComponents.length != 0) {
+			int sampledNodes = 0;
+			for (final int c : sampledComponents) {
+				sampledNodes += components.getSize(c);
+			}
+			final double logTerm = Math.log(4.0 * sampledNodes * MAX_ROUNDS / delta);
+			final double range = totalWeight / epsilon;
+			final long maxSamples = (long) Math.ceil(range * range * logTerm / 2);
+			final List<PathSampler> samplers = new ArrayList<PathSampler>(parallelism);
+			for (int i = 0; i < parallelism; i++) {
+				samplers.add(new PathSampler());
+			}
+			final long[] hits = new long[nodeCount];
+			for (int round = 0; round < MAX_ROUNDS; round++) {
+				nextBatch.set((int) (sampleCount / BATCH_SIZE));
+				batchEnd = (int) Math.min((long) FIRST_ROUND_BATCHES << round,
+						(maxSamples + BATCH_SIZE - 1) / BATCH_SIZE);
+				if (!scheduler.runAll(samplers)) {
+					return false;
+				}
+				sampleCount = (long) batchEnd * BATCH_SIZE;
+				Arrays.fill(hits, 0);
+				for (final PathSampler sampler : samplers) {
+					for (int i = 0; i < nodeCount; i++) {
+						hits[i] += sampler.hits[i];
+					}
+				}
+				estimate(hits, sampleCount, logTerm);
+				if (isSeparated() || sampleCount >= maxSamples) {
+					break;
+				}
+			}
+		}
+
+		for (int i = 0; i < nodeCount; i++) {
+			top.offer(i, values[i]);
+		}
+		errorBound = 0;
+		for (final int node : top.getNodes()) {
+			errorBound = Math.max(errorBound, bounds[node]);
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the top-ranked nodes.
+	 * 
+	 * @return Indices of the nodes with the highest betweenness, in order of decreasing betweenness.
+	 */
+	public int[] getNodes() {
+		return top.getNodes();
+	}
+
+	/**
+	 * Gets the betweenness of the top-ranked nodes.
+	 * 
+	 * @return Normalized betweenness centrality of the nodes, parallel to {@link #getNodes()}; the
+	 *         values of nodes in large components are estimates.
+	 */
+	public double[] getValues() {
+		return top.getValues();
+	}
+
+	/**
+	 * Gets the largest error of the betweenness of a top-ranked node.
+	 * 
+	 * @return Half-width of the widest confidence interval of a top-ranked node; <code>0</code> if
+	 *         the betweenness of all top-ranked nodes is exact.
+	 */
+	public double getErrorBound() {
+		return errorBound;
+	}
+
+	/**
+	 * Computes the estimates of the nodes in the sampled components and their confidence intervals.
+	 * 
+	 * @param aHits
+	 *            Number of sampled paths through every node.
+	 * @param aSampleCount
+	 *            Number of sampled paths.
+	 * @param aLogTerm
+	 *            Logarithmic term of the confidence intervals.
+	 */
+	private void estimate(long[] aHits, long aSampleCount, double aLogTerm) {
+		final double n = aSampleCount;
+		for (final int c : sampledComponents) {
+			for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+				final int node = componentNodes[i];
+				final double p = aHits[node] / n;
+				final double variance = p * (1 - p) * n / (n - 1);
+				values[node] = totalWeight * p;
+				bounds[node] = totalWeight
+						* (Math.sqrt(2 * variance * aLogTerm / n) + 7 * aLogTerm / (3 * (n - 1)));
+			}
+		}
+	}
+
+	/**
+	 * Checks if the confidence intervals of the top-ranked nodes are separated from the intervals of
+	 * the other nodes.
+	 * 
+	 * @return <code>true</code> if the smallest lower bound of a top-ranked node is not less than the
+	 *         largest upper bound of any other node; <code>false</code> otherwise.
+	 */
+	private boolean isSeparated() {
+		final TopNodes current = new TopNodes(k);
+		for (int i = 0; i < nodeCount; i++) {
+			current.offer(i, values[i]);
+		}
+		final boolean[] ranked = new boolean[nodeCount];
+		double lower = Double.POSITIVE_INFINITY;
+		for (final int node : current.getNodes()) {
+			ranked[node] = true;
+			lower = Math.min(lower, values[node] - bounds[node]);
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			if (!ranked[i] && values[i] + bounds[i] > lower) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Converts a list of integers to an array.
+	 * 
+	 * @param aList
+	 *            List to be converted.
+	 * @return Array of the elements of <code>aList</code>.
+	 */
+	private static int[] toArray(List<Integer> aList) {
+		final int[] result = new int[aList.size()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = aList.get(i).intValue();
+		}
+		return result;
+	}
+
+	/**
+	 * Worker computing the exact betweenness of the small components it claims.
+	 * <p>
+	 * The traversals from the nodes of a component only update the values of the nodes and edges of
+	 * this component, hence the workers share the output arrays.
+	 * </p>
+	 */
+	private final class ExactWorker implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>ExactWorker</code>.
+		 * 
+		 * @param aNext
+		 *            Position in {@link BetweennessRanking#exactComponents} of the next component to be
+		 *            claimed.
+		 * @param aStress
+		 *            Stress of the nodes, required by the traversal kernel.
+		 * @param aEdgeBetweenness
+		 *            Edge betweenness, required by the traversal kernel.
+		 */
+		public ExactWorker(AtomicInteger aNext, long[] aStress, double[] aEdgeBetweenness) {
+			next = aNext;
+			stress = aStress;
+			edgeBetweenness = aEdgeBetweenness;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			final TraversalWorkspace workspace = new TraversalWorkspace();
+			final int[] pairIDs = graph.getPairIDs();
+			for (int i = next.getAndIncrement(); i < exactComponents.length; i = next.getAndIncrement()) {
+				if (analyzer.cancelled) {
+					return;
+				}
+				final int c = exactComponents[i];
+				for (int j = componentOffsets[c]; j < componentOffsets[c + 1]; j++) {
+					UndirNetworkAnalyzer.computeSPandNB(componentNodes[j], nodeCount, neighbors, offsets, pairIDs, null,
+							null, values, stress, edgeBetweenness, workspace);
+				}
+				final double normFactor = UndirNetworkAnalyzer.computeNormFactor(components.getSize(c));
+				for (int j = componentOffsets[c]; j < componentOffsets[c + 1]; j++) {
+					values[componentNodes[j]] *= normFactor;
+				}
+			}
+		}
+
+		/**
+		 * Position of the next component to be claimed.
+		 */
+		private final AtomicInteger next;
+
+		/**
+		 * Stress of the nodes; computed by the kernel, but not ranked.
+		 */
+		private final long[] stress;
+
+		/**
+		 * Edge betweenness; computed by the kernel, but not ranked.
+		 */
+		private final double[] edgeBetweenness;
+	}
+
+	/**
+	 * Worker sampling shortest paths between random pairs of nodes.
+	 * <p>
+	 * The samples are drawn in batches of {@link #BATCH_SIZE}, and every batch has a random generator
+	 * of its own, seeded by the index of the batch. Hence the numbers of hits, summed over all
+	 * samplers, do not depend on the number of threads.
+	 * </p>
+	 */
+	private final class PathSampler implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>PathSampler</code>.
+		 */
+		public PathSampler() {
+			hits = new long[nodeCount];
+			queues = new int[][] { new int[nodeCount], new int[nodeCount] };
+			stamps = new int[][] { new int[nodeCount], new int[nodeCount] };
+			distances = new int[][] { new int[nodeCount], new int[nodeCount] };
+			sigmas = new double[][] { new double[nodeCount], new double[nodeCount] };
+			epoch = 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			for (int b = nextBatch.getAndIncrement(); b < batchEnd; b = nextBatch.getAndIncrement()) {
+				if (analyzer.cancelled) {
+					return;
+				}
+				final SplittableRandom random = new SplittableRandom(SEED + b);
+				for (int i = 0; i < BATCH_SIZE; i++) {
+					sample(random);
+				}
+			}
+		}
+
+		/**
+		 * Samples a pair of nodes and a shortest path between them, and counts the hits of the inner
+		 * nodes of the path.
+		 * 
+		 * @param aRandom
+		 *            Random generator of the current batch.
+		 */
+		private void sample(SplittableRandom aRandom) {
+			int ci = Arrays.binarySearch(cumulativeWeights, aRandom.nextDouble() * totalWeight);
+			ci = Math.min(ci < 0 ? -ci - 1 : ci, cumulativeWeights.length - 1);
+			final int c = sampledComponents[ci];
+			final int first = componentOffsets[c];
+			final int size = components.getSize(c);
+			final int s = aRandom.nextInt(size);
+			int t = aRandom.nextInt(size - 1);
+			if (t >= s) {
+				t++;
+			}
+
+			if (epoch == Integer.MAX_VALUE) {
+				Arrays.fill(stamps[0], 0);
+				Arrays.fill(stamps[1], 0);
+				epoch = 0;
+			}
+			epoch++;
+			final int[] tails = new int[2];
+			final int[] levelStarts = new int[2];
+			final long[] frontierDegrees = new long[2];
+			for (int side = 0; side < 2; side++) {
+				final int source = componentNodes[first + (side == 0 ? s : t)];
+				queues[side][0] = source;
+				stamps[side][source] = epoch;
+				distances[side][source] = 0;
+				sigmas[side][source] = 1;
+				tails[side] = 1;
+				frontierDegrees[side] = offsets[source + 1] - offsets[source];
+			}
+
+			// Expand the side with the smaller frontier until the two sides meet
+			int side;
+			for (;;) {
+				side = frontierDegrees[0] <= frontierDegrees[1] ? 0 : 1;
+				final int[] queue = queues[side];
+				final int[] stamp = stamps[side];
+				final int[] distance = distances[side];
+				final double[] sigma = sigmas[side];
+				final int[] otherStamp = stamps[1 - side];
+				final int levelEnd = tails[side];
+				boolean met = false;
+				long degrees = 0;
+				for (int i = levelStarts[side]; i < levelEnd; i++) {
+					final int node = queue[i];
+					final int level = distance[node] + 1;
+					for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+						final int neighbor = neighbors[j];
+						if (otherStamp[neighbor] == epoch) {
+							met = true;
+						}
+						if (stamp[neighbor] != epoch) {
+							stamp[neighbor] = epoch;
+							distance[neighbor] = level;
+							sigma[neighbor] = sigma[node];
+							queue[tails[side]++] = neighbor;
+							degrees += offsets[neighbor + 1] - offsets[neighbor];
+						} else if (distance[neighbor] == level) {
+							sigma[neighbor] += sigma[node];
+						}
+					}
+				}
+				levelStarts[side] = levelEnd;
+				frontierDegrees[side] = degrees;
+				if (met) {
+					break;
+				}
+			}
+
+			// Choose the node where the path crosses between the sides, and follow it to both ends
+			final int[] queue = queues[side];
+			final int other = 1 - side;
+			double paths = 0;
+			for (int i = levelStarts[side]; i < tails[side]; i++) {
+				final int node = queue[i];
+				if (stamps[other][node] == epoch) {
+					paths += sigmas[side][node] * sigmas[other][node];
+				}
+			}
+			double r = aRandom.nextDouble() * paths;
+			int middle = -1;
+			for (int i = levelStarts[side]; i < tails[side]; i++) {
+				final int node = queue[i];
+				if (stamps[other][node] == epoch) {
+					middle = node;
+					r -= sigmas[side][node] * sigmas[other][node];
+					if (r < 0) {
+						break;
+					}
+				}
+			}
+			if (distances[other][middle] > 0) {
+				hits[middle]++;
+			}
+			walk(side, middle, aRandom);
+			walk(other, middle, aRandom);
+		}
+
+		/**
+		 * Follows a random shortest path from the given node to the source of a side, and counts the
+		 * hits of the nodes on it, except the source.
+		 * 
+		 * @param aSide
+		 *            Side of the traversal: <code>0</code> for the traversal from <code>s</code>,
+		 *            <code>1</code> for the traversal from <code>t</code>.
+		 * @param aNode
+		 *            Node visited by the traversal of <code>aSide</code>.
+		 * @param aRandom
+		 *            Random generator of the current batch.
+		 */
+		private void walk(int aSide, int aNode, SplittableRandom aRandom) {
+			final int[] stamp = stamps[aSide];
+			final int[] distance = distances[aSide];
+			final double[] sigma = sigmas[aSide];
+			int node = aNode;
+			while (distance[node] > 1) {
+				double r = aRandom.nextDouble() * sigma[node];
+				int pred = -1;
+				for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+					final int neighbor = neighbors[j];
+					if (stamp[neighbor] == epoch && distance[neighbor] == distance[node] - 1) {
+						pred = neighbor;
+						r -= sigma[neighbor];
+						if (r < 0) {
+							break;
+						}
+					}
+				}
+				node = pred;
+				hits[node]++;
+			}
+		}
+
+		/**
+		 * Number of sampled paths through every node.
+		 */
+		final long[] hits;
+
+		/**
+		 * Traversal queues of the two sides.
+		 */
+		private final int[][] queues;
+
+		/**
+		 * Epoch of the last sample in which each side visited each node.
+		 */
+		private final int[][] stamps;
+
+		/**
+		 * Distance of every visited node from the source of each side.
+		 */
+		private final int[][] distances;
+
+		/**
+		 * Number of shortest paths from the source of each side to every visited node.
+		 */
+		private final double[][] sigmas;
+
+		/**
+		 * Epoch of the current sample.
+		 */
+		private int epoch;
+	}
+
+	/**
+	 * Number of nodes in a connected component, up to which its betweenness is computed exactly.
+	 */
+	static final int EXACT_COMPONENT_SIZE = 256;
+
+	/**
+	 * Number of samples in a batch.
+	 */
+	private static final int BATCH_SIZE = 256;
+
+	/**
+	 * Number of batches in the first round of sampling.
+	 */
+	private static final int FIRST_ROUND_BATCHES = 4;
+
+	/**
+	 * Upper bound of the number of rounds, used to divide the failure probability among the rounds.
+	 */
+	private static final int MAX_ROUNDS = 24;
+
+	/**
+	 * Error bound used unless the plan approximates betweenness.
+	 */
+	private static final double DEFAULT_EPSILON = 0.01;
+
+	/**
+	 * Failure probability used unless the plan approximates betweenness.
+	 */
+	private static final double DEFAULT_DELTA = 0.1;
+
+	/**
+	 * Seed of the random generators.
+	 */
+	private static final long SEED = 0x546F704BL;
+
+	/**
+	 * Analyzer computing the ranking.
+	 */
+	private final NetworkAnalyzer analyzer;
+
+	/**
+	 * Snapshot of the analyzed network.
+	 */
+	private final GraphSnapshot graph;
+
+	/**
+	 * Labeling of the nodes by connected component.
+	 */
+	private final ComponentLabeling components;
+
+	/**
+	 * Nodes of all connected components, listed component by component.
+	 */
+	private final int[] componentNodes;
+
+	/**
+	 * Offsets of the components in {@link #componentNodes}.
+	 */
+	private final int[] componentOffsets;
+
+	/**
+	 * Offsets of the neighbor lists in {@link #neighbors}.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Neighbor lists of all nodes.
+	 */
+	private final int[] neighbors;
+
+	/**
+	 * Number of nodes in the network.
+	 */
+	private final int nodeCount;
+
+	/**
+	 * Number of top-ranked nodes to compute.
+	 */
+	private final int k;
+
+	/**
+	 * Maximum width of the confidence intervals at which sampling stops.
+	 */
+	private final double epsilon;
+
+	/**
+	 * Probability that a confidence interval does not contain the betweenness of its node.
+	 */
+	private final double delta;
+
+	/**
+	 * Components whose betweenness is computed exactly.
+	 */
+	private final int[] exactComponents;
+
+	/**
+	 * Components whose betweenness is estimated by sampling.
+	 */
+	private final int[] sampledComponents;
+
+	/**
+	 * Cumulative weights of the sampled components, in the order of {@link #sampledComponents}.
+	 */
+	private final double[] cumulativeWeights;
+
+	/**
+	 * Sum of the weights of the sampled components.
+	 */
+	private final double totalWeight;
+
+	/**
+	 * Normalized betweenness of every node; estimates in the sampled components.
+	 */
+	private final double[] values;
+
+	/**
+	 * Half-width of the confidence interval of every node; <code>0</code> for exact values.
+	 */
+	private final double[] bounds;
+
+	/**
+	 * Index of the next batch of samples to be claimed by a sampler.
+	 */
+	private final AtomicInteger nextBatch;
+
+	/**
+	 * Index following the last batch of the current round.
+	 */
+	private int batchEnd;
+
+	/**
+	 * Top-ranked nodes.
+	 */
+	private final TopNodes top;
+
+	/**
+	 * Largest error of the betweenness of a top-ranked node.
+	 */
+	private double errorBound;
+}
@@ -0,0 +1,228 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Random;
+
+/**
+ * Selection of the source nodes from which betweenness and stress are approximated.
+ * <p>
+ * Instead of accumulating the dependencies of every node in a connected component, only a uniform
+ * sample of <code>k</code> source nodes is traversed, and the accumulated values are multiplied by
+ * <code>n / k</code>, where <code>n</code> is the number of nodes in the component. For every
+ * source, the contribution to the normalized betweenness of a node lies in the range
+ * <code>[0, n / (n - 1)]</code>, hence by Hoeffding's inequality and the union bound over all the
+ * nodes of the network, the normalized betweenness of every node deviates from the estimate by at
+ * most <code>&epsilon;</code> with probability at least <code>1 - &delta;</code>, provided that
+ * <code>k &ge; (n / (n - 1))<sup>2</sup> ln(2N / &delta;) / (2&epsilon;<sup>2</sup>)</code>, where
+ * <code>N</code> is the number of nodes in the network.
+ * </p>
+ */
+public final class BetweennessSampler {
+
+	/**
+	 * Initializes a new instance of <code>BetweennessSampler</code>.
+	 * 
+	 * @param aPlan
+	 *            Plan of the analysis; it specifies the required error bound and probability.
+	 * @param aNetworkNodeCount
+	 *            Number of nodes in the analyzed network.
+	 */
+	public BetweennessSampler(AnalysisPlan aPlan, int aNetworkNodeCount) {
+		epsilon = aPlan.getBetweennessEpsilon();
+		delta = aPlan.getBetweennessDelta();
+		logTerm = Math.log(2.0 * Math.max(aNetworkNodeCount, 1) / aPlan.getBetweennessDelta());
+		random = new Random(SEED);
+	}
+
+	/**
+	 * Chooses the source nodes in a connected component.
+	 * <p>
+	 * The error bound achieved in the component is taken into account by {@link #getErrorBound()}.
+	 * </p>
+	 * 
+	 * @param aNodeCount
+	 *            Number of nodes in the connected component.
+	 * @return Flags marking the chosen sources by their indices in the component; <code>null</code>
+	 *         if the required sample includes all the nodes, i.e. betweenness must be computed exactly.
+	 */
+	public synchronized boolean[] sample(int aNodeCount) {
+		final int sampleSize = getSampleSize(aNodeCount);
+		if (sampleSize >= aNodeCount) {
+			return null;
+		}
+		sampled = true;
+		errorBound = Math.max(errorBound, getErrorBound(aNodeCount, sampleSize));
+
+		// Partial Fisher-Yates shuffle
+		final int[] nodes = new int[aNodeCount];
+		for (int i = 0; i < aNodeCount; i++) {
+			nodes[i] = i;
+		}
+		final boolean[] sources = new boolean[aNodeCount];
+		for (int i = 0; i < sampleSize; i++) {
+			final int j = i + random.nextInt(aNodeCount - i);
+			final int node = nodes[j];
+			nodes[j] = nodes[i];
+			sources[node] = true;
+		}
+		return sources;
+	}
+
+	/**
+	 * Checks if betweenness was approximated in at least one connected component.
+	 * 
+	 * @return <code>true</code> if {@link #sample(int)} has chosen a proper subset of the nodes in a
+	 *         component; <code>false</code> otherwise.
+	 */
+	public synchronized boolean isSampled() {
+		return sampled;
+	}
+
+	/**
+	 * Gets the error bound achieved in all the sampled connected components.
+	 * 
+	 * @return Maximum deviation of the normalized betweenness estimates from the exact values, which
+	 *         holds with probability {@link #getConfidence()}.
+	 */
+	public synchronized double getErrorBound() {
+		return errorBound;
+	}
+
+	/**
+	 * Gets the probability with which the error bound holds.
+	 * 
+	 * @return Probability that no node deviates from its betweenness estimate by more than
+	 *         {@link #getErrorBound()}.
+	 */
+	public double getConfidence() {
+		return 1 - delta;
+	}
+
+	/**
+	 * Computes the number of sources needed in a connected component.
+	 * 
+	 * @param aNodeCount
+	 *            Number of nodes in the connected component.
+	 * @return Number of sources to be sampled; it is at least <code>1</code> and may exceed
+	 *         <code>aNodeCount</code>.
+	 */
+	public int getSampleSize(int aNodeCount) {
+		if (aNodeCount <= 2 || !(epsilon > 0)) {
+			return aNodeCount;
+		}
+		final double range = (double) aNodeCount / (aNodeCount - 1);
+		final double size = Math.ceil(range * range * logTerm / (2 * epsilon * epsilon));
+		return size < aNodeCount ? Math.max(1, (int) size) : aNodeCount;
+	}
+
+	/**
+	 * Computes the error bound achieved in a connected component.
+	 * 
+	 * @param aNodeCount
+	 *            Number of nodes in the connected component.
+	 * @param aSampleSize
+	 *            Number of sources sampled in the component.
+	 * @return Maximum deviation of the normalized betweenness estimates from the exact values, with
+	 *         the probability specified in the plan; <code>0</code> if all nodes were sampled.
+	 */
+	public double getErrorBound(int aNodeCount, int aSampleSize) {
+		if (aSampleSize >= aNodeCount) {
+			return 0;
+		}
+		final double range = (double) aNodeCount / (aNodeCount - 1);
+		return range * Math.sqrt(logTerm / (2.0 * aSampleSize));
+	}
+
+	/**
+	 * Scales the dependencies accumulated from the sampled sources of a connected component, so that
+	 * they estimate the dependencies accumulated from all the nodes.
+	 * 
+	 * @param aSources
+	 *            Flags marking the sampled sources, as returned by {@link #sample(int)}.
+	 * @param aNodeBetweenness
+	 *            Accumulated node betweenness, scaled in place.
+	 * @param aEdgeBetweenness
+	 *            Accumulated edge betweenness, scaled in place.
+	 * @param aStress
+	 *            Accumulated stress, scaled and rounded in place.
+	 */
+	public static void scale(boolean[] aSources, double[] aNodeBetweenness, double[] aEdgeBetweenness,
+			long[] aStress) {
+		int sampleSize = 0;
+		for (final boolean source : aSources) {
+			if (source) {
+				sampleSize++;
+			}
+		}
+		final double factor = (double) aSources.length / sampleSize;
+		for (int i = 0; i < aNodeBetweenness.length; i++) {
+			aNodeBetweenness[i] *= factor;
+		}
+		for (int i = 0; i < aEdgeBetweenness.length; i++) {
+			aEdgeBetweenness[i] *= factor;
+		}
+		for (int i = 0; i < aStress.length; i++) {
+			aStress[i] = Math.round(aStress[i] * factor);
+		}
+	}
+
+	/**
+	 * Seed of the random number generator, so that repeated analyses give identical estimates.
+	 */
+	private static final long SEED = 0x4E657441L;
+
+	/**
+	 * Required maximum error of the normalized betweenness.
+	 */
+	private final double epsilon;
+
+	/**
+	 * Probability that the error exceeds {@link #epsilon}.
+	 */
+	private final double delta;
+
+	/**
+	 * Logarithmic term <code>ln(2N / &delta;)</code> of the sample size.
+	 */
+	private final double logTerm;
+
+	/**
+	 * Generator of the samples.
+	 */
+	private final Random random;
+
+	/**
+	 * Flag indicating if a component has been sampled.
+	 */
+	private boolean sampled;
+
+	/**
+	 * Maximum error bound over the sampled components.
+	 */
+	private double errorBound;
+}
@@ -0,0 +1,284 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+
+/**
+ * Computation of the nodes with the highest closeness centrality in an undirected network.
+ * <p>
+ * The closeness of a node is the reciprocal of its average shortest path length to the other nodes
+ * in its connected component. The nodes are traversed in order of decreasing degree, and the
+ * traversal from a node is cut off as soon as its closeness cannot exceed the closeness of the
+ * <code>k</code>-th best node found so far (Bergamini et al., <i>Computing top-k closeness
+ * centrality faster in unweighted graphs</i>, 2016). After the traversal has completed level
+ * <code>d</code>, at most <code>&Sigma; (deg(u) - 1)</code> nodes, summed over the nodes
+ * <code>u</code> at distance <code>d</code>, are at distance <code>d + 1</code>, and all the other
+ * unvisited nodes are at least at distance <code>d + 2</code>. This gives a lower bound on the total
+ * distance, hence an upper bound on the closeness of the source. The high-degree nodes are
+ * traversed first, as they tend to have high closeness and raise the cut-off early.
+ * </p>
+ * <p>
+ * The traversals run concurrently and share the cut-off. A stale cut-off only delays pruning, hence
+ * the computed values of the top-ranked nodes are exact.
+ * </p>
+ */
+final class ClosenessRanking {
+
+	/**
+	 * Initializes a new instance of <code>ClosenessRanking</code>.
+	 * 
+	 * @param aAnalyzer
+	 *            Analyzer computing the ranking; no traversals are started once it is cancelled.
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aComponents
+	 *            Labeling of the nodes of <code>aGraph</code> by connected component.
+	 * @param aK
+	 *            Number of top-ranked nodes to compute.
+	 */
+	public ClosenessRanking(NetworkAnalyzer aAnalyzer, GraphSnapshot aGraph, ComponentLabeling aComponents,
+			int aK) {
+		analyzer = aAnalyzer;
+		components = aComponents;
+		labels = aComponents.getLabels();
+		offsets = aGraph.getNeighborOffsets();
+		neighbors = aGraph.getNeighbors();
+		nodeCount = aGraph.getNodeCount();
+		top = new TopNodes(Math.min(aK, nodeCount));
+		next = new AtomicInteger();
+
+		// Sort the nodes by decreasing degree
+		int maxDegree = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			maxDegree = Math.max(maxDegree, offsets[i + 1] - offsets[i]);
+		}
+		final int[] starts = new int[maxDegree + 2];
+		for (int i = 0; i < nodeCount; i++) {
+			starts[maxDegree - (offsets[i + 1] - offsets[i]) + 1]++;
+		}
+		for (int d = 1; d < starts.length; d++) {
+			starts[d] += starts[d - 1];
+		}
+		order = new int[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			order[starts[maxDegree - (offsets[i + 1] - offsets[i])]++] = i;
+		}
+	}
+
+	/**
+	 * Computes the top-ranked nodes.
+	 * 
+	 * @return <code>true</code> if the ranking was computed; <code>false</code> if the analysis was
+	 *         cancelled.
+	 */
+	public boolean rank() {
+		final int workerCount = Math.max(1, Math.min(AnalysisThreadPool.getParallelism(), nodeCount));
+		final List<Runnable> workers = new ArrayList<Runnable>(workerCount);
+		for (int i = 0; i < workerCount; i++) {
+			workers.add(new Worker());
+		}
+		return new ComponentScheduler(analyzer).runAll(workers);
+	}
+
+	/**
+	 * Gets the top-ranked nodes.
+	 * 
+	 * @return Indices of the nodes with the highest closeness, in order of decreasing closeness.
+	 */
+	public int[] getNodes() {
+		return top.getNodes();
+	}
+
+	/**
+	 * Gets the closeness of the top-ranked nodes.
+	 * 
+	 * @return Closeness centrality of the nodes, parallel to {@link #getNodes()}.
+	 */
+	public double[] getValues() {
+		return top.getValues();
+	}
+
+	/**
+	 * Computes the closeness of a node, unless it cannot reach the current cut-off.
+	 * 
+	 * @param aSource
+	 *            Index of the node.
+	 * @param aWorkspace
+	 *            Workspace of the calling thread.
+	 * @return Closeness centrality of <code>aSource</code>; <code>-1</code> if the traversal was cut
+	 *         off.
+	 */
+	private double computeCloseness(int aSource, TraversalWorkspace aWorkspace) {
+		final int reach = components.getSize(labels[aSource]);
+		if (reach < 2) {
+			return 0.0;
+		}
+		final int epoch = aWorkspace.begin(nodeCount, 0);
+		final int[] queue = aWorkspace.queue;
+		final int[] stamp = aWorkspace.stamp;
+		queue[0] = aSource;
+		stamp[aSource] = epoch;
+		int levelStart = 0;
+		int tail = 1;
+		long farness = 0;
+		for (int level = 0; tail < reach; level++) {
+			// Every node of the next level, except the source, is reached from a parent it does not count
+			long frontier = 0;
+			for (int i = levelStart; i < tail; i++) {
+				final int node = queue[i];
+				frontier += offsets[node + 1] - offsets[node] - (level > 0 ? 1 : 0);
+			}
+			final long left = reach - tail;
+			final long nextLevel = Math.min(frontier, left);
+			final long bound = farness + (level + 1) * nextLevel + (level + 2) * (left - nextLevel);
+			if ((reach - 1.0) / bound < cutoff) {
+				return -1;
+			}
+
+			final int levelEnd = tail;
+			for (int i = levelStart; i < levelEnd; i++) {
+				final int node = queue[i];
+				for (int j = offsets[node]; j < offsets[node + 1]; j++) {
+					final int neighbor = neighbors[j];
+					if (stamp[neighbor] != epoch) {
+						stamp[neighbor] = epoch;
+						queue[tail++] = neighbor;
+						farness += level + 1;
+					}
+				}
+			}
+			levelStart = levelEnd;
+		}
+		return (reach - 1.0) / farness;
+	}
+
+	/**
+	 * Adds a node to the top-ranked nodes, if its closeness is high enough.
+	 * 
+	 * @param aNode
+	 *            Index of the node.
+	 * @param aCloseness
+	 *            Closeness centrality of the node.
+	 */
+	private synchronized void offer(int aNode, double aCloseness) {
+		if (top.offer(aNode, aCloseness)) {
+			cutoff = top.getThreshold();
+		}
+	}
+
+	/**
+	 * Worker traversing from the nodes it claims, in the order of {@link #order}.
+	 */
+	private final class Worker implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>Worker</code>.
+		 */
+		public Worker() {
+			workspace = new TraversalWorkspace();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			for (int i = next.getAndIncrement(); i < order.length; i = next.getAndIncrement()) {
+				if (analyzer.cancelled) {
+					return;
+				}
+				final double closeness = computeCloseness(order[i], workspace);
+				if (closeness >= 0) {
+					offer(order[i], closeness);
+				}
+			}
+		}
+
+		/**
+		 * Workspace of the traversals of this worker.
+		 */
+		private final TraversalWorkspace workspace;
+	}
+
+	/**
+	 * Analyzer computing the ranking.
+	 */
+	private final NetworkAnalyzer analyzer;
+
+	/**
+	 * Labeling of the nodes by connected component.
+	 */
+	private final ComponentLabeling components;
+
+	/**
+	 * Connected component of every node.
+	 */
+	private final int[] labels;
+
+	/**
+	 * Offsets of the neighbor lists in {@link #neighbors}.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Neighbor lists of all nodes.
+	 */
+	private final int[] neighbors;
+
+	/**
+	 * Number of nodes in the network.
+	 */
+	private final int nodeCount;
+
+	/**
+	 * Nodes in order of decreasing degree.
+	 */
+	private final int[] order;
+
+	/**
+	 * Position in {@link #order} of the next node to be claimed by a worker.
+	 */
+	private final AtomicInteger next;
+
+	/**
+	 * Top-ranked nodes found so far; guarded by this instance.
+	 */
+	private final TopNodes top;
+
+	/**
+	 * Closeness below which a node cannot enter the top-ranked nodes.
+	 */
+	private volatile double cutoff;
+}
@@ -0,0 +1,266 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
+
+/**
+ * Sampling of pairs of neighbors for approximating the clustering coefficients of high-degree nodes.
+ * <p>
+ * The clustering coefficient of a node with <code>k</code> neighbors is the fraction of its
+ * <code>k(k - 1)</code> ordered pairs of neighbors <code>(a, b)</code>, such that <code>b</code> is
+ * a neighbor (an out-neighbor in directed networks) of <code>a</code>. For nodes with more than a
+ * given number of neighbors, this fraction is estimated from uniformly sampled pairs. The sample
+ * budget is divided among these nodes in proportion to their numbers of pairs, rounding up, so that
+ * the sampled pairs are spread over all pairs of the high-degree nodes like a uniform sample of
+ * them, and every such node is sampled at least once.
+ * </p>
+ * <p>
+ * The estimated transitivity of the network, i.e. the fraction of all pairs of neighbors that are
+ * adjacent, is a weighted sum of independent samples in the range [0, 1]. By Hoeffding's inequality,
+ * it deviates from the exact value by at most
+ * <code>sqrt(ln(2 / &delta;) &Sigma; w<sub>v</sub><sup>2</sup> / s<sub>v</sub> / 2) / W</code>
+ * with probability at least <code>1 - &delta;</code>, where <code>w<sub>v</sub></code> is the
+ * number of pairs of node <code>v</code>, <code>s<sub>v</sub></code> is its number of samples and
+ * <code>W</code> is the number of pairs of all nodes.
+ * </p>
+ * <p>
+ * Likewise, the average clustering coefficient <code>C(k)</code> of the <code>n<sub>k</sub></code>
+ * nodes with <code>k</code> neighbors deviates from the exact value by at most
+ * <code>sqrt(ln(2m / &delta;) &Sigma; 1 / s<sub>v</sub> / 2) / n<sub>k</sub></code>, where the sum
+ * is over the sampled nodes with <code>k</code> neighbors. The coefficients of the other nodes are
+ * exact and do not contribute to the error. Dividing <code>&delta;</code> by the number
+ * <code>m</code> of degrees with sampled nodes makes the bounds of all these degrees hold together
+ * with probability at least <code>1 - &delta;</code>.
+ * </p>
+ */
+public final class ClusteringSampler {
+
+	/**
+	 * Initializes a new instance of <code>ClusteringSampler</code>.
+	 * 
+	 * @param aPlan
+	 *            Plan of the analysis; it specifies the sample budget and the degree limit.
+	 * @param aOffsets
+	 *            Offsets of the neighbor lists of all nodes in the analyzed network.
+	 */
+	public ClusteringSampler(AnalysisPlan aPlan, int[] aOffsets) {
+		samples = aPlan.getClusteringSamples();
+		degreeLimit = Math.max(aPlan.getClusteringDegreeLimit(), 1);
+		double pairs = 0;
+		for (int i = 0; i + 1 < aOffsets.length; i++) {
+			final long neighborCount = aOffsets[i + 1] - aOffsets[i];
+			if (neighborCount > degreeLimit) {
+				pairs += neighborCount * (neighborCount - 1);
+			}
+		}
+		sampledPairs = pairs;
+	}
+
+	/**
+	 * Computes the number of pairs of neighbors to sample for a node.
+	 * 
+	 * @param aNeighborCount
+	 *            Number of neighbors of the node.
+	 * @return Number of pairs to be sampled; <code>0</code> if the clustering coefficient of the node
+	 *         must be computed exactly, because its degree does not exceed the limit or because the
+	 *         sample would not be smaller than the number of pairs.
+	 */
+	public int getSampleSize(int aNeighborCount) {
+		if (aNeighborCount <= degreeLimit) {
+			return 0;
+		}
+		final double pairs = (double) aNeighborCount * (aNeighborCount - 1);
+		final double size = Math.ceil(samples * pairs / sampledPairs);
+		return size < pairs ? (int) size : 0;
+	}
+
+	/**
+	 * Estimates the clustering coefficient of a node from a sample of pairs of its neighbors.
+	 * 
+	 * @param aNode
+	 *            Index of the node.
+	 * @param aSampleSize
+	 *            Number of pairs to sample, as returned by {@link #getSampleSize(int)}.
+	 * @param aSeed
+	 *            Seed identifying the node, so that repeated analyses give identical estimates.
+	 * @param aOffsets
+	 *            Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors
+	 *            Neighbor lists of the nodes.
+	 * @param aOutOffsets
+	 *            Offsets of the out-neighbor lists in <code>aOutNeighbors</code>.
+	 * @param aOutNeighbors
+	 *            Out-neighbor lists of the nodes, sorted in ascending order; the same as
+	 *            <code>aNeighbors</code> for undirected networks.
+	 * @return Fraction of the sampled pairs <code>(a, b)</code>, such that <code>b</code> is an
+	 *         out-neighbor of <code>a</code>.
+	 */
+	public static double estimate(int aNode, int aSampleSize, long aSeed, int[] aOffsets, int[] aNeighbors,
+			int[] aOutOffsets, int[] aOutNeighbors) {
+		final SplittableRandom random = new SplittableRandom(SEED ^ aSeed);
+		final int first = aOffsets[aNode], count = aOffsets[aNode + 1] - first;
+		int closed = 0;
+		for (int i = 0; i < aSampleSize; i++) {
+			final int a = random.nextInt(count);
+			int b = random.nextInt(count - 1);
+			if (b >= a) {
+				b++;
+			}
+			final int source = aNeighbors[first + a];
+			if (Arrays.binarySearch(aOutNeighbors, aOutOffsets[source], aOutOffsets[source + 1],
+					aNeighbors[first + b]) >= 0) {
+				closed++;
+			}
+		}
+		return (double) closed / aSampleSize;
+	}
+
+	/**
+	 * Records the sample of a node, for the error bounds of the estimated transitivity and of the
+	 * average clustering coefficient of the nodes with the same number of neighbors.
+	 * 
+	 * @param aNeighborCount
+	 *            Number of neighbors of the node.
+	 * @param aSampleSize
+	 *            Number of pairs sampled for the node.
+	 */
+	public synchronized void record(int aNeighborCount, int aSampleSize) {
+		final double pairs = (double) aNeighborCount * (aNeighborCount - 1);
+		variance += pairs * pairs / aSampleSize;
+		final Double inverse = inverseSamples.get(aNeighborCount);
+		inverseSamples.put(aNeighborCount, (inverse != null ? inverse : 0) + 1.0 / aSampleSize);
+		sampled = true;
+	}
+
+	/**
+	 * Checks if the clustering coefficient of at least one node was approximated.
+	 * 
+	 * @return <code>true</code> if {@link #record(int, int)} has been called; <code>false</code>
+	 *         otherwise.
+	 */
+	public synchronized boolean isSampled() {
+		return sampled;
+	}
+
+	/**
+	 * Gets the error bound of the estimated transitivity.
+	 * 
+	 * @param aPairs
+	 *            Number of ordered pairs of neighbors, summed over all nodes of the network.
+	 * @return Maximum deviation of the estimated transitivity from the exact value, which holds with
+	 *         probability {@link #getConfidence()}.
+	 */
+	public synchronized double getErrorBound(long aPairs) {
+		return Math.sqrt(Math.log(2 / DELTA) * variance / 2) / aPairs;
+	}
+
+	/**
+	 * Gets the error bounds of the average clustering coefficients of the numbers of neighbors with
+	 * sampled nodes.
+	 * 
+	 * @param aCCps
+	 *            Clustering coefficients of the analyzed nodes, summed by number of neighbors.
+	 * @return Points of the error bounds, whose <code>x</code> coordinate is a number of neighbors and
+	 *         <code>y</code> coordinate is the maximum deviation of the estimated average clustering
+	 *         coefficient of the nodes with this number of neighbors. All bounds hold together with
+	 *         probability {@link #getConfidence()}.
+	 */
+	public synchronized List<Point2D.Double> getErrorBounds(Map<Integer, SumCountPair> aCCps) {
+		final List<Point2D.Double> bounds = new ArrayList<Point2D.Double>(inverseSamples.size());
+		final double logTerm = Math.log(2 * inverseSamples.size() / DELTA);
+		for (final Map.Entry<Integer, Double> entry : inverseSamples.entrySet()) {
+			final SumCountPair coefs = aCCps.get(entry.getKey());
+			if (coefs != null) {
+				final double bound = Math.sqrt(logTerm * entry.getValue() / 2) / coefs.getCount();
+				bounds.add(new Point2D.Double(entry.getKey().doubleValue(), Math.min(bound, 1)));
+			}
+		}
+		return bounds;
+	}
+
+	/**
+	 * Gets the probability with which the error bounds hold.
+	 * 
+	 * @return Probability that the estimated transitivity deviates by no more than
+	 *         {@link #getErrorBound(long)}, and also the probability that the estimated average
+	 *         clustering coefficients deviate by no more than their bounds in
+	 *         {@link #getErrorBounds(Map)}.
+	 */
+	public double getConfidence() {
+		return 1 - DELTA;
+	}
+
+	/**
+	 * Probability that the estimated transitivity, or any estimated average clustering coefficient,
+	 * exceeds its error bound.
+	 */
+	private static final double DELTA = 0.05;
+
+	/**
+	 * Seed of the random number generators, so that repeated analyses give identical estimates.
+	 */
+	private static final long SEED = 0x436C7573L;
+
+	/**
+	 * Number of pairs to sample in the whole network.
+	 */
+	private final int samples;
+
+	/**
+	 * Largest degree of the nodes whose clustering coefficients are computed exactly.
+	 */
+	private final int degreeLimit;
+
+	/**
+	 * Number of pairs of neighbors of all the nodes to be sampled.
+	 */
+	private final double sampledPairs;
+
+	/**
+	 * Sum of the squared numbers of pairs of the sampled nodes, divided by their sample sizes.
+	 */
+	private double variance;
+
+	/**
+	 * Sum of the inverse sample sizes of the sampled nodes, by their numbers of neighbors.
+	 */
+	private final Map<Integer, Double> inverseSamples = new TreeMap<Integer, Double>();
+
+	/**
+	 * Flag indicating if a node has been sampled.
+	 */
+	private boolean sampled;
+}
@@ -0,0 +1,342 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+
+/**
+ * Scheduler of the work an analyzer performs on the connected components of a network.
+ * <p>
+ * Components with at least {@link #LARGE_COMPONENT_SIZE} nodes are processed by several workers each,
+ * which share the nodes of the component. Smaller components are packed into batches of about
+ * {@link #BATCH_SIZE} nodes, and every batch is processed by a single thread, one component after the
+ * other. All workers and batches run concurrently in the {@link AnalysisThreadPool}.
+ * </p>
+ * <p>
+ * The preprocessing of a component, which its workers depend on, also runs in the pool. A batch
+ * prepares every component just before processing it. The large components are prepared concurrently
+ * with the batches, each by a single thread, and their workers are submitted once all large components
+ * are prepared.
+ * </p>
+ * <p>
+ * Once all the work is done, the results of the components are merged by the calling thread, in the
+ * order in which the components were given. Hence the statistics of the network do not depend on the
+ * number of threads or on the order in which the components are processed.
+ * </p>
+ * <p>
+ * If the preparation or a worker of a job fails, the analysis is cancelled, so that no further work is
+ * started, and the failure is rethrown once all running tasks have stopped. The results of the jobs
+ * are not merged in this case, as some of them are incomplete.
+ * </p>
+ */
+final class ComponentScheduler {
+
+	/**
+	 * Work to be performed on a single connected component.
+	 */
+	static abstract class Job {
+
+		/**
+		 * Initializes a new instance of <code>Job</code>.
+		 * 
+		 * @param aSize Number of nodes in the component.
+		 */
+		protected Job(int aSize) {
+			size = aSize;
+		}
+
+		/**
+		 * Gets the number of nodes in the component.
+		 * 
+		 * @return Size of the component.
+		 */
+		public final int getSize() {
+			return size;
+		}
+
+		/**
+		 * Prepares the job for its workers, for example by decomposing the component.
+		 * <p>
+		 * This method is called once, by a thread of the {@link AnalysisThreadPool}, before any worker
+		 * of the job is created. The default implementation does nothing.
+		 * </p>
+		 */
+		protected void prepare() {
+			// No preprocessing
+		}
+
+		/**
+		 * Creates a worker that processes nodes of the component.
+		 * <p>
+		 * Several workers of the same job may run concurrently; they must share the nodes of the
+		 * component between them, such that every node is processed exactly once.
+		 * </p>
+		 * 
+		 * @param aWorkspace Traversal workspace owned by the thread that runs the worker.
+		 * @return Worker processing nodes of the component until none are left.
+		 */
+		protected abstract Runnable createWorker(TraversalWorkspace aWorkspace);
+
+		/**
+		 * Merges the results of this job into the analyzer.
+		 * <p>
+		 * This method is called by the thread that scheduled the job, after the workers of all jobs
+		 * have completed.
+		 * </p>
+		 */
+		protected abstract void finish();
+
+		/**
+		 * Number of nodes in the component.
+		 */
+		private final int size;
+	}
+
+	/**
+	 * Initializes a new instance of <code>ComponentScheduler</code>.
+	 * 
+	 * @param aAnalyzer Analyzer whose jobs are to be scheduled. No new jobs are started once the
+	 *        analyzer is cancelled.
+	 */
+	public ComponentScheduler(NetworkAnalyzer aAnalyzer) {
+		analyzer = aAnalyzer;
+	}
+
+	/**
+	 * Runs the given jobs and merges their results.
+	 * <p>
+	 * This method blocks until all jobs are completed. It must not be called from a thread of the
+	 * {@link AnalysisThreadPool}.
+	 * </p>
+	 * 
+	 * @param aJobs Jobs to be run, one per connected component. The results of the jobs are merged in
+	 *        the order of this list.
+	 * @return <code>true</code> if all jobs were run and their results merged; <code>false</code> if
+	 *         the analysis was cancelled.
+	 * @throws InnerException
+	 *             If the preparation or a worker of a job has failed.
+	 */
+	public boolean run(List<? extends Job> aJobs) {
+		final ExecutorService threadPool = AnalysisThreadPool.getExecutor();
+		final int parallelism = AnalysisThreadPool.getParallelism();
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		final List<Future<?>> preparations = new ArrayList<Future<?>>();
+		final List<Job> largeJobs = new ArrayList<Job>();
+		final List<List<Job>> batches = new ArrayList<List<Job>>();
+
+		// Large components are prepared first, as these components take longest
+		List<Job> batch = new ArrayList<Job>();
+		int batchSize = 0;
+		for (final Job job : aJobs) {
+			if (job.getSize() >= LARGE_COMPONENT_SIZE && parallelism > 1) {
+				largeJobs.add(job);
+				preparations.add(threadPool.submit(new Runnable() {
+					public void run() {
+						job.prepare();
+					}
+				}));
+			} else {
+				batch.add(job);
+				batchSize += job.getSize();
+				if (batchSize >= BATCH_SIZE) {
+					batches.add(batch);
+					batch = new ArrayList<Job>();
+					batchSize = 0;
+				}
+			}
+		}
+		if (!batch.isEmpty()) {
+			batches.add(batch);
+		}
+		for (final List<Job> jobs : batches) {
+			futures.add(threadPool.submit(new BatchTask(jobs)));
+		}
+
+		if (await(preparations)) {
+			for (final Job job : largeJobs) {
+				final int workerCount = Math.min(parallelism, job.getSize());
+				for (int i = 0; i < workerCount; i++) {
+					futures.add(threadPool.submit(job.createWorker(new TraversalWorkspace())));
+				}
+			}
+		}
+		final boolean completed = await(futures);
+		checkFailure();
+		if (!completed) {
+			return false;
+		}
+
+		for (final Job job : aJobs) {
+			job.finish();
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the given tasks concurrently, each by a single thread.
+	 * <p>
+	 * This method blocks until all tasks are completed. It must not be called from a thread of the
+	 * {@link AnalysisThreadPool}.
+	 * </p>
+	 * 
+	 * @param aTasks Tasks to be run.
+	 * @return <code>true</code> if all tasks were run; <code>false</code> if the analysis was
+	 *         cancelled.
+	 * @throws InnerException
+	 *             If a task has failed.
+	 */
+	public boolean runAll(List<? extends Runnable> aTasks) {
+		final ExecutorService threadPool = AnalysisThreadPool.getExecutor();
+		final List<Future<?>> futures = new ArrayList<Future<?>>(aTasks.size());
+		for (final Runnable task : aTasks) {
+			futures.add(threadPool.submit(task));
+		}
+		final boolean completed = await(futures);
+		checkFailure();
+		return completed;
+	}
+
+	/**
+	 * Gets the nodes of the connected components in a deterministic order.
+	 * 
+	 * @param aLabeling Labeling of the nodes of the network snapshot by connected component.
+	 * @return List of the sorted indices of the nodes of every component. The components are ordered
+	 *         by their smallest node index.
+	 */
+	public static List<int[]> getComponentNodes(ComponentLabeling aLabeling) {
+		final int count = aLabeling.getComponentCount();
+		final List<int[]> result = new ArrayList<int[]>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(aLabeling.getNodes(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Waits for the completion of the given tasks.
+	 * <p>
+	 * If a task fails, the analysis is cancelled and the failure is recorded, to be rethrown by
+	 * {@link #checkFailure()}.
+	 * </p>
+	 * 
+	 * @param aFutures Futures of the submitted tasks.
+	 * @return <code>true</code> if all tasks were completed; <code>false</code> if the analysis was
+	 *         cancelled or a task has failed.
+	 */
+	private boolean await(List<Future<?>> aFutures) {
+		for (final Future<?> future : aFutures) {
+			try {
+				future.get();
+			} catch (InterruptedException ex) {
+				analyzer.cancel();
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException ex) {
+				// The results of the component are incomplete; stop the remaining work
+				if (failure == null) {
+					failure = ex.getCause();
+				}
+				analyzer.cancel();
+			}
+		}
+		return !analyzer.cancelled;
+	}
+
+	/**
+	 * Rethrows the first failure of a task run by this scheduler, if any.
+	 * 
+	 * @throws InnerException
+	 *             If a task has failed.
+	 */
+	private void checkFailure() {
+		if (failure != null) {
+			throw new InnerException(failure);
+		}
+	}
+
+	/**
+	 * Task processing a batch of small components by a single thread.
+	 */
+	private final class BatchTask implements Runnable {
+
+		/**
+		 * Initializes a new instance of <code>BatchTask</code>.
+		 * 
+		 * @param aJobs Jobs of the components in the batch.
+		 */
+		public BatchTask(List<Job> aJobs) {
+			jobs = aJobs;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see java.lang.Runnable#run()
+		 */
+		public void run() {
+			final TraversalWorkspace workspace = new TraversalWorkspace();
+			for (final Job job : jobs) {
+				if (analyzer.cancelled) {
+					break;
+				}
+				job.prepare();
+				job.createWorker(workspace).run();
+			}
+		}
+
+		/**
+		 * Jobs of the components in the batch.
+		 */
+		private final List<Job> jobs;
+	}
+
+	/**
+	 * Minimum number of nodes in a component to be processed by more than one thread.
+	 */
+	static final int LARGE_COMPONENT_SIZE = 256;
+
+	/**
+	 * Number of nodes, above which a batch of small components is not extended.
+	 */
+	static final int BATCH_SIZE = 1024;
+
+	/**
+	 * Analyzer whose jobs are scheduled.
+	 */
+	private final NetworkAnalyzer analyzer;
+
+	/**
+	 * First failure of a task run by this scheduler; <code>null</code> if no task has failed.
+	 */
+	private Throwable failure;
+}
@@ -28,16 +28,22 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
 
 
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Set;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
 
 /**
  * Control class providing analysis of the connected components in a Cytoscape network.
+ * <p>
+ * The components are found by labeling the nodes of a snapshot of the network (see
+ * {@link ComponentLabeling}) in a single pass over its edges.
+ * </p>
  * 
  * @author Yassen Assenov
  */
@@ -45,6 +51,11 @@ public class ConnComponentAnalyzer {
 
 	/**
 	 * Gets all nodes in the given connected component.
+	 * <p>
+	 * If the component was found by a <code>ConnComponentAnalyzer</code> and all its nodes are still
+	 * contained in the network, its nodes are read from the component labeling. Otherwise, they are
+	 * found by traversing the network from the node of the component.
+	 * </p>
 	 * 
 	 * @param aNetwork Network in which the given connected components is contained.
 	 * @param aCompInfo Information about the connected component of interest.
@@ -52,6 +63,25 @@ public class ConnComponentAnalyzer {
 	 *         contained in <code>aNetwork</code>.
 	 */
 	public static Set<CyNode> getNodesOf(CyNetwork aNetwork, CCInfo aCompInfo) {
+		if (!aNetwork.containsNode(aCompInfo.getNode())) {
+			return new HashSet<CyNode>();
+		}
+		final ComponentLabeling labeling = aCompInfo.getLabeling();
+		if (labeling != null) {
+			final Set<CyNode> nodes = new HashSet<CyNode>(labeling.getCyNodes(aCompInfo.getIndex()));
+			boolean contained = true;
+			for (final CyNode node : nodes) {
+				if (!aNetwork.containsNode(node)) {
+					// Nodes were removed after the components were found
+					contained = false;
+					break;
+				}
+			}
+			if (contained) {
+				return nodes;
+			}
+		}
+
 		Set<CyNode> nodes = new HashSet<CyNode>(aCompInfo.getSize());
 		nodes.add(aCompInfo.getNode());
 		LinkedList<CyNode> toTraverse = new LinkedList<CyNode>();
@@ -76,28 +106,36 @@ public class ConnComponentAnalyzer {
 	 * @param aNetwork Network to be analyzed.
 	 */
 	public ConnComponentAnalyzer(CyNetwork aNetwork) {
+		this(aNetwork, null);
+	}
+
+	/**
+	 * Initializes a new instance of <code>ConnComponentAnalyzer</code> that reuses an existing
+	 * snapshot of the network.
+	 * 
+	 * @param aNetwork Network to be analyzed.
+	 * @param aGraph Current snapshot of <code>aNetwork</code>; <code>null</code> if a snapshot is to
+	 *        be created when the components are searched for.
+	 */
+	public ConnComponentAnalyzer(CyNetwork aNetwork, GraphSnapshot aGraph) {
 		network = aNetwork;
+		graph = aGraph;
+		labeling = null;
 	}
 
 	/**
 	 * Finds all components in the analyzer network.
 	 * 
-	 * @return Set of all components in the analyzed network ({@link #getNetwork()}); empty set if
-	 *         the analyzed network is empty.
+	 * @return Set of all components in the analyzed network ({@link #getNetwork()}), iterated in the
+	 *         order of their indices in {@link #getLabeling()}; empty set if the analyzed network is
+	 *         empty.
 	 */
 	public Set<CCInfo> findComponents() {
-		int untravCount = network.getNodeCount();
-
-		Set<CyNode> traversed = new HashSet<CyNode>(untravCount);
-		Set<CCInfo> components = new HashSet<CCInfo>();
-
-		for ( CyNode node : network.getNodeList()) {
-			if (!traversed.contains(node)) {
-				// Unmarked node reached - create new conn. component
-				final int ccSize = traverseReachable(node, traversed);
-				untravCount -= ccSize;
-				components.add(new CCInfo(ccSize, node));
-			}
+		final ComponentLabeling compLabeling = getLabeling();
+		final int count = compLabeling.getComponentCount();
+		final Set<CCInfo> components = new LinkedHashSet<CCInfo>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			components.add(new CCInfo(compLabeling, i));
 		}
 		return components;
 	}
@@ -125,6 +163,25 @@ public class ConnComponentAnalyzer {
 		return largest;
 	}
 
+	/**
+	 * Gets the labeling of the nodes of the analyzed network by connected component.
+	 * <p>
+	 * The labeling is computed on the first call, using the shared {@link AnalysisThreadPool}.
+	 * </p>
+	 * 
+	 * @return Component labeling of the snapshot of the analyzed network.
+	 */
+	public ComponentLabeling getLabeling() {
+		if (labeling == null) {
+			if (graph == null) {
+				graph = GraphSnapshot.create(network);
+			}
+			labeling = ComponentLabeling.create(graph, AnalysisThreadPool.getExecutor(),
+					AnalysisThreadPool.getParallelism());
+		}
+		return labeling;
+	}
+
 	/**
 	 * Gets the analyzed network.
 	 * 
@@ -148,34 +205,17 @@ public class ConnComponentAnalyzer {
 	}
 
 	/**
-	 * Traverses all nodes that are reachable from the given node.
-	 * 
-	 * @param aNode Node to start the traversal from.
-	 * @param aTraversed Set of traversed nodes. This method add all visited nodes to this set.
-	 * @return Number of nodes which were traversed. <code>aNode</code> itself is also counted as
-	 *         traversed.
+	 * Analyzed network.
 	 */
-	private int traverseReachable(CyNode aNode, Set<CyNode> aTraversed) {
-		int size = 1;
-		LinkedList<CyNode> toTraverse = new LinkedList<CyNode>();
-		aTraversed.add(aNode);
-		toTraverse.add(aNode);
-		while (!toTraverse.isEmpty()) {
-			final CyNode currentNode = toTraverse.removeFirst();
-			final Set<CyNode> neighbors = CyNetworkUtils.getNeighbors(network, currentNode);
-			for (CyNode nb : neighbors) {
-				if (!aTraversed.contains(nb)) {
-					size++;
-					toTraverse.add(nb);
-					aTraversed.add(nb);
-				}
-			}
-		}
-		return size;
-	}
+	private CyNetwork network;
 
 	/**
-	 * Analyzed network.
+	 * Snapshot of the analyzed network; <code>null</code> until the components are searched for.
 	 */
-	private CyNetwork network;
+	private GraphSnapshot graph;
+
+	/**
+	 * Labeling of the nodes by connected component; <code>null</code> until first requested.
+	 */
+	private ComponentLabeling labeling;
 }
@@ -88,6 +88,9 @@ public class CyActivator extends AbstractCyActivator {
 		// FIXME refactor this code
 		Plugin plugin = new Plugin(cySwingApplicationServiceRef);
 		
+		// Threads shared by all analyses
+		AnalysisThreadPool.start();
+		
 		// Builder object for custom Visual Style
 		VisualStyleBuilder vsBuilder = new VisualStyleBuilder(vsFactoryServiceRef, passthroughMappingFactoryRef, continuousMappingFactoryRef);
 
@@ -134,4 +137,9 @@ public class CyActivator extends AbstractCyActivator {
 		registerService(bc,removeSelfLoopsAction,CyAction.class, new Properties());
 		registerService(bc,aboutAction,CyAction.class, new Properties());
 	}
+	
+	@Override
+	public void shutDown() {
+		AnalysisThreadPool.shutdown();
+	}
 }
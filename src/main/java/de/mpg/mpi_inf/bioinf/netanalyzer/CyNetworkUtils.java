@@ -49,6 +49,7 @@ import org.cytoscape.model.CyTableUtil;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInspection;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.LongIntHashMap;
 
 
 /**
@@ -140,19 +141,40 @@ public abstract class CyNetworkUtils {
 		return keepAvailableAttributes(aNetwork, computedAttr, table, Messages.getNodeAttributes());
 	}
 
+	/**
+	 * Gets all edges connecting two distinct nodes of the given set.
+	 * <p>
+	 * The adjacent edges of every node are scanned once and an edge is kept if its other end belongs
+	 * to the set, so the running time is linear in the sum of the node degrees.
+	 * </p>
+	 *
+	 * @param aNetwork
+	 *            Network containing the nodes of interest.
+	 * @param nodes
+	 *            Nodes inducing the subgraph.
+	 * @return Set of all edges between two different nodes in <code>nodes</code>; self-loops are not
+	 *         included.
+	 */
 	public static Set<CyEdge> getAllConnectingEdges(CyNetwork aNetwork, Collection<CyNode> nodes) {
-		Set<CyEdge> connEdgeSet = new HashSet<CyEdge>();
-		ArrayList<CyNode> nl = new ArrayList<CyNode>(nodes);
-		for ( int i = 0; i < nl.size(); i++ )
-			for ( int j = i+1; j < nl.size(); j++)
-				connEdgeSet.addAll( aNetwork.getConnectingEdgeList(nl.get(i), nl.get(j),CyEdge.Type.ANY) );
+		final Set<CyNode> members = nodes instanceof Set ? (Set<CyNode>) nodes : new HashSet<CyNode>(nodes);
+		final Set<CyEdge> connEdgeSet = new HashSet<CyEdge>();
+		for (final CyNode node : members) {
+			for (final CyEdge edge : aNetwork.getAdjacentEdgeList(node, CyEdge.Type.ANY)) {
+				// Every edge is collected at its source only
+				final CyNode target = edge.getTarget();
+				if (edge.getSource() == node && target != node && members.contains(target)) {
+					connEdgeSet.add(edge);
+				}
+			}
+		}
 		return connEdgeSet;
 	}
+
 	/**
 	 * Gets the number of pair connections between the given set of nodes.
 	 * <p>
 	 * This method effectively counts the number of edges between nodes in the given set, ignoring self-loops
-	 * and multiple edges.
+	 * and multiple edges. Multiple edges are detected by hashing the node pairs of the edges.
 	 * </p>
 	 *
 	 * @param aNetwork
@@ -168,40 +190,39 @@ public abstract class CyNetworkUtils {
 	 */
 	public static int getPairConnCount(CyNetwork aNetwork, Collection<CyNode> aNodeIndices, boolean aIgnoreDir) {
 
-		Set<CyEdge> connEdgeSet = getAllConnectingEdges(aNetwork, aNodeIndices);
-
-		int edgeCount = connEdgeSet.size();
+		final Set<CyEdge> connEdgeSet = getAllConnectingEdges(aNetwork, aNodeIndices);
+		final LongIntHashMap nodeIndex = new LongIntHashMap(aNodeIndices.size());
+		final LongIntHashMap pairs = new LongIntHashMap(connEdgeSet.size());
 
-		List<CyEdge> connEdges = new ArrayList<CyEdge>(connEdgeSet);
-
-		for (int i = 0; i < connEdges.size(); ++i) {
-			CyEdge e = connEdges.get(i);
+		for (final CyEdge e : connEdgeSet) {
+			final int source = indexOf(nodeIndex, e.getSource());
+			final int target = indexOf(nodeIndex, e.getTarget());
+			// Edges with the same source and target (in any order if we ignore direction) are one pair
+			final long pair = aIgnoreDir ? LongIntHashMap.pairKey(source, target)
+					: (((long) source) << 32) | target;
+			pairs.put(pair, 0);
+		}
 
-			// Ignore self-loops
-			if ( e.getSource() == e.getTarget() ) {
-				edgeCount--;
-			} else {
-				// Ignore multiple edges
-				for (int j = i + 1; j < connEdges.size(); ++j) {
-					CyEdge ee = connEdges.get(j);
-					if ( // directed edges have same source + target
-					     ( e.getSource() == ee.getSource() &&
-					       e.getTarget() == ee.getTarget() ) ||
-						 // or undirected edges have same source + target (if we care)
-					     ( aIgnoreDir &&
-						   ( e.getSource() == ee.getTarget() &&
-						      e.getTarget() == ee.getSource() ) ) ) {
+		return pairs.size();
+	}
 
-						edgeCount--;
-						// TODO I think this break is wrong!
-						// What if there are more than two edges?
-						break;
-					}
-				}
-			}
+	/**
+	 * Gets the index of the given node, assigning it the next free index if it has none.
+	 *
+	 * @param aIndex
+	 *            Mapping of node SUIDs to consecutive indices.
+	 * @param aNode
+	 *            Node to look up.
+	 * @return Index of <code>aNode</code> in <code>aIndex</code>.
+	 */
+	private static int indexOf(LongIntHashMap aIndex, CyNode aNode) {
+		final long suid = aNode.getSUID().longValue();
+		int index = aIndex.get(suid);
+		if (index < 0) {
+			index = aIndex.size();
+			aIndex.put(suid, index);
 		}
-
-		return edgeCount;
+		return index;
 	}
 
 	/**
@@ -31,27 +31,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.WeakHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyRow;
 
-import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.DegreeDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LogBinDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
-import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeBetweenInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathLengthData;
@@ -59,6 +53,13 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.CoreDecomposition;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.MultiSourceBfs;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.StrongComponents;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TriangleCounter;
 
 /**
  * Network analyzer for networks that contain directed edges only.
@@ -99,7 +100,6 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 		this.nodeBetweenness = new WeakHashMap<CyNode, NodeBetweenInfo>();
 		this.edgeBetweenness = new WeakHashMap<CyEdge, Double>();
 		this.stress = new HashMap<CyNode, Long>();
-		computeNB = true;
 		AttributeSetup.createDirectedNodeAttributes(aNetwork.getTable(CyNode.class, CyNetwork.LOCAL_ATTRS));
 		AttributeSetup.createEdgeBetweennessAttribute(aNetwork.getTable(CyEdge.class, CyNetwork.LOCAL_ATTRS));
 	}
@@ -112,7 +112,12 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	@Override
 	public void computeAll() {
 		long time = System.currentTimeMillis();
-		analysisStarting();
+		// Convert the graph into an array representation to accelerate traversal
+		final GraphSnapshot graph = analysisStarting();
+		// Top nodes are only ranked in undirected networks; here all values are computed
+		if (plan.getTopK() > 0) {
+			plan = plan.topK(0);
+		}
 		
 		inDegreeDist = new DegreeDistribution(nodeCount);
 		outDegreeDist = new DegreeDistribution(nodeCount);
@@ -123,379 +128,37 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 		CCps = new HashMap<Integer, SumCountPair>();
 		closenessCent = new ArrayList<Point2D.Double>(nodeCount);
 		nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
-		aplMap = new HashMap<CyNode, Double>();
 		stressDist = new LogBinDistribution();
+		neighborArcs = 0;
+		neighborPairs = 0;
 		outNeighbors = 0;
 		diameter = 0;
 		radius = Integer.MAX_VALUE;
+		strongComponentCount = 0;
+		strongComponentSizes = new long[nodeCount + 1];
 
-		// Compute number of connected components
-		final ConnComponentAnalyzer cca = new ConnComponentAnalyzer(network);
-		Set<CCInfo> components = cca.findComponents();
-		final int connectedComponentsCount = components.size();
-
-		// Compute node and edge betweenness
-		for (CCInfo aCompInfo : components) {
-
-			// Get nodes of connected component
-			final Set<CyNode> connNodes = cca.getNodesOf(aCompInfo);
-			final Set<CyEdge> connEdges = new HashSet<CyEdge>();
-			if (nodeSet != null)
-				connNodes.retainAll(nodeSet);
-			
-			// Convert the graph into an array representation to accelerate traversal
-			final int numNodes = connNodes.size();
-			final int[] edgeOffsets = new int[numNodes + 1];
-			final int[] outEdgeOffsets = new int[numNodes + 1];
-			final int[] inEdgeOffsets = new int[numNodes + 1];
-			final int[] inoutEdgeOffsets = new int[numNodes + 1];
-			final HashMap<CyNode, Integer> node2Int = new HashMap<>();
-			int numEdgesLocal = 0, numOutEdgesLocal = 0, numInEdgesLocal = 0, numInoutEdgesLocal = 0;
-			final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
-			{
-				int e = 0;
-				for (CyNode node : connNodes)
-				{
-					edgeOffsets[node2Int.size()] = numEdgesLocal;
-					outEdgeOffsets[node2Int.size()] = numOutEdgesLocal;
-					inEdgeOffsets[node2Int.size()] = numInEdgesLocal;
-					inoutEdgeOffsets[node2Int.size()] = numInoutEdgesLocal;
-					node2Int.put(node, node2Int.size());
-					numEdgesLocal += getNeighbors(node).size();
-					numOutEdgesLocal += getOutNeighbors(node).size();
-					numInEdgesLocal += getInNeighbors(node).size();
-					numInoutEdgesLocal += getOutNeighbors(node).size() + getInNeighbors(node).size();
-				}
-				for (CyNode node : connNodes)
-				{
-					for (CyEdge edge : getOutEdges(node))
-					{
-						connEdges.add(edge);
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);
-						if (!edgeHash2Int.containsKey(edgeHash))
-							edgeHash2Int.put(edgeHash, e++);
-					}
-				}
-			}
-			final int numEdges = numEdgesLocal;
-			edgeOffsets[numNodes] = numEdges;
-			outEdgeOffsets[numNodes] = numOutEdgesLocal;
-			inEdgeOffsets[numNodes] = numInEdgesLocal;
-			inoutEdgeOffsets[numNodes] = numInoutEdgesLocal;
-			final int[] edges = new int[numEdges];
-			final int[] outEdges = new int[numOutEdgesLocal];
-			final int[] inEdges = new int[numInEdgesLocal];
-			final int[] inoutEdges = new int[numInoutEdgesLocal];
-			final int[] inoutEdgeIDs = new int[numInoutEdgesLocal];
-			final boolean[] inoutIsOutEdge = new boolean[numInoutEdgesLocal];
-			for (CyNode node : connNodes)
-			{
-				int nodeID = node2Int.get(node);
-				int offset = edgeOffsets[nodeID];
-				for (CyNode neighbor : getNeighbors(node))
-					edges[offset++] = node2Int.get(neighbor);
-				
-				offset = outEdgeOffsets[nodeID];
-				int inoutOffset = inoutEdgeOffsets[nodeID];
-				for (CyNode outNeighbor : getOutNeighbors(node))
-				{
-					int outNeighborID = node2Int.get(outNeighbor);
-					long edgeHash = computeEdgeHash(nodeID, outNeighborID);
-					int edgeID = edgeHash2Int.get(edgeHash);
-					inoutEdgeIDs[inoutOffset] = edgeID;
-					inoutEdges[inoutOffset] = outNeighborID;
-					inoutIsOutEdge[inoutOffset++] = true;
-					outEdges[offset++] = outNeighborID;
-				}
-				
-				offset = inEdgeOffsets[nodeID];
-				for (CyNode inNeighbor : getInNeighbors(node))
-				{
-					int inNeighborID = node2Int.get(inNeighbor);
-					long edgeHash = computeEdgeHash(inNeighborID, nodeID);
-					int edgeID = edgeHash2Int.get(edgeHash);
-					inoutEdgeIDs[inoutOffset] = edgeID;
-					inoutEdges[inoutOffset] = inNeighborID;
-					inoutIsOutEdge[inoutOffset++] = false;
-					inEdges[offset++] = inNeighborID;
-				}
-			}
-			
-			nodeBetweennessLean = new double[numNodes];
-			edgeBetweennessLean = new double[connEdges.size()];
-			stressLean = new long[numNodes];
+		coreSizes = new int[graph.getNodeCount() + 1];
+		degeneracy = 0;
 
-			final Queue<CyNode> nodesLeft = new LinkedList<>();
-			for (CyNode node : connNodes)
-				nodesLeft.add(node);
-			
-			class NodeTask implements Runnable
-			{
-				DirNetworkAnalyzer parent;
-				int threadID;
-				
-				public NodeTask(DirNetworkAnalyzer p, int id)	{ parent = p; threadID = id; }
-				
-				@Override
-				public void run() 
-				{
-					int localDiameter = 0;	
-					int localRadius = Integer.MAX_VALUE;
-					long[] localSPathLengths = new long[parent.sPathLengths.length];
-					double[] localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
-					double[] localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
-					long[] localStress = new long[parent.stressLean.length];
-			
-					while (nodesLeft.size() > 0)
-					{
-						CyNode node = null;
-						synchronized (parent)
-						{
-							if (nodesLeft.size() == 0)
-								break;
-							node = nodesLeft.remove();
-							parent.progress++;
-						}
-						
-						int nodeID = node2Int.get(node);
-						final List<CyEdge> inCyEdges = getInEdges(node);
-						final List<CyEdge> outCyEdges = getOutEdges(node);
-						CyRow nodeRow = parent.network.getRow(node);
-						int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
-						int outFirstEdge = outEdgeOffsets[nodeID], outLastEdge = outEdgeOffsets[nodeID + 1];
-						int inFirstEdge = inEdgeOffsets[nodeID], inLastEdge = inEdgeOffsets[nodeID + 1];
-						
-						synchronized (parent.inDegreeDist)
-						{
-							inDegreeDist.addObservation(inCyEdges.size());
-							outDegreeDist.addObservation(outCyEdges.size());
-						}
-		
-						Set<CyNode> neighbors = getNeighbors(node, inCyEdges, outCyEdges);
-						int neighborCount = lastEdge - firstEdge;
-						int outNeighborCount = outLastEdge - outFirstEdge;
-						int inNeighborCount = inLastEdge - inFirstEdge;
-						
-						int[] neighborsArray = new int[lastEdge - firstEdge];
-						for (int ei = firstEdge; ei < lastEdge; ei++)
-							neighborsArray[ei - firstEdge] = edges[ei];
-						int[] outNeighborsArray = new int[outLastEdge - outFirstEdge];
-						for (int ei = outFirstEdge; ei < outLastEdge; ei++)
-							outNeighborsArray[ei - outFirstEdge] = outEdges[ei];
-						int[] inNeighborsArray = new int[inLastEdge - inFirstEdge];
-						for (int ei = inFirstEdge; ei < inLastEdge; ei++)
-							inNeighborsArray[ei - inFirstEdge] = inEdges[ei];
-						
-						// Number of self-loops calculation
-						int selfloops = 0;
-						for (int j = 0; j < inCyEdges.size(); j++) {
-							CyEdge e = inCyEdges.get(j);
-							if (e.getSource() == node) {
-								selfloops++;
-							}
-						}
-						// Multi-edge node pair computation. Currently edge direction is ignored.
-						int partnerOfMultiEdgeNodePairs = 0;
-						for (final MutInteger freq : CyNetworkUtils.getNeighborMap(network, node).values()) {
-							if (freq.value > 1) {
-								partnerOfMultiEdgeNodePairs++;
-							}
-						}
-						// Atomic addition of neighborCount, numberOfIsolatedNodes, numberOfSelfLoops and multiEdgePartners
-						synchronized (parent)
-						{
-							if (parent.neighborsAccum == null)
-								parent.neighborsAccum = new SumCountPair(neighborCount);
-							else
-								parent.neighborsAccum.add(neighborCount);
-							
-							// Number of unconnected nodes calculation
-							if (neighborCount == 0)
-								parent.numberOfIsolatedNodes++;
-		
-							parent.numberOfSelfLoops += selfloops;
-		
-							parent.multiEdgePartners += partnerOfMultiEdgeNodePairs;
-						}
-		
-						if (useNodeAttributes) 
-						{
-							nodeRow.set(Messages.getAttr("cco"), 0.0);
-							nodeRow.set(Messages.getAttr("din"), inCyEdges.size());
-							nodeRow.set(Messages.getAttr("dou"), outCyEdges.size());
-							nodeRow.set(Messages.getAttr("dal"), inCyEdges.size() + outCyEdges.size());
-							nodeRow.set(Messages.getAttr("isn"), (neighborCount == 0));
-							nodeRow.set(Messages.getAttr("slo"), selfloops);
-							nodeRow.set(Messages.getAttr("pmn"), partnerOfMultiEdgeNodePairs);
-						}
-		
-						if (neighborCount > 1) 
-						{
-							// Clustering coefficients calculation
-							final double nodeCCp = computeCC(neighborsArray, numNodes, outEdges, outEdgeOffsets);
-							synchronized (parent.CCps)
-							{
-								accumulate(CCps, neighborCount, nodeCCp);
-							}
-							if (useNodeAttributes)
-								nodeRow.set(Messages.getAttr("cco"), Utils.roundTo(nodeCCp, roundingDigits));
-						} 
-						else if (useNodeAttributes) 
-						{
-							nodeRow.set(Messages.getAttr("cco"), 0.0);
-						}
-		
-						// Neighborhood connectivity calculation
-						// -------------------------------------
-						final double nco = averageNeighbors(neighborsArray, edgeOffsets);
-						if (neighborCount > 0) 
-						{
-							synchronized (parent.ioNCps)
-							{
-								accumulate(parent.ioNCps, neighborCount, nco);
-							}
-						}
-						if (outNeighborCount > 0) 
-						{
-							double outNC = averageNeighbors(outNeighborsArray, outEdgeOffsets);
-							synchronized (parent.outNCps)
-							{
-								parent.outNeighbors += outNeighborCount;
-								accumulate(parent.outNCps, outNeighborCount, outNC);
-							}
-						}
-						if (inNeighborCount > 0) 
-						{
-							double inNC = averageNeighbors(inNeighborsArray, inEdgeOffsets);
-							synchronized (parent.inNCps)
-							{
-								accumulate(parent.inNCps, inNeighborCount, inNC);
-							}
-						}
-		
-						if (useNodeAttributes) {
-							nodeRow.set(Messages.getAttr("nco"), nco);
-						}
-		
-						if (nodeSet == null) {
-							// Compute shortest path lengths
-							PathLengthData pathLengths = computeSP(nodeID, numNodes, outEdges, outEdgeOffsets, localSPathLengths);
-							
-							final int eccentricity = pathLengths.getMaxLength();
-							localDiameter = Math.max(localDiameter, eccentricity);
-							if (0 < eccentricity)
-								localRadius = Math.min(localRadius, eccentricity);
-							
-							final double apl = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
-							synchronized (parent.aplMap)
-							{
-								parent.aplMap.put(node, Double.valueOf(apl));
-							}
-							
-							final double closeness = (apl > 0.0) ? 1 / apl : 0.0;
-							synchronized (parent.closenessCent)
-							{
-								parent.closenessCent.add(new Point2D.Double(neighborCount, closeness));
-							}
-		
-							if (useNodeAttributes) {
-								nodeRow.set(Messages.getAttr("spl"), eccentricity);
-								nodeRow.set(Messages.getAttr("apl"), Utils.roundTo(apl, roundingDigits));
-								nodeRow.set(Messages.getAttr("clc"), Utils.roundTo(closeness, roundingDigits));
-							}
-		
-							// CyNode and edge betweenness calculation
-							if (computeNB)
-								computeNBandEB(nodeID, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, inEdgeOffsets,
-											   localNodeBetweenness, localStress, localEdgeBetweenness);
-						}
-		
-						if (parent.cancelled)
-							break;
-					}
-					
-					// Reduce results into global (parent's) variables
-					synchronized (parent)
-					{
-						parent.diameter = Math.max(parent.diameter, localDiameter);
-						parent.radius = Math.min(parent.radius, localRadius);
-						for (int i = 0; i < localSPathLengths.length; i++)
-							parent.sPathLengths[i] += localSPathLengths[i];
-						for (int i = 0; i < localNodeBetweenness.length; i++)
-							parent.nodeBetweennessLean[i] += localNodeBetweenness[i];
-						for (int i = 0; i < localEdgeBetweenness.length; i++)
-							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i];
-						for (int i = 0; i < localStress.length; i++)
-							parent.stressLean[i] += localStress[i];
-					}
-				}
-			}
-			
-			int numThreads = Runtime.getRuntime().availableProcessors();
-			ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
-			List<Future<?>> futures = new LinkedList<Future<?>>();
-			for (int i = 0; i < numThreads; i++)
-				futures.add(threadPool.submit(new NodeTask(this, i)));
-			for (Future<?> future : futures)
-				try {
-					future.get();
-				} catch (Exception e) { } 
-			
-			if (cancelled)
-			{
-				analysisFinished();
-				return;
-			}
-			
-			// Normalize and save betweenness and stress
-			if (nodeSet == null && computeNB) 
-			{
-				for (final CyNode n : connNodes) 
-				{
-					int nodeID = node2Int.get(n);
-					
-					final double nNormFactor = computeNormFactor(numNodes);
-					double nb = nodeBetweennessLean[nodeID] * nNormFactor;
-					if (Double.isNaN(nb))
-						nb = 0.0;
-					final int connectivity = getNeighbors(n).size();
-					nodeBetweennessArray.add(new Point2D.Double(connectivity, nb));
-					
-					final long nodeStress = stressLean[nodeID];
-					stressDist.addObservation(nodeStress);
-					
-					if (useNodeAttributes) {
-						network.getRow(n).set(Messages.getAttr("nbt"), Utils.roundTo(nb, roundingDigits));
-						network.getRow(n).set(Messages.getAttr("stress"), nodeStress);
-					}
-				}
+		// Compute number of connected components
+		final ComponentLabeling components = snapshot.getLabeling();
+		final int connectedComponentsCount = components.getComponentCount();
 
-				// Save edge betweenness
-				if (useEdgeAttributes) 
-				{
-					for (CyEdge edge : connEdges)
-					{
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);						
-						double eb = Double.NaN;
-						if (edgeHash2Int.containsKey(edgeHash))
-							eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
-						
-						if (Double.isNaN(eb)) {
-							eb = 0.0;
-						}
-						network.getRow(edge).set(Messages.getAttr("ebt"), Utils.roundTo(eb, roundingDigits));
-					}
-				}
-			}
+		// Process the connected components
+		final BetweennessSampler sampler = createSampler();
+		final ClusteringSampler clusteringSampler = createClusteringSampler(graph);
+		final List<ComponentJob> jobs = new ArrayList<ComponentJob>(connectedComponentsCount);
+		for (final GraphSnapshot comp : snapshot.getComponents(interpr))
+			jobs.add(new ComponentJob(comp, sampler, clusteringSampler));
+		if (!new ComponentScheduler(this).run(jobs))
+		{
+			return;
 		}
 
 		// Save in and out degree distributions in the statistics instance
 		stats.set("inDegreeDist", inDegreeDist.createHistogram());
 		stats.set("outDegreeDist", outDegreeDist.createHistogram());
+		saveCoreness(coreSizes, degeneracy);
 
 		// Save C(k) in the statistics instance
 		if (CCps.size() > 0) {
@@ -506,8 +169,12 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 				stats.set("cksDist", new Points2D(averages));
 			}
 		}
+		if (nodeSet == null && neighborPairs > 0) {
+			stats.set("transitivity", neighborArcs / neighborPairs);
+		}
+		saveClusteringError(clusteringSampler, neighborPairs, CCps);
 
-		if (nodeSet == null) {
+		if (nodeSet == null && plan.needsTraversal()) {
 			long connPairs = 0; // total number of connected pairs of nodes
 			long totalPathLength = 0;
 			for (int i = 1; i <= diameter; ++i) {
@@ -525,13 +192,34 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 					stats.set("splDist", new LongHistogram(sPathLengths, 1, diameter));
 				}
 			}			
+		} else if (nodeSet == null && plan.computes(Metric.DIAMETER) && diameter > 0) {
+			stats.set("diameter", diameter);
+			stats.set("radius", radius);
+		}
+		if (nodeSet == null && plan.isPathsEstimated()) {
+			saveEstimatedPathLengths(graph, graph.getOutOffsets(), graph.getOutNeighbors(), -1, useNodeAttributes);
 		}
+		saveSpectralCentralities(graph, graph.getInOffsets(), graph.getInNeighbors(), graph.getOutOffsets(),
+				useNodeAttributes);
 
 		if (neighborsAccum != null) {
 			stats.set("avNeighbors", neighborsAccum.getAverage());
 		}
 		stats.set("density", (double) (outNeighbors / (nodeCount * (nodeCount - 1))));
 		stats.set("ncc", connectedComponentsCount);
+		if (nodeSet == null) {
+			// Save the number and the size distribution of the strongly connected components
+			stats.set("sccCount", strongComponentCount);
+			if (strongComponentCount > 1) {
+				final List<Point2D.Double> sizes = new ArrayList<Point2D.Double>();
+				for (int size = 1; size <= nodeCount; size++) {
+					if (strongComponentSizes[size] != 0) {
+						sizes.add(new Point2D.Double(size, strongComponentSizes[size]));
+					}
+				}
+				stats.set("sccSizeDist", new Points2D(sizes));
+			}
+		}
 		stats.set("usn", numberOfIsolatedNodes);
 		stats.set("nsl", numberOfSelfLoops);
 		stats.set("mnp", multiEdgePartners / 2);
@@ -558,181 +246,724 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 		}
 
 		// Save stress distribution in the statistics instance
-		if (nodeSet == null && computeNB) {
+		if (nodeSet == null && plan.computes(Metric.STRESS)) {
 			stats.set("stressDist", stressDist.createPoints2D());
 		}
+		saveBetweennessError(sampler, useNodeAttributes);
 
-		analysisFinished();
 		time = System.currentTimeMillis() - time;
 		stats.set("time", time / 1000.0);
-		progress = nodeCount;
-	}
-
-	/**
-	 * Gets all incoming edges of the given node.
-	 * 
-	 * @param aNode
-	 *            Node, of which incoming edges are to be found.
-	 * @return Array of edge indices, containing all the edges in the network that point to
-	 *         <code>aNode</code> .
-	 */
-	private List<CyEdge> getInEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, CyEdge.Type.INCOMING);
-	}
-
-	/**
-	 * Gets all outgoing edges of the given node.
-	 * 
-	 * @param aNode
-	 *            Node, of which outgoing edges are to be found.
-	 * @return Array of edge indices, containing all the edges in the network that start from
-	 *         <code>aNode</code>.
-	 */
-	private List<CyEdge> getOutEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, CyEdge.Type.OUTGOING);
+		progress.reset();
+		progress.add(nodeCount);
 	}
 
 	/**
-	 * Gets all the neighbors of the given node.
+	 * Computation of the topological parameters of the nodes in a connected component.
 	 * <p>
-	 * Note that the node is never returned as its neighbor.
+	 * The workers of the job store the values of every node in arrays; these values are accumulated
+	 * into the statistics of the network by {@link #finish()}, node by node, and written to the node
+	 * and edge attributes in a single pass per attribute.
+	 * </p>
+	 * <p>
+	 * The structures the workers depend on, like the decompositions of the component and its triangle
+	 * counter, are built by {@link #prepare()} in the thread pool, not by the thread creating the job.
 	 * </p>
-	 * 
-	 * @param aNode
-	 *            Node, whose neighbors are to be found.
-	 * @param aInEdges
-	 *            Array of all incoming edges of <code>aNode</code>.
-	 * @param aOutEdges
-	 *            Array of all outgoing edges of <code>aNode</code>.
-	 * @return <code>Set</code> of <code>Node</code> instances, containing all the neighbors of
-	 *         <code>aNode</code>; empty set if the node specified is an isolatd vertex.
 	 */
-	private Set<CyNode> getNeighbors(CyNode aNode, List<CyEdge> aInEdges, List<CyEdge> aOutEdges) {
-		Set<CyNode> neighborSet = new HashSet<CyNode>();
-		for (final CyEdge e : aInEdges) {
-			final CyNode sourceNode = e.getSource();
-			if (sourceNode != aNode) {
-				neighborSet.add(sourceNode);
+	private final class ComponentJob extends ComponentScheduler.Job
+	{
+		/**
+		 * Initializes a new instance of <code>ComponentJob</code>.
+		 * 
+		 * @param aComp Snapshot of the connected component.
+		 * @param aSampler Sampler of the source nodes for betweenness and stress; <code>null</code> if
+		 *        these are computed exactly.
+		 * @param aClusteringSampler Sampler of the pairs of neighbors for clustering coefficients;
+		 *        <code>null</code> if these are computed exactly.
+		 */
+		public ComponentJob(GraphSnapshot aComp, BetweennessSampler aSampler, ClusteringSampler aClusteringSampler)
+		{
+			super(aComp.getNodeCount());
+			comp = aComp;
+			numNodes = comp.getNodeCount();
+			edgeOffsets = comp.getNeighborOffsets();
+			edges = comp.getNeighbors();
+			outEdgeOffsets = comp.getOutOffsets();
+			outEdges = comp.getOutNeighbors();
+			inEdgeOffsets = comp.getInOffsets();
+			inEdges = comp.getInNeighbors();
+			
+			int numNodesLeft = 0;
+			nodesLeft = new int[numNodes];
+			for (int nodeID = 0; nodeID < numNodes; nodeID++)
+				if (nodeSet == null || nodeSet.contains(comp.getNode(nodeID)))
+					nodesLeft[numNodesLeft++] = nodeID;
+			numNodesToProcess = numNodesLeft;
+			dispenser = new NodeDispenser(numNodesToProcess, AnalysisThreadPool.getParallelism());
+			traversal = nodeSet == null && plan.needsTraversal();
+			eccentricities = nodeSet == null && plan.computes(Metric.DIAMETER);
+			dependencies = nodeSet == null && plan.needsDependencies();
+			sources = dependencies && aSampler != null ? aSampler.sample(numNodes) : null;
+			clusteringSampler = aClusteringSampler;
+			
+			arcsLean = new long[plan.computes(Metric.CLUSTERING) ? numNodes : 0];
+			ccoSamplesLean = new int[clusteringSampler != null ? numNodes : 0];
+			ccoLean = new double[numNodes];
+			ncoLean = new double[numNodes];
+			inNcoLean = new double[numNodes];
+			outNcoLean = new double[numNodes];
+			eccLean = new int[numNodes];
+			aplLean = new double[numNodes];
+			sPathLengthsLean = new long[numNodes];
+			nodeBetweennessLean = new double[dependencies ? numNodes : 0];
+			edgeBetweennessLean = new double[dependencies ? comp.getArcCount() : 0];
+			stressLean = new long[dependencies ? numNodes : 0];
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#prepare()
+		 */
+		@Override
+		protected void prepare()
+		{
+			// Concatenate the out- and in-neighbors of every node, as required by the betweenness computation
+			inoutEdgeOffsets = new int[numNodes + 1];
+			inoutEdges = new int[outEdges.length + inEdges.length];
+			inoutEdgeIDs = new int[inoutEdges.length];
+			final int[] inArcIDs = comp.getInArcIDs();
+			int inoutOffset = 0;
+			for (int nodeID = 0; nodeID < numNodes; nodeID++)
+			{
+				inoutEdgeOffsets[nodeID] = inoutOffset;
+				for (int ei = outEdgeOffsets[nodeID]; ei < outEdgeOffsets[nodeID + 1]; ei++)
+				{
+					inoutEdgeIDs[inoutOffset] = ei;
+					inoutEdges[inoutOffset++] = outEdges[ei];
+				}
+				for (int ei = inEdgeOffsets[nodeID]; ei < inEdgeOffsets[nodeID + 1]; ei++)
+				{
+					inoutEdgeIDs[inoutOffset] = inArcIDs[ei];
+					inoutEdges[inoutOffset++] = inEdges[ei];
+				}
 			}
+			inoutEdgeOffsets[numNodes] = inoutOffset;
+			
+			if (nodeSet == null)
+				strong = StrongComponents.create(numNodes, outEdgeOffsets, outEdges);
+			processingOrder = strong != null ? strong.getOrderedNodes() : nodesLeft;
+			if (plan.computes(Metric.CORENESS))
+				cores = CoreDecomposition.create(numNodes, edgeOffsets, edges);
+			if (plan.computes(Metric.CLUSTERING))
+				triangles = TriangleCounter.create(numNodes, edgeOffsets, edges, outEdgeOffsets, outEdges, 
+						inEdgeOffsets, inEdges, cores != null ? cores.getRanks() : null);
 		}
-		for (final CyEdge e : aOutEdges) {
-			final CyNode targetNode = e.getTarget();
-			if (targetNode != aNode) {
-				neighborSet.add(targetNode);
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#createWorker(de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace)
+		 */
+		@Override
+		protected Runnable createWorker(TraversalWorkspace aWorkspace)
+		{
+			return new NodeTask(aWorkspace);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#finish()
+		 */
+		@Override
+		protected void finish()
+		{
+			for (int i = 0; i < numNodesToProcess; i++)
+			{
+				final int nodeID = nodesLeft[i];
+				
+				// Undirected edges are both incoming and outgoing
+				inDegreeDist.addObservation(comp.getInDirectedCount(nodeID) + comp.getUndirectedCount(nodeID));
+				outDegreeDist.addObservation(comp.getOutDirectedCount(nodeID) + comp.getUndirectedCount(nodeID));
+				
+				final int neighborCount = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID];
+				final int outNeighborCount = outEdgeOffsets[nodeID + 1] - outEdgeOffsets[nodeID];
+				final int inNeighborCount = inEdgeOffsets[nodeID + 1] - inEdgeOffsets[nodeID];
+				if (neighborsAccum == null)
+					neighborsAccum = new SumCountPair(neighborCount);
+				else
+					neighborsAccum.add(neighborCount);
+				
+				// Number of unconnected nodes calculation
+				if (neighborCount == 0)
+					numberOfIsolatedNodes++;
+				numberOfSelfLoops += comp.getDirectedLoopCount(nodeID) + comp.getUndirectedLoopCount(nodeID);
+				multiEdgePartners += comp.getMultiPartnerCount(nodeID);
+				if (cores != null)
+					coreSizes[cores.getCoreness(nodeID)]++;
+				
+				if (neighborCount > 1 && plan.computes(Metric.CLUSTERING))
+				{
+					final long pairs = (long) neighborCount * (neighborCount - 1);
+					if (clusteringSampler != null && ccoSamplesLean[nodeID] > 0)
+					{
+						clusteringSampler.record(neighborCount, ccoSamplesLean[nodeID]);
+						neighborArcs += ccoLean[nodeID] * pairs;
+					}
+					else
+					{
+						ccoLean[nodeID] = (double) arcsLean[nodeID] / (double) pairs;
+						neighborArcs += arcsLean[nodeID];
+					}
+					accumulate(CCps, neighborCount, ccoLean[nodeID]);
+					neighborPairs += pairs;
+				}
+				outNeighbors += outNeighborCount;
+				if (plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+				{
+					if (neighborCount > 0)
+						accumulate(ioNCps, neighborCount, ncoLean[nodeID]);
+					if (outNeighborCount > 0) 
+						accumulate(outNCps, outNeighborCount, outNcoLean[nodeID]);
+					if (inNeighborCount > 0)
+						accumulate(inNCps, inNeighborCount, inNcoLean[nodeID]);
+				}
+				
+				if (eccentricities)
+				{
+					final int eccentricity = eccLean[nodeID];
+					diameter = Math.max(diameter, eccentricity);
+					if (0 < eccentricity)
+						radius = Math.min(radius, eccentricity);
+					
+					if (plan.computes(Metric.CLOSENESS))
+					{
+						final double apl = aplLean[nodeID];
+						final double closeness = (apl > 0.0) ? 1 / apl : 0.0;
+						closenessCent.add(new Point2D.Double(neighborCount, closeness));
+					}
+				}
 			}
+			
+			for (int i = 0; i < numNodes; i++)
+				sPathLengths[i] += sPathLengthsLean[i];
+			if (cores != null)
+				degeneracy = Math.max(degeneracy, cores.getDegeneracy());
+			
+			if (strong != null)
+			{
+				strongComponentCount += strong.getComponentCount();
+				for (int c = 0; c < strong.getComponentCount(); c++)
+					strongComponentSizes[strong.getSize(c)]++;
+			}
+			
+			// Normalize betweenness and accumulate stress
+			if (sources != null)
+				BetweennessSampler.scale(sources, nodeBetweennessLean, edgeBetweennessLean, stressLean);
+			if (dependencies) 
+			{
+				final double nNormFactor = computeNormFactor(numNodes);
+				for (int nodeID = 0; nodeID < numNodes; nodeID++) 
+				{
+					double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+					if (Double.isNaN(nb))
+						nb = 0.0;
+					nodeBetweennessLean[nodeID] = nb;
+					final int connectivity = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID];
+					if (plan.computes(Metric.BETWEENNESS))
+						nodeBetweennessArray.add(new Point2D.Double(connectivity, nb));
+					if (plan.computes(Metric.STRESS))
+						stressDist.addObservation(stressLean[nodeID]);
+				}
+			}
+			
+			if (useNodeAttributes)
+				storeNodeAttributes();
+			if (useEdgeAttributes && dependencies && plan.computes(Metric.BETWEENNESS))
+				storeEdgeAttributes();
 		}
-		return neighborSet;
-	}
 
-	/**
-	 * Gets all neighbors of the given node.
-	 * 
-	 * @param aNode
-	 *            Node, whose neighbors are to be found.
-	 * @return <code>Set</code> of <code>Node</code> instances, containing all the neighbors of
-	 *         <code>aNode</code>; empty set if the node specified is an isolated vertex.
-	 * @see CyNetworkUtils#getNeighbors(CyNetwork, Node, int[])
-	 */
-	private Set<CyNode> getNeighbors(CyNode aNode) {
-		return getNeighbors(aNode, getInEdges(aNode), getOutEdges(aNode));
-	}
+		/**
+		 * Stores the computed parameters of the processed nodes in the node attributes.
+		 * <p>
+		 * The rows of the nodes are looked up once and the attributes are written column by column,
+		 * from the thread finishing the job.
+		 * </p>
+		 */
+		private void storeNodeAttributes()
+		{
+			final CyRow[] rows = new CyRow[numNodesToProcess];
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i] = network.getRow(comp.getNode(nodesLeft[i]));
 
-	/**
-	 * Gets all out-neighbors of the given node.
-	 * 
-	 * @param aNode
-	 *            Node, whose out-neighbors are to be found.
-	 * @return <code>Set</code> of <code>Node</code> instances, containing all the out-neighbors of
-	 *         <code>aNode</code>; empty set if the specified node does not have outgoing edges.
-	 * @see CyNetworkUtils#getNeighbors(CyNetwork, Node, int[])
-	 */
-	private Set<CyNode> getOutNeighbors(CyNode aNode) {
-		return CyNetworkUtils.getNeighbors(network, aNode, getOutEdges(aNode));
-	}
+			// Degrees and simple parameters; undirected edges are both incoming and outgoing
+			String column = Messages.getAttr("din");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getInDirectedCount(nodesLeft[i]) + comp.getUndirectedCount(nodesLeft[i]));
+			column = Messages.getAttr("dou");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getOutDirectedCount(nodesLeft[i]) + comp.getUndirectedCount(nodesLeft[i]));
+			column = Messages.getAttr("dal");
+			for (int i = 0; i < numNodesToProcess; i++)
+			{
+				final int nodeID = nodesLeft[i];
+				rows[i].set(column, comp.getInDirectedCount(nodeID) + comp.getOutDirectedCount(nodeID)
+						+ 2 * comp.getUndirectedCount(nodeID));
+			}
+			column = Messages.getAttr("isn");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, edgeOffsets[nodesLeft[i] + 1] == edgeOffsets[nodesLeft[i]]);
+			column = Messages.getAttr("slo");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getDirectedLoopCount(nodesLeft[i]) + comp.getUndirectedLoopCount(nodesLeft[i]));
+			column = Messages.getAttr("pmn");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getMultiPartnerCount(nodesLeft[i]));
+			if (cores != null)
+			{
+				column = Messages.getAttr("cor");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, cores.getCoreness(nodesLeft[i]));
+			}
 
-	/**
-	 * Gets all in-neighbors of the given node.
-	 * 
-	 * @param aNode
-	 *            Node, whose in-neighbors are to be found.
-	 * @return <code>Set</code> of <code>Node</code> instances, containing all the in-neighbors of
-	 *         <code>aNode</code>; empty set if the specified node does not have incoming edges.
-	 * @see CyNetworkUtils#getNeighbors(CyNetwork, Node, int[])
-	 */
-	private Set<CyNode> getInNeighbors(CyNode aNode) {
-		return CyNetworkUtils.getNeighbors(network, aNode, getInEdges(aNode));
-	}
+			// Clustering coefficients and neighborhood connectivity
+			if (plan.computes(Metric.CLUSTERING))
+			{
+				column = Messages.getAttr("cco");
+				for (int i = 0; i < numNodesToProcess; i++)
+				{
+					final int nodeID = nodesLeft[i];
+					final boolean defined = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID] > 1;
+					rows[i].set(column, defined ? Utils.roundTo(ccoLean[nodeID], roundingDigits) : 0.0);
+				}
+			}
+			if (plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+			{
+				column = Messages.getAttr("nco");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, ncoLean[nodesLeft[i]]);
+			}
 
-	/**
-	 * Computes the shortest path lengths from the given node to all other nodes in the network,
-	 * and builds related statistics.
-	 * @param node Source node ID.
-	 * @param numNodes Number of nodes in graph.
-	 * @param edges Array with every node's neighbor indices.
-	 * @param edgeOffsets Array with the indices of each node's first neighbor in <code>edges</code>.
-	 * @param outSPathLengths Array that will hold the updated shortest path length histogram.
-	 * @return Data on the shortest path lengths from the current node to all other reachable nodes in the network.
-	 */
-	private PathLengthData computeSP(int node, int numNodes, int[] edges, int[] edgeOffsets, long[] outSPathLengths) 
-	{
-		boolean[] visited = new boolean[numNodes];
-		visited[node] = true;
-		int[] frontier = new int[numNodes];
-		int[] nextFrontier = new int[numNodes];
-		frontier[0] = node;
-		int frontierSize = 1;
-		int length = 1;
-		
-		PathLengthData result = new PathLengthData();
-		
-		while (frontierSize > 0)
+			if (traversal)
+			{
+				// Shortest path lengths and closeness
+				column = Messages.getAttr("spl");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, eccLean[nodesLeft[i]]);
+				column = Messages.getAttr("apl");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, Utils.roundTo(aplLean[nodesLeft[i]], roundingDigits));
+				if (plan.computes(Metric.CLOSENESS))
+				{
+					column = Messages.getAttr("clc");
+					for (int i = 0; i < numNodesToProcess; i++)
+					{
+						final double apl = aplLean[nodesLeft[i]];
+						rows[i].set(column, Utils.roundTo((apl > 0.0) ? 1 / apl : 0.0, roundingDigits));
+					}
+				}
+			}
+
+			// Node betweenness and stress
+			if (dependencies && plan.computes(Metric.BETWEENNESS))
+			{
+				column = Messages.getAttr("nbt");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, Utils.roundTo(nodeBetweennessLean[nodesLeft[i]], roundingDigits));
+			}
+			if (dependencies && plan.computes(Metric.STRESS))
+			{
+				column = Messages.getAttr("stress");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, stressLean[nodesLeft[i]]);
+			}
+		}
+
+		/**
+		 * Stores the edge betweenness of the edges in the component in the edge attributes.
+		 */
+		private void storeEdgeAttributes()
 		{
-			int nextFrontierSize = 0;
-			
-			for (int fi = 0; fi < frontierSize; fi++)
+			final String column = Messages.getAttr("ebt");
+			for (int edge = 0; edge < comp.getEdgeCount(); edge++)
 			{
-				int n = frontier[fi];
-				int firstNeighbor = edgeOffsets[n], lastNeighbor = edgeOffsets[n + 1];
+				final int arcID = comp.getArcID(edge);
+				double eb = Double.NaN;
+				if (arcID >= 0)
+					eb = edgeBetweennessLean[arcID];
 				
-				for (int ni = firstNeighbor; ni < lastNeighbor; ni++)
+				if (Double.isNaN(eb)) {
+					eb = 0.0;
+				}
+				network.getRow(comp.getEdge(edge)).set(column, Utils.roundTo(eb, roundingDigits));
+			}
+		}
+
+		/**
+		 * Worker processing nodes of the component, until none are left.
+		 */
+		private final class NodeTask implements Runnable
+		{
+			/**
+			 * Initializes a new instance of <code>NodeTask</code>.
+			 * 
+			 * @param aWorkspace Traversal workspace of the thread running the task.
+			 */
+			public NodeTask(TraversalWorkspace aWorkspace)
+			{
+				workspace = aWorkspace;
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() 
+			{
+				long[] localSPathLengths = new long[traversal ? numNodes : 0];
+				double[] localNodeBetweenness = new double[nodeBetweennessLean.length];
+				double[] localEdgeBetweenness = new double[edgeBetweennessLean.length];
+				long[] localStress = new long[stressLean.length];
+				long[] localArcs = new long[nodeSet == null && clusteringSampler == null ? arcsLean.length : 0];
+				int nextNode = 0, lastNode = 0;	// Chunk of processingOrder claimed by this task
+				int[] batch = new int[eccentricities ? MultiSourceBfs.WIDTH : 0];	// Sources of the next multi-source traversal
+				int batchSize = 0;
+		
+				while (true)
 				{
-					int neighbor = edges[ni];
-					if (!visited[neighbor])
+					if (nextNode == lastNode)
 					{
-						visited[neighbor] = true;
-						nextFrontier[nextFrontierSize++] = neighbor;
+						nextNode = dispenser.claim();
+						if (nextNode < 0)
+							break;
+						lastNode = dispenser.chunkEnd(nextNode);
 					}
+					int nodeID = processingOrder[nextNode++];
+					progress.increment();
+					
+					int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
+					int outFirstEdge = outEdgeOffsets[nodeID], outLastEdge = outEdgeOffsets[nodeID + 1];
+					int inFirstEdge = inEdgeOffsets[nodeID], inLastEdge = inEdgeOffsets[nodeID + 1];
+	
+					int neighborCount = lastEdge - firstEdge;
+					int outNeighborCount = outLastEdge - outFirstEdge;
+					int inNeighborCount = inLastEdge - inFirstEdge;
+					
+					// Arcs among the neighbors for the clustering coefficients; when all nodes are processed, 
+					// every triangle is listed once, from its lowest-ranked node
+					if (neighborCount > 1 && plan.computes(Metric.CLUSTERING)) 
+					{
+						final int sampleSize = clusteringSampler != null ? 
+								clusteringSampler.getSampleSize(neighborCount) : 0;
+						if (sampleSize > 0)
+						{
+							ccoSamplesLean[nodeID] = sampleSize;
+							ccoLean[nodeID] = ClusteringSampler.estimate(nodeID, sampleSize, 
+									comp.getNode(nodeID).getSUID(), edgeOffsets, edges, outEdgeOffsets, outEdges);
+						}
+						else if (localArcs.length != 0)
+							triangles.countFrom(nodeID, localArcs);
+						else
+							arcsLean[nodeID] = triangles.countAt(nodeID);
+					}
+	
+					// Neighborhood connectivity calculation
+					// -------------------------------------
+					if (plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+					{
+						ncoLean[nodeID] = averageNeighbors(edges, firstEdge, lastEdge, edgeOffsets);
+						if (outNeighborCount > 0) 
+							outNcoLean[nodeID] = averageNeighbors(outEdges, outFirstEdge, outLastEdge, outEdgeOffsets);
+						if (inNeighborCount > 0) 
+							inNcoLean[nodeID] = averageNeighbors(inEdges, inFirstEdge, inLastEdge, inEdgeOffsets);
+					}
+	
+					final boolean source = dependencies && (sources == null || sources[nodeID]);
+					if (eccentricities && !source) {
+						// Without betweenness, the distances are computed for many sources at once;
+						// nodes without out-neighbors reach no other node and are left at zero
+						if (outNeighborCount > 0) {
+							batch[batchSize++] = nodeID;
+							if (batchSize == batch.length) {
+								traverseBatch(batch, batchSize, localSPathLengths);
+								batchSize = 0;
+							}
+						}
+					} else if (source) {
+						// Compute shortest path lengths, node and edge betweenness
+						PathLengthData pathLengths = computeSPandNB(nodeID, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, 
+								inEdgeOffsets, traversal ? localSPathLengths : null, source ? localNodeBetweenness : null, localStress, 
+								localEdgeBetweenness, workspace);
+						
+						if (traversal) {
+							eccLean[nodeID] = pathLengths.getMaxLength();
+							aplLean[nodeID] = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
+						}
+					}
+	
+					if (cancelled)
+						break;
+				}
+				if (batchSize > 0 && !cancelled)
+					traverseBatch(batch, batchSize, localSPathLengths);
+				
+				// Reduce results into the component's arrays
+				synchronized (ComponentJob.this)
+				{
+					for (int i = 0; i < localSPathLengths.length; i++)
+						sPathLengthsLean[i] += localSPathLengths[i];
+					for (int i = 0; i < localNodeBetweenness.length; i++)
+					{
+						nodeBetweennessLean[i] += localNodeBetweenness[i];
+						stressLean[i] += localStress[i];
+					}
+					for (int i = 0; i < localEdgeBetweenness.length; i++)
+						edgeBetweennessLean[i] += localEdgeBetweenness[i];
+					for (int i = 0; i < localArcs.length; i++)
+						arcsLean[i] += localArcs[i];
 				}
 			}
-			
-			for (int nfi = 0; nfi < nextFrontierSize; nfi++)
+
+			/**
+			 * Computes the shortest path lengths from the given nodes in a single multi-source traversal.
+			 * 
+			 * @param aBatch Array starting with the source nodes.
+			 * @param aCount Number of source nodes.
+			 * @param aSPathLengths Shortest path lengths histogram of this task; ignored if only the
+			 *        eccentricities are needed.
+			 */
+			private void traverseBatch(int[] aBatch, int aCount, long[] aSPathLengths)
 			{
-				frontier[nfi] = nextFrontier[nfi];
-				result.addSPL(length);
+				// Only the strongly connected components following those of the sources can be reached
+				final int[] order = strong != null ? strong.getOrderedNodes() : null;
+				int start = 0;
+				if (strong != null)
+				{
+					final int[] labels = strong.getLabels();
+					int first = labels[aBatch[0]];
+					for (int lane = 1; lane < aCount; lane++)
+						first = Math.min(first, labels[aBatch[lane]]);
+					start = strong.getComponentOffsets()[first];
+				}
+				final MultiSourceBfs bfs = workspace.getMultiSourceBfs();
+				bfs.run(aBatch, 0, aCount, numNodes, outEdges, outEdgeOffsets, inEdges, inEdgeOffsets, order, start, null, 
+						traversal ? aSPathLengths : null);
+				for (int lane = 0; lane < aCount; lane++)
+				{
+					eccLean[aBatch[lane]] = bfs.getEccentricity(lane);
+					aplLean[aBatch[lane]] = bfs.getAverageLength(lane);
+				}
 			}
 
-			outSPathLengths[length] += nextFrontierSize;
-			frontierSize = nextFrontierSize;
-			length++;
+			/**
+			 * Traversal workspace of the thread running this task.
+			 */
+			private final TraversalWorkspace workspace;
 		}
-		
-		return result;
+
+		/**
+		 * Snapshot of the connected component.
+		 */
+		private final GraphSnapshot comp;
+
+		/**
+		 * Number of nodes in the component.
+		 */
+		private final int numNodes;
+
+		/**
+		 * Indices of the first neighbor of every node in {@link #edges}.
+		 */
+		private final int[] edgeOffsets;
+
+		/**
+		 * Neighbor lists of the nodes, ignoring edge direction.
+		 */
+		private final int[] edges;
+
+		/**
+		 * Indices of the first out-neighbor of every node in {@link #outEdges}.
+		 */
+		private final int[] outEdgeOffsets;
+
+		/**
+		 * Out-neighbor lists of the nodes.
+		 */
+		private final int[] outEdges;
+
+		/**
+		 * Indices of the first in-neighbor of every node in {@link #inEdges}.
+		 */
+		private final int[] inEdgeOffsets;
+
+		/**
+		 * In-neighbor lists of the nodes.
+		 */
+		private final int[] inEdges;
+
+		/**
+		 * Indices of the first entry of every node in {@link #inoutEdges}.
+		 */
+		private int[] inoutEdgeOffsets;
+
+		/**
+		 * Out-neighbors followed by in-neighbors of every node.
+		 */
+		private int[] inoutEdges;
+
+		/**
+		 * IDs of the arcs in {@link #inoutEdges}.
+		 */
+		private int[] inoutEdgeIDs;
+
+		/**
+		 * Nodes to be processed; only the first {@link #numNodesToProcess} entries are used.
+		 */
+		private final int[] nodesLeft;
+
+		/**
+		 * Number of nodes to be processed.
+		 */
+		private final int numNodesToProcess;
+
+		/**
+		 * Order in which the node tasks process the nodes in {@link #nodesLeft}; when analyzing the
+		 * whole network, the nodes grouped by strongly connected component in topological order, so
+		 * that the sources of a multi-source traversal reach few components.
+		 */
+		private int[] processingOrder;
+
+		/**
+		 * Strongly connected components of the component; <code>null</code> if the parameters are
+		 * computed for a subset of the nodes.
+		 */
+		private StrongComponents strong;
+
+		/**
+		 * Dispenser of the positions in {@link #processingOrder} to the node tasks.
+		 */
+		private final NodeDispenser dispenser;
+
+		/**
+		 * Flag indicating if shortest paths are computed by traversals from the processed nodes.
+		 */
+		private final boolean traversal;
+
+		/**
+		 * Flag indicating if the eccentricities of the processed nodes are computed; also set when only
+		 * the diameter and the radius are needed, as bounding the eccentricities does not apply to
+		 * directed networks with several strongly connected components.
+		 */
+		private final boolean eccentricities;
+
+		/**
+		 * Flag indicating if betweenness and stress are accumulated during the traversals.
+		 */
+		private final boolean dependencies;
+
+		/**
+		 * Flags marking the sampled source nodes; <code>null</code> if all the nodes are sources.
+		 */
+		private final boolean[] sources;
+
+		/**
+		 * Core decomposition of the undirected view of the component; <code>null</code> if the coreness
+		 * is not computed. Its degeneracy ordering also ranks the nodes for the triangle counter.
+		 */
+		private CoreDecomposition cores;
+
+		/**
+		 * Triangle counter of the component; <code>null</code> if clustering coefficients are not
+		 * computed.
+		 */
+		private TriangleCounter triangles;
+
+		/**
+		 * Sampler of the pairs of neighbors for clustering coefficients; <code>null</code> if these are
+		 * computed exactly.
+		 */
+		private final ClusteringSampler clusteringSampler;
+
+		/**
+		 * Number of arcs among the neighbors of every node.
+		 */
+		private final long[] arcsLean;
+
+		/**
+		 * Number of pairs of neighbors sampled for every node; <code>0</code> if its clustering
+		 * coefficient is exact.
+		 */
+		private final int[] ccoSamplesLean;
+
+		/**
+		 * Clustering coefficient of every node.
+		 */
+		private final double[] ccoLean;
+
+		/**
+		 * Neighborhood connectivity of every node, ignoring edge direction.
+		 */
+		private final double[] ncoLean;
+
+		/**
+		 * Neighborhood connectivity of every node, considering incoming edges only.
+		 */
+		private final double[] inNcoLean;
+
+		/**
+		 * Neighborhood connectivity of every node, considering outgoing edges only.
+		 */
+		private final double[] outNcoLean;
+
+		/**
+		 * Eccentricity of every node.
+		 */
+		private final int[] eccLean;
+
+		/**
+		 * Average shortest path length of every node.
+		 */
+		private final double[] aplLean;
+
+		/**
+		 * Histogram of shortest path lengths in the component.
+		 */
+		private final long[] sPathLengthsLean;
+
+		/**
+		 * Node betweenness accumulated for every node.
+		 */
+		private final double[] nodeBetweennessLean;
+
+		/**
+		 * Edge betweenness accumulated for every arc.
+		 */
+		private final double[] edgeBetweennessLean;
+
+		/**
+		 * Stress accumulated for every node.
+		 */
+		private final long[] stressLean;
 	}
 
 	/**
-	 * Computes the average number of neighbors of the nodes in a given node set.
+	 * Computes the average number of neighbors of the nodes in a range of a neighbor list.
 	 * @param nodes Array with neighbor indices.
+	 * @param first Index of the first node of the range in <code>nodes</code>.
+	 * @param last Index following the last node of the range in <code>nodes</code>.
 	 * @param edgeOffsets Array with the indices of each node's first neighbor.
-	 * @return Average number of neighbors of the nodes in <code>nodes</code>;
-	 *         NaN if <code>nodes.length</code> is 0.
+	 * @return Average number of neighbors of the nodes in the range;
+	 *         NaN if the range is empty.
 	 */
-	private double averageNeighbors(int[] nodes, int[] edgeOffsets)
+	private double averageNeighbors(int[] nodes, int first, int last, int[] edgeOffsets)
 	{
 		int neighbors = 0;
-		for (int node : nodes)
-			neighbors += edgeOffsets[node + 1] - edgeOffsets[node];
+		for (int i = first; i < last; i++)
+			neighbors += edgeOffsets[nodes[i] + 1] - edgeOffsets[nodes[i]];
 		
-		return (double)neighbors / (double)nodes.length;
+		return (double)neighbors / (double)(last - first);
 	}
 
 	/**
@@ -779,35 +1010,98 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 * @param source
 	 *            CyNode where a run of breadth-first search is started, in order to accumulate the
 	 *            node and edge betweenness of all other nodes
+	 * @see #computeSPandNB(int, int, int[], int[], int[], int[], long[], double[], long[], double[])
 	 */
 	public static void computeNBandEB(int source, int numNodes, 
 								int[] edges, int[] edgeOffsets, int[] edgeIDs,
 								int[] inEdgeOffsets,
 								double[] returnNodeBetweenness, long[] returnStress, double[] returnEdgeBetweenness)
+	{
+		computeSPandNB(source, numNodes, edges, edgeOffsets, edgeIDs, inEdgeOffsets, null, 
+					   returnNodeBetweenness, returnStress, returnEdgeBetweenness);
+	}
+
+	/**
+	 * Computes the shortest path lengths from the given node to all other nodes in the network and,
+	 * optionally, accumulates the node and edge betweenness and stress in the same breadth-first
+	 * traversal.
+	 * <p>
+	 * Every node's neighbor list in <code>edges</code> consists of its out-neighbors, followed by its
+	 * in-neighbors. Only the out-neighbors are traversed; the in-neighbors reserve the space needed
+	 * for storing predecessors. See
+	 * {@link #computeNBandEB(int, int, int[], int[], int[], int[], double[], long[], double[])} for the
+	 * meaning of the computed betweenness values.
+	 * </p>
+	 * 
+	 * @param source Source node ID.
+	 * @param numNodes Number of nodes in graph.
+	 * @param edges Array with every node's out-neighbor indices, followed by its in-neighbor indices.
+	 * @param edgeOffsets Array with the indices of each node's first neighbor in <code>edges</code>.
+	 * @param edgeIDs Array with the IDs of the edges in <code>edges</code>; may be <code>null</code> if
+	 *        betweenness is not computed.
+	 * @param inEdgeOffsets Array with the indices of each node's first in-neighbor in the in-neighbor
+	 *        lists; used only for the number of in-neighbors of each node.
+	 * @param outSPathLengths Array that will hold the updated shortest path length histogram;
+	 *        <code>null</code> if not needed.
+	 * @param returnNodeBetweenness Array of node betweenness values to be updated; <code>null</code> if
+	 *        betweenness and stress are not to be computed.
+	 * @param returnStress Array of node stress values to be updated; ignored if
+	 *        <code>returnNodeBetweenness</code> is <code>null</code>.
+	 * @param returnEdgeBetweenness Array of edge betweenness values to be updated, indexed by edge ID;
+	 *        ignored if <code>returnNodeBetweenness</code> is <code>null</code>.
+	 * @return Data on the shortest path lengths from the current node to all other reachable nodes in the network.
+	 */
+	public static PathLengthData computeSPandNB(int source, int numNodes, 
+								int[] edges, int[] edgeOffsets, int[] edgeIDs,
+								int[] inEdgeOffsets, long[] outSPathLengths,
+								double[] returnNodeBetweenness, long[] returnStress, double[] returnEdgeBetweenness)
+	{
+		return computeSPandNB(source, numNodes, edges, edgeOffsets, edgeIDs, inEdgeOffsets, outSPathLengths, 
+				returnNodeBetweenness, returnStress, returnEdgeBetweenness, new TraversalWorkspace());
+	}
+
+	/**
+	 * Computes the shortest path lengths from the given node and, optionally, accumulates the node and
+	 * edge betweenness and stress, using the storage of the given workspace.
+	 * <p>
+	 * The results are the same as the ones of
+	 * {@link #computeSPandNB(int, int, int[], int[], int[], int[], long[], double[], long[], double[])},
+	 * but no arrays are allocated when <code>workspace</code> is reused.
+	 * </p>
+	 * 
+	 * @param workspace Workspace of the calling thread.
+	 * @return Data on the shortest path lengths from the current node to all other reachable nodes in the network.
+	 */
+	public static PathLengthData computeSPandNB(int source, int numNodes, 
+								int[] edges, int[] edgeOffsets, int[] edgeIDs,
+								int[] inEdgeOffsets, long[] outSPathLengths,
+								double[] returnNodeBetweenness, long[] returnStress, double[] returnEdgeBetweenness,
+								TraversalWorkspace workspace)
 	{		
-		int[] Q = new int[numNodes];		// Serves as queue for the first part, as stack for the second part
+		final boolean computeNB = returnNodeBetweenness != null;
+		final int epoch = workspace.begin(numNodes, edges.length);
+		PathLengthData result = new PathLengthData();
+
+		final int[] Q = workspace.queue;	// Serves as queue for the first part, as stack for the second part
 		Q[0] = source;
 		int Qlow = 0, Qhigh = 1;			// Keep track of queue's first and last element / stack size
 		
-		int[] P = new int[edges.length];	// Predecessors
-		int[] Pedge = new int[edges.length];
-		int[] Pcount = new int[numNodes];	// Predecessor count, for each node at most its edge count
-		
-		int[] Dedge = new int[edges.length];	// Edges to descendants
-		int[] Dcount = new int[numNodes];
+		final int[] P = workspace.pred;				// Predecessors
+		final int[] Pedge = workspace.predEdge;
+		final int[] Pcount = workspace.predCount;	// Predecessor count, for each node at most its edge count
+		final int[] Dedge = workspace.descEdge;		// Edges to descendants
+		final int[] Dcount = workspace.descCount;
+		final int[] sigma = workspace.sigma;		// Sigma in Brandes paper, W in Newman
+		final double[] delta = workspace.delta;		// Delta in Brandes paper
+		final long[] stressDependency = workspace.stressDependency;		// Keep track of node stress metric
+		final double[] edgeDependency = workspace.edgeDependency;	// This round's edge betweenness values
 		
-		int[] sigma = new int[numNodes];	// Sigma in Brandes paper, W in Newman
-		sigma[source] = 1;
-		
-		int[] d = new int[numNodes];		// Distance from source, with source having d = 0
-		for (int i = 0; i < numNodes; i++)
-			d[i] = -1;
+		final int[] visited = workspace.stamp;	// visited[i] == epoch iff node i has been found
+		final int[] d = workspace.distance;		// Distance from source, with source having d = 0
+		visited[source] = epoch;
 		d[source] = 0;
-		
-		double[] delta = new double[numNodes];	// Delta in Brandes paper
-		
-		long[] stressDependency = new long[numNodes];		// Keep track of node stress metric
-		double[] edgeDependency = new double[edges.length];	// This round's edge betweenness values
+		if (computeNB)
+			workspace.resetNode(source, 1);
 		
 		while (Qlow < Qhigh)	// While query.size > 0
 		{
@@ -817,21 +1111,26 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 			int numInEdges = inLastEdge - inFirstEdge;
 			lastEdge -= numInEdges;
 			int dnodeplus = d[node] + 1;
-			int sigmanode = sigma[node];
 			
 			for (int ei = firstEdge; ei < lastEdge; ei++)	// For each neighbor of node
 			{
 				int neighbor = edges[ei];
 				
-				if (d[neighbor] < 0)	// Has not been found yet
+				if (visited[neighbor] != epoch)	// Has not been found yet
 				{
+					visited[neighbor] = epoch;
 					Q[Qhigh++] = neighbor;		// Enqueue
 					d[neighbor] = dnodeplus;	// d[node] + 1
+					result.addSPL(dnodeplus);
+					if (outSPathLengths != null)
+						outSPathLengths[dnodeplus]++;
+					if (computeNB)
+						workspace.resetNode(neighbor, 0);
 				}
 				
-				if (d[neighbor] == dnodeplus)	// Is descendant
+				if (computeNB && d[neighbor] == dnodeplus)	// Is descendant
 				{
-					sigma[neighbor] += sigmanode;
+					sigma[neighbor] += sigma[node];
 					int pi = edgeOffsets[neighbor] + Pcount[neighbor];	// Predecessor number
 					P[pi] = node;	// Store node as its neighbor's predecessor
 					Pedge[pi] = edgeIDs[ei];	// Also remember the edge from predecessor for edge betweenness later
@@ -844,6 +1143,9 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 			}
 		}
 		
+		if (!computeNB)
+			return result;
+		
 		while (Qhigh > 0)	// While stack.size > 0
 		{
 			int w = Q[--Qhigh];				// Pop from stack
@@ -857,7 +1159,7 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 			int lastD = firstD + Dcount[w];
 			boolean isLeaf = lastD - firstD == 0;
 			for (int di = firstD; di < lastD; di++)
-				Dbetweenness += edgeDependency[Dedge[di]];
+				Dbetweenness += edgeDependency[Dedge[di]];	// Set when the descendant was popped
 			
 			for (int pi = firstP; pi < lastP; pi++)	// For each predecessor
 			{
@@ -883,6 +1185,8 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 				returnStress[w] += sigma[w] * stressw;
 			}
 		}
+		
+		return result;
 	}
 	
 	/**
@@ -924,6 +1228,26 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 */
 	private int radius;
 
+	/**
+	 * Number of strongly connected components in the network.
+	 */
+	private int strongComponentCount;
+
+	/**
+	 * Number of strongly connected components of every size.
+	 */
+	private long[] strongComponentSizes;
+
+	/**
+	 * Number of processed nodes of every coreness in the undirected view of the network.
+	 */
+	private int[] coreSizes;
+
+	/**
+	 * Degeneracy of the undirected view of the network.
+	 */
+	private int degeneracy;
+
 	/**
 	 * Histogram of shortest path lengths.
 	 * <p>
@@ -981,12 +1305,6 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	 */
 	private int multiEdgePartners;
 
-	/**
-	 * Flag indicating if node(edge) betweenness and stress should be computed. It is set to false if the
-	 * number of shortest paths exceeds the maximum long value.
-	 */
-	private boolean computeNB;
-	
 	/**
 	 * Map of all nodes with their respective node betweenness information, which stores information
 	 * needed for the node betweenness calculation
@@ -1012,12 +1330,10 @@ public class DirNetworkAnalyzer extends NetworkAnalyzer {
 	HashMap<Integer, SumCountPair> inNCps; 			// neighborhood connectivity - incoming edges
 	HashMap<Integer, SumCountPair> outNCps; 		// neighborhood connectivity - outgoing edges
 	HashMap<Integer, SumCountPair> CCps; 			// clustering coefficients
+	double neighborArcs; 							// arcs among the neighbors, summed over the nodes
+	long neighborPairs; 							// ordered pairs of neighbors, summed over the nodes
 	ArrayList<Point2D.Double> closenessCent; 		// closeness centrality
 	ArrayList<Point2D.Double> nodeBetweennessArray; // node betweenness
-	Map<CyNode, Double> aplMap; 					// average shortest path length
 	LogBinDistribution stressDist; 					// stress
 	long outNeighbors; 								// total number of out-neighbors
-	double[] nodeBetweennessLean;
-	double[] edgeBetweennessLean;
-	long[] stressLean;
 }
@@ -27,17 +27,31 @@ package de.mpg.mpi_inf.bioinf.netanalyzer;
  */
 
 import java.awt.geom.Point2D;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
-import org.cytoscape.model.CyEdge;
-import org.cytoscape.model.subnetwork.CySubNetwork;
+import org.cytoscape.model.CyRow;
+import org.cytoscape.model.CyTable;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.IntHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.HyperAnf;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.SpectralCentrality;
 
 /**
  * Base class for all control classes that perform analysis on a specific network type.
@@ -78,7 +92,7 @@ public abstract class NetworkAnalyzer {
 	 * @return Number of steps completed in the analysis process.
 	 */
 	public int getCurrentProgress() {
-		return progress;
+		return progress.intValue();
 	}
 
 	/**
@@ -90,6 +104,88 @@ public abstract class NetworkAnalyzer {
 		return stats.getInt("nodeCount") + 1;
 	}
 
+	/**
+	 * Gets the selection of metrics computed by this analyzer.
+	 * 
+	 * @return Plan of the analysis.
+	 */
+	public AnalysisPlan getPlan() {
+		return plan;
+	}
+
+	/**
+	 * Gets the node attributes computed by this analyzer.
+	 * <p>
+	 * The attributes of the metrics that are not in the plan are excluded, as their columns may be
+	 * empty or contain the values of an earlier analysis. The harmonic closeness centrality is included
+	 * only if the shortest path lengths of the whole network are estimated, as it is not computed
+	 * otherwise.
+	 * </p>
+	 * 
+	 * @return Set of the names of the node attributes computed for the interpretation of this analyzer.
+	 */
+	public Set<String> getComputedNodeAttributes() {
+		final Set<String> attributes = interpr.isDirected() ? Messages.getDirNodeAttributes() : Messages
+				.getUndirNodeAttributes();
+		final boolean global = nodeSet == null;
+		retainAttribute(attributes, "cco", plan.computes(Metric.CLUSTERING));
+		retainAttribute(attributes, "tco", plan.computes(Metric.TOPOLOGICAL_COEFFICIENT));
+		retainAttribute(attributes, "nco", plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY));
+		retainAttribute(attributes, "spl", global && plan.needsTraversal());
+		retainAttribute(attributes, "apl", global && plan.needsTraversal());
+		retainAttribute(attributes, "clc", global && plan.computes(Metric.CLOSENESS));
+		retainAttribute(attributes, "rad", global && plan.computes(Metric.RADIALITY));
+		retainAttribute(attributes, "nbt", global && plan.computes(Metric.BETWEENNESS));
+		retainAttribute(attributes, "stress", global && plan.computes(Metric.STRESS));
+		retainAttribute(attributes, "prk", plan.computes(Metric.PAGE_RANK));
+		retainAttribute(attributes, "evc", plan.computes(Metric.EIGENVECTOR));
+		retainAttribute(attributes, "kzc", plan.computes(Metric.KATZ));
+		retainAttribute(attributes, "cor", plan.computes(Metric.CORENESS));
+		if (global && plan.isPathsEstimated()) {
+			attributes.add(Messages.getAttr("hcc"));
+		}
+		return attributes;
+	}
+
+	/**
+	 * Sets the selection of metrics to be computed by this analyzer.
+	 * <p>
+	 * This method must be called before {@link #computeAll()}. By default, an analyzer computes the
+	 * metrics selected in the plugin settings.
+	 * </p>
+	 * 
+	 * @param aPlan
+	 *            Plan of the analysis.
+	 */
+	public void setPlan(AnalysisPlan aPlan) {
+		plan = aPlan;
+	}
+
+	/**
+	 * Gets the snapshot of the network shared by this analyzer.
+	 * 
+	 * @return Snapshot of the analyzed network; <code>null</code> if none was set and the analysis has
+	 *         not started yet.
+	 */
+	public NetworkSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Sets the snapshot of the network to be analyzed.
+	 * <p>
+	 * This method must be called before {@link #computeAll()}. It allows the analyzers of several
+	 * interpretations of the same network to share a single snapshot. By default, an analyzer creates
+	 * a snapshot of its own.
+	 * </p>
+	 * 
+	 * @param aSnapshot
+	 *            Snapshot of the network of this analyzer.
+	 */
+	public void setSnapshot(NetworkSnapshot aSnapshot) {
+		snapshot = aSnapshot;
+	}
+
 	/**
 	 * Computes all the network parameters.
 	 */
@@ -137,46 +233,361 @@ public abstract class NetworkAnalyzer {
 		nodeSet = aNodeSet;
 		interpr = aInterpr;
 		stats = new NetworkStats(aNetwork, aInterpr.getInterpretSuffix());
-		progress = 0;
+		progress = new LongAdder();
+		plan = AnalysisPlan.fromSettings(SettingsSerializer.getPluginSettings());
+		cancelCheck = new BooleanSupplier() {
+			public boolean getAsBoolean() {
+				return cancelled;
+			}
+		};
 	}
 
 	/**
-	 * Prepares the network, if necessary, before the analysis starts.
+	 * Prepares the snapshot of the network before the analysis starts.
 	 * <p>
-	 * If stored in the interpretation, this method removes all undirected self-loops from the network.
+	 * If no snapshot is set, a new one is created for this analyzer. If stored in the interpretation,
+	 * undirected self-loops are masked in the snapshot and excluded from the edge count.
 	 * </p>
+	 * 
+	 * @return Snapshot of the network in the interpretation of this analyzer.
+	 * @throws IllegalArgumentException
+	 *             If the plan computes PageRank or Katz centrality and its damping or attenuation factor
+	 *             in the settings is invalid.
 	 */
-	protected void analysisStarting() {
+	protected GraphSnapshot analysisStarting() {
+		// Reject invalid factors before any work is done, instead of failing at the end of the analysis
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		if (plan.computes(Metric.PAGE_RANK)
+				&& !PluginSettings.isValidPageRankDamping(settings.getPageRankDamping())) {
+			throw new IllegalArgumentException(Messages.SM_PAGERANKDAMPING);
+		}
+		if (plan.computes(Metric.KATZ)
+				&& !PluginSettings.isValidKatzAttenuation(settings.getKatzAttenuation())) {
+			throw new IllegalArgumentException(Messages.SM_KATZATTENUATION);
+		}
+		if (snapshot == null) {
+			snapshot = new NetworkSnapshot(network);
+		}
+		final GraphSnapshot graph = snapshot.getGraph(interpr);
 		if (interpr.isIgnoreUSL()) {
-			removedEdges = new HashSet<CyEdge>();
-			for ( CyEdge edge : network.getEdgeList() ) {
-				if (!edge.isDirected()) {
-					if (edge.getSource() == edge.getTarget()) {
-						removedEdges.add(edge);
-					}
+			// Update edge count
+			stats.set("edgeCount", graph.getEdgeCount());
+		}
+		return graph;
+	}
+
+	/**
+	 * Creates the sampler of source nodes for approximating betweenness and stress, if the plan of this
+	 * analyzer requires it.
+	 * 
+	 * @return Newly created sampler; <code>null</code> if betweenness and stress are not computed or
+	 *         are computed exactly.
+	 */
+	protected BetweennessSampler createSampler() {
+		if (nodeSet == null && plan.needsDependencies() && plan.isApproximate()) {
+			return new BetweennessSampler(plan, network.getNodeCount());
+		}
+		return null;
+	}
+
+	/**
+	 * Records the error bound of approximated betweenness and stress.
+	 * <p>
+	 * If at least one connected component was sampled, the error bound and its confidence are stored
+	 * in the statistics, and the error bound is also stored in the network attributes, so that the
+	 * betweenness and stress values can be recognized as estimates.
+	 * </p>
+	 * 
+	 * @param aSampler
+	 *            Sampler used in the analysis; <code>null</code> if no sampling was performed.
+	 * @param aUseAttributes
+	 *            Flag indicating if the error bound must be stored in the network attributes.
+	 */
+	protected void saveBetweennessError(BetweennessSampler aSampler, boolean aUseAttributes) {
+		if (aSampler == null || !aSampler.isSampled()) {
+			final CyTable table = network.getTable(CyNetwork.class, CyNetwork.LOCAL_ATTRS);
+			if (aUseAttributes && nodeSet == null && plan.needsDependencies()
+					&& table.getColumn(Messages.getAttr("nbe")) != null) {
+				network.getRow(network).set(Messages.getAttr("nbe"), 0.0);
+			}
+			return;
+		}
+		stats.set("betweennessError", aSampler.getErrorBound());
+		stats.set("betweennessConfidence", aSampler.getConfidence());
+		if (aUseAttributes) {
+			AttributeSetup.createBetweennessErrorAttribute(network.getTable(CyNetwork.class, CyNetwork.LOCAL_ATTRS));
+			network.getRow(network).set(Messages.getAttr("nbe"), aSampler.getErrorBound());
+		}
+	}
+
+	/**
+	 * Creates the sampler of pairs of neighbors for approximating clustering coefficients, if the plan
+	 * of this analyzer requires it.
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @return Newly created sampler; <code>null</code> if clustering coefficients are not computed,
+	 *         are computed exactly or are computed for a subset of the nodes only.
+	 */
+	protected ClusteringSampler createClusteringSampler(GraphSnapshot aGraph) {
+		if (nodeSet == null && plan.isClusteringSampled()) {
+			return new ClusteringSampler(plan, aGraph.getNeighborOffsets());
+		}
+		return null;
+	}
+
+	/**
+	 * Records the error bounds of the approximated transitivity and of the approximated average
+	 * clustering coefficients in the statistics.
+	 * 
+	 * @param aSampler
+	 *            Sampler used in the analysis; <code>null</code> if no sampling was performed.
+	 * @param aPairs
+	 *            Number of ordered pairs of neighbors, summed over all nodes of the network.
+	 * @param aCCps
+	 *            Clustering coefficients of the analyzed nodes, summed by number of neighbors.
+	 */
+	protected void saveClusteringError(ClusteringSampler aSampler, long aPairs,
+			Map<Integer, SumCountPair> aCCps) {
+		if (aSampler != null && aSampler.isSampled() && aPairs > 0) {
+			stats.set("clusteringError", aSampler.getErrorBound(aPairs));
+			stats.set("clusteringConfidence", aSampler.getConfidence());
+			final List<Point2D.Double> bounds = aSampler.getErrorBounds(aCCps);
+			if (!bounds.isEmpty()) {
+				stats.set("cksError", new Points2D(bounds));
+			}
+		}
+	}
+
+	/**
+	 * Records the degeneracy of the network and the coreness distribution of the analyzed nodes in the
+	 * statistics.
+	 * 
+	 * @param aCoreSizes
+	 *            Number of analyzed nodes of every coreness; longer than <code>aDegeneracy</code>.
+	 * @param aDegeneracy
+	 *            Largest coreness of a node in the network.
+	 */
+	protected void saveCoreness(int[] aCoreSizes, int aDegeneracy) {
+		if (plan.computes(Metric.CORENESS)) {
+			int last = aDegeneracy;
+			while (last > 0 && aCoreSizes[last] == 0) {
+				last--;
+			}
+			stats.set("degeneracy", aDegeneracy);
+			stats.set("coreDist", new IntHistogram(aCoreSizes, 0, last));
+		}
+	}
+
+	/**
+	 * Estimates the distribution of the shortest path lengths by HyperANF and saves it in the
+	 * statistics.
+	 * <p>
+	 * Besides the distribution, the number of connected pairs, the average shortest path length and the
+	 * effective diameter are stored. When the exact number of connected pairs is known, the estimated
+	 * distribution is scaled to it; the average and the effective diameter do not depend on the scale.
+	 * </p>
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aOffsets
+	 *            Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors
+	 *            Neighbor lists of the nodes of <code>aGraph</code>; the out-neighbors for directed
+	 *            networks.
+	 * @param aConnectedPairs
+	 *            Exact number of ordered pairs of distinct connected nodes; a negative value if unknown.
+	 * @param aUseAttributes
+	 *            Flag indicating if the estimated harmonic closeness of the nodes must be stored in the
+	 *            node attributes.
+	 */
+	protected void saveEstimatedPathLengths(GraphSnapshot aGraph, int[] aOffsets, int[] aNeighbors,
+			long aConnectedPairs, boolean aUseAttributes) {
+		final HyperAnf anf = HyperAnf.compute(aGraph.getNodeCount(), aOffsets, aNeighbors,
+				HyperAnf.DEFAULT_LOG2_REGISTERS, AnalysisThreadPool.getExecutor(), AnalysisThreadPool.getParallelism(),
+				cancelCheck);
+		if (cancelled) {
+			return;
+		}
+		final double estimatedPairs = anf.getConnectedPairs();
+		final long[] sPathLengths = anf.getPathLengthCounts();
+		if (aConnectedPairs >= 0 && estimatedPairs > 0) {
+			final double[] function = anf.getNeighbourhoodFunction();
+			final double scale = aConnectedPairs / estimatedPairs;
+			for (int t = 1; t < sPathLengths.length; t++) {
+				sPathLengths[t] = Math.round(Math.max(0, function[t] - function[t - 1]) * scale);
+			}
+		}
+		final int maxLength = anf.getIterationCount();
+		stats.set("connPairs", aConnectedPairs >= 0 ? aConnectedPairs : Math.round(estimatedPairs));
+		if (maxLength > 0) {
+			stats.set("avSpl", anf.getAverageLength());
+			stats.set("effDiameter", anf.getEffectiveDiameter(0.9));
+			if (maxLength > 1) {
+				stats.set("splDist", new LongHistogram(sPathLengths, 1, maxLength));
+			}
+		}
+		if (aUseAttributes) {
+			AttributeSetup.createHarmonicClosenessAttribute(network.getTable(CyNode.class, CyNetwork.LOCAL_ATTRS));
+			final String column = Messages.getAttr("hcc");
+			final double[] harmonic = anf.getHarmonicCloseness();
+			final CyRow[] rows = getNodeRows(aGraph);
+			for (int v = 0; v < harmonic.length; v++) {
+				rows[v].set(column, harmonic[v]);
+			}
+		}
+	}
+
+	/**
+	 * Computes PageRank, eigenvector and Katz centrality, as selected in the plan, and saves them in
+	 * the statistics.
+	 * <p>
+	 * The centralities are computed for the whole network by {@link SpectralCentrality}, with the
+	 * damping factor, the attenuation factor and the solver selected in the plugin settings. The
+	 * attenuation factor of Katz centrality is relative to an upper bound on the largest eigenvalue of
+	 * the adjacency matrix, which is found by the eigenvector centrality iteration. Every centrality
+	 * is stored as a chart of its relation to the number of neighbors and, if enabled, in the node
+	 * attributes; if a subset of the nodes is analyzed, only the values of these nodes are stored.
+	 * </p>
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aInOffsets
+	 *            Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors
+	 *            In-neighbor lists of the nodes of <code>aGraph</code>; the neighbor lists for
+	 *            undirected networks.
+	 * @param aOutOffsets
+	 *            Offsets of the out-neighbor lists of the nodes; the offsets of the neighbor lists for
+	 *            undirected networks.
+	 * @param aUseAttributes
+	 *            Flag indicating if the centralities must be stored in the node attributes.
+	 */
+	protected void saveSpectralCentralities(GraphSnapshot aGraph, int[] aInOffsets, int[] aInNeighbors,
+			int[] aOutOffsets, boolean aUseAttributes) {
+		final PluginSettings settings = SettingsSerializer.getPluginSettings();
+		final int nodeCount = aGraph.getNodeCount();
+		if (plan.computes(Metric.PAGE_RANK)) {
+			final SpectralCentrality pageRank = SpectralCentrality.pageRank(nodeCount, aInOffsets, aInNeighbors,
+					aOutOffsets, settings.getPageRankDamping(), getSolver(settings),
+					AnalysisThreadPool.getExecutor(), AnalysisThreadPool.getParallelism(), cancelCheck);
+			if (cancelled) {
+				return;
+			}
+			saveCentrality(aGraph, pageRank.getValues(), "pageRank", "prk", aUseAttributes);
+		}
+		if (plan.computes(Metric.EIGENVECTOR) || plan.computes(Metric.KATZ)) {
+			final SpectralCentrality.Solver solver = getSolver(settings);
+			final SpectralCentrality eigenvector = SpectralCentrality.eigenvector(nodeCount, aInOffsets,
+					aInNeighbors, aOutOffsets, solver, AnalysisThreadPool.getExecutor(),
+					AnalysisThreadPool.getParallelism(), cancelCheck);
+			if (cancelled) {
+				return;
+			}
+			if (plan.computes(Metric.EIGENVECTOR)) {
+				saveCentrality(aGraph, eigenvector.getValues(), "eigenvectorCent", "evc", aUseAttributes);
+			}
+			if (plan.computes(Metric.KATZ)) {
+				final double attenuation = settings.getKatzAttenuation();
+				final double bound = eigenvector.getSpectralRadiusBound();
+				final SpectralCentrality katz = SpectralCentrality.katz(nodeCount, aInOffsets, aInNeighbors,
+						aOutOffsets, bound > 0 ? attenuation / bound : 0, solver, AnalysisThreadPool.getExecutor(),
+						AnalysisThreadPool.getParallelism(), cancelCheck);
+				if (cancelled) {
+					return;
 				}
+				saveCentrality(aGraph, katz.getValues(), "katzCent", "kzc", aUseAttributes);
 			}
-			network.removeEdges(removedEdges);
-			// Update edge count
-			stats.set("edgeCount", new Integer(network.getEdgeCount()));
 		}
 	}
 
 	/**
-	 * Returns the network to initial state, if necessary, after the analysis has finished.
+	 * Removes a node attribute from the given set, unless its metric is computed.
+	 * 
+	 * @param aAttributes
+	 *            Set of names of node attributes.
+	 * @param aKey
+	 *            ID of the node attribute.
+	 * @param aComputed
+	 *            Flag indicating if the metric of the attribute is computed.
+	 */
+	private static void retainAttribute(Set<String> aAttributes, String aKey, boolean aComputed) {
+		if (!aComputed) {
+			aAttributes.remove(Messages.getAttr(aKey));
+		}
+	}
+
+	/**
+	 * Gets the solver of the spectral centralities selected in the plugin settings.
+	 * 
+	 * @param aSettings
+	 *            Plugin settings.
+	 * @return Selected solver; the Jacobi method if the settings specify an unknown solver.
+	 */
+	private static SpectralCentrality.Solver getSolver(PluginSettings aSettings) {
+		return SpectralCentrality.Solver.forKey(aSettings.getSpectralSolver(), SpectralCentrality.Solver.JACOBI);
+	}
+
+	/**
+	 * Saves a centrality of the nodes as a chart of its relation to the number of neighbors and, if
+	 * enabled, in the node attributes.
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aValues
+	 *            Centrality of every node of <code>aGraph</code>.
+	 * @param aParam
+	 *            ID of the chart in the statistics.
+	 * @param aAttribute
+	 *            ID of the node attribute of the centrality.
+	 * @param aUseAttributes
+	 *            Flag indicating if the centrality must be stored in the node attributes.
+	 */
+	private void saveCentrality(GraphSnapshot aGraph, double[] aValues, String aParam, String aAttribute,
+			boolean aUseAttributes) {
+		final int[] neighborOffsets = aGraph.getNeighborOffsets();
+		final List<Point2D.Double> points = new ArrayList<Point2D.Double>(aValues.length);
+		for (int v = 0; v < aValues.length; v++) {
+			if (nodeSet == null || nodeSet.contains(aGraph.getNode(v))) {
+				points.add(new Point2D.Double(neighborOffsets[v + 1] - neighborOffsets[v], aValues[v]));
+			}
+		}
+		if (aUseAttributes) {
+			final String column = Messages.getAttr(aAttribute);
+			AttributeSetup.createSpectralAttribute(network.getTable(CyNode.class, CyNetwork.LOCAL_ATTRS), column);
+			final CyRow[] rows = getNodeRows(aGraph);
+			for (int v = 0; v < aValues.length; v++) {
+				if (nodeSet == null || nodeSet.contains(aGraph.getNode(v))) {
+					rows[v].set(column, aValues[v]);
+				}
+			}
+		}
+		if (points.size() > 1) {
+			stats.set(aParam, new Points2D(points));
+		}
+	}
+
+	/**
+	 * Gets the rows of the nodes of the given snapshot in the node table of the analyzed network.
 	 * <p>
-	 * If previously removed, this method puts back all undirected self-loops in the network.
+	 * The attributes computed for the whole network at once are written column by column, like the
+	 * attributes of the connected components. The rows are looked up on the first call and shared by
+	 * all these attributes.
 	 * </p>
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @return Row of every node of <code>aGraph</code>, by node index.
 	 */
-	protected void analysisFinished() {
-		if (interpr.isIgnoreUSL()) {
-			for (final CyEdge e : removedEdges) {
-				// TODO we should consider using CySubNetwork carefully!!!
-				// Perhaps we shouldn't use it at all, or we might actually want to use it 
-				// more pervasively.  I don't know.
-				((CySubNetwork)network).addEdge(e);
+	protected CyRow[] getNodeRows(GraphSnapshot aGraph) {
+		if (nodeRowsGraph != aGraph) {
+			nodeRows = new CyRow[aGraph.getNodeCount()];
+			for (int v = 0; v < nodeRows.length; v++) {
+				nodeRows[v] = network.getRow(aGraph.getNode(v));
 			}
+			nodeRowsGraph = aGraph;
 		}
+		return nodeRows;
 	}
 
 	/**
@@ -296,17 +707,23 @@ public abstract class NetworkAnalyzer {
 	 */
 	protected NetworkStats stats;
 
+	/**
+	 * Selection of the metrics to be computed.
+	 */
+	protected AnalysisPlan plan;
+
 	/**
 	 * Current progress of the analysis.
 	 * <p>
 	 * The progress of the analyzer is measured in number of steps. Extender classes are responsible for
 	 * maintaining the value of this field up to date. The progress must be a natural number not greater than
-	 * the maximal progress.
+	 * the maximal progress. The counter is striped, so that worker threads can advance it without
+	 * contention.
 	 * </p>
 	 * 
 	 * @see #getMaxProgress()
 	 */
-	protected int progress;
+	protected final LongAdder progress;
 
 	/**
 	 * Flag indicating if the process of analysis was cancelled by the user.
@@ -316,11 +733,28 @@ public abstract class NetworkAnalyzer {
 	 * value of this flag should be checked at regular intervals.
 	 * </p>
 	 */
-	protected boolean cancelled;
+	protected volatile boolean cancelled;
+
+	/**
+	 * Check of {@link #cancelled}, for the computations in the <code>graph</code> package that do not
+	 * know the analyzer.
+	 */
+	private final BooleanSupplier cancelCheck;
+
+	/**
+	 * Snapshot of {@link #network} used in the analysis; <code>null</code> until the analysis starts,
+	 * unless set before.
+	 */
+	protected NetworkSnapshot snapshot;
+
+	/**
+	 * Rows of the nodes of {@link #nodeRowsGraph} in the node table; <code>null</code> until first
+	 * requested.
+	 */
+	private CyRow[] nodeRows;
 
 	/**
-	 * Set of all edges that are removed from {@link #network} before the analysis. These edges are added back
-	 * to the network after the analysis completes or is cancelled.
+	 * Snapshot whose node rows are stored in {@link #nodeRows}.
 	 */
-	private Set<CyEdge> removedEdges;
+	private GraphSnapshot nodeRowsGraph;
 }
@@ -0,0 +1,161 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.cytoscape.model.CyNetwork;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+
+/**
+ * Snapshot of a network shared by the analyses of its interpretations.
+ * <p>
+ * The array representation of the network, its connected components and the snapshots of the
+ * components are created on first request and reused by all analyzers given this instance. An
+ * interpretation is applied as a view of the shared snapshot: the directed and the undirected analyzer
+ * read different views of the same neighbor lists, paired edges are collapsed using the edge counts
+ * of the snapshot, and undirected self-loops are masked by {@link GraphSnapshot#withoutUndirectedLoops()}.
+ * Hence the network itself is not modified by the analysis.
+ * </p>
+ * <p>
+ * The snapshot reflects the topology of the network at the time of the first request; it must not be
+ * shared by analyses of a network that changes in between. All methods of this class are thread-safe.
+ * </p>
+ */
+public final class NetworkSnapshot {
+
+	/**
+	 * Initializes a new instance of <code>NetworkSnapshot</code>.
+	 * 
+	 * @param aNetwork Network to create a snapshot of.
+	 */
+	public NetworkSnapshot(CyNetwork aNetwork) {
+		network = aNetwork;
+	}
+
+	/**
+	 * Gets the snapshot of the network in the given interpretation.
+	 * 
+	 * @param aInterpr Interpretation of the network edges.
+	 * @return Snapshot of the network; without undirected self-loops if the interpretation ignores
+	 *         them.
+	 */
+	public GraphSnapshot getGraph(NetworkInterpretation aInterpr) {
+		final GraphSnapshot graph = getGraph();
+		return aInterpr.isIgnoreUSL() ? graph.withoutUndirectedLoops() : graph;
+	}
+
+	/**
+	 * Gets the labeling of the nodes by connected component.
+	 * <p>
+	 * Self-loops do not affect connectivity, hence the labeling is the same in all interpretations.
+	 * </p>
+	 * 
+	 * @return Labeling of the nodes of the network snapshot.
+	 */
+	public synchronized ComponentLabeling getLabeling() {
+		if (labeling == null) {
+			labeling = ComponentLabeling.create(getGraph(), AnalysisThreadPool.getExecutor(),
+					AnalysisThreadPool.getParallelism());
+		}
+		return labeling;
+	}
+
+	/**
+	 * Gets the snapshots of the connected components in the given interpretation.
+	 * 
+	 * @param aInterpr Interpretation of the network edges.
+	 * @return Unmodifiable list of the snapshots of the connected components, in the order of
+	 *         {@link ComponentScheduler#getComponentNodes(ComponentLabeling)}.
+	 */
+	public synchronized List<GraphSnapshot> getComponents(NetworkInterpretation aInterpr) {
+		if (components == null) {
+			final GraphSnapshot graph = getGraph();
+			final List<int[]> compNodes = ComponentScheduler.getComponentNodes(getLabeling());
+			final List<GraphSnapshot> result = new ArrayList<GraphSnapshot>(compNodes.size());
+			for (final int[] nodes : compNodes) {
+				result.add(graph.subgraph(nodes));
+			}
+			components = Collections.unmodifiableList(result);
+		}
+		if (!aInterpr.isIgnoreUSL()) {
+			return components;
+		}
+		if (loopFreeComponents == null) {
+			final List<GraphSnapshot> result = new ArrayList<GraphSnapshot>(components.size());
+			for (final GraphSnapshot comp : components) {
+				result.add(comp.withoutUndirectedLoops());
+			}
+			loopFreeComponents = Collections.unmodifiableList(result);
+		}
+		return loopFreeComponents;
+	}
+
+	/**
+	 * Gets the snapshot of the network with all its edges, creating it on the first call.
+	 * 
+	 * @return Snapshot of the network.
+	 */
+	private synchronized GraphSnapshot getGraph() {
+		if (graph == null) {
+			graph = GraphSnapshot.create(network);
+		}
+		return graph;
+	}
+
+	/**
+	 * Network of this snapshot.
+	 */
+	private final CyNetwork network;
+
+	/**
+	 * Snapshot of the network with all its edges; <code>null</code> until first requested.
+	 */
+	private GraphSnapshot graph;
+
+	/**
+	 * Labeling of the nodes by connected component; <code>null</code> until first requested.
+	 */
+	private ComponentLabeling labeling;
+
+	/**
+	 * Snapshots of the connected components with all their edges; <code>null</code> until first
+	 * requested.
+	 */
+	private List<GraphSnapshot> components;
+
+	/**
+	 * Snapshots of the connected components without undirected self-loops; <code>null</code> until
+	 * first requested.
+	 */
+	private List<GraphSnapshot> loopFreeComponents;
+}
@@ -0,0 +1,107 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free dispenser of the positions <code>0, 1, ..., n-1</code> in chunks.
+ * <p>
+ * Workers that share a list of nodes claim consecutive chunks of positions in this list by advancing an
+ * atomic cursor. The chunk size is adapted to the number of positions left (guided self-scheduling):
+ * chunks are large while many positions remain, which keeps the contention on the cursor low, and
+ * shrink towards the end, such that all workers finish at about the same time.
+ * </p>
+ */
+final class NodeDispenser {
+
+	/**
+	 * Initializes a new instance of <code>NodeDispenser</code>.
+	 * 
+	 * @param aCount Number of positions to dispense.
+	 * @param aWorkerCount Expected number of workers sharing the positions.
+	 */
+	public NodeDispenser(int aCount, int aWorkerCount) {
+		count = aCount;
+		divisor = Math.max(1, aWorkerCount) * CHUNKS_PER_WORKER;
+		cursor = new AtomicInteger();
+	}
+
+	/**
+	 * Claims the next chunk of positions.
+	 * 
+	 * @return First position of the claimed chunk; <code>-1</code> if all positions have been dispensed.
+	 *         The chunk ends at position {@link #chunkEnd(int)} (exclusive).
+	 */
+	public int claim() {
+		while (true) {
+			final int start = cursor.get();
+			if (start >= count) {
+				return -1;
+			}
+			if (cursor.compareAndSet(start, chunkEnd(start))) {
+				return start;
+			}
+		}
+	}
+
+	/**
+	 * Gets the end of the chunk starting at the given position.
+	 * 
+	 * @param aStart First position of a chunk, as returned by {@link #claim()}.
+	 * @return Position following the last one of the chunk.
+	 */
+	public int chunkEnd(int aStart) {
+		final int left = count - aStart;
+		return aStart + Math.max(1, Math.min(left / divisor, MAX_CHUNK_SIZE));
+	}
+
+	/**
+	 * Number of chunks every worker gets, roughly, from the remaining positions.
+	 */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	/**
+	 * Maximum number of positions in a chunk.
+	 */
+	private static final int MAX_CHUNK_SIZE = 256;
+
+	/**
+	 * Number of positions to dispense.
+	 */
+	private final int count;
+
+	/**
+	 * Divisor of the number of remaining positions, giving the size of the next chunk.
+	 */
+	private final int divisor;
+
+	/**
+	 * First position not yet dispensed.
+	 */
+	private final AtomicInteger cursor;
+}
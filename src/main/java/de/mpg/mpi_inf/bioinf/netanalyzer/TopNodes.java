@@ -0,0 +1,146 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Collection of the nodes with the largest values of a centrality measure.
+ * <p>
+ * The nodes are kept in order of decreasing value; nodes with equal values are ordered by their
+ * indices, so that the collected nodes do not depend on the order in which they are offered.
+ * </p>
+ */
+final class TopNodes {
+
+	/**
+	 * Initializes a new instance of <code>TopNodes</code>.
+	 * 
+	 * @param aCapacity
+	 *            Maximum number of nodes to be kept.
+	 */
+	public TopNodes(int aCapacity) {
+		nodes = new int[aCapacity];
+		values = new double[aCapacity];
+		size = 0;
+	}
+
+	/**
+	 * Offers a node to this collection.
+	 * 
+	 * @param aNode
+	 *            Index of the node.
+	 * @param aValue
+	 *            Value of the node.
+	 * @return <code>true</code> if the node is among the top nodes offered so far; <code>false</code>
+	 *         if it was rejected.
+	 */
+	public boolean offer(int aNode, double aValue) {
+		if (size == nodes.length && !precedes(aNode, aValue, nodes[size - 1], values[size - 1])) {
+			return false;
+		}
+		int i = size == nodes.length ? size - 1 : size++;
+		for (; i > 0 && precedes(aNode, aValue, nodes[i - 1], values[i - 1]); i--) {
+			nodes[i] = nodes[i - 1];
+			values[i] = values[i - 1];
+		}
+		nodes[i] = aNode;
+		values[i] = aValue;
+		return true;
+	}
+
+	/**
+	 * Checks if this collection holds as many nodes as it can.
+	 * 
+	 * @return <code>true</code> if the number of collected nodes equals the capacity;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isFull() {
+		return size == nodes.length;
+	}
+
+	/**
+	 * Gets the smallest value of the collected nodes.
+	 * 
+	 * @return Value of the last collected node; <code>0</code> if this collection is not full, i.e.
+	 *         any node can still be collected.
+	 */
+	public double getThreshold() {
+		return isFull() ? values[size - 1] : 0;
+	}
+
+	/**
+	 * Gets the collected nodes.
+	 * 
+	 * @return Indices of the collected nodes, in order of decreasing value.
+	 */
+	public int[] getNodes() {
+		return Arrays.copyOf(nodes, size);
+	}
+
+	/**
+	 * Gets the values of the collected nodes.
+	 * 
+	 * @return Values of the collected nodes, parallel to {@link #getNodes()}.
+	 */
+	public double[] getValues() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * Checks if a node is ranked before another node.
+	 * 
+	 * @param aNode
+	 *            Index of the first node.
+	 * @param aValue
+	 *            Value of the first node.
+	 * @param aOther
+	 *            Index of the second node.
+	 * @param aOtherValue
+	 *            Value of the second node.
+	 * @return <code>true</code> if the first node has a larger value, or an equal value and a smaller
+	 *         index; <code>false</code> otherwise.
+	 */
+	private static boolean precedes(int aNode, double aValue, int aOther, double aOtherValue) {
+		return aValue > aOtherValue || (aValue == aOtherValue && aNode < aOther);
+	}
+
+	/**
+	 * Indices of the collected nodes, in order of decreasing value.
+	 */
+	private final int[] nodes;
+
+	/**
+	 * Values of the collected nodes.
+	 */
+	private final double[] values;
+
+	/**
+	 * Number of collected nodes.
+	 */
+	private int size;
+}
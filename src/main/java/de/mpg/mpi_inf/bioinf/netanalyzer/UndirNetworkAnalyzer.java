@@ -31,36 +31,41 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.cytoscape.model.CyNetwork;
 import org.cytoscape.model.CyNode;
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyRow;
 
-import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.DegreeDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LogBinDistribution;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.LongHistogram;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
-import de.mpg.mpi_inf.bioinf.netanalyzer.data.MutInteger;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NodeBetweenInfo;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathLengthData;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Points2D;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.RankedNodes;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SimpleUndirParams;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Utils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.BlockBetweenness;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.BlockDecomposition;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.CoreDecomposition;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.EccentricityBounds;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.MultiSourceBfs;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TriangleCounter;
 
 /**
  * Network analyzer for networks that contain undirected edges only.
@@ -99,9 +104,9 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		edgeBetweenness = new HashMap<CyEdge, Double>();
 		stress = new HashMap<CyNode, Long>();
 		roundingDigits = 8;
-		computeNB = true;
 		AttributeSetup.createUndirectedNodeAttributes(aNetwork.getTable(CyNode.class, CyNetwork.LOCAL_ATTRS));
 		AttributeSetup.createEdgeBetweennessAttribute(aNetwork.getTable(CyEdge.class, CyNetwork.LOCAL_ATTRS));
+		AttributeSetup.createBridgeAttribute(aNetwork.getTable(CyEdge.class, CyNetwork.LOCAL_ATTRS));
 	}
 
 	/*
@@ -113,7 +118,12 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	public void computeAll() 
 	{
 		long time = System.currentTimeMillis();
-		analysisStarting();
+		// Convert the graph into an array representation to accelerate traversal
+		final GraphSnapshot graph = analysisStarting();
+		// Top nodes are only ranked in the whole network
+		if (nodeSet != null && plan.getTopK() > 0) {
+			plan = plan.topK(0);
+		}
 		networkEdgeCount = 0;
 		params = new SimpleUndirParams();
 		maxConnectivity = 0;
@@ -128,319 +138,44 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		nodeBetweennessArray = new ArrayList<Point2D.Double>(nodeCount);
 		// neighborhood connectivity
 		NCps = new HashMap<Integer, SumCountPair>();
-		// average shortest path length
-		aplMap = new HashMap<CyNode, Double>();
 		// stress
 		stressDist = new LogBinDistribution();
+		neighborArcs = 0;
+		neighborPairs = 0;
+		coreSizes = new int[graph.getNodeCount() + 1];
+		degeneracy = 0;
+
 		// Compute number of connected components
-		cca = new ConnComponentAnalyzer(network);
-		
-		Set<CCInfo> components = cca.findComponents();
-		params.connectedComponentCount = components.size();
+		final ComponentLabeling components = snapshot.getLabeling();
+		params.connectedComponentCount = components.getComponentCount();
 
-		for (CCInfo aCompInfo : components) 
+		// Process the connected components
+		final BetweennessSampler sampler = createSampler();
+		final ClusteringSampler clusteringSampler = createClusteringSampler(graph);
+		final List<ComponentJob> jobs = new ArrayList<ComponentJob>(params.connectedComponentCount);
+		for (final GraphSnapshot comp : snapshot.getComponents(interpr))
+			jobs.add(new ComponentJob(comp, sampler, clusteringSampler));
+		if (!new ComponentScheduler(this).run(jobs))
 		{
-			// Get nodes of connected component
-			final Set<CyNode> connNodes = cca.getNodesOf(aCompInfo);
-			final Set<CyEdge> connEdges = new HashSet<CyEdge>();
-			if (nodeSet != null) {
-				connNodes.retainAll(nodeSet);
-			} 
-			
-			final int numNodes = connNodes.size();
-			final int[] edgeOffsets = new int[numNodes + 1];
-			final HashMap<CyNode, Integer> node2Int = new HashMap<>();
-			int numEdgesLocal = 0;
-			for (CyNode node : connNodes)
-			{
-				edgeOffsets[node2Int.size()] = numEdgesLocal;
-				node2Int.put(node, node2Int.size());
-				numEdgesLocal += getNeighbors(node).size();
-				for (CyEdge edge : getIncidentEdges(node))
-					connEdges.add(edge);
-			}
-			final int numEdges = numEdgesLocal;
-			edgeOffsets[numNodes] = numEdges;
-			final int[] edges = new int[numEdges];
-			final int[] edgeIDs = new int[numEdges];
-			final HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
-			{
-				int e = 0;
-				for (CyNode node : connNodes)
-				{
-					int nodeID = node2Int.get(node);
-					int offset = edgeOffsets[nodeID];
-					for (CyNode neighbor : getNeighbors(node))
-					{
-						int neighborID = node2Int.get(neighbor);
-						long edgeHash = computeEdgeHash(nodeID, neighborID);
-						if (!edgeHash2Int.containsKey(edgeHash))
-							edgeHash2Int.put(edgeHash, e++);
-						int edgeID = edgeHash2Int.get(edgeHash);
-						edgeIDs[offset] = edgeID;
-						edges[offset++] = neighborID;
-					}
-				}
-			}
-			
-			nodeBetweennessLean = new double[numNodes];
-			edgeBetweennessLean = new double[numEdges];
-			stressLean = new long[numNodes];
-
-			componentDiameter = 0;
-			
-			final Queue<CyNode> nodesLeft = new LinkedList<>();
-			for (CyNode node : connNodes)
-				nodesLeft.add(node);
-			
-			class NodeTask implements Runnable
-			{
-				UndirNetworkAnalyzer parent;
-				int threadID;
-				
-				public NodeTask(UndirNetworkAnalyzer p, int id)	{ parent = p; threadID = id; }
-				
-				@Override
-				public void run() 
-				{
-					int localNetworkEdgeCount = 0;	
-					int localMaxConnectivity = 0;
-					int localComponentDiameter = 0;
-					long[] localSharedNeighborsHist = new long[parent.sharedNeighborsHist.length];
-					long[] localSPathLengths = new long[parent.sPathLengths.length];
-					double[] localNodeBetweenness = new double[parent.nodeBetweennessLean.length];
-					double[] localEdgeBetweenness = new double[parent.edgeBetweennessLean.length];
-					long[] localStress = new long[parent.stressLean.length];
-					
-					while (nodesLeft.size() > 0)
-					{
-						CyNode node = null;
-						synchronized (parent)
-						{
-							if (nodesLeft.size() == 0)
-								break;
-							node = nodesLeft.remove();
-							parent.progress++;
-						}
-						
-						long timeStart = System.nanoTime();
-						int nodeID = node2Int.get(node);
-						List<CyEdge> incEdges = getIncidentEdges(node);
-						Map<CyNode, MutInteger> neighborMap = CyNetworkUtils.getNeighborMap(parent.network, node, incEdges);
-						CyRow nodeRow = parent.network.getRow(node);
-						int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
-		
-						// Degree distribution calculation
-						int degree = getDegree(node, incEdges);
-						
-						localNetworkEdgeCount += degree;
-						synchronized (parent.degreeDist)
-						{
-							parent.degreeDist.addObservation(degree);
-						}
-						if (useNodeAttributes) {
-							nodeRow.set(Messages.getAttr("deg"),degree);
-						}
-						int neighborCount = calcSimple(node, incEdges, neighborMap, parent.params);
-						localMaxConnectivity = Math.max(localMaxConnectivity, neighborCount);
-						
-		
-						if (neighborCount > 0) 
-						{
-							int[] neighbors = new int[lastEdge - firstEdge];
-							for (int ei = firstEdge; ei < lastEdge; ei++)
-								neighbors[ei - firstEdge] = edges[ei];
-		
-							// Neighborhood connectivity computation
-							final double neighborConnect = averageNeighbors(neighbors, edgeOffsets);
-							synchronized (parent.NCps)
-							{
-								accumulate(parent.NCps, neighborCount, neighborConnect);
-							}
-		
-							if (neighborCount > 1) 
-							{
-								// Topological coefficients computation
-								double topCoef = computeTC(nodeID, numNodes, edges, edgeOffsets);
-								if (!Double.isNaN(topCoef)) 
-									synchronized (parent.topCoefs)
-									{
-										parent.topCoefs.add(new Point2D.Double(neighborCount, topCoef));
-									}
-								else 
-									topCoef = 0.0;
-		
-								// Clustering coefficients computation
-								final double nodeCCp = computeCC(neighbors, numNodes, edges, edgeOffsets);
-								synchronized (parent.CCps)
-								{
-									accumulate(parent.CCps, neighborCount, nodeCCp);
-								}
-								if (useNodeAttributes) 
-								{
-									synchronized (parent.network)
-									{
-										nodeRow.set( Messages.getAttr("cco"), Utils.roundTo(nodeCCp, roundingDigits));
-										nodeRow.set( Messages.getAttr("tco"), Utils.roundTo(topCoef, roundingDigits));
-									}
-								}
-		
-							} 
-							else if (useNodeAttributes) 
-							{
-								synchronized (parent.network)
-								{
-									nodeRow.set( Messages.getAttr("cco"), 0.0);
-									nodeRow.set( Messages.getAttr("tco"), 0.0);
-								}
-							}
-							synchronized (parent.network)
-							{
-								nodeRow.set( Messages.getAttr("nco"), Utils.roundTo(neighborConnect, roundingDigits));
-							}
-						} 
-						else if (useNodeAttributes) 
-						{
-							synchronized (parent.network)
-							{
-								nodeRow.set( Messages.getAttr("nco"), 0.0);
-								nodeRow.set( Messages.getAttr("cco"), 0.0);
-								nodeRow.set( Messages.getAttr("tco"), 0.0);
-							}
-						}
-						if (parent.cancelled) 
-							break;
-		
-						// Shortest path lengths computation
-						if (parent.nodeSet != null)
-							continue;
-						
-						PathLengthData pathLengths = computeSPandSN(nodeID, numNodes, edges, edgeOffsets, localSharedNeighborsHist, localSPathLengths);
-						
-						int eccentricity = pathLengths.getMaxLength();
-						synchronized (parent.params)
-						{
-							if (parent.params.diameter < eccentricity)
-								parent.params.diameter = eccentricity;
-							if (0 < eccentricity && eccentricity < parent.params.radius)
-								parent.params.radius = eccentricity;
-						}
-						localComponentDiameter = Math.max(localComponentDiameter, eccentricity);
-						
-						double apl = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
-						synchronized (parent.aplMap)
-						{
-							parent.aplMap.put(node, Double.valueOf(apl));
-						}
-						double closeness = (apl > 0.0) ? 1 / apl : 0.0;
-						synchronized (parent.closenessCent)
-						{
-							parent.closenessCent.add(new Point2D.Double(neighborCount, closeness));
-						}
-		
-						// Store max. and avg. shortest path lengths, and closeness in
-						// node attributes
-						if (useNodeAttributes) 
-						{
-							synchronized (parent.network)
-							{
-								nodeRow.set( Messages.getAttr("spl"), eccentricity);
-								nodeRow.set( Messages.getAttr("apl"), Utils.roundTo(apl, roundingDigits));
-								nodeRow.set( Messages.getAttr("clc"), Utils.roundTo(closeness, roundingDigits));
-							}
-						}
-		
-						// CyNode and edge betweenness calculation
-						if (computeNB) 
-							computeNBandEB(nodeID, numNodes, edges, edgeOffsets, edgeIDs, localNodeBetweenness, localStress, localEdgeBetweenness);
-		
-						if (parent.cancelled)
-							break;
-					} // end node iteration
-
-					// Reduce results into global (parent's) variables
-					synchronized (parent)
-					{
-						parent.networkEdgeCount += localNetworkEdgeCount;
-						parent.maxConnectivity = Math.max(parent.maxConnectivity, localMaxConnectivity);
-						parent.componentDiameter = Math.max(parent.componentDiameter, localComponentDiameter);
-						for (int i = 0; i < localSharedNeighborsHist.length; i++)
-							parent.sharedNeighborsHist[i] += localSharedNeighborsHist[i];
-						for (int i = 0; i < localSPathLengths.length; i++)
-							parent.sPathLengths[i] += localSPathLengths[i];
-						for (int i = 0; i < localNodeBetweenness.length; i++)
-							parent.nodeBetweennessLean[i] += localNodeBetweenness[i];
-						for (int i = 0; i < localEdgeBetweenness.length; i++)
-							parent.edgeBetweennessLean[i] += localEdgeBetweenness[i];
-						for (int i = 0; i < localStress.length; i++)
-							parent.stressLean[i] += localStress[i];
-					}
-				}
-			}
+			return;
+		}
 
-			int numThreads = Runtime.getRuntime().availableProcessors();
-			ExecutorService threadPool = Executors.newFixedThreadPool(numThreads);
-			List<Future<?>> futures = new LinkedList<Future<?>>();
-			for (int i = 0; i < numThreads; i++)
-				futures.add(threadPool.submit(new NodeTask(this, i)));
-			for (Future<?> future : futures)
-				try {
-					future.get();
-				} catch (Exception e) { } 
-						
-			if (cancelled)
-			{
-				analysisFinished();
+		// Rank the top nodes by closeness and betweenness
+		if (plan.isRanked(Metric.CLOSENESS)) {
+			final ClosenessRanking ranking = new ClosenessRanking(this, graph, components, plan.getTopK());
+			if (!ranking.rank()) {
 				return;
 			}
-
-			if (nodeSet == null) {
-				// Normalize and save node betweenness
-				for (final CyNode n : connNodes) 
-				{
-					int nodeID = node2Int.get(n);
-					// Compute node radiality
-					final double rad = (componentDiameter + 1.0 - aplMap.get(n).doubleValue()) / componentDiameter;
-					if (useNodeAttributes)
-						network.getRow(n).set( Messages.getAttr("rad"), Utils.roundTo(rad, roundingDigits));
-
-					if (computeNB) {
-						final double nNormFactor = computeNormFactor(numNodes);
-						double nb = nodeBetweennessLean[nodeID] * nNormFactor;
-						if (Double.isNaN(nb)) {
-							nb = 0.0;
-						}
-						final int degree = getDegree(n, getIncidentEdges(n));
-						nodeBetweennessArray.add(new Point2D.Double(degree, nb));
-						final long nodeStress = stressLean[nodeID];
-						stressDist.addObservation(nodeStress);
-						if (useNodeAttributes) {
-							network.getRow(n).set( Messages.getAttr("nbt"), Utils.roundTo(nb, roundingDigits));
-							network.getRow(n).set( Messages.getAttr("stress"), nodeStress);
-						}
-					}
-				} // end iterate over nodes
-				
-				// Save edge betweenness
-				if (useEdgeAttributes && computeNB) 
-				{
-					for (CyEdge edge : connEdges)
-					{
-						int sourceID = node2Int.get(edge.getSource());
-						int targetID = node2Int.get(edge.getTarget());
-						long edgeHash = computeEdgeHash(sourceID, targetID);						
-						double eb = Double.NaN;
-						if (edgeHash2Int.containsKey(edgeHash))
-							eb = edgeBetweennessLean[edgeHash2Int.get(edgeHash)];
-						
-						if (Double.isNaN(eb)) {
-							eb = 0.0;
-						}
-						network.getRow(edge).set( Messages.getAttr("ebt"), Utils.roundTo(eb, roundingDigits));
-					}
-				}
+			saveRanking("topCloseness", "clc", graph, ranking.getNodes(), ranking.getValues(), 0);
+		}
+		if (plan.isRanked(Metric.BETWEENNESS)) {
+			final BetweennessRanking ranking = new BetweennessRanking(this, graph, components, plan);
+			if (!ranking.rank()) {
+				return;
 			}
-		} // end iteration over connected component
+			saveRanking("topBetweenness", "nbt", graph, ranking.getNodes(), ranking.getValues(),
+					ranking.getErrorBound());
+		}
 		
 		// save statistics
 		if (params.connectivityAccum != null) {
@@ -458,6 +193,7 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 
 		// Save degree distribution in the statistics instance
 		stats.set("degreeDist", degreeDist.createHistogram());
+		saveCoreness(coreSizes, degeneracy);
 
 		// Save C(k) in the statistics instance
 		if (CCps.size() > 0) {
@@ -469,6 +205,11 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 			}
 		}
 
+		if (nodeSet == null && neighborPairs > 0) {
+			stats.set("transitivity", neighborArcs / neighborPairs);
+		}
+		saveClusteringError(clusteringSampler, neighborPairs, CCps);
+
 		// Save topological coefficients in the statistics instance
 		if (topCoefs.size() > 1) {
 			stats.set("topCoefs", new Points2D(topCoefs));
@@ -482,7 +223,7 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 			stats.set("edgeCount", networkEdgeCount / 2);
 		}
 
-		if (nodeSet == null) {
+		if (nodeSet == null && plan.needsTraversal()) {
 			long connPairs = 0; // total number of connected pairs of nodes
 			long totalPathLength = 0;
 			for (int i = 1; i <= params.diameter; ++i) {
@@ -512,7 +253,21 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 							largestCommN));
 				}
 			}
+		} else if (nodeSet == null && plan.computes(Metric.DIAMETER) && params.diameter > 0) {
+			stats.set("diameter", params.diameter);
+			stats.set("radius", params.radius);
+		}
+		if (nodeSet == null && plan.isPathsEstimated()) {
+			long connPairs = 0;
+			for (int c = 0; c < components.getComponentCount(); c++) {
+				final long size = components.getSize(c);
+				connPairs += size * (size - 1);
+			}
+			saveEstimatedPathLengths(graph, graph.getNeighborOffsets(), graph.getNeighbors(), connPairs,
+					useNodeAttributes);
 		}
+		saveSpectralCentralities(graph, graph.getNeighborOffsets(), graph.getNeighbors(),
+				graph.getNeighborOffsets(), useNodeAttributes);
 
 		// Save closeness centrality in the statistics instance
 		if (closenessCent.size() > 1) {
@@ -530,93 +285,827 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		}
 
 		// Save stress distribution in the statistics instance
-		if (nodeSet == null && computeNB) {
+		if (nodeSet == null && plan.computes(Metric.STRESS)) {
 			stats.set("stressDist", stressDist.createPoints2D());
 		}
+		saveBetweennessError(sampler, useNodeAttributes);
 		
-		analysisFinished();
 		time = System.currentTimeMillis() - time;
 		stats.set("time", time / 1000.0);
-		progress = nodeCount;
+		progress.reset();
+		progress.add(nodeCount);
 	}
 
 	/**
-	 * Calculates a set of simple properties of the given node.
+	 * Stores a ranking of the top nodes in the statistics and, if enabled, in the node attributes.
+	 * <p>
+	 * The attribute of the ranked measure is set for the ranked nodes and cleared for all other nodes,
+	 * as their values are not computed.
+	 * </p>
 	 * 
-	 * @param aNodeID
-	 *            ID of the node of interest. This parameter is used for storing attribute values.
-	 * @param aIncEdges
-	 *            Array of the indices of all the neighbors of the node of interest.
-	 * @param aNeMap
-	 *            Map of neighbors of the node of interest and their frequency.
-	 * @param aParams
-	 *            Instance to accumulate the computed values.
-	 * @return Number of neighbors of the node of interest.
+	 * @param aParam
+	 *            ID of the ranking in the statistics.
+	 * @param aAttribute
+	 *            ID of the node attribute of the ranked measure.
+	 * @param aGraph
+	 *            Snapshot of the analyzed network.
+	 * @param aNodes
+	 *            Indices of the ranked nodes in <code>aGraph</code>, in order of decreasing value.
+	 * @param aValues
+	 *            Values of the ranked nodes.
+	 * @param aErrorBound
+	 *            Largest error of the values; <code>0</code> if they are exact.
 	 */
-	private int calcSimple(CyNode aNode, List<CyEdge> aIncEdges, Map<CyNode, MutInteger> aNeMap, SimpleUndirParams aParams) 
+	private void saveRanking(String aParam, String aAttribute, GraphSnapshot aGraph, int[] aNodes,
+			double[] aValues, double aErrorBound)
 	{
-		final int neighborCount = aNeMap.size();
+		final long[] suids = new long[aNodes.length];
+		final String[] names = new String[aNodes.length];
+		for (int i = 0; i < aNodes.length; i++)
+		{
+			final CyNode node = aGraph.getNode(aNodes[i]);
+			suids[i] = node.getSUID().longValue();
+			names[i] = network.getRow(node).get(CyNetwork.NAME, String.class);
+		}
+		stats.set(aParam, new RankedNodes(suids, names, aValues, aErrorBound));
 
-		synchronized (aParams)
+		if (useNodeAttributes)
 		{
-			// Avg. number of neighbors, density & centralization calculation
-			if (aParams.connectivityAccum != null)
-				aParams.connectivityAccum.add(neighborCount);
-			else
-				aParams.connectivityAccum = new SumCountPair(neighborCount);
+			final String column = Messages.getAttr(aAttribute);
+			final CyRow[] rows = getNodeRows(aGraph);
+			for (int v = 0; v < rows.length; v++)
+				rows[v].set(column, null);
+			for (int i = 0; i < aNodes.length; i++)
+				rows[aNodes[i]].set(column, Utils.roundTo(aValues[i], roundingDigits));
+		}
+	}
+
+	/**
+	 * Computation of the topological parameters of the nodes in a connected component.
+	 * <p>
+	 * The workers of the job store the values of every node in arrays; these values are accumulated
+	 * into the statistics of the network by {@link #finish()}, node by node, and written to the node
+	 * and edge attributes in a single pass per attribute.
+	 * </p>
+	 * <p>
+	 * The structures the workers depend on, like the decompositions of the component and its triangle
+	 * counter, are built by {@link #prepare()} in the thread pool, not by the thread creating the job.
+	 * </p>
+	 * <p>
+	 * If the component has articulation points, its exact betweenness and stress are computed block by
+	 * block (see {@link BlockBetweenness}), and the shortest path lengths of all nodes by multi-source
+	 * traversals.
+	 * </p>
+	 */
+	private final class ComponentJob extends ComponentScheduler.Job
+	{
+		/**
+		 * Initializes a new instance of <code>ComponentJob</code>.
+		 * 
+		 * @param aComp Snapshot of the connected component.
+		 * @param aSampler Sampler of the source nodes for betweenness and stress; <code>null</code> if
+		 *        these are computed exactly.
+		 * @param aClusteringSampler Sampler of the pairs of neighbors for clustering coefficients;
+		 *        <code>null</code> if these are computed exactly.
+		 */
+		public ComponentJob(GraphSnapshot aComp, BetweennessSampler aSampler, ClusteringSampler aClusteringSampler)
+		{
+			super(aComp.getNodeCount());
+			comp = aComp;
+			numNodes = comp.getNodeCount();
+			edgeOffsets = comp.getNeighborOffsets();
+			edges = comp.getNeighbors();
+			edgeIDs = comp.getPairIDs();
 			
-			// Heterogeneity calculation
-			if (aParams.sqConnectivityAccum != null)
-				aParams.sqConnectivityAccum.add(neighborCount * neighborCount);
-			else
-				aParams.sqConnectivityAccum = new SumCountPair(neighborCount * neighborCount);
-	
-			// Number of unconnected nodes calculation
-			if (neighborCount == 0)
-				aParams.unconnectedNodeCount++;
+			int numNodesLeft = 0;
+			nodesLeft = new int[numNodes];
+			for (int nodeID = 0; nodeID < numNodes; nodeID++)
+				if (nodeSet == null || nodeSet.contains(comp.getNode(nodeID)))
+					nodesLeft[numNodesLeft++] = nodeID;
+			numNodesToProcess = numNodesLeft;
+			dispenser = new NodeDispenser(numNodesToProcess, AnalysisThreadPool.getParallelism());
+			traversal = nodeSet == null && plan.needsTraversal();
+			bounded = nodeSet == null && !traversal && plan.computes(Metric.DIAMETER);
+			boundsPending = new AtomicBoolean(bounded);
+			dependencies = nodeSet == null && plan.needsDependencies();
+			sources = dependencies && aSampler != null ? aSampler.sample(numNodes) : null;
+			clusteringSampler = aClusteringSampler;
+			
+			arcsLean = new long[plan.computes(Metric.CLUSTERING) ? numNodes : 0];
+			ccoSamplesLean = new int[clusteringSampler != null ? numNodes : 0];
+			ccoLean = new double[numNodes];
+			tcoLean = new double[numNodes];
+			ncoLean = new double[numNodes];
+			eccLean = new int[numNodes];
+			aplLean = new double[numNodes];
+			sharedNeighborsHistLean = new long[numNodes];
+			sPathLengthsLean = new long[numNodes];
+			nodeBetweennessLean = new double[dependencies ? numNodes : 0];
+			edgeBetweennessLean = new double[dependencies ? comp.getPairCount() : 0];
+			stressLean = new long[dependencies ? numNodes : 0];
 		}
 
-		// Number of self-loops and number of directed/undireceted edges
-		// calculation
-		int selfLoops = 0;
-		int dirEdges = 0;
-		for (int j = 0; j < aIncEdges.size(); j++) 
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#prepare()
+		 */
+		@Override
+		protected void prepare()
 		{
-			CyEdge e = aIncEdges.get(j);
-			if (e.isDirected())
-				dirEdges++;
-			if (e.getSource() == e.getTarget())
-				selfLoops++;
+			if (useNodeAttributes || useEdgeAttributes || (dependencies && sources == null))
+				blocks = BlockDecomposition.create(numNodes, edgeOffsets, edges);
+			if (dependencies && sources == null && blocks.getBlockCount() > 1)
+			{
+				blockBetweenness = BlockBetweenness.create(blocks, edgeOffsets, edges, edgeIDs, comp.getPairCount(), 
+						plan.computes(Metric.STRESS));
+				blockDispenser = new NodeDispenser(blockBetweenness.getSourceCount(), AnalysisThreadPool.getParallelism());
+			}
+			if (plan.computes(Metric.CORENESS))
+				cores = CoreDecomposition.create(numNodes, edgeOffsets, edges);
+			if (plan.computes(Metric.CLUSTERING) || plan.computes(Metric.TOPOLOGICAL_COEFFICIENT))
+				triangles = TriangleCounter.create(numNodes, edgeOffsets, edges, cores != null ? cores.getRanks() : null);
 		}
-		synchronized (aParams)
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#createWorker(de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace)
+		 */
+		@Override
+		protected Runnable createWorker(TraversalWorkspace aWorkspace)
 		{
-			aParams.selfLoopCount += selfLoops;
+			return new NodeTask(aWorkspace);
 		}
-		int undirEdges = aIncEdges.size() - dirEdges;
 
-		// Number of multi-edge node partners calculation
-		int partnerOfMultiEdgeNodePairs = 0;
-		for (final MutInteger freq : aNeMap.values()) 
-			if (freq.value > 1)
-				partnerOfMultiEdgeNodePairs++;
-		synchronized (aParams)
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see de.mpg.mpi_inf.bioinf.netanalyzer.ComponentScheduler.Job#finish()
+		 */
+		@Override
+		protected void finish()
+		{
+			int componentDiameter = 0;
+			for (int i = 0; i < numNodesToProcess; i++)
+			{
+				final int nodeID = nodesLeft[i];
+				
+				// Degree distribution calculation
+				final int degree = getDegree(comp, nodeID);
+				networkEdgeCount += degree;
+				degreeDist.addObservation(degree);
+				final int neighborCount = calcSimple(comp, nodeID, params);
+				maxConnectivity = Math.max(maxConnectivity, neighborCount);
+				if (cores != null)
+					coreSizes[cores.getCoreness(nodeID)]++;
+				
+				if (neighborCount > 0 && plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+					accumulate(NCps, neighborCount, ncoLean[nodeID]);
+				if (neighborCount > 1)
+				{
+					if (plan.computes(Metric.TOPOLOGICAL_COEFFICIENT) && !Double.isNaN(tcoLean[nodeID]))
+						topCoefs.add(new Point2D.Double(neighborCount, tcoLean[nodeID]));
+					if (plan.computes(Metric.CLUSTERING))
+					{
+						final long pairs = (long) neighborCount * (neighborCount - 1);
+						if (clusteringSampler != null && ccoSamplesLean[nodeID] > 0)
+						{
+							clusteringSampler.record(neighborCount, ccoSamplesLean[nodeID]);
+							neighborArcs += ccoLean[nodeID] * pairs;
+						}
+						else
+						{
+							ccoLean[nodeID] = (double) arcsLean[nodeID] / (double) pairs;
+							neighborArcs += arcsLean[nodeID];
+						}
+						accumulate(CCps, neighborCount, ccoLean[nodeID]);
+						neighborPairs += pairs;
+					}
+				}
+				
+				if (traversal)
+				{
+					final int eccentricity = eccLean[nodeID];
+					if (params.diameter < eccentricity)
+						params.diameter = eccentricity;
+					if (0 < eccentricity && eccentricity < params.radius)
+						params.radius = eccentricity;
+					componentDiameter = Math.max(componentDiameter, eccentricity);
+					
+					if (plan.computes(Metric.CLOSENESS) && !plan.isRanked(Metric.CLOSENESS))
+					{
+						final double apl = aplLean[nodeID];
+						final double closeness = (apl > 0.0) ? 1 / apl : 0.0;
+						closenessCent.add(new Point2D.Double(neighborCount, closeness));
+					}
+				}
+			}
+			
+			if (cores != null)
+				degeneracy = Math.max(degeneracy, cores.getDegeneracy());
+			
+			if (bounds != null)
+			{
+				componentDiameter = bounds.getDiameter();
+				params.diameter = Math.max(params.diameter, bounds.getDiameter());
+				if (0 < bounds.getRadius() && bounds.getRadius() < params.radius)
+					params.radius = bounds.getRadius();
+			}
+			
+			for (int i = 0; i < numNodes; i++)
+			{
+				sharedNeighborsHist[i] += sharedNeighborsHistLean[i];
+				sPathLengths[i] += sPathLengthsLean[i];
+			}
+			
+			if (sources != null)
+				BetweennessSampler.scale(sources, nodeBetweennessLean, edgeBetweennessLean, stressLean);
+			if (blockBetweenness != null)
+				blockBetweenness.finish(nodeBetweennessLean, stressLean, edgeBetweennessLean);
+			if (dependencies) {
+				// Normalize node betweenness
+				final double nNormFactor = computeNormFactor(numNodes);
+				for (int nodeID = 0; nodeID < numNodes; nodeID++) 
+				{
+					double nb = nodeBetweennessLean[nodeID] * nNormFactor;
+					if (Double.isNaN(nb)) {
+						nb = 0.0;
+					}
+					nodeBetweennessLean[nodeID] = nb;
+					if (plan.computes(Metric.BETWEENNESS) && !plan.isRanked(Metric.BETWEENNESS))
+						nodeBetweennessArray.add(new Point2D.Double(getDegree(comp, nodeID), nb));
+					if (plan.computes(Metric.STRESS))
+						stressDist.addObservation(stressLean[nodeID]);
+				}
+			}
+			
+			if (useNodeAttributes)
+				storeNodeAttributes(componentDiameter);
+			if (useEdgeAttributes)
+				storeEdgeAttributes();
+		}
+
+		/**
+		 * Stores the computed parameters of the processed nodes in the node attributes.
+		 * <p>
+		 * The rows of the nodes are looked up once and the attributes are written column by column,
+		 * from the thread finishing the job, so that the writes need no synchronization.
+		 * </p>
+		 * 
+		 * @param aComponentDiameter
+		 *            Diameter of the connected component.
+		 */
+		private void storeNodeAttributes(int aComponentDiameter)
 		{
-			aParams.multiEdgePartners += partnerOfMultiEdgeNodePairs;
+			final CyRow[] rows = new CyRow[numNodesToProcess];
+			final int[] neighborCounts = new int[numNodesToProcess];
+			for (int i = 0; i < numNodesToProcess; i++)
+			{
+				final int nodeID = nodesLeft[i];
+				rows[i] = network.getRow(comp.getNode(nodeID));
+				neighborCounts[i] = edgeOffsets[nodeID + 1] - edgeOffsets[nodeID];
+			}
+
+			// Simple parameters
+			String column = Messages.getAttr("deg");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, getDegree(comp, nodesLeft[i]));
+			column = Messages.getAttr("slo");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getDirectedLoopCount(nodesLeft[i]) + comp.getUndirectedLoopCount(nodesLeft[i]));
+			column = Messages.getAttr("isn");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, neighborCounts[i] == 0);
+			column = Messages.getAttr("nue");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, comp.getUndirectedCount(nodesLeft[i]));
+			column = Messages.getAttr("nde");
+			for (int i = 0; i < numNodesToProcess; i++)
+			{
+				final int nodeID = nodesLeft[i];
+				rows[i].set(column, interpr.isPaired() ? comp.getInDirectedCount(nodeID) : 
+					comp.getInDirectedCount(nodeID) + comp.getOutDirectedCount(nodeID) - comp.getDirectedLoopCount(nodeID));
+			}
+			column = Messages.getAttr("pmn");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, interpr.isPaired() ? 
+					comp.getInMultiPartnerCount(nodesLeft[i]) : comp.getMultiPartnerCount(nodesLeft[i]));
+			column = Messages.getAttr("art");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, blocks.isArticulationPoint(nodesLeft[i]));
+
+			if (cores != null)
+			{
+				column = Messages.getAttr("cor");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, cores.getCoreness(nodesLeft[i]));
+			}
+
+			// Clustering and topological coefficients, neighborhood connectivity
+			if (plan.computes(Metric.CLUSTERING))
+			{
+				column = Messages.getAttr("cco");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, neighborCounts[i] > 1 ? Utils.roundTo(ccoLean[nodesLeft[i]], roundingDigits) : 0.0);
+			}
+			if (plan.computes(Metric.TOPOLOGICAL_COEFFICIENT))
+			{
+				column = Messages.getAttr("tco");
+				for (int i = 0; i < numNodesToProcess; i++)
+				{
+					final double topCoef = tcoLean[nodesLeft[i]];
+					rows[i].set(column, neighborCounts[i] > 1 && !Double.isNaN(topCoef) ? Utils.roundTo(topCoef, roundingDigits) : 0.0);
+				}
+			}
+			if (plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+			{
+				column = Messages.getAttr("nco");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, neighborCounts[i] > 0 ? Utils.roundTo(ncoLean[nodesLeft[i]], roundingDigits) : 0.0);
+			}
+
+			if (traversal)
+				storePathAttributes(rows, aComponentDiameter);
+
+			// Node betweenness and stress
+			if (dependencies && plan.computes(Metric.BETWEENNESS) && !plan.isRanked(Metric.BETWEENNESS))
+			{
+				column = Messages.getAttr("nbt");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, Utils.roundTo(nodeBetweennessLean[nodesLeft[i]], roundingDigits));
+			}
+			if (dependencies && plan.computes(Metric.STRESS))
+			{
+				column = Messages.getAttr("stress");
+				for (int i = 0; i < numNodesToProcess; i++)
+					rows[i].set(column, stressLean[nodesLeft[i]]);
+			}
+		}
+
+		/**
+		 * Stores the shortest path lengths, closeness and radiality of the processed nodes in the node
+		 * attributes.
+		 * 
+		 * @param rows
+		 *            Rows of the processed nodes.
+		 * @param aComponentDiameter
+		 *            Diameter of the connected component.
+		 */
+		private void storePathAttributes(CyRow[] rows, int aComponentDiameter)
+		{
+			String column = Messages.getAttr("spl");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, eccLean[nodesLeft[i]]);
+			column = Messages.getAttr("apl");
+			for (int i = 0; i < numNodesToProcess; i++)
+				rows[i].set(column, Utils.roundTo(aplLean[nodesLeft[i]], roundingDigits));
+			if (plan.computes(Metric.CLOSENESS) && !plan.isRanked(Metric.CLOSENESS))
+			{
+				column = Messages.getAttr("clc");
+				for (int i = 0; i < numNodesToProcess; i++)
+				{
+					final double apl = aplLean[nodesLeft[i]];
+					rows[i].set(column, Utils.roundTo((apl > 0.0) ? 1 / apl : 0.0, roundingDigits));
+				}
+			}
+			if (plan.computes(Metric.RADIALITY))
+			{
+				column = Messages.getAttr("rad");
+				for (int i = 0; i < numNodesToProcess; i++)
+				{
+					final double rad = (aComponentDiameter + 1.0 - aplLean[nodesLeft[i]]) / aComponentDiameter;
+					rows[i].set(column, Utils.roundTo(rad, roundingDigits));
+				}
+			}
 		}
 
-		// Storing the values in attributes
-		if (useNodeAttributes) 
+		/**
+		 * Stores the edge betweenness of the edges in the component, if computed, and their bridge flags
+		 * in the edge attributes.
+		 * <p>
+		 * An edge is a bridge if its pair of nodes forms a block and is connected by no other edge.
+		 * </p>
+		 */
+		private void storeEdgeAttributes()
 		{
-			CyRow nodeRow = network.getRow(aNode);
-			synchronized (network) 
+			final boolean[] bridges = new boolean[comp.getPairCount()];
+			final int[] multiplicities = comp.getPairMultiplicities();
+			for (int ei = 0; ei < edges.length; ei++)
+				if (blocks.isBridge(ei) && multiplicities[ei] == 1)
+					bridges[edgeIDs[ei]] = true;
+			final boolean betweenness = dependencies && plan.computes(Metric.BETWEENNESS);
+			final String column = Messages.getAttr("ebt");
+			final String bridgeColumn = Messages.getAttr("brg");
+			for (int edge = 0; edge < comp.getEdgeCount(); edge++)
 			{
-				nodeRow.set(Messages.getAttr("slo"), selfLoops);
-				nodeRow.set(Messages.getAttr("isn"), (neighborCount == 0));
-				nodeRow.set(Messages.getAttr("nue"), undirEdges);
-				nodeRow.set(Messages.getAttr("nde"), dirEdges);
-				nodeRow.set(Messages.getAttr("pmn"), partnerOfMultiEdgeNodePairs);
+				final int pairID = comp.getPairID(edge);
+				final CyRow row = network.getRow(comp.getEdge(edge));
+				row.set(bridgeColumn, pairID >= 0 && bridges[pairID]);
+				if (!betweenness)
+					continue;
+				double eb = Double.NaN;
+				if (pairID >= 0)
+					eb = edgeBetweennessLean[pairID];
+				
+				if (Double.isNaN(eb)) {
+					eb = 0.0;
+				}
+				row.set(column, Utils.roundTo(eb, roundingDigits));
 			}
 		}
+
+		/**
+		 * Worker processing nodes of the component, until none are left.
+		 */
+		private final class NodeTask implements Runnable
+		{
+			/**
+			 * Initializes a new instance of <code>NodeTask</code>.
+			 * 
+			 * @param aWorkspace Traversal workspace of the thread running the task.
+			 */
+			public NodeTask(TraversalWorkspace aWorkspace)
+			{
+				workspace = aWorkspace;
+			}
+
+			/*
+			 * (non-Javadoc)
+			 * 
+			 * @see java.lang.Runnable#run()
+			 */
+			@Override
+			public void run() 
+			{
+				long[] localSharedNeighborsHist = new long[traversal ? numNodes : 0];
+				long[] localSPathLengths = new long[traversal ? numNodes : 0];
+				double[] localNodeBetweenness = new double[nodeBetweennessLean.length];
+				double[] localEdgeBetweenness = new double[edgeBetweennessLean.length];
+				long[] localStress = new long[stressLean.length];
+				long[] localArcs = new long[nodeSet == null && clusteringSampler == null ? arcsLean.length : 0];
+				int nextNode = 0, lastNode = 0;	// Chunk of nodesLeft claimed by this task
+				int[] batch = new int[traversal ? MultiSourceBfs.WIDTH : 0];	// Sources of the next multi-source traversal
+				int batchSize = 0;
+				
+				while (true)
+				{
+					if (nextNode == lastNode)
+					{
+						nextNode = dispenser.claim();
+						if (nextNode < 0)
+							break;
+						lastNode = dispenser.chunkEnd(nextNode);
+					}
+					int nodeID = nodesLeft[nextNode++];
+					progress.increment();
+					
+					int firstEdge = edgeOffsets[nodeID], lastEdge = edgeOffsets[nodeID + 1];
+					int neighborCount = lastEdge - firstEdge;
+	
+					if (neighborCount > 0) 
+					{
+						// Neighborhood connectivity computation
+						if (plan.computes(Metric.NEIGHBORHOOD_CONNECTIVITY))
+							ncoLean[nodeID] = averageNeighbors(edges, firstEdge, lastEdge, edgeOffsets);
+	
+						if (neighborCount > 1) 
+						{
+							// Topological coefficients computation
+							if (plan.computes(Metric.TOPOLOGICAL_COEFFICIENT))
+								tcoLean[nodeID] = triangles.getTopologicalCoefficient(nodeID, workspace);
+	
+							// Triangles for the clustering coefficients; when all nodes are processed, 
+							// every triangle is listed once, from its lowest-ranked node
+							if (plan.computes(Metric.CLUSTERING))
+							{
+								final int sampleSize = clusteringSampler != null ? 
+										clusteringSampler.getSampleSize(neighborCount) : 0;
+								if (sampleSize > 0)
+								{
+									ccoSamplesLean[nodeID] = sampleSize;
+									ccoLean[nodeID] = ClusteringSampler.estimate(nodeID, sampleSize, 
+											comp.getNode(nodeID).getSUID(), edgeOffsets, edges, edgeOffsets, edges);
+								}
+								else if (localArcs.length != 0)
+									triangles.countFrom(nodeID, localArcs);
+								else
+									arcsLean[nodeID] = triangles.countAt(nodeID);
+							}
+						} 
+					} 
+					if (cancelled) 
+						break;
+	
+					// Shortest path lengths, node and edge betweenness computation
+					final boolean source = dependencies && blockBetweenness == null && (sources == null || sources[nodeID]);
+					if (!source)
+					{
+						// Without betweenness, the distances are computed for many sources at once
+						if (traversal)
+						{
+							batch[batchSize++] = nodeID;
+							if (batchSize == batch.length)
+							{
+								traverseBatch(batch, batchSize, localSharedNeighborsHist, localSPathLengths);
+								batchSize = 0;
+							}
+						}
+						continue;
+					}
+					
+					PathLengthData pathLengths = computeSPandNB(nodeID, numNodes, edges, edgeOffsets, edgeIDs, 
+							traversal ? localSharedNeighborsHist : null, traversal ? localSPathLengths : null, 
+							source ? localNodeBetweenness : null, localStress, localEdgeBetweenness, workspace);
+					
+					if (traversal)
+					{
+						eccLean[nodeID] = pathLengths.getMaxLength();
+						aplLean[nodeID] = (pathLengths.getCount() > 0) ? pathLengths.getAverageLength() : 0;
+					}
+	
+					if (cancelled)
+						break;
+				} // end node iteration
+				if (batchSize > 0 && !cancelled)
+					traverseBatch(batch, batchSize, localSharedNeighborsHist, localSPathLengths);
+				
+				// Betweenness and stress from the traversals of the blocks
+				nextNode = lastNode = 0;
+				while (blockBetweenness != null && !cancelled)
+				{
+					if (nextNode == lastNode)
+					{
+						nextNode = blockDispenser.claim();
+						if (nextNode < 0)
+							break;
+						lastNode = blockDispenser.chunkEnd(nextNode);
+					}
+					blockBetweenness.accumulate(nextNode++, workspace, localNodeBetweenness, localStress, 
+							localEdgeBetweenness);
+				}
+				
+				// Without the traversals from all nodes, only the extreme eccentricities are computed, by 
+				// the first task running out of nodes
+				if (!cancelled && boundsPending.compareAndSet(true, false))
+					bounds = EccentricityBounds.compute(numNodes, edges, edgeOffsets);
+
+				// Reduce results into the component's arrays
+				synchronized (ComponentJob.this)
+				{
+					for (int i = 0; i < localSPathLengths.length; i++)
+					{
+						sharedNeighborsHistLean[i] += localSharedNeighborsHist[i];
+						sPathLengthsLean[i] += localSPathLengths[i];
+					}
+					for (int i = 0; i < localNodeBetweenness.length; i++)
+					{
+						nodeBetweennessLean[i] += localNodeBetweenness[i];
+						stressLean[i] += localStress[i];
+					}
+					for (int i = 0; i < localEdgeBetweenness.length; i++)
+						edgeBetweennessLean[i] += localEdgeBetweenness[i];
+					for (int i = 0; i < localArcs.length; i++)
+						arcsLean[i] += localArcs[i];
+				}
+			}
+
+			/**
+			 * Computes the shortest path lengths from the given nodes in a single multi-source traversal.
+			 * 
+			 * @param aBatch Array starting with the source nodes.
+			 * @param aCount Number of source nodes.
+			 * @param aSharedNeighborsHist Shared neighbors histogram of this task.
+			 * @param aSPathLengths Shortest path lengths histogram of this task.
+			 */
+			private void traverseBatch(int[] aBatch, int aCount, long[] aSharedNeighborsHist, long[] aSPathLengths)
+			{
+				final MultiSourceBfs bfs = workspace.getMultiSourceBfs();
+				bfs.run(aBatch, 0, aCount, numNodes, edges, edgeOffsets, edges, edgeOffsets, null, 0, aSharedNeighborsHist, 
+						aSPathLengths);
+				for (int lane = 0; lane < aCount; lane++)
+				{
+					eccLean[aBatch[lane]] = bfs.getEccentricity(lane);
+					aplLean[aBatch[lane]] = bfs.getAverageLength(lane);
+				}
+			}
+
+			/**
+			 * Traversal workspace of the thread running this task.
+			 */
+			private final TraversalWorkspace workspace;
+		}
+
+		/**
+		 * Snapshot of the connected component.
+		 */
+		private final GraphSnapshot comp;
+
+		/**
+		 * Number of nodes in the component.
+		 */
+		private final int numNodes;
+
+		/**
+		 * Indices of the first neighbor of every node in {@link #edges}.
+		 */
+		private final int[] edgeOffsets;
+
+		/**
+		 * Neighbor lists of the nodes.
+		 */
+		private final int[] edges;
+
+		/**
+		 * IDs of the node pairs in {@link #edges}.
+		 */
+		private final int[] edgeIDs;
+
+		/**
+		 * Nodes to be processed; only the first {@link #numNodesToProcess} entries are used.
+		 */
+		private final int[] nodesLeft;
+
+		/**
+		 * Number of nodes to be processed.
+		 */
+		private final int numNodesToProcess;
+
+		/**
+		 * Dispenser of the positions in {@link #nodesLeft} to the node tasks.
+		 */
+		private final NodeDispenser dispenser;
+
+		/**
+		 * Flag indicating if shortest paths are computed by traversals from the processed nodes.
+		 */
+		private final boolean traversal;
+
+		/**
+		 * Flag indicating if the diameter and the radius of the component are computed by bounding the
+		 * eccentricities, instead of by traversals from all nodes.
+		 */
+		private final boolean bounded;
+
+		/**
+		 * Flag indicating if the eccentricity bounds are still to be computed by a node task.
+		 */
+		private final AtomicBoolean boundsPending;
+
+		/**
+		 * Bounds of the eccentricities of the nodes, giving the diameter and the radius of the
+		 * component; <code>null</code> unless these are computed without traversals from all nodes.
+		 */
+		private EccentricityBounds bounds;
+
+		/**
+		 * Flag indicating if betweenness and stress are accumulated during the traversals.
+		 */
+		private final boolean dependencies;
+
+		/**
+		 * Flags marking the sampled source nodes; <code>null</code> if all the nodes are sources.
+		 */
+		private final boolean[] sources;
+
+		/**
+		 * Decomposition of the component into blocks, created by {@link #prepare()}; <code>null</code>
+		 * if neither attributes nor exact betweenness are computed.
+		 */
+		private BlockDecomposition blocks;
+
+		/**
+		 * Block-wise computation of betweenness and stress, created by {@link #prepare()};
+		 * <code>null</code> if these are not computed exactly or the component is a single block.
+		 */
+		private BlockBetweenness blockBetweenness;
+
+		/**
+		 * Dispenser of the sources of the block traversals to the node tasks; <code>null</code> if
+		 * betweenness is not computed block by block.
+		 */
+		private NodeDispenser blockDispenser;
+
+		/**
+		 * Core decomposition of the component, created by {@link #prepare()}; <code>null</code> if the
+		 * coreness is not computed. Its degeneracy ordering also ranks the nodes for the triangle
+		 * counter.
+		 */
+		private CoreDecomposition cores;
+
+		/**
+		 * Triangle counter of the component, created by {@link #prepare()}; <code>null</code> if
+		 * neither clustering nor topological coefficients are computed.
+		 */
+		private TriangleCounter triangles;
+
+		/**
+		 * Sampler of the pairs of neighbors for clustering coefficients; <code>null</code> if these are
+		 * computed exactly.
+		 */
+		private final ClusteringSampler clusteringSampler;
+
+		/**
+		 * Number of arcs among the neighbors of every node, i.e. twice the number of its triangles.
+		 */
+		private final long[] arcsLean;
+
+		/**
+		 * Number of pairs of neighbors sampled for every node; <code>0</code> if its clustering
+		 * coefficient is exact.
+		 */
+		private final int[] ccoSamplesLean;
+
+		/**
+		 * Clustering coefficient of every node.
+		 */
+		private final double[] ccoLean;
+
+		/**
+		 * Topological coefficient of every node; <code>NaN</code> if not defined.
+		 */
+		private final double[] tcoLean;
+
+		/**
+		 * Neighborhood connectivity of every node.
+		 */
+		private final double[] ncoLean;
+
+		/**
+		 * Eccentricity of every node.
+		 */
+		private final int[] eccLean;
+
+		/**
+		 * Average shortest path length of every node.
+		 */
+		private final double[] aplLean;
+
+		/**
+		 * Histogram of shared neighbors in the component.
+		 */
+		private final long[] sharedNeighborsHistLean;
+
+		/**
+		 * Histogram of shortest path lengths in the component.
+		 */
+		private final long[] sPathLengthsLean;
+
+		/**
+		 * Node betweenness accumulated for every node.
+		 */
+		private final double[] nodeBetweennessLean;
+
+		/**
+		 * Edge betweenness accumulated for every node pair.
+		 */
+		private final double[] edgeBetweennessLean;
+
+		/**
+		 * Stress accumulated for every node.
+		 */
+		private final long[] stressLean;
+	}
+
+	/**
+	 * Accumulates a set of simple properties of the given node.
+	 * 
+	 * @param aGraph
+	 *            Snapshot of the connected component that contains the node of interest.
+	 * @param aNodeID
+	 *            Index of the node of interest in <code>aGraph</code>.
+	 * @param aParams
+	 *            Instance to accumulate the computed values.
+	 * @return Number of neighbors of the node of interest.
+	 */
+	private int calcSimple(GraphSnapshot aGraph, int aNodeID, SimpleUndirParams aParams) 
+	{
+		final int[] offsets = aGraph.getNeighborOffsets();
+		final int neighborCount = offsets[aNodeID + 1] - offsets[aNodeID];
+
+		// Avg. number of neighbors, density & centralization calculation
+		if (aParams.connectivityAccum != null)
+			aParams.connectivityAccum.add(neighborCount);
+		else
+			aParams.connectivityAccum = new SumCountPair(neighborCount);
+		
+		// Heterogeneity calculation
+		if (aParams.sqConnectivityAccum != null)
+			aParams.sqConnectivityAccum.add(neighborCount * neighborCount);
+		else
+			aParams.sqConnectivityAccum = new SumCountPair(neighborCount * neighborCount);
+
+		// Number of unconnected nodes calculation
+		if (neighborCount == 0)
+			aParams.unconnectedNodeCount++;
+
+		// Number of self-loops calculation
+		aParams.selfLoopCount += aGraph.getDirectedLoopCount(aNodeID) + aGraph.getUndirectedLoopCount(aNodeID);
+
+		// Number of multi-edge node partners calculation
+		aParams.multiEdgePartners += interpr.isPaired() ? 
+			aGraph.getInMultiPartnerCount(aNodeID) : aGraph.getMultiPartnerCount(aNodeID);
+
 		return neighborCount;
 	}
 
@@ -668,62 +1157,11 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	 *            Starting node of the shortest paths to be found.
 	 * @return Data on the shortest path lengths from the current node to all other reachable nodes
 	 *         in the network.
+	 * @see #computeSPandNB(int, int, int[], int[], int[], long[], long[], double[], long[], double[])
 	 */
 	public static PathLengthData computeSPandSN(int node, int numNodes, int[] edges, int[] edgeOffsets, long[] outSharedNeighborsHist, long[] outSPathLengths) 
 	{
-		boolean[] visited = new boolean[numNodes];
-		visited[node] = true;
-		int[] frontier = new int[numNodes];
-		int[] nextFrontier = new int[numNodes];
-		frontier[0] = node;
-		int frontierSize = 1;
-		int length = 1;
-		boolean[] startNeighbors = new boolean[numNodes];
-		{
-			int firstNeighbor = edgeOffsets[node], lastNeighbor = edgeOffsets[node + 1];
-			for (int ni = firstNeighbor; ni < lastNeighbor; ni++)
-				startNeighbors[edges[ni]] = true;
-		}
-		
-		PathLengthData result = new PathLengthData();
-		
-		while (frontierSize > 0)
-		{
-			int nextFrontierSize = 0;
-			
-			for (int fi = 0; fi < frontierSize; fi++)
-			{
-				int n = frontier[fi];
-				int firstNeighbor = edgeOffsets[n], lastNeighbor = edgeOffsets[n + 1];
-				int sharedNeighbors = 0;
-				
-				for (int ni = firstNeighbor; ni < lastNeighbor; ni++)
-				{
-					int neighbor = edges[ni];
-					if (startNeighbors[neighbor])
-						sharedNeighbors++;
-					if (!visited[neighbor])
-					{
-						visited[neighbor] = true;
-						nextFrontier[nextFrontierSize++] = neighbor;
-					}
-				}
-				
-				outSharedNeighborsHist[length > 2 ? sharedNeighbors : 0]++;
-			}
-			
-			for (int nfi = 0; nfi < nextFrontierSize; nfi++)
-			{
-				frontier[nfi] = nextFrontier[nfi];
-				result.addSPL(length);
-			}
-
-			outSPathLengths[length] += nextFrontierSize;
-			frontierSize = nextFrontierSize;
-			length++;
-		}
-		
-		return result;
+		return computeSPandNB(node, numNodes, edges, edgeOffsets, null, outSharedNeighborsHist, outSPathLengths, null, null, null);
 	}
 
 	/**
@@ -743,56 +1181,132 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	 * @param source
 	 *            CyNode where a run of breadth-first search is started, in order to accumulate the
 	 *            node and edge betweenness of all other nodes
+	 * @see #computeSPandNB(int, int, int[], int[], int[], long[], long[], double[], long[], double[])
 	 */
 	public static void computeNBandEB(int source, int numNodes, int[] edges, int[] edgeOffsets, int[] edgeIDs,
 								double[] outNodeBetweenness, 
 								long[] outStress, 
 								double[] outEdgeBetweenness)
-	{		
-		int[] Q = new int[numNodes];		// Serves as queue for the first part, as stack for the second part
+	{
+		computeSPandNB(source, numNodes, edges, edgeOffsets, edgeIDs, null, null, outNodeBetweenness, outStress, outEdgeBetweenness);
+	}
+
+	/**
+	 * Computes the shortest path lengths from the given node and, optionally, accumulates the node and
+	 * edge betweenness and stress in a single breadth-first traversal.
+	 * <p>
+	 * The traversal produces the distances from <code>source</code> and the number of shortest paths
+	 * (sigma) to every reachable node, which is all the forward phase of Brandes' algorithm needs. The
+	 * dependencies are then accumulated by visiting the nodes in order of non-increasing distance. See
+	 * {@link #computeNBandEB(int, int, int[], int[], int[], double[], long[], double[])} and
+	 * {@link #computeSPandSN(int, int, int[], int[], long[], long[])} for the meaning of the computed
+	 * values.
+	 * </p>
+	 * 
+	 * @param source Index of the node to start the traversal from.
+	 * @param numNodes Number of nodes in the graph.
+	 * @param edges Array with every node's neighbor indices.
+	 * @param edgeOffsets Array with the indices of each node's first neighbor in <code>edges</code>.
+	 * @param edgeIDs Array with the IDs of the edges in <code>edges</code>; may be <code>null</code> if
+	 *        betweenness is not computed.
+	 * @param outSharedNeighborsHist Histogram of the number of neighbors shared with the source, to be
+	 *        updated; <code>null</code> if not needed.
+	 * @param outSPathLengths Histogram of the shortest path lengths to be updated; <code>null</code> if
+	 *        not needed.
+	 * @param outNodeBetweenness Array of node betweenness values to be updated; <code>null</code> if
+	 *        betweenness and stress are not to be computed.
+	 * @param outStress Array of node stress values to be updated; ignored if
+	 *        <code>outNodeBetweenness</code> is <code>null</code>.
+	 * @param outEdgeBetweenness Array of edge betweenness values to be updated, indexed by edge ID;
+	 *        ignored if <code>outNodeBetweenness</code> is <code>null</code>.
+	 * @return Data on the shortest path lengths from the source to all other reachable nodes in the
+	 *         network.
+	 */
+	public static PathLengthData computeSPandNB(int source, int numNodes, int[] edges, int[] edgeOffsets, int[] edgeIDs,
+								long[] outSharedNeighborsHist, 
+								long[] outSPathLengths,
+								double[] outNodeBetweenness, 
+								long[] outStress, 
+								double[] outEdgeBetweenness)
+	{
+		return computeSPandNB(source, numNodes, edges, edgeOffsets, edgeIDs, outSharedNeighborsHist, outSPathLengths, 
+				outNodeBetweenness, outStress, outEdgeBetweenness, new TraversalWorkspace());
+	}
+
+	/**
+	 * Computes the shortest path lengths from the given node and, optionally, accumulates the node and
+	 * edge betweenness and stress, using the storage of the given workspace.
+	 * <p>
+	 * The results are the same as the ones of
+	 * {@link #computeSPandNB(int, int, int[], int[], int[], long[], long[], double[], long[], double[])},
+	 * but no arrays are allocated when <code>workspace</code> is reused.
+	 * </p>
+	 * 
+	 * @param workspace Workspace of the calling thread.
+	 * @return Data on the shortest path lengths from the source to all other reachable nodes in the
+	 *         network.
+	 */
+	public static PathLengthData computeSPandNB(int source, int numNodes, int[] edges, int[] edgeOffsets, int[] edgeIDs,
+								long[] outSharedNeighborsHist, 
+								long[] outSPathLengths,
+								double[] outNodeBetweenness, 
+								long[] outStress, 
+								double[] outEdgeBetweenness,
+								TraversalWorkspace workspace)
+	{
+		final boolean computeNB = outNodeBetweenness != null;
+		final int epoch = workspace.begin(numNodes, edges.length);
+		PathLengthData result = new PathLengthData();
+
+		final int[] Q = workspace.queue;	// Serves as queue for the first part, as stack for the second part
 		Q[0] = source;
 		int Qlow = 0, Qhigh = 1;			// Keep track of queue's first and last element / stack size
 
-		int[] P = new int[edges.length];	// Predecessors
-		int[] Pedge = new int[edges.length];
-		int[] Pcount = new int[numNodes];	// Predecessor count, for each node at most its edge count
-		
-		int[] Dedge = new int[edges.length];	// Edges to descendants
-		int[] Dcount = new int[numNodes];
-		
-		int[] sigma = new int[numNodes];	// Sigma in Brandes paper, W in Newman
-		sigma[source] = 1;
+		final int[] P = workspace.pred;				// Predecessors
+		final int[] Pedge = workspace.predEdge;
+		final int[] Pcount = workspace.predCount;	// Predecessor count, for each node at most its edge count
+		final int[] Dedge = workspace.descEdge;		// Edges to descendants
+		final int[] Dcount = workspace.descCount;
+		final int[] sigma = workspace.sigma;		// Sigma in Brandes paper, W in Newman
+		final double[] delta = workspace.delta;		// Delta in Brandes paper
+		final long[] stressDependency = workspace.stressDependency;		// Keep track of node stress metric
+		final double[] edgeDependency = workspace.edgeDependency;	// This round's edge betweenness values
 		
-		int[] d = new int[numNodes];		// Distance from source, with source having d = 0
-		for (int i = 0; i < numNodes; i++)
-			d[i] = -1;
+		final int[] visited = workspace.stamp;	// visited[i] == epoch iff node i has been found
+		final int[] d = workspace.distance;		// Distance from source, with source having d = 0
+		visited[source] = epoch;
 		d[source] = 0;
-		
-		double[] delta = new double[numNodes];	// Delta in Brandes paper
-		
-		long[] stressDependency = new long[numNodes];		// Keep track of node stress metric
-		double[] edgeDependency = new double[edges.length];	// This round's edge betweenness values
+		if (computeNB)
+			workspace.resetNode(source, 1);
 		
 		while (Qlow < Qhigh)	// While query.size > 0
 		{
 			int node = Q[Qlow++];	// Dequeue
 			int firstEdge = edgeOffsets[node], lastEdge = edgeOffsets[node + 1];
 			int dnodeplus = d[node] + 1;
-			int sigmanode = sigma[node];
+			int sharedNeighbors = 0;	// Neighbors shared with the source; only nodes at distance 2 have any
 			
 			for (int ei = firstEdge; ei < lastEdge; ei++)	// For each neighbor of node
 			{
 				int neighbor = edges[ei];
 				
-				if (d[neighbor] < 0)	// Has not been found yet
+				if (visited[neighbor] != epoch)	// Has not been found yet
 				{
+					visited[neighbor] = epoch;
 					Q[Qhigh++] = neighbor;		// Enqueue
 					d[neighbor] = dnodeplus;	// d[node] + 1
+					result.addSPL(dnodeplus);
+					if (outSPathLengths != null)
+						outSPathLengths[dnodeplus]++;
+					if (computeNB)
+						workspace.resetNode(neighbor, 0);
 				}
+				else if (dnodeplus == 3 && d[neighbor] == 1)
+					sharedNeighbors++;
 				
-				if (d[neighbor] == dnodeplus)	// Is descendant
+				if (computeNB && d[neighbor] == dnodeplus)	// Is descendant
 				{
-					sigma[neighbor] += sigmanode;
+					sigma[neighbor] += sigma[node];
 					int pi = edgeOffsets[neighbor] + Pcount[neighbor];	// Predecessor number
 					P[pi] = node;	// Store node as its neighbor's predecessor
 					Pedge[pi] = edgeIDs[ei];	// Also remember the edge from predecessor for edge betweenness later
@@ -803,8 +1317,14 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 					Dcount[node]++;
 				}
 			}
+			
+			if (outSharedNeighborsHist != null)
+				outSharedNeighborsHist[sharedNeighbors]++;
 		}
 		
+		if (!computeNB)
+			return result;
+		
 		while (Qhigh > 0)	// While stack.size > 0
 		{
 			int w = Q[--Qhigh];				// Pop from stack
@@ -818,7 +1338,7 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 			int lastD = firstD + Dcount[w];
 			boolean isLeaf = lastD - firstD == 0;
 			for (int di = firstD; di < lastD; di++)
-				Dbetweenness += edgeDependency[Dedge[di]];
+				Dbetweenness += edgeDependency[Dedge[di]];	// Set when the descendant was popped
 			
 			for (int pi = firstP; pi < lastP; pi++)	// For each predecessor
 			{
@@ -844,8 +1364,10 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 				outStress[w] += sigma[w] * stressw;
 			}
 		}
+		
+		return result;
 	}
-	
+
 	/**
 	 * Computes a direction-invariant 64 bit hash of an edge (represented by its two nodes' IDs).
 	 * @param ID of the first node
@@ -873,20 +1395,26 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	}
 
 	/**
-	 * Computes the average number of neighbors of the nodes in a given node set.
+	 * Computes the average number of neighbors of the nodes in a range of a neighbor list.
 	 * 
-	 * @param aNodes
-	 *            Non-empty set of nodes. Specifying <code>null</code> or an empty set for this
-	 *            parameter results in throwing an exception.
-	 * @return Average number of neighbors of the nodes in <code>aNodes</code>.
+	 * @param nodes
+	 *            Array with neighbor indices.
+	 * @param first
+	 *            Index of the first node of the range in <code>nodes</code>.
+	 * @param last
+	 *            Index following the last node of the range in <code>nodes</code>; must be greater
+	 *            than <code>first</code>.
+	 * @param edgeOffsets
+	 *            Array with the indices of each node's first neighbor.
+	 * @return Average number of neighbors of the nodes in the range.
 	 */
-	private double averageNeighbors(int[] nodes, int[] edgeOffsets)
+	private double averageNeighbors(int[] nodes, int first, int last, int[] edgeOffsets)
 	{
 		int neighbors = 0;
-		for (int node : nodes)
-			neighbors += edgeOffsets[node + 1] - edgeOffsets[node];
+		for (int i = first; i < last; i++)
+			neighbors += edgeOffsets[nodes[i] + 1] - edgeOffsets[nodes[i]];
 		
-		return (double)neighbors / (double)nodes.length;
+		return (double)neighbors / (double)(last - first);
 	}
 
 	/**
@@ -933,88 +1461,25 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 		return (double)tc / ((double)commNNodesSize * (double)(lastEdge - firstEdge));
 	}
 	
-	private double[] computePageRank(int numNodes, int[] edges, int[] edgeOffsets, double d, double epsilon)
-	{
-		double[] rank = new double[numNodes], oldRank = new double[numNodes];
-		double startRank = 1.0 / (double)numNodes;
-		for (int i = 0; i < numNodes; i++)
-			rank[i] = startRank;
-		double updateConstant = (1.0 - d) / (double)numNodes;
-		double[] invDegree = new double[numNodes];
-		for (int i = 0; i < numNodes; i++)
-			invDegree[i] = 1.0 / (double)(edgeOffsets[i + 1] - edgeOffsets[i]);
-		
-		double diff = epsilon * 2.0;
-		while (diff > epsilon)
-		{
-			System.arraycopy(rank, 0, oldRank, 0, numNodes);
-			
-			for (int i = 0; i < numNodes; i++)
-			{
-				int firstEdge = edgeOffsets[i], lastEdge = edgeOffsets[i + 1];
-				double nodeRank = 0.0;
-				for (int e = firstEdge; e < lastEdge; e++)
-				{
-					int neighbor = edges[e];
-					nodeRank += oldRank[neighbor] * invDegree[neighbor];
-				}
-				rank[i] = updateConstant + d * nodeRank;
-			}
-			
-			diff = 0.0;
-			for (int i = 0; i < numNodes; i++)
-				diff += Math.abs(rank[i] - oldRank[i]);
-		}
-		
-		return rank;
-	}
-
-	/**
-	 * Gets all the neighbors of the given node.
-	 * 
-	 * @param aNode
-	 *            CyNode , whose neighbors are to be found.
-	 * @return <code>Set</code> of <code>Node</code> instances, containing all the neighbors of
-	 *         <code>aNode</code>; empty set if the node specified is an isolated vertex.
-	 * @see CyNetworkUtils#getNeighbors(CyNetwork, CyNode , int[])
-	 */
-	private Set<CyNode> getNeighbors(CyNode aNode) {
-		return CyNetworkUtils.getNeighbors(network, aNode, getIncidentEdges(aNode));
-	}
-
 	/**
 	 * Gets the degree of a given node.
 	 * 
-	 * @param aNode
-	 *            CyNode to get the degree of.
-	 * @param aIncEdges
-	 *            Array of the indices of all edges incident on the given node.
+	 * @param aGraph
+	 *            Snapshot of the connected component that contains the node.
+	 * @param aNodeID
+	 *            Index of the node in <code>aGraph</code>.
 	 * @return Degree of the given node, as defined in the book &qout;Graph Theory&qout; by Reinhard
 	 *         Diestel.
 	 */
-	private int getDegree(CyNode aNode, List<CyEdge> aIncEdges) {
-		int degree = aIncEdges.size();
-		for (int i = 0; i < aIncEdges.size(); ++i) {
-			CyEdge e = aIncEdges.get(i);
-			if (e.getSource() == e.getTarget() && (!(e.isDirected() && interpr.isPaired()))) {
-				degree++;
-			}
+	private int getDegree(GraphSnapshot aGraph, int aNodeID) {
+		int degree = aGraph.getInDirectedCount(aNodeID) + aGraph.getUndirectedCount(aNodeID)
+				+ aGraph.getUndirectedLoopCount(aNodeID);
+		if (!interpr.isPaired()) {
+			degree += aGraph.getOutDirectedCount(aNodeID);
 		}
 		return degree;
 	}
 
-	/**
-	 * Gets all edges incident on the given node.
-	 * 
-	 * @param aNode
-	 *            CyNode , on which incident edges are to be found.
-	 * @return Array of edge indices, containing all the edges in the network incident on
-	 *         <code>aNode</code>.
-	 */
-	private List<CyEdge> getIncidentEdges(CyNode aNode) {
-		return network.getAdjacentEdgeList(aNode, (interpr.isPaired() ? CyEdge.Type.INCOMING : CyEdge.Type.ANY));
-	}
-
 	/**
 	 * Histogram of shortest path lengths.
 	 * <p>
@@ -1054,12 +1519,6 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	 */
 	private final Set<CyNode> visited;
 
-	/**
-	 * Flag indicating if node(edge) betweenness and stress should be computed. It is set to false if the
-	 * number of shortest paths exceeds the maximum long value.
-	 */
-	private boolean computeNB;
-
 	/**
 	 * Map of all nodes with their respective node betweenness information, which stores information
 	 * needed for the node betweenness calculation.
@@ -1084,8 +1543,14 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	private SimpleUndirParams params;
 	private int maxConnectivity;
 	private DegreeDistribution degreeDist;
+	// number of processed nodes of every coreness, and the largest coreness
+	private int[] coreSizes;
+	private int degeneracy;
 	// clustering coefficients
 	private HashMap<Integer, SumCountPair> CCps;
+	// arcs among the neighbors and ordered pairs of neighbors, summed over the nodes
+	private double neighborArcs;
+	private long neighborPairs;
 	// topological coefficients
 	private ArrayList<Point2D.Double> topCoefs;
 	// closeness centrality
@@ -1094,14 +1559,6 @@ public class UndirNetworkAnalyzer extends NetworkAnalyzer
 	private ArrayList<Point2D.Double> nodeBetweennessArray;
 	// neighborhood connectivity
 	private HashMap<Integer, SumCountPair> NCps;
-	// average shortest path length
-	private Map<CyNode, Double> aplMap;
 	// stress
 	private LogBinDistribution stressDist;
-	// Compute number of connected components
-	private ConnComponentAnalyzer cca;
-	private double[] nodeBetweennessLean;
-	private double[] edgeBetweennessLean;
-	private long[] stressLean;
-	private int componentDiameter;
 }
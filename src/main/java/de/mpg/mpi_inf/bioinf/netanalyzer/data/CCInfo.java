@@ -28,6 +28,8 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.data;
 
 import org.cytoscape.model.CyNode;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+
 /**
  * Immutable storage of information on a connected component.
  * 
@@ -44,6 +46,21 @@ public class CCInfo {
 	public CCInfo(int aSize, CyNode aNode) {
 		size = aSize;
 		node = aNode;
+		labeling = null;
+		index = -1;
+	}
+
+	/**
+	 * Initializes a new instance of <code>CCInfo</code> for a component in the given labeling.
+	 * 
+	 * @param aLabeling Labeling of the nodes by connected component.
+	 * @param aIndex Index of the connected component in <code>aLabeling</code>.
+	 */
+	public CCInfo(ComponentLabeling aLabeling, int aIndex) {
+		size = aLabeling.getSize(aIndex);
+		node = aLabeling.getGraph().getNode(aLabeling.getComponentNodes()[aLabeling.getComponentOffsets()[aIndex]]);
+		labeling = aLabeling;
+		index = aIndex;
 	}
 
 	/**
@@ -64,6 +81,26 @@ public class CCInfo {
 		return node;
 	}
 
+	/**
+	 * Gets the labeling this connected component was found in.
+	 * 
+	 * @return Labeling containing the nodes of this component; <code>null</code> if this instance was
+	 *         not created from a labeling.
+	 */
+	public ComponentLabeling getLabeling() {
+		return labeling;
+	}
+
+	/**
+	 * Gets the index of the connected component in its labeling.
+	 * 
+	 * @return Index of this component in {@link #getLabeling()}; <code>-1</code> if this instance was not
+	 *         created from a labeling.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 	/**
 	 * Number of nodes in the connected component.
 	 */
@@ -73,4 +110,14 @@ public class CCInfo {
 	 * One of the nodes in the connected component.
 	 */
 	private CyNode node;
+
+	/**
+	 * Labeling the connected component was found in, if any.
+	 */
+	private ComponentLabeling labeling;
+
+	/**
+	 * Index of the connected component in {@link #labeling}.
+	 */
+	private int index;
 }
@@ -70,6 +70,12 @@ public abstract class Messages {
 	 */
 	private static final Map<String, String> edgeAttributes;
 
+	/**
+	 * Network attribute names in the form of a hash map, the keys being the IDs and the values - the
+	 * textual <code>String</code>s in human readable form.
+	 */
+	private static final Map<String, String> networkAttributes;
+
 	static {
 		simpleParams = new HashMap<String, String>(16);
 		simpleParams.put("time", "Analysis time (sec)");
@@ -80,14 +86,24 @@ public abstract class Messages {
 		simpleParams.put("centralization", "Network centralization");
 		simpleParams.put("avNeighbors", "Avg. number of neighbors");
 		simpleParams.put("ncc", "Connected components");
+		simpleParams.put("sccCount", "Strongly connected components");
 		simpleParams.put("connPairs", "Shortest paths");
 		simpleParams.put("diameter", "Network diameter");
 		simpleParams.put("radius", "Network radius");
+		simpleParams.put("effDiameter", "Effective diameter (estimate)");
 		simpleParams.put("avSpl", "Characteristic path length");
 		simpleParams.put("cc", "Clustering coefficient");
+		simpleParams.put("transitivity", "Transitivity");
+		simpleParams.put("degeneracy", "Degeneracy (max. coreness)");
 		simpleParams.put("nsl", "Number of self-loops");
 		simpleParams.put("mnp", "Multi-edge node pairs");
 		simpleParams.put("usn", "Isolated nodes");
+		simpleParams.put("betweennessError", "Betweenness estimate error (\u00b1)");
+		simpleParams.put("betweennessConfidence", "Betweenness estimate confidence");
+		simpleParams.put("clusteringError", "Transitivity estimate error (\u00b1)");
+		simpleParams.put("clusteringConfidence", "Transitivity estimate confidence");
+		simpleParams.put("topCloseness", "Top Closeness Centrality");
+		simpleParams.put("topBetweenness", "Top Betweenness Centrality");
 
 		nodeAttributes = new HashMap<String, String>(32);
 		nodeAttributes.put("spl", "Eccentricity");
@@ -108,6 +124,12 @@ public abstract class Messages {
 		nodeAttributes.put("nbt", "BetweennessCentrality");
 		nodeAttributes.put("rad", "Radiality");
 		nodeAttributes.put("stress", "Stress");
+		nodeAttributes.put("hcc", "HarmonicClosenessCentrality");
+		nodeAttributes.put("art", "IsArticulationPoint");
+		nodeAttributes.put("prk", "PageRank");
+		nodeAttributes.put("evc", "EigenvectorCentrality");
+		nodeAttributes.put("kzc", "KatzCentrality");
+		nodeAttributes.put("cor", "Coreness");
 
 		dirNodeAttributes = new HashSet<String>(16);
 		dirNodeAttributes.add("Eccentricity");
@@ -123,6 +145,10 @@ public abstract class Messages {
 		dirNodeAttributes.add("NeighborhoodConnectivity");
 		dirNodeAttributes.add("BetweennessCentrality");
 		dirNodeAttributes.add("Stress");
+		dirNodeAttributes.add("PageRank");
+		dirNodeAttributes.add("EigenvectorCentrality");
+		dirNodeAttributes.add("KatzCentrality");
+		dirNodeAttributes.add("Coreness");
 
 		undirNodeAttributes = new HashSet<String>(16);
 		undirNodeAttributes.add("Degree");
@@ -135,15 +161,24 @@ public abstract class Messages {
 		undirNodeAttributes.add("BetweennessCentrality");
 		undirNodeAttributes.add("Stress");
 		undirNodeAttributes.add("Radiality");
+		undirNodeAttributes.add("PageRank");
+		undirNodeAttributes.add("EigenvectorCentrality");
+		undirNodeAttributes.add("KatzCentrality");
+		undirNodeAttributes.add("Coreness");
 		undirNodeAttributes.add("SelfLoops");
 		undirNodeAttributes.add("IsSingleNode");
 		undirNodeAttributes.add("NumberOfUndirectedEdges");
 		undirNodeAttributes.add("NumberOfDirectedEdges");
 		undirNodeAttributes.add("PartnerOfMultiEdgedNodePairs");
+		undirNodeAttributes.add("IsArticulationPoint");
 
 		edgeAttributes = new HashMap<String, String>(2);
 		edgeAttributes.put("ebt", "EdgeBetweenness");
 		edgeAttributes.put("dpe", "NumberOfUnderlyingEdges");
+		edgeAttributes.put("brg", "IsBridge");
+
+		networkAttributes = new HashMap<String, String>(1);
+		networkAttributes.put("nbe", "BetweennessErrorBound");
 	}
 
 	// Dialog titles
@@ -222,6 +257,8 @@ public abstract class Messages {
 			"Please make sure you have selected an existing empty directory<br>"
 					+ "for which NetworkAnalyzer has write permissions.");
 
+	public static String SM_BETWEENNESSDELTA = "The probability of exceeding the error of approximate betweenness must be greater than 0 and less than 1.";
+
 	public static String SM_CHOOSEINTERPR = "Please choose an interpretation for the edges.";
 
 	public static String SM_CLOSEWARN = "<html>You have not saved the network statistics. " +
@@ -229,6 +266,8 @@ public abstract class Messages {
 			"<br /><br />Are you sure you want to close the window?<br /><br />" +
 			"(Note: Statistics will be saved as normal table data, not the NetworkAnalyzer property file)</html>";
 
+	public static String SM_CLUSTERINGSAMPLES = "The number of sampled pairs of neighbors must be greater than 0.";
+
 	public static String SM_CONNECTED = " is connected, i.e. has a single connected component.";
 
 	public static String SM_CREATEVIEW = constructLabel("No nodes are selected.",
@@ -262,6 +301,8 @@ public abstract class Messages {
 
 	public static String SM_INTERNALERROR = "Internal error occurred during computation.";
 
+	public static String SM_KATZATTENUATION = "The attenuation factor of Katz centrality must be greater than 0 and less than 1.";
+
 	public static String SM_LOADING = "Loading ";
 
 	public static String SM_LOADNET = "Please load a network first.";
@@ -291,6 +332,8 @@ public abstract class Messages {
 
 	public static String SM_OUTPUTNOTCREATED = "Could not write to output directory.";
 
+	public static String SM_PAGERANKDAMPING = "The damping factor of PageRank must be less than 1.";
+
 	public static String SM_READERROR = "\n  ERROR: Could not create network from network file!\n";
 
 	public static String SM_REMDUPEDGES = " duplicated edge(s) removed from ";
@@ -299,6 +342,10 @@ public abstract class Messages {
 
 	public static String SM_REMSELFLOOPS = " self-loop(s) removed from ";
 
+	public static String SM_RESTORING = "Reusing cached results of ";
+
+	public static String SM_RESULTSRESTORED = "  Results restored from cache to network statistics file.";
+
 	public static String SM_RESULTSSAVED = "  Results saved to network statistics file.";
 
 	public static String SM_RUNNETWORKANALYZER = constructLabel(
@@ -407,6 +454,8 @@ public abstract class Messages {
 
 	public static String DI_CUNION = "Compute Union";
 
+	public static String DI_ESTIMATE = " (estimate)";
+
 	public static String DI_EXPORTCHART = "Export Chart";
 
 	public static String DI_EXPORTDATA = "Export Data";
@@ -467,6 +516,8 @@ public abstract class Messages {
 
 	public static String DI_MAPTYPE = "Mapping Type:";
 
+	public static String DI_NODE = "Node";
+
 	public static String DI_NETFILE = "Network";
 
 	public static String DI_NETSTATSFILE = "Network Statistics File";
@@ -487,6 +538,8 @@ public abstract class Messages {
 
 	public static String DI_PLOT2 = " against each other";
 
+	public static String DI_RANK = "Rank";
+
 	public static String DI_REMDUPEDGES = "Remove duplicated edges from the following networks:";
 
 	public static String DI_REMOVE = "Remove";
@@ -517,6 +570,8 @@ public abstract class Messages {
 
 	public static String DI_SELECTDIR = "Select Directory";
 
+	public static String DI_SELECTNODES = "Select Nodes";
+
 	public static String DI_SENDREPORT = "Send Report";
 
 	public static String DI_SHOWHIST = "Display as Histogram";
@@ -529,6 +584,8 @@ public abstract class Messages {
 
 	public static String DI_UNDEF = "Undefined";
 
+	public static String DI_VALUE = "Value";
+
 	public static String DI_VIEWENLARGED = "Enlarge Chart";
 
 	public static String DI_VISUALIZEPARAMETER = "Visualize Parameters";
@@ -579,16 +636,60 @@ public abstract class Messages {
 
 	public static final String SET_PREFIX = "SET_";
 
+	public static String SET_APPROXIMATEBETWEENNESS = "Approximate betweenness and stress by sampling source nodes";
+
+	public static String SET_APPROXIMATECLUSTERING = "Approximate clustering coefficients of hubs by sampling pairs of neighbors";
+
 	public static String SET_BARCOLOR = "Color of Bars:";
 
 	public static String SET_BACKGROUNDCOLOR = "Background Color for Parameter Visualization:";
 
+	public static String SET_BATCHMEMORYBUDGET = "Memory for networks analyzed at once in batch analysis (MB, 0 for a quarter of the heap):";
+
+	public static String SET_BATCHPREFETCH = "Number of networks loaded ahead in batch analysis:";
+
 	public static String SET_BGCOLOR = "Background Color:";
 
+	public static String SET_BETWEENNESSDELTA = "Probability of exceeding the error of approximate betweenness:";
+
+	public static String SET_BETWEENNESSEPSILON = "Maximum error of approximate betweenness:";
+
 	public static String SET_BRIGHTCOLOR = "Bright color to map parameters:";
 
+	public static String SET_CLUSTERINGDEGREELIMIT = "Largest degree of exactly computed clustering coefficients:";
+
+	public static String SET_CLUSTERINGSAMPLES = "Number of sampled pairs of neighbors:";
+
 	public static String SET_COLORBUTTON = "Click to Change";
 
+	public static String SET_COMPUTECLUSTERING = "Compute clustering coefficients";
+
+	public static String SET_COMPUTETOPOLOGICALCOEFFICIENT = "Compute topological coefficients";
+
+	public static String SET_COMPUTENEIGHBORHOODCONNECTIVITY = "Compute neighborhood connectivity";
+
+	public static String SET_COMPUTEDIAMETER = "Compute diameter and radius";
+
+	public static String SET_COMPUTESHORTESTPATHS = "Compute shortest path lengths (all pairs)";
+
+	public static String SET_ESTIMATESHORTESTPATHS = "Estimate shortest path lengths when closeness, radiality and exact betweenness are off";
+
+	public static String SET_COMPUTECLOSENESS = "Compute closeness centrality (requires shortest paths)";
+
+	public static String SET_COMPUTERADIALITY = "Compute radiality (requires shortest paths)";
+
+	public static String SET_COMPUTEBETWEENNESS = "Compute betweenness centrality (requires shortest paths)";
+
+	public static String SET_COMPUTESTRESS = "Compute stress centrality (requires shortest paths)";
+
+	public static String SET_COMPUTEPAGERANK = "Compute PageRank";
+
+	public static String SET_COMPUTEEIGENVECTOR = "Compute eigenvector centrality";
+
+	public static String SET_COMPUTEKATZ = "Compute Katz centrality";
+
+	public static String SET_COMPUTECORENESS = "Compute the coreness of the nodes";
+
 	public static String SET_DARKCOLOR = "Dark color to map parameters:";
 
 	public static String SET_DOMAINAXISLABEL = "Label of Category Axis:";
@@ -601,6 +702,8 @@ public abstract class Messages {
 
 	public static String SET_HORIZONTALGRIDLINES = "Show horizontal gridlines";
 
+	public static String SET_KATZATTENUATION = "Attenuation factor of Katz centrality, relative to the inverse of the largest eigenvalue:";
+
 	public static String SET_LOGARITHMICDOMAINAXIS = "Set domain (horizontal) axis to logarithmic";
 
 	public static String SET_LOGARITHMICRANGEAXIS = "Set range (vertical) axis to logarithmic";
@@ -609,6 +712,10 @@ public abstract class Messages {
 
 	public static String SET_OUTLINE = "Show outline of bars";
 
+	public static String SET_PAGERANKDAMPING = "Damping factor of PageRank:";
+
+	public static String SET_PARALLELISM = "Number of analysis threads (0 for all processors):";
+
 	public static String SET_POINTCOLOR = "Color of Points:";
 
 	public static String SET_POINTSHAPE = "Shape of Points:";
@@ -623,12 +730,18 @@ public abstract class Messages {
 
 	public static String SET_SFILLSQUARE = "filled square";
 
+	public static String SET_SPECTRALSOLVER = "Solver of PageRank, eigenvector and Katz centrality (jacobi, gaussseidel or extrapolation):";
+
 	public static String SET_SPOINT = "point";
 
 	public static String SET_SSQUARE = "square";
 
 	public static String SET_TITLE = "Chart Title:";
 
+	public static String SET_TOPK = "Number of top-ranked nodes by closeness and betweenness (0 for all nodes):";
+
+	public static String SET_USEBATCHCACHE = "Reuse cached results of unchanged networks in batch analysis";
+
 	public static String SET_USEEDGEATTRIBUTES = "Store edge parameters in edge table";
 
 	public static String SET_USENODEATTRIBUTES = "Store node parameters in node table";
@@ -713,6 +826,9 @@ public abstract class Messages {
 		if (attribute == null) {
 			attribute = edgeAttributes.get(aID);
 		}
+		if (attribute == null) {
+			attribute = networkAttributes.get(aID);
+		}
 		return attribute;
 	}
 
@@ -0,0 +1,165 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Enumeration of the groups of topological parameters that can be selected for computation.
+ * <p>
+ * The degrees and the other simple parameters of the nodes are always computed, as they require no
+ * more than a single pass over the edges. Every metric may depend on other metrics whose results it
+ * needs; see {@link #getDependencies()}.
+ * </p>
+ */
+public enum Metric {
+
+	/**
+	 * Clustering coefficients of the nodes and their distribution.
+	 */
+	CLUSTERING("clustering"),
+
+	/**
+	 * Topological coefficients of the nodes.
+	 */
+	TOPOLOGICAL_COEFFICIENT("topologicalcoefficient"),
+
+	/**
+	 * Neighborhood connectivity of the nodes and its distribution.
+	 */
+	NEIGHBORHOOD_CONNECTIVITY("neighborhoodconnectivity"),
+
+	/**
+	 * Diameter and radius of the network. Unless the shortest path lengths are computed, they are found
+	 * by bounding the eccentricities of the nodes in undirected networks.
+	 */
+	DIAMETER("diameter"),
+
+	/**
+	 * Shortest path lengths, eccentricity, diameter, radius and shared neighbors distribution.
+	 */
+	SHORTEST_PATHS("shortestpaths", DIAMETER),
+
+	/**
+	 * Closeness centrality of the nodes; the inverse of the average shortest path length.
+	 */
+	CLOSENESS("closeness", SHORTEST_PATHS),
+
+	/**
+	 * Radiality of the nodes; requires the average shortest path lengths and the diameters of the
+	 * connected components.
+	 */
+	RADIALITY("radiality", SHORTEST_PATHS),
+
+	/**
+	 * Node and edge betweenness centrality.
+	 */
+	BETWEENNESS("betweenness", SHORTEST_PATHS),
+
+	/**
+	 * Stress centrality of the nodes and its distribution.
+	 */
+	STRESS("stress", SHORTEST_PATHS),
+
+	/**
+	 * PageRank of the nodes and its relation to the number of neighbors.
+	 */
+	PAGE_RANK("pagerank"),
+
+	/**
+	 * Eigenvector centrality of the nodes and its relation to the number of neighbors.
+	 */
+	EIGENVECTOR("eigenvector"),
+
+	/**
+	 * Katz centrality of the nodes and its relation to the number of neighbors.
+	 */
+	KATZ("katz"),
+
+	/**
+	 * Coreness of the nodes, the core size distribution and the degeneracy of the network.
+	 */
+	CORENESS("coreness");
+
+	/**
+	 * Finds the metric with the given key.
+	 * 
+	 * @param aKey
+	 *            Key of the metric, as returned by {@link #getKey()}; the case is ignored.
+	 * @return Metric identified by <code>aKey</code>.
+	 * @throws IllegalArgumentException
+	 *             If no metric has the given key.
+	 */
+	public static Metric forKey(String aKey) {
+		for (final Metric metric : values()) {
+			if (metric.key.equalsIgnoreCase(aKey)) {
+				return metric;
+			}
+		}
+		throw new IllegalArgumentException(aKey);
+	}
+
+	/**
+	 * Gets the key of this metric.
+	 * 
+	 * @return Short name identifying this metric in task arguments.
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	/**
+	 * Gets the metrics this metric depends on.
+	 * 
+	 * @return Array of the metrics that must be computed in order to compute this one; an empty array
+	 *         if this metric has no dependencies.
+	 */
+	public Metric[] getDependencies() {
+		return dependencies.clone();
+	}
+
+	/**
+	 * Initializes a new metric.
+	 * 
+	 * @param aKey
+	 *            Short name identifying the metric.
+	 * @param aDependencies
+	 *            Metrics required for computing the new one.
+	 */
+	private Metric(String aKey, Metric... aDependencies) {
+		key = aKey;
+		dependencies = aDependencies;
+	}
+
+	/**
+	 * Short name identifying this metric.
+	 */
+	private final String key;
+
+	/**
+	 * Metrics required for computing this metric.
+	 */
+	private final Metric[] dependencies;
+}
@@ -54,9 +54,13 @@ public class NetworkStats {
 	 */
 	public static final String[] simpleParams = new String[] {
 		"cc",
+		"transitivity",
+		"degeneracy",
 		"ncc",
+		"sccCount",
 		"diameter",
 		"radius",
+		"effDiameter",
 		"centralization",
 		"connPairs",
 		"avSpl",
@@ -68,6 +72,10 @@ public class NetworkStats {
 		"usn",
 		"nsl",
 		"mnp",
+		"betweennessError",
+		"betweennessConfidence",
+		"clusteringError",
+		"clusteringConfidence",
 		"time"
 	};
 
@@ -82,9 +90,12 @@ public class NetworkStats {
 		"degreeDist",        // undirected
 		"inDegreeDist",      // directed
 		"outDegreeDist",     // directed
+		"coreDist",          // undirected, directed
 		"cksDist",           // undirected
+		"cksError",          // undirected, directed
 		"topCoefs",          // undirected
 		"splDist",           // undirected
+		"sccSizeDist",       // directed
 		"commNeighbors",     // undirected
 		"neighborConn",      // undirected
 		"allNeighborConn",   // directed
@@ -92,9 +103,21 @@ public class NetworkStats {
 		"outNeighborConn",   // directed
 		"nodeBetween",		 // undirected
 		"closenessCent",	 // undirected
+		"pageRank",          // undirected, directed
+		"eigenvectorCent",   // undirected, directed
+		"katzCent",          // undirected, directed
 		"stressDist" 		 // undirected
 	};
 
+	/**
+	 * IDs of the rankings of the top nodes by a centrality measure; the values of these parameters
+	 * are instances of {@link RankedNodes}.
+	 */
+	public static final String[] rankedParams = new String[] {
+		"topCloseness",      // undirected
+		"topBetweenness"     // undirected
+	};
+
 	/**
 	 * Initializes a new instance of <code>NetworkStats</code>.
 	 */
@@ -166,6 +189,25 @@ public class NetworkStats {
 		return getComputed(complexParams);
 	}
 
+	/**
+	 * Gets the IDs of the computed rankings of top nodes.
+	 *
+	 * @return Array of the IDs in {@link #rankedParams} that are present in this instance.
+	 */
+	public String[] getComputedRanked() {
+		return getComputed(rankedParams);
+	}
+
+	/**
+	 * Gets the ranking of top nodes with the given ID.
+	 *
+	 * @param aParam ID of the ranking.
+	 * @return Ranking of top nodes; <code>null</code> if it is not computed.
+	 */
+	public RankedNodes getRanked(String aParam) {
+		return (RankedNodes) params.get(aParam);
+	}
+
 	/**
 	 * Gets the integer value of the specified simple parameter.
 	 *
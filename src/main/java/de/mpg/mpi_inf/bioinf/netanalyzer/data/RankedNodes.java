@@ -0,0 +1,123 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.data;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Nodes with the highest values of a centrality measure, in order of decreasing value.
+ */
+public final class RankedNodes {
+
+	/**
+	 * Initializes a new instance of <code>RankedNodes</code>.
+	 * 
+	 * @param aSUIDs
+	 *            SUIDs of the ranked nodes, in order of decreasing value.
+	 * @param aNames
+	 *            Names of the ranked nodes, parallel to <code>aSUIDs</code>.
+	 * @param aValues
+	 *            Values of the ranked nodes, parallel to <code>aSUIDs</code>.
+	 * @param aErrorBound
+	 *            Largest error of the values; <code>0</code> if they are exact.
+	 */
+	public RankedNodes(long[] aSUIDs, String[] aNames, double[] aValues, double aErrorBound) {
+		suids = aSUIDs;
+		names = aNames;
+		values = aValues;
+		errorBound = aErrorBound;
+	}
+
+	/**
+	 * Gets the number of ranked nodes.
+	 * 
+	 * @return Number of nodes in this ranking.
+	 */
+	public int size() {
+		return suids.length;
+	}
+
+	/**
+	 * Gets the SUID of a ranked node.
+	 * 
+	 * @param aRank
+	 *            Zero-based rank of the node.
+	 * @return SUID of the node at rank <code>aRank</code>.
+	 */
+	public long getSUID(int aRank) {
+		return suids[aRank];
+	}
+
+	/**
+	 * Gets the name of a ranked node.
+	 * 
+	 * @param aRank
+	 *            Zero-based rank of the node.
+	 * @return Name of the node at rank <code>aRank</code>; <code>null</code> if the node has no name.
+	 */
+	public String getName(int aRank) {
+		return names[aRank];
+	}
+
+	/**
+	 * Gets the value of a ranked node.
+	 * 
+	 * @param aRank
+	 *            Zero-based rank of the node.
+	 * @return Value of the node at rank <code>aRank</code>.
+	 */
+	public double getValue(int aRank) {
+		return values[aRank];
+	}
+
+	/**
+	 * Gets the largest error of the values of the ranked nodes.
+	 * 
+	 * @return Error bound of the values; <code>0</code> if they are exact.
+	 */
+	public double getErrorBound() {
+		return errorBound;
+	}
+
+	/**
+	 * SUIDs of the ranked nodes.
+	 */
+	private final long[] suids;
+
+	/**
+	 * Names of the ranked nodes.
+	 */
+	private final String[] names;
+
+	/**
+	 * Values of the ranked nodes.
+	 */
+	private final double[] values;
+
+	/**
+	 * Largest error of the values.
+	 */
+	private final double errorBound;
+}
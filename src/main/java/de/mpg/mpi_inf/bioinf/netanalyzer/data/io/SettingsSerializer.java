@@ -129,6 +129,7 @@ public abstract class SettingsSerializer {
 		if (doc != null) {
 			try {
 				loadSettings(doc);
+				addMissingVisualSettings();
 				return;
 			} catch (Exception ex) {
 				final String msg = Messages.SM_LOADSETTINGSFAIL1 + Plugin.getSettingsFileName()
@@ -290,6 +291,23 @@ public abstract class SettingsSerializer {
 		}
 	}
 
+	/**
+	 * Completes the loaded visual settings with the defaults for complex parameters missing in them.
+	 * <p>
+	 * Settings files saved by older versions of NetworkAnalyzer contain no visual settings for the
+	 * complex parameters introduced later. The plugin settings and the visual settings present in the
+	 * loaded file are retained.
+	 * </p>
+	 */
+	private static void addMissingVisualSettings() {
+		final Map<String, SettingsGroup> loaded = visualSettings;
+		final PluginSettings loadedPluginSettings = pluginSettings;
+		visualSettings = new HashMap<String, SettingsGroup>();
+		loadSettings(getDocInternal());
+		visualSettings.putAll(loaded);
+		pluginSettings = loadedPluginSettings;
+	}
+
 	/**
 	 * Tag name used in the XML settings file to identify NetworkAnalyzer settings.
 	 */
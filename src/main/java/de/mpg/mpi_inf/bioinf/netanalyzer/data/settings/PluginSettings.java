@@ -31,6 +31,8 @@ import java.awt.Color;
 import org.jdom.Element;
 import org.w3c.dom.DOMException;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.SpectralCentrality;
+
 /**
  * Plugin's general settings.
  * 
@@ -158,6 +160,326 @@ public class PluginSettings extends Settings {
 		return useEdgeAttributes;
 	}
 
+	/**
+	 * Gets the maximum number of threads to be used for network analysis.
+	 * 
+	 * @return Number of threads that analyze networks in parallel; <code>0</code> or a negative number
+	 *         if the number of available processors is used.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Gets the number of input files the batch analysis loads ahead of the network being analyzed.
+	 * 
+	 * @return Number of networks loaded while others are analyzed; <code>0</code> if every network is
+	 *         loaded only when its analysis can start.
+	 */
+	public int getBatchPrefetch() {
+		return batchPrefetch;
+	}
+
+	/**
+	 * Gets the memory budget of the networks analyzed at once in the batch analysis.
+	 * 
+	 * @return Estimated memory, in megabytes, the analyses running at the same time may use;
+	 *         <code>0</code> or a negative number for a quarter of the maximum heap size.
+	 */
+	public int getBatchMemoryBudget() {
+		return batchMemoryBudget;
+	}
+
+	/**
+	 * Checks if the batch analysis reuses the cached results of unchanged networks.
+	 * 
+	 * @return <code>true</code> if results are stored in and restored from the cache of the batch
+	 *         analysis; <code>false</code> if every network is analyzed.
+	 */
+	public boolean getUseBatchCache() {
+		return useBatchCache;
+	}
+
+	/**
+	 * Checks if clustering coefficients are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute clustering coefficients; <code>false</code> otherwise.
+	 */
+	public boolean getComputeClustering() {
+		return computeClustering;
+	}
+
+	/**
+	 * Checks if topological coefficients are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute topological coefficients; <code>false</code> otherwise.
+	 */
+	public boolean getComputeTopologicalCoefficient() {
+		return computeTopologicalCoefficient;
+	}
+
+	/**
+	 * Checks if neighborhood connectivity are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute neighborhood connectivity; <code>false</code> otherwise.
+	 */
+	public boolean getComputeNeighborhoodConnectivity() {
+		return computeNeighborhoodConnectivity;
+	}
+
+	/**
+	 * Checks if the diameter and the radius are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute the diameter and the radius, also when the
+	 *         shortest path lengths are not computed; <code>false</code> otherwise.
+	 */
+	public boolean getComputeDiameter() {
+		return computeDiameter;
+	}
+
+	/**
+	 * Checks if shortest path lengths are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute shortest path lengths; <code>false</code> otherwise.
+	 */
+	public boolean getComputeShortestPaths() {
+		return computeShortestPaths;
+	}
+
+	/**
+	 * Checks if shortest path lengths are estimated instead of computed exactly.
+	 * 
+	 * @return <code>true</code> if the analyzers estimate the distribution of shortest path lengths
+	 *         whenever no other enabled parameter needs the exact distances; <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean getEstimateShortestPaths() {
+		return estimateShortestPaths;
+	}
+
+	/**
+	 * Checks if closeness centrality are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute closeness centrality; <code>false</code> otherwise.
+	 */
+	public boolean getComputeCloseness() {
+		return computeCloseness;
+	}
+
+	/**
+	 * Checks if radiality are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute radiality; <code>false</code> otherwise.
+	 */
+	public boolean getComputeRadiality() {
+		return computeRadiality;
+	}
+
+	/**
+	 * Checks if betweenness centrality are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute betweenness centrality; <code>false</code> otherwise.
+	 */
+	public boolean getComputeBetweenness() {
+		return computeBetweenness;
+	}
+
+	/**
+	 * Checks if stress centrality are computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute stress centrality; <code>false</code> otherwise.
+	 */
+	public boolean getComputeStress() {
+		return computeStress;
+	}
+
+	/**
+	 * Checks if betweenness and stress are approximated by sampling source nodes.
+	 * 
+	 * @return <code>true</code> if the analyzers approximate betweenness and stress within the error
+	 *         bound {@link #getBetweennessEpsilon()}; <code>false</code> if they are computed exactly.
+	 */
+	public boolean getApproximateBetweenness() {
+		return approximateBetweenness;
+	}
+
+	/**
+	 * Gets the maximum error of approximated betweenness.
+	 * 
+	 * @return Maximum absolute error of the normalized betweenness of a node.
+	 */
+	public double getBetweennessEpsilon() {
+		return betweennessEpsilon;
+	}
+
+	/**
+	 * Gets the probability that approximated betweenness exceeds its maximum error.
+	 * 
+	 * @return Probability that the error of some node exceeds {@link #getBetweennessEpsilon()}.
+	 */
+	public double getBetweennessDelta() {
+		return betweennessDelta;
+	}
+
+	/**
+	 * Checks if the clustering coefficients of high-degree nodes are approximated by sampling pairs of
+	 * neighbors.
+	 * 
+	 * @return <code>true</code> if the analyzers approximate the clustering coefficients of the nodes
+	 *         with more than {@link #getClusteringDegreeLimit()} neighbors; <code>false</code> if they
+	 *         are computed exactly.
+	 */
+	public boolean getApproximateClustering() {
+		return approximateClustering;
+	}
+
+	/**
+	 * Gets the number of pairs of neighbors sampled for approximating clustering coefficients.
+	 * 
+	 * @return Sample budget for the whole network.
+	 */
+	public int getClusteringSamples() {
+		return clusteringSamples;
+	}
+
+	/**
+	 * Gets the largest number of neighbors for which clustering coefficients are computed exactly.
+	 * 
+	 * @return Degree limit of the exactly computed clustering coefficients; <code>0</code> if all
+	 *         clustering coefficients are approximated.
+	 */
+	public int getClusteringDegreeLimit() {
+		return clusteringDegreeLimit;
+	}
+
+	/**
+	 * Gets the number of top-ranked nodes for which closeness and betweenness are computed.
+	 * 
+	 * @return Number of top-ranked nodes; <code>0</code> if closeness and betweenness are computed for
+	 *         all nodes.
+	 */
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * Checks if PageRank is computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute PageRank; <code>false</code> otherwise.
+	 */
+	public boolean getComputePageRank() {
+		return computePageRank;
+	}
+
+	/**
+	 * Checks if eigenvector centrality is computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute eigenvector centrality; <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean getComputeEigenvector() {
+		return computeEigenvector;
+	}
+
+	/**
+	 * Checks if Katz centrality is computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute Katz centrality; <code>false</code> otherwise.
+	 */
+	public boolean getComputeKatz() {
+		return computeKatz;
+	}
+
+	/**
+	 * Checks if the coreness of the nodes is computed.
+	 * 
+	 * @return <code>true</code> if the analyzers compute the core decomposition of the network;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean getComputeCoreness() {
+		return computeCoreness;
+	}
+
+	/**
+	 * Gets the damping factor of PageRank.
+	 * 
+	 * @return Probability that the random surfer follows an edge instead of jumping to a random node.
+	 */
+	public double getPageRankDamping() {
+		return pageRankDamping;
+	}
+
+	/**
+	 * Gets the attenuation factor of Katz centrality, relative to the inverse of the largest eigenvalue
+	 * of the adjacency matrix.
+	 * 
+	 * @return Attenuation factor in the range (0, 1); the larger it is, the closer Katz centrality is
+	 *         to eigenvector centrality.
+	 */
+	public double getKatzAttenuation() {
+		return katzAttenuation;
+	}
+
+	/**
+	 * Gets the method for computing PageRank, eigenvector and Katz centrality.
+	 * 
+	 * @return Key of the solver; one of <code>jacobi</code>, <code>gaussseidel</code> and
+	 *         <code>extrapolation</code>. If the settings file specifies an unknown solver, the key of
+	 *         the Jacobi method is returned.
+	 */
+	public String getSpectralSolver() {
+		return SpectralCentrality.Solver.forKey(spectralSolver, SpectralCentrality.Solver.JACOBI).getKey();
+	}
+
+	/**
+	 * Checks if the given value is a valid probability of exceeding the error of approximated
+	 * betweenness.
+	 * 
+	 * @param aDelta
+	 *            Probability to be checked.
+	 * @return <code>true</code> if <code>aDelta</code> is in the range (0, 1); <code>false</code>
+	 *         otherwise.
+	 */
+	public static boolean isValidBetweennessDelta(double aDelta) {
+		return aDelta > 0 && aDelta < 1;
+	}
+
+	/**
+	 * Checks if the given value is a valid number of pairs of neighbors sampled for approximating
+	 * clustering coefficients.
+	 * 
+	 * @param aSamples
+	 *            Sample budget to be checked.
+	 * @return <code>true</code> if <code>aSamples</code> is positive; <code>false</code> otherwise.
+	 */
+	public static boolean isValidClusteringSamples(int aSamples) {
+		return aSamples > 0;
+	}
+
+	/**
+	 * Checks if the given value is a valid damping factor of PageRank.
+	 * 
+	 * @param aDamping
+	 *            Damping factor to be checked.
+	 * @return <code>true</code> if <code>aDamping</code> is in the range [0, 1); <code>false</code>
+	 *         otherwise.
+	 */
+	public static boolean isValidPageRankDamping(double aDamping) {
+		return aDamping >= 0 && aDamping < 1;
+	}
+
+	/**
+	 * Checks if the given value is a valid attenuation factor of Katz centrality.
+	 * 
+	 * @param aAttenuation
+	 *            Attenuation factor to be checked.
+	 * @return <code>true</code> if <code>aAttenuation</code> is in the range (0, 1); <code>false</code>
+	 *         otherwise.
+	 */
+	public static boolean isValidKatzAttenuation(double aAttenuation) {
+		return aAttenuation > 0 && aAttenuation < 1;
+	}
+
 	/**
 	 * Gets the color of the background.
 	 * 
@@ -247,6 +569,319 @@ public class PluginSettings extends Settings {
 		useEdgeAttributes = anEdgeAttribute;
 	}
 
+	/**
+	 * Sets the maximum number of threads to be used for network analysis.
+	 * 
+	 * @param aParallelism
+	 *            New number of threads; <code>0</code> to use the number of available processors.
+	 * @see #getParallelism()
+	 */
+	public void setParallelism(int aParallelism) {
+		parallelism = aParallelism;
+	}
+
+	/**
+	 * Sets the number of input files the batch analysis loads ahead of the network being analyzed.
+	 * 
+	 * @param aPrefetch
+	 *            New number of networks loaded ahead; <code>0</code> to load every network only when
+	 *            its analysis can start.
+	 * @see #getBatchPrefetch()
+	 */
+	public void setBatchPrefetch(int aPrefetch) {
+		batchPrefetch = aPrefetch;
+	}
+
+	/**
+	 * Sets the memory budget of the networks analyzed at once in the batch analysis.
+	 * 
+	 * @param aBudget
+	 *            New budget in megabytes; <code>0</code> for a quarter of the maximum heap size.
+	 * @see #getBatchMemoryBudget()
+	 */
+	public void setBatchMemoryBudget(int aBudget) {
+		batchMemoryBudget = aBudget;
+	}
+
+	/**
+	 * Sets the value of the &quot;useBatchCache&quot; flag.
+	 * <p>
+	 * This flag identifies if the batch analysis reuses the cached results of unchanged networks.
+	 * </p>
+	 * 
+	 * @param aUseBatchCache
+	 *            New value of the &quot;useBatchCache&quot; flag.
+	 * @see #getUseBatchCache()
+	 */
+	public void setUseBatchCache(boolean aUseBatchCache) {
+		useBatchCache = aUseBatchCache;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeClustering&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeClustering&quot; flag.
+	 * @see #getComputeClustering()
+	 */
+	public void setComputeClustering(boolean aCompute) {
+		computeClustering = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeTopologicalCoefficient&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeTopologicalCoefficient&quot; flag.
+	 * @see #getComputeTopologicalCoefficient()
+	 */
+	public void setComputeTopologicalCoefficient(boolean aCompute) {
+		computeTopologicalCoefficient = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeNeighborhoodConnectivity&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeNeighborhoodConnectivity&quot; flag.
+	 * @see #getComputeNeighborhoodConnectivity()
+	 */
+	public void setComputeNeighborhoodConnectivity(boolean aCompute) {
+		computeNeighborhoodConnectivity = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeDiameter&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeDiameter&quot; flag.
+	 * @see #getComputeDiameter()
+	 */
+	public void setComputeDiameter(boolean aCompute) {
+		computeDiameter = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeShortestPaths&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeShortestPaths&quot; flag.
+	 * @see #getComputeShortestPaths()
+	 */
+	public void setComputeShortestPaths(boolean aCompute) {
+		computeShortestPaths = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;estimateShortestPaths&quot; flag.
+	 * 
+	 * @param aEstimate
+	 *            New value of the &quot;estimateShortestPaths&quot; flag.
+	 * @see #getEstimateShortestPaths()
+	 */
+	public void setEstimateShortestPaths(boolean aEstimate) {
+		estimateShortestPaths = aEstimate;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeCloseness&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeCloseness&quot; flag.
+	 * @see #getComputeCloseness()
+	 */
+	public void setComputeCloseness(boolean aCompute) {
+		computeCloseness = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeRadiality&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeRadiality&quot; flag.
+	 * @see #getComputeRadiality()
+	 */
+	public void setComputeRadiality(boolean aCompute) {
+		computeRadiality = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeBetweenness&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeBetweenness&quot; flag.
+	 * @see #getComputeBetweenness()
+	 */
+	public void setComputeBetweenness(boolean aCompute) {
+		computeBetweenness = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeStress&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeStress&quot; flag.
+	 * @see #getComputeStress()
+	 */
+	public void setComputeStress(boolean aCompute) {
+		computeStress = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;approximateBetweenness&quot; flag.
+	 * 
+	 * @param aApproximate
+	 *            New value of the &quot;approximateBetweenness&quot; flag.
+	 * @see #getApproximateBetweenness()
+	 */
+	public void setApproximateBetweenness(boolean aApproximate) {
+		approximateBetweenness = aApproximate;
+	}
+
+	/**
+	 * Sets the maximum error of approximated betweenness.
+	 * 
+	 * @param aEpsilon
+	 *            New maximum error; must be positive.
+	 * @see #getBetweennessEpsilon()
+	 */
+	public void setBetweennessEpsilon(double aEpsilon) {
+		betweennessEpsilon = aEpsilon;
+	}
+
+	/**
+	 * Sets the probability that approximated betweenness exceeds its maximum error.
+	 * 
+	 * @param aDelta
+	 *            New probability; must be in the range (0, 1).
+	 * @see #getBetweennessDelta()
+	 */
+	public void setBetweennessDelta(double aDelta) {
+		betweennessDelta = aDelta;
+	}
+
+	/**
+	 * Sets the value of the &quot;approximateClustering&quot; flag.
+	 * 
+	 * @param aApproximate
+	 *            New value of the &quot;approximateClustering&quot; flag.
+	 * @see #getApproximateClustering()
+	 */
+	public void setApproximateClustering(boolean aApproximate) {
+		approximateClustering = aApproximate;
+	}
+
+	/**
+	 * Sets the number of pairs of neighbors sampled for approximating clustering coefficients.
+	 * 
+	 * @param aSamples
+	 *            New sample budget; must be positive.
+	 * @see #getClusteringSamples()
+	 */
+	public void setClusteringSamples(int aSamples) {
+		clusteringSamples = aSamples;
+	}
+
+	/**
+	 * Sets the largest number of neighbors for which clustering coefficients are computed exactly.
+	 * 
+	 * @param aDegreeLimit
+	 *            New degree limit; must not be negative.
+	 * @see #getClusteringDegreeLimit()
+	 */
+	public void setClusteringDegreeLimit(int aDegreeLimit) {
+		clusteringDegreeLimit = aDegreeLimit;
+	}
+
+	/**
+	 * Sets the number of top-ranked nodes for which closeness and betweenness are computed.
+	 * 
+	 * @param aTopK
+	 *            New number of top-ranked nodes; must not be negative.
+	 * @see #getTopK()
+	 */
+	public void setTopK(int aTopK) {
+		topK = aTopK;
+	}
+
+	/**
+	 * Sets the value of the &quot;computePageRank&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computePageRank&quot; flag.
+	 * @see #getComputePageRank()
+	 */
+	public void setComputePageRank(boolean aCompute) {
+		computePageRank = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeEigenvector&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeEigenvector&quot; flag.
+	 * @see #getComputeEigenvector()
+	 */
+	public void setComputeEigenvector(boolean aCompute) {
+		computeEigenvector = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeKatz&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeKatz&quot; flag.
+	 * @see #getComputeKatz()
+	 */
+	public void setComputeKatz(boolean aCompute) {
+		computeKatz = aCompute;
+	}
+
+	/**
+	 * Sets the value of the &quot;computeCoreness&quot; flag.
+	 * 
+	 * @param aCompute
+	 *            New value of the &quot;computeCoreness&quot; flag.
+	 * @see #getComputeCoreness()
+	 */
+	public void setComputeCoreness(boolean aCompute) {
+		computeCoreness = aCompute;
+	}
+
+	/**
+	 * Sets the damping factor of PageRank.
+	 * 
+	 * @param aDamping
+	 *            New damping factor; must be in the range [0, 1).
+	 * @see #getPageRankDamping()
+	 */
+	public void setPageRankDamping(double aDamping) {
+		pageRankDamping = aDamping;
+	}
+
+	/**
+	 * Sets the attenuation factor of Katz centrality.
+	 * 
+	 * @param aAttenuation
+	 *            New attenuation factor, relative to the inverse of the largest eigenvalue; must be in
+	 *            the range (0, 1).
+	 * @see #getKatzAttenuation()
+	 */
+	public void setKatzAttenuation(double aAttenuation) {
+		katzAttenuation = aAttenuation;
+	}
+
+	/**
+	 * Sets the method for computing PageRank, eigenvector and Katz centrality.
+	 * 
+	 * @param aSolver
+	 *            Key of the new solver; an unknown key selects the Jacobi method.
+	 * @see #getSpectralSolver()
+	 */
+	public void setSpectralSolver(String aSolver) {
+		spectralSolver = SpectralCentrality.Solver.forKey(aSolver, SpectralCentrality.Solver.JACOBI).getKey();
+	}
+
 	/**
 	 * Sets the background color to be used for visualizing network parameters.
 	 * 
@@ -346,6 +981,146 @@ public class PluginSettings extends Settings {
 	 */
 	static final String useEdgeAttributesTag = "edgeattributes";
 
+	/**
+	 * Name of the tag identifying the number of analysis threads.
+	 */
+	static final String parallelismTag = "parallelism";
+
+	/**
+	 * Name of the tag identifying the number of input files loaded ahead in the batch analysis.
+	 */
+	static final String batchPrefetchTag = "batchprefetch";
+
+	/**
+	 * Name of the tag identifying the memory budget of the batch analysis.
+	 */
+	static final String batchMemoryBudgetTag = "batchmemorybudget";
+
+	/**
+	 * Name of the tag identifying the &quot;useBatchCache&quot; flag.
+	 */
+	static final String useBatchCacheTag = "batchcache";
+
+	/**
+	 * Name of the tag identifying the &quot;computeClustering&quot; flag.
+	 */
+	static final String computeClusteringTag = "clustering";
+
+	/**
+	 * Name of the tag identifying the &quot;computeTopologicalCoefficient&quot; flag.
+	 */
+	static final String computeTopologicalCoefficientTag = "topologicalcoefficient";
+
+	/**
+	 * Name of the tag identifying the &quot;computeNeighborhoodConnectivity&quot; flag.
+	 */
+	static final String computeNeighborhoodConnectivityTag = "neighborhoodconnectivity";
+
+	/**
+	 * Name of the tag identifying the &quot;computeDiameter&quot; flag.
+	 */
+	static final String computeDiameterTag = "diameter";
+
+	/**
+	 * Name of the tag identifying the &quot;computeShortestPaths&quot; flag.
+	 */
+	static final String computeShortestPathsTag = "shortestpaths";
+
+	/**
+	 * Name of the tag identifying the &quot;estimateShortestPaths&quot; flag.
+	 */
+	static final String estimateShortestPathsTag = "estimateshortestpaths";
+
+	/**
+	 * Name of the tag identifying the &quot;computeCloseness&quot; flag.
+	 */
+	static final String computeClosenessTag = "closeness";
+
+	/**
+	 * Name of the tag identifying the &quot;computeRadiality&quot; flag.
+	 */
+	static final String computeRadialityTag = "radiality";
+
+	/**
+	 * Name of the tag identifying the &quot;computeBetweenness&quot; flag.
+	 */
+	static final String computeBetweennessTag = "betweenness";
+
+	/**
+	 * Name of the tag identifying the &quot;computeStress&quot; flag.
+	 */
+	static final String computeStressTag = "stress";
+
+	/**
+	 * Name of the tag identifying the &quot;approximateBetweenness&quot; flag.
+	 */
+	static final String approximateBetweennessTag = "approximatebetweenness";
+
+	/**
+	 * Name of the tag identifying the maximum error of approximated betweenness.
+	 */
+	static final String betweennessEpsilonTag = "betweennessepsilon";
+
+	/**
+	 * Name of the tag identifying the probability of exceeding the maximum error of betweenness.
+	 */
+	static final String betweennessDeltaTag = "betweennessdelta";
+
+	/**
+	 * Name of the tag identifying the &quot;approximateClustering&quot; flag.
+	 */
+	static final String approximateClusteringTag = "approximateclustering";
+
+	/**
+	 * Name of the tag identifying the number of sampled pairs of neighbors.
+	 */
+	static final String clusteringSamplesTag = "clusteringsamples";
+
+	/**
+	 * Name of the tag identifying the degree limit of exact clustering coefficients.
+	 */
+	static final String clusteringDegreeLimitTag = "clusteringdegreelimit";
+
+	/**
+	 * Name of the tag identifying the number of top-ranked nodes.
+	 */
+	static final String topKTag = "topk";
+
+	/**
+	 * Name of the tag identifying the &quot;computePageRank&quot; flag.
+	 */
+	static final String computePageRankTag = "pagerank";
+
+	/**
+	 * Name of the tag identifying the &quot;computeEigenvector&quot; flag.
+	 */
+	static final String computeEigenvectorTag = "eigenvector";
+
+	/**
+	 * Name of the tag identifying the &quot;computeKatz&quot; flag.
+	 */
+	static final String computeKatzTag = "katz";
+
+	/**
+	 * Name of the tag identifying the &quot;computeCoreness&quot; flag.
+	 */
+	static final String computeCorenessTag = "coreness";
+
+	/**
+	 * Name of the tag identifying the damping factor of PageRank.
+	 */
+	static final String pageRankDampingTag = "pagerankdamping";
+
+	/**
+	 * Name of the tag identifying the attenuation factor of Katz centrality.
+	 */
+	static final String katzAttenuationTag = "katzattenuation";
+
+	/**
+	 * Name of the tag identifying the solver of the spectral centralities.
+	 */
+	static final String spectralSolverTag = "spectralsolver";
+
 	/**
 	 * Name of the tag identifying the background color.
 	 */
@@ -416,6 +1191,147 @@ public class PluginSettings extends Settings {
 	 */
 	boolean useEdgeAttributes;
 
+	/**
+	 * Maximum number of threads used for network analysis.
+	 */
+	int parallelism;
+
+	/**
+	 * Number of input files loaded ahead in the batch analysis.
+	 */
+	int batchPrefetch;
+
+	/**
+	 * Memory budget, in megabytes, of the networks analyzed at once in the batch analysis.
+	 */
+	int batchMemoryBudget;
+
+	/**
+	 * Flag indicating if the batch analysis reuses the cached results of unchanged networks.
+	 */
+	boolean useBatchCache;
+
+	/**
+	 * Flag indicating if clustering coefficients are computed.
+	 */
+	boolean computeClustering;
+
+	/**
+	 * Flag indicating if topological coefficients are computed.
+	 */
+	boolean computeTopologicalCoefficient;
+
+	/**
+	 * Flag indicating if neighborhood connectivity are computed.
+	 */
+	boolean computeNeighborhoodConnectivity;
+
+	/**
+	 * Flag indicating if the diameter and the radius are computed.
+	 */
+	boolean computeDiameter;
+
+	/**
+	 * Flag indicating if shortest path lengths are computed.
+	 */
+	boolean computeShortestPaths;
+
+	/**
+	 * Flag indicating if shortest path lengths are estimated.
+	 */
+	boolean estimateShortestPaths;
+
+	/**
+	 * Flag indicating if closeness centrality are computed.
+	 */
+	boolean computeCloseness;
+
+	/**
+	 * Flag indicating if radiality are computed.
+	 */
+	boolean computeRadiality;
+
+	/**
+	 * Flag indicating if betweenness centrality are computed.
+	 */
+	boolean computeBetweenness;
+
+	/**
+	 * Flag indicating if stress centrality are computed.
+	 */
+	boolean computeStress;
+
+	/**
+	 * Flag indicating if betweenness and stress are approximated.
+	 */
+	boolean approximateBetweenness;
+
+	/**
+	 * Maximum error of approximated betweenness.
+	 */
+	double betweennessEpsilon;
+
+	/**
+	 * Probability that approximated betweenness exceeds its maximum error.
+	 */
+	double betweennessDelta;
+
+	/**
+	 * Flag indicating if clustering coefficients of high-degree nodes are approximated.
+	 */
+	boolean approximateClustering;
+
+	/**
+	 * Number of pairs of neighbors sampled for approximating clustering coefficients.
+	 */
+	int clusteringSamples;
+
+	/**
+	 * Largest number of neighbors for which clustering coefficients are computed exactly.
+	 */
+	int clusteringDegreeLimit;
+
+	/**
+	 * Number of top-ranked nodes for which closeness and betweenness are computed; <code>0</code> for
+	 * all nodes.
+	 */
+	int topK;
+
+	/**
+	 * Flag indicating if PageRank is computed.
+	 */
+	boolean computePageRank;
+
+	/**
+	 * Flag indicating if eigenvector centrality is computed.
+	 */
+	boolean computeEigenvector;
+
+	/**
+	 * Flag indicating if Katz centrality is computed.
+	 */
+	boolean computeKatz;
+
+	/**
+	 * Flag indicating if the coreness of the nodes is computed.
+	 */
+	boolean computeCoreness;
+
+	/**
+	 * Damping factor of PageRank.
+	 */
+	double pageRankDamping;
+
+	/**
+	 * Attenuation factor of Katz centrality, relative to the inverse of the largest eigenvalue.
+	 */
+	double katzAttenuation;
+
+	/**
+	 * Key of the solver of PageRank, eigenvector and Katz centrality.
+	 */
+	String spectralSolver;
+
 	/**
 	 * Color to be used for the background when visualizing network parameters.
 	 */
@@ -0,0 +1,482 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Exact node betweenness, edge betweenness and stress of a connected undirected graph, computed block
+ * by block.
+ * <p>
+ * Every shortest path between two nodes runs through the blocks (see {@link BlockDecomposition}) on
+ * the way between them, entering and leaving every block at one of its nodes. From the point of view
+ * of a block, a node <code>x</code> of the block stands for all the nodes whose shortest paths enter
+ * the block at <code>x</code>; their number is the <i>reach</i> of <code>x</code>, and the number of
+ * their shortest paths to <code>x</code> is its <i>path weight</i>. A traversal of Brandes' algorithm
+ * (U. Brandes: A Faster Algorithm for Betweenness Centrality. Journal of Mathematical Sociology
+ * 25(2):163-177, 2001) from every node of a block, restricted to the block and with the dependencies
+ * weighted by reach (path weights for stress), then gives the betweenness and stress that the nodes and
+ * edges of the block receive from paths passing through it. The pairs of nodes separated by an
+ * articulation point add to its betweenness and stress in closed form (S. Sariy&uuml;ce et al.:
+ * Shattering and Compressing Networks for Betweenness Centrality. SIAM Data Mining, 2013).
+ * </p>
+ * <p>
+ * Bridges need no traversal: the betweenness of a bridge is twice the product of the numbers of nodes
+ * on its sides. In particular, the pendant trees hanging off the rest of the graph, down to the nodes
+ * of degree 1, consist of bridges only, so they are folded into the reach and path weights of the
+ * nodes they hang off, as proposed by Baglioni et al. (M. Baglioni, F. Geraci, M. Pellegrini and E.
+ * Lastres: Fast Exact Computation of betweenness Centrality in Social Networks. ASONAM 2012).
+ * </p>
+ * <p>
+ * The values are accumulated like those of <code>UndirNetworkAnalyzer.computeSPandNB</code>, i.e.
+ * over ordered pairs of nodes and without normalization. The traversals of the blocks are independent
+ * and can be run by several threads, each accumulating into its own arrays; an instance keeps no state
+ * shared between threads other than the entries of the traversal it runs.
+ * </p>
+ */
+public final class BlockBetweenness {
+
+	/**
+	 * Prepares the computation for the given graph.
+	 * <p>
+	 * The reach of the nodes is derived from the sizes of the blocks in a single pass. The path
+	 * weights, needed for stress only, take a traversal of every block that is not a bridge.
+	 * </p>
+	 *
+	 * @param aBlocks Decomposition of the graph into blocks; the graph must be connected.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes.
+	 * @param aPairIDs IDs of the node pairs, parallel to <code>aNeighbors</code>.
+	 * @param aPairCount Number of node pair IDs.
+	 * @param aStress Flag indicating if stress is to be computed.
+	 * @return Block-wise computation of the betweenness of the graph.
+	 */
+	public static BlockBetweenness create(BlockDecomposition aBlocks, int[] aOffsets, int[] aNeighbors,
+			int[] aPairIDs, int aPairCount, boolean aStress) {
+		return new BlockBetweenness(aBlocks, aOffsets, aNeighbors, aPairIDs, aPairCount, aStress);
+	}
+
+	/**
+	 * Gets the number of sources of the block traversals.
+	 *
+	 * @return Number of entries of the node lists of the blocks; every entry is a source in its block.
+	 */
+	public int getSourceCount() {
+		return blockNodes.length;
+	}
+
+	/**
+	 * Accumulates the dependencies on the nodes and edges of a block from one of its nodes.
+	 * <p>
+	 * Sources in bridges are skipped, as their contributions are added by
+	 * {@link #finish(double[], long[], double[])}.
+	 * </p>
+	 *
+	 * @param aSource Position of the source in the node lists of the blocks, in the range
+	 *        <code>[0, getSourceCount())</code>.
+	 * @param aWorkspace Workspace of the calling thread.
+	 * @param outNodeBetweenness Node betweenness to be updated, indexed by node.
+	 * @param outStress Stress to be updated, indexed by node; ignored if stress is not computed.
+	 * @param outEdgeBetweenness Edge betweenness to be updated, indexed by pair ID.
+	 */
+	public void accumulate(int aSource, TraversalWorkspace aWorkspace, double[] outNodeBetweenness,
+			long[] outStress, double[] outEdgeBetweenness) {
+		final int block = memberBlocks[aSource];
+		final int base = blockOffsets[block];
+		final int size = blockOffsets[block + 1] - base;
+		if (size == 2) {
+			return;
+		}
+		final int source = aSource - base;
+		final int count = traverse(block, source, aWorkspace);
+
+		final int[] queue = aWorkspace.queue;
+		final int[] pred = aWorkspace.pred;
+		final int[] predEdge = aWorkspace.predEdge;
+		final int[] predCount = aWorkspace.predCount;
+		final int[] sigma = aWorkspace.sigma;
+		final double[] delta = aWorkspace.delta;
+		final long[] stressDependency = aWorkspace.stressDependency;
+		if (stress && source != 0) {
+			// Path weights of the other nodes, as seen from the source, for the block of its children
+			long flow = 0;
+			for (int i = 1; i < count; i++) {
+				flow += pathWeights[base + queue[i]] * sigma[queue[i]];
+			}
+			flows[aSource] = flow;
+			headPaths[aSource] = sigma[0];
+		}
+
+		final double sourceReach = reach[aSource];
+		final long sourceWeight = source == 0 ? 1 : pathWeights[aSource];
+		for (int q = count - 1; q >= 0; q--) {
+			final int w = queue[q];
+			final int member = base + w;
+			final double sigmaw = 1.0 / sigma[w], deltaw = delta[w];
+			final long stressw = stressDependency[w];
+			final double targetReach = reach[member];
+			final long targetWeight = pathWeights[member];
+			final int firstP = adjacencyOffsets[member];
+			final int lastP = firstP + predCount[w];
+			for (int pi = firstP; pi < lastP; pi++) {
+				final int v = pred[pi];
+				final double edgeDependency = sigma[v] * sigmaw * (targetReach + deltaw);
+				delta[v] += edgeDependency;
+				stressDependency[v] += targetWeight + stressw;
+				outEdgeBetweenness[predEdge[pi]] += sourceReach * edgeDependency;
+			}
+			if (w != source) {
+				outNodeBetweenness[blockNodes[member]] += sourceReach * deltaw;
+				if (stress) {
+					if (source == 0) {
+						headStress[member] += sigma[w] * stressw;
+					} else {
+						outStress[blockNodes[member]] += sourceWeight * sigma[w] * stressw;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds the contributions that need no traversal and completes the stress.
+	 * <p>
+	 * This method must be called once, after {@link #accumulate(int, TraversalWorkspace, double[], long[], double[])}
+	 * has been called for all sources and the results have been summed.
+	 * </p>
+	 *
+	 * @param aNodeBetweenness Node betweenness accumulated from all sources, updated in place.
+	 * @param aStress Stress accumulated from all sources, updated in place; ignored if stress is not
+	 *        computed.
+	 * @param aEdgeBetweenness Edge betweenness accumulated from all sources, updated in place.
+	 */
+	public void finish(double[] aNodeBetweenness, long[] aStress, double[] aEdgeBetweenness) {
+		final int n = blocks.getNodeCount();
+		final int blockCount = blocks.getBlockCount();
+		for (int b = 0; b < blockCount; b++) {
+			final int head = blockNodes[blockOffsets[b]];
+			if (blockOffsets[b + 1] - blockOffsets[b] == 2) {
+				final long tail = reach[blockOffsets[b] + 1];
+				aEdgeBetweenness[adjacencyPairs[adjacencyOffsets[blockOffsets[b]]]] += 2.0 * tail * (n - tail);
+			}
+			// Pairs separated by the head, one node in the block or beyond it, the other node elsewhere
+			aNodeBetweenness[head] += (double) subtreeSizes[b] * (n - 1 - subtreeSizes[b]);
+		}
+		for (int v = 0; v < n; v++) {
+			// Pairs separated by the node, one beyond the block it is not the head of
+			aNodeBetweenness[v] += (double) (n - 1 - headedSizes[v]) * headedSizes[v];
+		}
+		if (!stress) {
+			return;
+		}
+
+		// Path weights of the heads, from the blocks containing them as other nodes downwards
+		final long[] upFlows = new long[n];
+		for (int b = blockCount - 1; b >= 0; b--) {
+			final int base = blockOffsets[b], last = blockOffsets[b + 1];
+			final int head = blockNodes[base];
+			final long headWeight = 1 + headedFlows[head] - headFlows[b] + upFlows[head];
+			for (int m = base + 1; m < last; m++) {
+				if (last - base == 2) {
+					upFlows[blockNodes[m]] = headWeight;
+				} else {
+					upFlows[blockNodes[m]] = flows[m] + headWeight * headPaths[m];
+					aStress[blockNodes[m]] += 2 * headWeight * headStress[m];
+				}
+			}
+		}
+		for (int v = 0; v < n; v++) {
+			// Paths between the components separated by the node
+			final long total = headedFlows[v] + upFlows[v];
+			aStress[v] += total * total - headedSquares[v] - upFlows[v] * upFlows[v];
+		}
+	}
+
+	/**
+	 * Initializes a new instance of <code>BlockBetweenness</code>.
+	 *
+	 * @param aBlocks Decomposition of the connected graph into blocks.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes.
+	 * @param aPairIDs IDs of the node pairs, parallel to <code>aNeighbors</code>.
+	 * @param aPairCount Number of node pair IDs.
+	 * @param aStress Flag indicating if stress is to be computed.
+	 */
+	private BlockBetweenness(BlockDecomposition aBlocks, int[] aOffsets, int[] aNeighbors, int[] aPairIDs,
+			int aPairCount, boolean aStress) {
+		final int n = aBlocks.getNodeCount();
+		final int blockCount = aBlocks.getBlockCount();
+		blocks = aBlocks;
+		blockOffsets = aBlocks.getBlockOffsets();
+		blockNodes = aBlocks.getBlockNodes();
+		stress = aStress;
+		final int memberCount = blockNodes.length;
+
+		// A node is the head of any number of blocks, and another node of at most one block
+		memberBlocks = new int[memberCount];
+		final int[] ownMembers = new int[n];
+		for (int b = 0; b < blockCount; b++) {
+			for (int m = blockOffsets[b]; m < blockOffsets[b + 1]; m++) {
+				memberBlocks[m] = b;
+				if (m != blockOffsets[b]) {
+					ownMembers[blockNodes[m]] = m;
+				}
+			}
+		}
+
+		// Neighbor lists of the nodes within their blocks
+		final int[] slotBlocks = aBlocks.getSlotBlocks();
+		adjacencyOffsets = new int[memberCount + 1];
+		for (int v = 0; v < n; v++) {
+			for (int i = aOffsets[v]; i < aOffsets[v + 1]; i++) {
+				adjacencyOffsets[member(slotBlocks[i], v, ownMembers) + 1]++;
+			}
+		}
+		for (int m = 0; m < memberCount; m++) {
+			adjacencyOffsets[m + 1] += adjacencyOffsets[m];
+		}
+		final int[] fill = Arrays.copyOf(adjacencyOffsets, memberCount);
+		adjacency = new int[adjacencyOffsets[memberCount]];
+		adjacencyPairs = new int[adjacency.length];
+		for (int v = 0; v < n; v++) {
+			for (int i = aOffsets[v]; i < aOffsets[v + 1]; i++) {
+				final int b = slotBlocks[i];
+				final int position = fill[member(b, v, ownMembers)]++;
+				adjacency[position] = member(b, aNeighbors[i], ownMembers) - blockOffsets[b];
+				adjacencyPairs[position] = aPairIDs[i];
+			}
+		}
+		slotCapacity = Math.max(adjacency.length, aPairCount);
+
+		// Reach and path weights of the nodes other than the heads, from the smallest blocks upwards
+		reach = new int[memberCount];
+		pathWeights = new long[memberCount];
+		subtreeSizes = new int[blockCount];
+		headedSizes = new int[n];
+		flows = aStress ? new long[memberCount] : null;
+		headPaths = aStress ? new long[memberCount] : null;
+		headStress = aStress ? new long[memberCount] : null;
+		headFlows = aStress ? new long[blockCount] : null;
+		headedFlows = aStress ? new long[n] : null;
+		headedSquares = aStress ? new long[n] : null;
+		final TraversalWorkspace workspace = aStress ? new TraversalWorkspace() : null;
+		for (int b = 0; b < blockCount; b++) {
+			final int base = blockOffsets[b], last = blockOffsets[b + 1];
+			int subtreeSize = 0;
+			for (int m = base + 1; m < last; m++) {
+				final int v = blockNodes[m];
+				reach[m] = 1 + headedSizes[v];
+				subtreeSize += reach[m];
+				if (aStress) {
+					pathWeights[m] = 1 + headedFlows[v];
+				}
+			}
+			final int head = blockNodes[base];
+			reach[base] = n - subtreeSize;
+			subtreeSizes[b] = subtreeSize;
+			headedSizes[head] += subtreeSize;
+			if (aStress) {
+				long flow = 0;
+				if (last - base == 2) {
+					flow = pathWeights[base + 1];
+				} else {
+					final int count = traverse(b, 0, workspace);
+					for (int i = 1; i < count; i++) {
+						flow += pathWeights[base + workspace.queue[i]] * workspace.sigma[workspace.queue[i]];
+					}
+				}
+				headFlows[b] = flow;
+				headedFlows[head] += flow;
+				headedSquares[head] += flow * flow;
+			}
+		}
+	}
+
+	/**
+	 * Finds the position of a node in the node list of a block.
+	 *
+	 * @param aBlock Index of the block.
+	 * @param aNode Index of the node; it must belong to <code>aBlock</code>.
+	 * @param aOwnMembers Position of every node in the list of the block it is not the head of.
+	 * @return Position of <code>aNode</code> in the node list of <code>aBlock</code>.
+	 */
+	private int member(int aBlock, int aNode, int[] aOwnMembers) {
+		return blockNodes[blockOffsets[aBlock]] == aNode ? blockOffsets[aBlock] : aOwnMembers[aNode];
+	}
+
+	/**
+	 * Runs the breadth-first traversal of a block, counting the shortest paths and recording the
+	 * predecessors of the nodes.
+	 *
+	 * @param aBlock Index of the block.
+	 * @param aSource Index of the source in the node list of the block.
+	 * @param aWorkspace Workspace of the calling thread; it is indexed by the positions of the nodes in
+	 *        the node list of the block.
+	 * @return Number of nodes in the block, all of which are stored in the queue of the workspace in
+	 *         order of non-decreasing distance from the source.
+	 */
+	private int traverse(int aBlock, int aSource, TraversalWorkspace aWorkspace) {
+		final int base = blockOffsets[aBlock];
+		final int epoch = aWorkspace.begin(blockOffsets[aBlock + 1] - base, slotCapacity);
+		final int[] queue = aWorkspace.queue;
+		final int[] visited = aWorkspace.stamp;
+		final int[] d = aWorkspace.distance;
+		final int[] sigma = aWorkspace.sigma;
+		final int[] pred = aWorkspace.pred;
+		final int[] predEdge = aWorkspace.predEdge;
+		final int[] predCount = aWorkspace.predCount;
+		queue[0] = aSource;
+		int low = 0, high = 1;
+		visited[aSource] = epoch;
+		d[aSource] = 0;
+		aWorkspace.resetNode(aSource, 1);
+		while (low < high) {
+			final int node = queue[low++];
+			final int dnodeplus = d[node] + 1;
+			for (int ei = adjacencyOffsets[base + node]; ei < adjacencyOffsets[base + node + 1]; ei++) {
+				final int neighbor = adjacency[ei];
+				if (visited[neighbor] != epoch) {
+					visited[neighbor] = epoch;
+					queue[high++] = neighbor;
+					d[neighbor] = dnodeplus;
+					aWorkspace.resetNode(neighbor, 0);
+				}
+				if (d[neighbor] == dnodeplus) {
+					sigma[neighbor] += sigma[node];
+					final int pi = adjacencyOffsets[base + neighbor] + predCount[neighbor]++;
+					pred[pi] = node;
+					predEdge[pi] = adjacencyPairs[ei];
+				}
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Decomposition of the graph into blocks.
+	 */
+	private final BlockDecomposition blocks;
+
+	/**
+	 * Offsets of the node lists of the blocks in {@link #blockNodes}.
+	 */
+	private final int[] blockOffsets;
+
+	/**
+	 * Node lists of the blocks, each starting with the head of the block. A position in these lists is
+	 * referred to as a <i>member</i>.
+	 */
+	private final int[] blockNodes;
+
+	/**
+	 * Block of every member.
+	 */
+	private final int[] memberBlocks;
+
+	/**
+	 * Offsets of the neighbor lists of the members in {@link #adjacency}.
+	 */
+	private final int[] adjacencyOffsets;
+
+	/**
+	 * Neighbors of every member within its block, given by their positions in the node list of the
+	 * block.
+	 */
+	private final int[] adjacency;
+
+	/**
+	 * IDs of the node pairs, parallel to {@link #adjacency}.
+	 */
+	private final int[] adjacencyPairs;
+
+	/**
+	 * Number of entries the arrays of a workspace indexed by neighbor list position or by pair ID need.
+	 */
+	private final int slotCapacity;
+
+	/**
+	 * Number of nodes every member stands for in its block.
+	 */
+	private final int[] reach;
+
+	/**
+	 * Number of shortest paths from the nodes every member stands for to the member; <code>0</code>
+	 * for the heads of the blocks, whose weights are applied by {@link #finish(double[], long[], double[])}.
+	 */
+	private final long[] pathWeights;
+
+	/**
+	 * Number of nodes beyond every block, as seen from its head.
+	 */
+	private final int[] subtreeSizes;
+
+	/**
+	 * Number of nodes beyond the blocks headed by every node.
+	 */
+	private final int[] headedSizes;
+
+	/**
+	 * Flag indicating if stress is computed.
+	 */
+	private final boolean stress;
+
+	/**
+	 * Weighted number of shortest paths from every member to the other nodes of its block except the
+	 * head; <code>null</code> if stress is not computed.
+	 */
+	private final long[] flows;
+
+	/**
+	 * Number of shortest paths from every member to the head of its block; <code>null</code> if stress
+	 * is not computed.
+	 */
+	private final long[] headPaths;
+
+	/**
+	 * Stress of every member from the traversal of its head, before weighting by the path weight of the
+	 * head; <code>null</code> if stress is not computed.
+	 */
+	private final long[] headStress;
+
+	/**
+	 * Weighted number of shortest paths from the head of every block to the other nodes of the block;
+	 * <code>null</code> if stress is not computed.
+	 */
+	private final long[] headFlows;
+
+	/**
+	 * Sum of {@link #headFlows} over the blocks headed by every node; <code>null</code> if stress is
+	 * not computed.
+	 */
+	private final long[] headedFlows;
+
+	/**
+	 * Sum of the squares of {@link #headFlows} over the blocks headed by every node; <code>null</code>
+	 * if stress is not computed.
+	 */
+	private final long[] headedSquares;
+}
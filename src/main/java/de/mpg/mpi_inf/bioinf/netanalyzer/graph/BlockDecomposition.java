@@ -0,0 +1,277 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Decomposition of an undirected graph into its biconnected components (blocks).
+ * <p>
+ * A block is a maximal connected subgraph that stays connected after removing any one of its nodes;
+ * every edge belongs to exactly one block. The nodes shared by several blocks are the articulation
+ * points of the graph, and a block of two nodes consists of a single edge - a bridge. Every shortest
+ * path between two nodes passes through the articulation points that separate them, which allows
+ * path-based measures to be computed block by block (see {@link BlockBetweenness}).
+ * </p>
+ * <p>
+ * The blocks are found by a single depth-first search (J. Hopcroft and R. Tarjan: Efficient
+ * Algorithms for Graph Manipulation. Communications of the ACM 16(6):372-378, 1973), run with an
+ * explicit stack. Every block has a <i>head</i> - its node visited first by the search; the blocks
+ * are numbered in the order in which the search completes them, hence every block is numbered before
+ * the block that contains its head as another node.
+ * </p>
+ */
+public final class BlockDecomposition {
+
+	/**
+	 * Decomposes the given graph into blocks.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; the lists must be free of duplicates
+	 *        and of the node itself.
+	 * @return Decomposition of the graph into blocks.
+	 */
+	public static BlockDecomposition create(int aNodeCount, int[] aOffsets, int[] aNeighbors) {
+		final int[] discovery = new int[aNodeCount];	// 0 if not visited yet
+		final int[] low = new int[aNodeCount];
+		final int[] parent = new int[aNodeCount];
+		final int[] next = new int[aNodeCount];		// Next neighbor list position to scan
+		final int[] path = new int[aNodeCount];		// Nodes on the current search path
+		final int[] pending = new int[aNodeCount];	// Visited nodes not yet assigned to a block
+		final int[] ownBlock = new int[aNodeCount];
+		final int[] memberships = new int[aNodeCount];
+		Arrays.fill(ownBlock, -1);
+		int[] blockNodes = new int[2 * aNodeCount];
+		int[] blockOffsets = new int[aNodeCount + 1];
+		int blockCount = 0, nodesStored = 0, time = 0;
+
+		for (int root = 0; root < aNodeCount; root++) {
+			if (discovery[root] != 0) {
+				continue;
+			}
+			discovery[root] = low[root] = ++time;
+			parent[root] = -1;
+			next[root] = aOffsets[root];
+			path[0] = root;
+			pending[0] = root;
+			int depth = 1, pendingCount = 1;
+			while (depth > 0) {
+				final int u = path[depth - 1];
+				if (next[u] < aOffsets[u + 1]) {
+					final int w = aNeighbors[next[u]++];
+					if (discovery[w] == 0) {
+						discovery[w] = low[w] = ++time;
+						parent[w] = u;
+						next[w] = aOffsets[w];
+						path[depth++] = w;
+						pending[pendingCount++] = w;
+					} else if (w != parent[u] && discovery[w] < low[u]) {
+						low[u] = discovery[w];
+					}
+					continue;
+				}
+				depth--;
+				final int p = parent[u];
+				if (p < 0) {
+					continue;
+				}
+				if (low[u] < low[p]) {
+					low[p] = low[u];
+				}
+				if (low[u] >= discovery[p]) {
+					// The subtree of u, up to the nodes of blocks completed earlier, forms a block with p
+					blockNodes[nodesStored++] = p;
+					memberships[p]++;
+					int v;
+					do {
+						v = pending[--pendingCount];
+						blockNodes[nodesStored++] = v;
+						ownBlock[v] = blockCount;
+						memberships[v]++;
+					} while (v != u);
+					blockOffsets[++blockCount] = nodesStored;
+				}
+			}
+		}
+
+		final int[] slotBlocks = new int[aOffsets[aNodeCount]];
+		for (int v = 0; v < aNodeCount; v++) {
+			for (int i = aOffsets[v]; i < aOffsets[v + 1]; i++) {
+				// An edge belongs to the block of its end node discovered later
+				final int w = aNeighbors[i];
+				slotBlocks[i] = ownBlock[discovery[v] > discovery[w] ? v : w];
+			}
+		}
+		final boolean[] articulation = new boolean[aNodeCount];
+		for (int v = 0; v < aNodeCount; v++) {
+			articulation[v] = memberships[v] > 1;
+		}
+		return new BlockDecomposition(aNodeCount, blockCount, Arrays.copyOf(blockOffsets, blockCount + 1),
+				Arrays.copyOf(blockNodes, nodesStored), slotBlocks, articulation);
+	}
+
+	/**
+	 * Gets the number of nodes in the graph.
+	 *
+	 * @return Number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Gets the number of blocks.
+	 *
+	 * @return Number of biconnected components; isolated nodes belong to no block.
+	 */
+	public int getBlockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Gets the offsets of the node lists of the blocks.
+	 *
+	 * @return Array of length <code>getBlockCount() + 1</code>; the nodes of block <code>b</code> are
+	 *         stored at positions <code>[offsets[b], offsets[b + 1])</code> of
+	 *         {@link #getBlockNodes()}.
+	 */
+	public int[] getBlockOffsets() {
+		return blockOffsets;
+	}
+
+	/**
+	 * Gets the node lists of all blocks.
+	 *
+	 * @return Array of node indices; the head of every block is the first node in its list.
+	 */
+	public int[] getBlockNodes() {
+		return blockNodes;
+	}
+
+	/**
+	 * Gets the number of nodes in the given block.
+	 *
+	 * @param aBlock Index of the block.
+	 * @return Size of the block; <code>2</code> if the block is a bridge.
+	 */
+	public int getSize(int aBlock) {
+		return blockOffsets[aBlock + 1] - blockOffsets[aBlock];
+	}
+
+	/**
+	 * Gets the head of the given block.
+	 *
+	 * @param aBlock Index of the block.
+	 * @return Index of the node of the block visited first by the depth-first search.
+	 */
+	public int getHead(int aBlock) {
+		return blockNodes[blockOffsets[aBlock]];
+	}
+
+	/**
+	 * Gets the blocks of the edges in the neighbor lists.
+	 *
+	 * @return Array parallel to the neighbor lists of the graph, storing the block of the edge between a
+	 *         node and its neighbor.
+	 */
+	public int[] getSlotBlocks() {
+		return slotBlocks;
+	}
+
+	/**
+	 * Checks if the given node is an articulation point.
+	 *
+	 * @param aNode Index of the node.
+	 * @return <code>true</code> if removing <code>aNode</code> disconnects its connected component;
+	 *         <code>false</code> otherwise.
+	 */
+	public boolean isArticulationPoint(int aNode) {
+		return articulation[aNode];
+	}
+
+	/**
+	 * Checks if the edge at the given position of the neighbor lists is a bridge.
+	 *
+	 * @param aSlot Position of the neighbor in the neighbor lists.
+	 * @return <code>true</code> if removing the edge between the node and this neighbor disconnects
+	 *         their connected component; <code>false</code> otherwise.
+	 */
+	public boolean isBridge(int aSlot) {
+		return getSize(slotBlocks[aSlot]) == 2;
+	}
+
+	/**
+	 * Initializes a new instance of <code>BlockDecomposition</code>.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aBlockCount Number of blocks.
+	 * @param aBlockOffsets Offsets of the node lists of the blocks.
+	 * @param aBlockNodes Node lists of the blocks, each starting with its head.
+	 * @param aSlotBlocks Blocks of the edges in the neighbor lists.
+	 * @param aArticulation Flags marking the articulation points.
+	 */
+	private BlockDecomposition(int aNodeCount, int aBlockCount, int[] aBlockOffsets, int[] aBlockNodes,
+			int[] aSlotBlocks, boolean[] aArticulation) {
+		nodeCount = aNodeCount;
+		blockCount = aBlockCount;
+		blockOffsets = aBlockOffsets;
+		blockNodes = aBlockNodes;
+		slotBlocks = aSlotBlocks;
+		articulation = aArticulation;
+	}
+
+	/**
+	 * Number of nodes in the graph.
+	 */
+	private final int nodeCount;
+
+	/**
+	 * Number of blocks.
+	 */
+	private final int blockCount;
+
+	/**
+	 * Offsets of the node lists of the blocks in {@link #blockNodes}.
+	 */
+	private final int[] blockOffsets;
+
+	/**
+	 * Node lists of the blocks, each starting with the head of the block.
+	 */
+	private final int[] blockNodes;
+
+	/**
+	 * Block of the edge at every position of the neighbor lists.
+	 */
+	private final int[] slotBlocks;
+
+	/**
+	 * Flags marking the articulation points.
+	 */
+	private final boolean[] articulation;
+}
@@ -0,0 +1,307 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.cytoscape.model.CyNode;
+
+/**
+ * Labeling of the nodes of a graph snapshot by the connected component they belong to.
+ * <p>
+ * The components are found in a single pass over the edges of the snapshot with a lock-free
+ * union-find structure, in which the root of every set is its smallest node. The pass can be split
+ * among several threads. The components are indexed in ascending order of their smallest node, and
+ * the nodes of every component are stored in ascending order in a contiguous range of
+ * {@link #getComponentNodes()}.
+ * </p>
+ */
+public final class ComponentLabeling {
+
+	/**
+	 * Finds the connected components of the given graph by a single thread.
+	 *
+	 * @param aGraph Snapshot of the graph.
+	 * @return Labeling of the nodes of <code>aGraph</code> by connected component.
+	 */
+	public static ComponentLabeling create(GraphSnapshot aGraph) {
+		return create(aGraph, null, 1);
+	}
+
+	/**
+	 * Finds the connected components of the given graph, splitting the edges among the threads of the
+	 * given executor.
+	 * <p>
+	 * Small graphs are processed by the calling thread. If the parallel pass is interrupted or fails,
+	 * the remaining edges are processed by the calling thread.
+	 * </p>
+	 *
+	 * @param aGraph Snapshot of the graph.
+	 * @param aExecutor Executor to run the union tasks; <code>null</code> to use the calling thread
+	 *        only.
+	 * @param aParallelism Maximum number of tasks to split the edges into.
+	 * @return Labeling of the nodes of <code>aGraph</code> by connected component.
+	 */
+	public static ComponentLabeling create(GraphSnapshot aGraph, ExecutorService aExecutor, int aParallelism) {
+		final int nodeCount = aGraph.getNodeCount();
+		final AtomicIntegerArray parent = new AtomicIntegerArray(nodeCount);
+		for (int i = 0; i < nodeCount; i++) {
+			parent.lazySet(i, i);
+		}
+
+		final int edgeCount = aGraph.getEdgeCount();
+		final int taskCount = Math.min(aParallelism, edgeCount / MIN_EDGES_PER_TASK);
+		boolean complete = false;
+		if (aExecutor != null && taskCount > 1) {
+			final List<Future<?>> futures = new ArrayList<Future<?>>(taskCount);
+			for (int t = 0; t < taskCount; t++) {
+				final int first = (int) ((long) edgeCount * t / taskCount);
+				final int last = (int) ((long) edgeCount * (t + 1) / taskCount);
+				futures.add(aExecutor.submit(new Runnable() {
+					public void run() {
+						unionEdges(aGraph, parent, first, last);
+					}
+				}));
+			}
+			try {
+				for (final Future<?> future : futures) {
+					future.get();
+				}
+				complete = true;
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException ex) {
+				// Unions are idempotent, so the edges are simply processed again below
+			}
+		}
+		if (!complete) {
+			unionEdges(aGraph, parent, 0, edgeCount);
+		}
+		return new ComponentLabeling(aGraph, parent);
+	}
+
+	/**
+	 * Gets the number of connected components.
+	 *
+	 * @return Number of connected components in the graph.
+	 */
+	public int getComponentCount() {
+		return componentOffsets.length - 1;
+	}
+
+	/**
+	 * Gets the component label of every node.
+	 *
+	 * @return Array storing the index of the connected component of every node; the array is shared
+	 *         and must not be modified.
+	 */
+	public int[] getLabels() {
+		return labels;
+	}
+
+	/**
+	 * Gets the nodes of all components, grouped by component.
+	 *
+	 * @return Array storing the nodes of component <code>c</code> in the range
+	 *         <code>[getComponentOffsets()[c], getComponentOffsets()[c + 1])</code>; the array is
+	 *         shared and must not be modified.
+	 */
+	public int[] getComponentNodes() {
+		return componentNodes;
+	}
+
+	/**
+	 * Gets the offsets of the components in {@link #getComponentNodes()}.
+	 *
+	 * @return Array of length {@link #getComponentCount()} <code>+ 1</code>; the array is shared and
+	 *         must not be modified.
+	 */
+	public int[] getComponentOffsets() {
+		return componentOffsets;
+	}
+
+	/**
+	 * Gets the number of nodes in a connected component.
+	 *
+	 * @param aComponent Index of the component.
+	 * @return Number of nodes in the component.
+	 */
+	public int getSize(int aComponent) {
+		return componentOffsets[aComponent + 1] - componentOffsets[aComponent];
+	}
+
+	/**
+	 * Gets the indices of the nodes in a connected component.
+	 *
+	 * @param aComponent Index of the component.
+	 * @return Newly created array of the indices of the component's nodes in ascending order.
+	 */
+	public int[] getNodes(int aComponent) {
+		return Arrays.copyOfRange(componentNodes, componentOffsets[aComponent], componentOffsets[aComponent + 1]);
+	}
+
+	/**
+	 * Gets the nodes in a connected component.
+	 *
+	 * @param aComponent Index of the component.
+	 * @return Newly created list of the component's nodes.
+	 */
+	public List<CyNode> getCyNodes(int aComponent) {
+		final List<CyNode> nodes = new ArrayList<CyNode>(getSize(aComponent));
+		for (int i = componentOffsets[aComponent]; i < componentOffsets[aComponent + 1]; i++) {
+			nodes.add(graph.getNode(componentNodes[i]));
+		}
+		return nodes;
+	}
+
+	/**
+	 * Gets the labeled graph.
+	 *
+	 * @return Snapshot of the graph whose nodes are labeled.
+	 */
+	public GraphSnapshot getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Initializes a new instance of <code>ComponentLabeling</code> from the union-find structure.
+	 *
+	 * @param aGraph Snapshot of the graph.
+	 * @param aParent Union-find structure containing the unions of the endpoints of all edges.
+	 */
+	private ComponentLabeling(GraphSnapshot aGraph, AtomicIntegerArray aParent) {
+		graph = aGraph;
+		final int nodeCount = aGraph.getNodeCount();
+		labels = new int[nodeCount];
+
+		// Every root is the smallest node of its set, hence it is labeled before the rest of the set
+		int componentCount = 0;
+		int[] sizes = new int[16];
+		for (int v = 0; v < nodeCount; v++) {
+			final int root = find(aParent, v);
+			if (root == v) {
+				if (componentCount == sizes.length) {
+					sizes = Arrays.copyOf(sizes, componentCount * 2);
+				}
+				labels[v] = componentCount++;
+			} else {
+				labels[v] = labels[root];
+			}
+			sizes[labels[v]]++;
+		}
+
+		componentOffsets = new int[componentCount + 1];
+		for (int c = 0; c < componentCount; c++) {
+			componentOffsets[c + 1] = componentOffsets[c] + sizes[c];
+		}
+		componentNodes = new int[nodeCount];
+		final int[] next = Arrays.copyOf(componentOffsets, componentCount);
+		for (int v = 0; v < nodeCount; v++) {
+			componentNodes[next[labels[v]]++] = v;
+		}
+	}
+
+	/**
+	 * Unites the endpoints of the edges in the given range.
+	 *
+	 * @param aGraph Snapshot of the graph.
+	 * @param aParent Union-find structure.
+	 * @param aFirst Index of the first edge to process.
+	 * @param aLast Index after the last edge to process.
+	 */
+	private static void unionEdges(GraphSnapshot aGraph, AtomicIntegerArray aParent, int aFirst, int aLast) {
+		for (int e = aFirst; e < aLast; e++) {
+			int u = find(aParent, aGraph.getSource(e));
+			int v = find(aParent, aGraph.getTarget(e));
+			while (u != v) {
+				// Link the larger root below the smaller one; retry if another thread linked it first
+				if (u < v) {
+					final int t = u;
+					u = v;
+					v = t;
+				}
+				if (aParent.compareAndSet(u, u, v)) {
+					break;
+				}
+				u = find(aParent, u);
+				v = find(aParent, v);
+			}
+		}
+	}
+
+	/**
+	 * Finds the root of the set containing the given node, halving the path to it.
+	 *
+	 * @param aParent Union-find structure.
+	 * @param aNode Index of the node.
+	 * @return Root of the set containing <code>aNode</code>.
+	 */
+	private static int find(AtomicIntegerArray aParent, int aNode) {
+		int node = aNode;
+		int parent = aParent.get(node);
+		while (parent != node) {
+			final int grandParent = aParent.get(parent);
+			if (grandParent != parent) {
+				aParent.compareAndSet(node, parent, grandParent);
+			}
+			node = grandParent;
+			parent = aParent.get(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Minimum number of edges processed by a parallel union task.
+	 */
+	private static final int MIN_EDGES_PER_TASK = 1 << 16;
+
+	/**
+	 * Labeled graph.
+	 */
+	private final GraphSnapshot graph;
+
+	/**
+	 * Index of the connected component of every node.
+	 */
+	private final int[] labels;
+
+	/**
+	 * Nodes grouped by connected component.
+	 */
+	private final int[] componentNodes;
+
+	/**
+	 * Offsets of the components in {@link #componentNodes}.
+	 */
+	private final int[] componentOffsets;
+}
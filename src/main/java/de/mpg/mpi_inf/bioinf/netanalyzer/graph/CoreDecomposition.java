@@ -0,0 +1,186 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+
+/**
+ * Core decomposition of an undirected graph with simple neighbor lists.
+ * <p>
+ * The <i>k</i>-core of a graph is its largest subgraph in which every node has at least <i>k</i>
+ * neighbors; the coreness of a node is the largest <i>k</i> such that the node belongs to the
+ * <i>k</i>-core, and the degeneracy of the graph is the largest coreness of a node. The decomposition
+ * follows Batagelj and Zaversnik: the nodes are kept in an array sorted by their current degree, with
+ * the start of every degree bin recorded, and a node of least degree is removed repeatedly. Decreasing
+ * the degree of a neighbor moves it to the start of its bin by a single swap, so the decomposition
+ * takes time linear in the number of nodes and edges.
+ * </p>
+ * <p>
+ * The order, in which the nodes are removed, is a <i>degeneracy ordering</i>: every node has at most
+ * as many neighbors later in the order as its coreness. Orienting the edges along this order bounds the
+ * forward lists of the triangle kernels by the degeneracy of the graph.
+ * </p>
+ */
+public final class CoreDecomposition {
+
+	/**
+	 * Decomposes the given graph into its cores.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; every list must be free of duplicates
+	 *        and of the node itself.
+	 * @return Core decomposition of the graph.
+	 */
+	public static CoreDecomposition create(int aNodeCount, int[] aOffsets, int[] aNeighbors) {
+		final int[] coreness = new int[aNodeCount];
+		int maxDegree = 0;
+		for (int v = 0; v < aNodeCount; v++) {
+			coreness[v] = aOffsets[v + 1] - aOffsets[v];
+			maxDegree = Math.max(maxDegree, coreness[v]);
+		}
+
+		// Sort the nodes by degree; binStart[d] is the position of the first node of degree d
+		final int[] binStart = new int[maxDegree + 1];
+		for (int v = 0; v < aNodeCount; v++) {
+			binStart[coreness[v]]++;
+		}
+		int start = 0;
+		for (int d = 0; d <= maxDegree; d++) {
+			final int size = binStart[d];
+			binStart[d] = start;
+			start += size;
+		}
+		final int[] order = new int[aNodeCount];
+		final int[] ranks = new int[aNodeCount];
+		for (int v = 0; v < aNodeCount; v++) {
+			ranks[v] = binStart[coreness[v]]++;
+			order[ranks[v]] = v;
+		}
+		for (int d = maxDegree; d > 0; d--) {
+			binStart[d] = binStart[d - 1];
+		}
+		binStart[0] = 0;
+
+		// Remove the nodes in order; a neighbor of higher degree moves to the end of the bin below
+		int degeneracy = 0;
+		for (int i = 0; i < aNodeCount; i++) {
+			final int v = order[i];
+			final int degree = coreness[v];
+			degeneracy = Math.max(degeneracy, degree);
+			for (int ei = aOffsets[v]; ei < aOffsets[v + 1]; ei++) {
+				final int u = aNeighbors[ei];
+				final int du = coreness[u];
+				if (du > degree) {
+					final int pu = ranks[u], pw = binStart[du], w = order[pw];
+					if (u != w) {
+						order[pu] = w;
+						ranks[w] = pu;
+						order[pw] = u;
+						ranks[u] = pw;
+					}
+					binStart[du]++;
+					coreness[u] = du - 1;
+				}
+			}
+		}
+		return new CoreDecomposition(coreness, order, ranks, degeneracy);
+	}
+
+	/**
+	 * Gets the coreness of the given node.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Largest <code>k</code> such that <code>aNode</code> belongs to the <code>k</code>-core.
+	 */
+	public int getCoreness(int aNode) {
+		return coreness[aNode];
+	}
+
+	/**
+	 * Gets the degeneracy of the graph.
+	 *
+	 * @return Largest coreness of a node in the graph; <code>0</code> if the graph has no edges.
+	 */
+	public int getDegeneracy() {
+		return degeneracy;
+	}
+
+	/**
+	 * Gets the nodes in degeneracy order.
+	 *
+	 * @return Indices of the nodes in the order of their removal; every node has at most as many
+	 *         neighbors after it as its coreness. The returned array must not be modified.
+	 */
+	public int[] getOrder() {
+		return order;
+	}
+
+	/**
+	 * Gets the positions of the nodes in the degeneracy order.
+	 *
+	 * @return Array storing, for every node, its position in {@link #getOrder()}. The returned array
+	 *         must not be modified.
+	 */
+	public int[] getRanks() {
+		return ranks;
+	}
+
+	/**
+	 * Initializes a new instance of <code>CoreDecomposition</code>.
+	 *
+	 * @param aCoreness Coreness of every node.
+	 * @param aOrder Nodes in degeneracy order.
+	 * @param aRanks Position of every node in <code>aOrder</code>.
+	 * @param aDegeneracy Largest coreness of a node.
+	 */
+	private CoreDecomposition(int[] aCoreness, int[] aOrder, int[] aRanks, int aDegeneracy) {
+		coreness = aCoreness;
+		order = aOrder;
+		ranks = aRanks;
+		degeneracy = aDegeneracy;
+	}
+
+	/**
+	 * Coreness of every node.
+	 */
+	private final int[] coreness;
+
+	/**
+	 * Nodes in the order of their removal.
+	 */
+	private final int[] order;
+
+	/**
+	 * Position of every node in {@link #order}.
+	 */
+	private final int[] ranks;
+
+	/**
+	 * Degeneracy of the graph.
+	 */
+	private final int degeneracy;
+}
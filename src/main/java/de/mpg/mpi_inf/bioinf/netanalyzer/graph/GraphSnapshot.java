@@ -0,0 +1,905 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.cytoscape.model.CyEdge;
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+
+/**
+ * Immutable, array-based snapshot of the topology of a network.
+ * <p>
+ * Nodes are identified by consecutive integer indices in the range <code>[0, getNodeCount())</code>, and
+ * edges by indices in the range <code>[0, getEdgeCount())</code>. The snapshot keeps all edges (including
+ * multiple edges and self-loops) and offers the following simple views in compressed sparse row (CSR)
+ * form, in which every neighbor of a node is listed once, the node itself is never listed as its own
+ * neighbor and the neighbor lists are sorted in ascending order:
+ * </p>
+ * <ul>
+ * <li>the undirected view - all neighbors of a node, regardless of edge direction; every connected
+ * (unordered) node pair has an ID in the range <code>[0, getPairCount())</code>;</li>
+ * <li>the out-view - all targets of directed edges leaving a node plus all undirected neighbors; the
+ * position of a neighbor in {@link #getOutNeighbors()} serves as ID of the corresponding (ordered)
+ * arc;</li>
+ * <li>the in-view - all sources of directed edges entering a node plus all undirected neighbors, together
+ * with the IDs of the corresponding arcs.</li>
+ * </ul>
+ * <p>
+ * The arrays returned by the getters of this class are shared and must not be modified. Undirected
+ * self-loops can be masked by the view returned by {@link #withoutUndirectedLoops()}.
+ * </p>
+ */
+public final class GraphSnapshot {
+
+	/**
+	 * Creates a snapshot of the given network.
+	 * <p>
+	 * The node indices follow the order of {@link CyNetwork#getNodeList()}, the edge indices follow
+	 * the order of {@link CyNetwork#getEdgeList()}. The edges are visited in a single pass.
+	 * </p>
+	 *
+	 * @param aNetwork Network to create a snapshot of.
+	 * @return Snapshot of the current topology of <code>aNetwork</code>.
+	 */
+	public static GraphSnapshot create(CyNetwork aNetwork) {
+		final List<CyNode> nodeList = aNetwork.getNodeList();
+		final CyNode[] nodes = nodeList.toArray(new CyNode[nodeList.size()]);
+		final LongIntHashMap nodeIndex = new LongIntHashMap(nodes.length);
+		for (int i = 0; i < nodes.length; i++) {
+			nodeIndex.put(nodes[i].getSUID().longValue(), i);
+		}
+
+		final List<CyEdge> edgeList = aNetwork.getEdgeList();
+		final int edgeCount = edgeList.size();
+		final CyEdge[] edges = new CyEdge[edgeCount];
+		final int[] sources = new int[edgeCount];
+		final int[] targets = new int[edgeCount];
+		final boolean[] directed = new boolean[edgeCount];
+		int e = 0;
+		for (final CyEdge edge : edgeList) {
+			edges[e] = edge;
+			sources[e] = nodeIndex.get(edge.getSource().getSUID().longValue());
+			targets[e] = nodeIndex.get(edge.getTarget().getSUID().longValue());
+			directed[e++] = edge.isDirected();
+		}
+		return new GraphSnapshot(nodes, nodeIndex, edges, sources, targets, directed);
+	}
+
+	/**
+	 * Initializes a new instance of <code>GraphSnapshot</code> and builds all its views.
+	 *
+	 * @param aNodes Nodes of the graph.
+	 * @param aNodeIndex Map from node SUIDs to indices in <code>aNodes</code>.
+	 * @param aEdges Edges of the graph.
+	 * @param aSources Source node index of every edge.
+	 * @param aTargets Target node index of every edge.
+	 * @param aDirected Directedness flag of every edge.
+	 */
+	private GraphSnapshot(CyNode[] aNodes, LongIntHashMap aNodeIndex, CyEdge[] aEdges, int[] aSources,
+			int[] aTargets, boolean[] aDirected) {
+		nodes = aNodes;
+		nodeIndex = aNodeIndex;
+		edges = aEdges;
+		sources = aSources;
+		targets = aTargets;
+		directed = aDirected;
+
+		final int nodeCount = aNodes.length;
+		final int edgeCount = aEdges.length;
+		inDirected = new int[nodeCount];
+		outDirected = new int[nodeCount];
+		undirected = new int[nodeCount];
+		directedLoops = new int[nodeCount];
+		undirectedLoops = new int[nodeCount];
+
+		// Count incident edges and neighbor list entries (including repeated neighbors)
+		incidentOffsets = new int[nodeCount + 1];
+		neighborOffsets = new int[nodeCount + 1];
+		outOffsets = new int[nodeCount + 1];
+		inOffsets = new int[nodeCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			final int s = aSources[e];
+			final int t = aTargets[e];
+			incidentOffsets[s]++;
+			if (aDirected[e]) {
+				outDirected[s]++;
+				inDirected[t]++;
+			} else {
+				undirected[s]++;
+			}
+			if (s == t) {
+				if (aDirected[e]) {
+					directedLoops[s]++;
+				} else {
+					undirectedLoops[s]++;
+				}
+				continue;
+			}
+			incidentOffsets[t]++;
+			neighborOffsets[s]++;
+			neighborOffsets[t]++;
+			outOffsets[s]++;
+			inOffsets[t]++;
+			if (!aDirected[e]) {
+				undirected[t]++;
+				outOffsets[t]++;
+				inOffsets[s]++;
+			}
+		}
+		toOffsets(incidentOffsets);
+		toOffsets(neighborOffsets);
+		toOffsets(outOffsets);
+		toOffsets(inOffsets);
+
+		// Fill the raw neighbor lists
+		incidentEdges = new int[incidentOffsets[nodeCount]];
+		int[] all = new int[neighborOffsets[nodeCount]];
+		int[] out = new int[outOffsets[nodeCount]];
+		int[] in = new int[inOffsets[nodeCount]];
+		final int[] incidentPos = Arrays.copyOf(incidentOffsets, nodeCount);
+		final int[] allPos = Arrays.copyOf(neighborOffsets, nodeCount);
+		final int[] outPos = Arrays.copyOf(outOffsets, nodeCount);
+		final int[] inPos = Arrays.copyOf(inOffsets, nodeCount);
+		for (int e = 0; e < edgeCount; e++) {
+			final int s = aSources[e];
+			final int t = aTargets[e];
+			incidentEdges[incidentPos[s]++] = e;
+			if (s == t) {
+				continue;
+			}
+			incidentEdges[incidentPos[t]++] = e;
+			all[allPos[s]++] = t;
+			all[allPos[t]++] = s;
+			out[outPos[s]++] = t;
+			in[inPos[t]++] = s;
+			if (!aDirected[e]) {
+				out[outPos[t]++] = s;
+				in[inPos[s]++] = t;
+			}
+		}
+
+		// Collapse the raw lists into the simple views, recording multiplicities
+		multiPartners = new int[nodeCount];
+		inMultiPartners = new int[nodeCount];
+		int[] multiplicities = new int[all.length];
+		neighbors = collapse(all, neighborOffsets, multiplicities, multiPartners);
+		pairMultiplicities = Arrays.copyOf(multiplicities, neighbors.length);
+		outNeighbors = collapse(out, outOffsets, null, null);
+		inNeighbors = collapse(in, inOffsets, multiplicities, inMultiPartners);
+		all = out = in = multiplicities = null;
+
+		// Assign IDs to the connected node pairs
+		pairIDs = new int[neighbors.length];
+		pairIndex = new LongIntHashMap(neighbors.length / 2);
+		int pairCount = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			for (int i = neighborOffsets[v]; i < neighborOffsets[v + 1]; i++) {
+				final int u = neighbors[i];
+				final long key = LongIntHashMap.pairKey(v, u);
+				if (v < u) {
+					pairIndex.put(key, pairCount);
+					pairIDs[i] = pairCount++;
+				} else {
+					pairIDs[i] = pairIndex.get(key);
+				}
+			}
+		}
+		this.pairCount = pairCount;
+
+		// Resolve the IDs of the arcs in the in-view
+		inArcIDs = new int[inNeighbors.length];
+		for (int v = 0; v < nodeCount; v++) {
+			for (int i = inOffsets[v]; i < inOffsets[v + 1]; i++) {
+				inArcIDs[i] = findArc(inNeighbors[i], v);
+			}
+		}
+	}
+
+	/**
+	 * Initializes a new instance of <code>GraphSnapshot</code> as a view of the given snapshot without
+	 * undirected self-loops.
+	 * <p>
+	 * Self-loops are never listed as neighbors, hence the view shares the node indices and all
+	 * neighbor lists with <code>aBase</code>. Only the edges are renumbered, keeping their order, and
+	 * the incidence lists are rebuilt.
+	 * </p>
+	 *
+	 * @param aBase Snapshot to create a view of.
+	 */
+	private GraphSnapshot(GraphSnapshot aBase) {
+		nodes = aBase.nodes;
+		nodeIndex = aBase.nodeIndex;
+		neighborOffsets = aBase.neighborOffsets;
+		neighbors = aBase.neighbors;
+		pairIDs = aBase.pairIDs;
+		pairMultiplicities = aBase.pairMultiplicities;
+		pairIndex = aBase.pairIndex;
+		pairCount = aBase.pairCount;
+		outOffsets = aBase.outOffsets;
+		outNeighbors = aBase.outNeighbors;
+		inOffsets = aBase.inOffsets;
+		inNeighbors = aBase.inNeighbors;
+		inArcIDs = aBase.inArcIDs;
+		inDirected = aBase.inDirected;
+		outDirected = aBase.outDirected;
+		directedLoops = aBase.directedLoops;
+		multiPartners = aBase.multiPartners;
+		inMultiPartners = aBase.inMultiPartners;
+		loopFree = this;
+
+		final int nodeCount = nodes.length;
+		undirected = new int[nodeCount];
+		undirectedLoops = new int[nodeCount];
+		int edgeCount = aBase.edges.length;
+		for (int v = 0; v < nodeCount; v++) {
+			undirected[v] = aBase.undirected[v] - aBase.undirectedLoops[v];
+			edgeCount -= aBase.undirectedLoops[v];
+		}
+
+		// Keep all edges but the undirected self-loops and list them at their end nodes
+		edges = new CyEdge[edgeCount];
+		sources = new int[edgeCount];
+		targets = new int[edgeCount];
+		directed = new boolean[edgeCount];
+		incidentOffsets = new int[nodeCount + 1];
+		int e = 0;
+		for (int i = 0; i < aBase.edges.length; i++) {
+			final int s = aBase.sources[i];
+			final int t = aBase.targets[i];
+			if (s == t && !aBase.directed[i]) {
+				continue;
+			}
+			edges[e] = aBase.edges[i];
+			sources[e] = s;
+			targets[e] = t;
+			directed[e++] = aBase.directed[i];
+			incidentOffsets[s]++;
+			if (s != t) {
+				incidentOffsets[t]++;
+			}
+		}
+		toOffsets(incidentOffsets);
+		incidentEdges = new int[incidentOffsets[nodeCount]];
+		final int[] incidentPos = Arrays.copyOf(incidentOffsets, nodeCount);
+		for (e = 0; e < edgeCount; e++) {
+			incidentEdges[incidentPos[sources[e]]++] = e;
+			if (sources[e] != targets[e]) {
+				incidentEdges[incidentPos[targets[e]]++] = e;
+			}
+		}
+	}
+
+	/**
+	 * Gets the view of this snapshot without undirected self-loops.
+	 * <p>
+	 * The view shares the nodes and the neighbor lists with this snapshot and is created on the first
+	 * call only.
+	 * </p>
+	 *
+	 * @return Snapshot of the graph without its undirected self-loops; <code>this</code> if the graph
+	 *         has none.
+	 */
+	public synchronized GraphSnapshot withoutUndirectedLoops() {
+		if (loopFree == null) {
+			boolean hasLoops = false;
+			for (int v = 0; !hasLoops && v < undirectedLoops.length; v++) {
+				hasLoops = undirectedLoops[v] != 0;
+			}
+			loopFree = hasLoops ? new GraphSnapshot(this) : this;
+		}
+		return loopFree;
+	}
+
+	/**
+	 * Creates a snapshot of the subgraph induced by the given nodes.
+	 * <p>
+	 * The nodes of the subgraph are indexed in the order given, and its edges follow the order of the
+	 * edges in this snapshot. If <code>aNodes</code> contains all nodes of this snapshot in their
+	 * original order, this method returns <code>this</code>.
+	 * </p>
+	 *
+	 * @param aNodes Indices of the nodes that induce the subgraph; must not contain duplicates.
+	 * @return Snapshot of the induced subgraph.
+	 */
+	public GraphSnapshot subgraph(int[] aNodes) {
+		final int nodeCount = aNodes.length;
+		boolean identity = nodeCount == nodes.length;
+		for (int i = 0; identity && i < nodeCount; i++) {
+			identity = aNodes[i] == i;
+		}
+		if (identity) {
+			return this;
+		}
+
+		final CyNode[] subNodes = new CyNode[nodeCount];
+		final LongIntHashMap local = new LongIntHashMap(nodeCount);
+		final LongIntHashMap subNodeIndex = new LongIntHashMap(nodeCount);
+		int subEdgeCount = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			final int v = aNodes[i];
+			subNodes[i] = nodes[v];
+			local.put(v, i);
+			subNodeIndex.put(nodes[v].getSUID().longValue(), i);
+			subEdgeCount += incidentOffsets[v + 1] - incidentOffsets[v];
+		}
+
+		// Collect every edge of the subgraph once - at its source node
+		int[] subEdgeIDs = new int[subEdgeCount];
+		subEdgeCount = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			final int v = aNodes[i];
+			for (int j = incidentOffsets[v]; j < incidentOffsets[v + 1]; j++) {
+				final int e = incidentEdges[j];
+				if (sources[e] == v && local.get(targets[e]) >= 0) {
+					subEdgeIDs[subEdgeCount++] = e;
+				}
+			}
+		}
+		Arrays.sort(subEdgeIDs, 0, subEdgeCount);
+
+		final CyEdge[] subEdges = new CyEdge[subEdgeCount];
+		final int[] subSources = new int[subEdgeCount];
+		final int[] subTargets = new int[subEdgeCount];
+		final boolean[] subDirected = new boolean[subEdgeCount];
+		for (int i = 0; i < subEdgeCount; i++) {
+			final int e = subEdgeIDs[i];
+			subEdges[i] = edges[e];
+			subSources[i] = local.get(sources[e]);
+			subTargets[i] = local.get(targets[e]);
+			subDirected[i] = directed[e];
+		}
+		return new GraphSnapshot(subNodes, subNodeIndex, subEdges, subSources, subTargets, subDirected);
+	}
+
+	/**
+	 * Gets the indices of the given nodes.
+	 *
+	 * @param aNodes Nodes to look up.
+	 * @return Indices of those nodes in <code>aNodes</code> that belong to this snapshot, in ascending
+	 *         order.
+	 */
+	public int[] indicesOf(Collection<CyNode> aNodes) {
+		final int[] result = new int[aNodes.size()];
+		int count = 0;
+		for (final CyNode node : aNodes) {
+			final int index = indexOf(node);
+			if (index >= 0) {
+				result[count++] = index;
+			}
+		}
+		Arrays.sort(result, 0, count);
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Gets the index of the given node.
+	 *
+	 * @param aNode Node to look up.
+	 * @return Index of <code>aNode</code> in this snapshot; <code>-1</code> if the node is not part of
+	 *         it.
+	 */
+	public int indexOf(CyNode aNode) {
+		return nodeIndex.get(aNode.getSUID().longValue());
+	}
+
+	/**
+	 * Gets the number of nodes in the graph.
+	 *
+	 * @return Number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Gets the number of edges in the graph, including multiple edges and self-loops.
+	 *
+	 * @return Number of edges.
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Gets the node with the given index.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Node with index <code>aNode</code>.
+	 */
+	public CyNode getNode(int aNode) {
+		return nodes[aNode];
+	}
+
+	/**
+	 * Gets the edge with the given index.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return Edge with index <code>aEdge</code>.
+	 */
+	public CyEdge getEdge(int aEdge) {
+		return edges[aEdge];
+	}
+
+	/**
+	 * Gets the index of the source node of the given edge.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return Index of the source node of edge <code>aEdge</code>.
+	 */
+	public int getSource(int aEdge) {
+		return sources[aEdge];
+	}
+
+	/**
+	 * Gets the index of the target node of the given edge.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return Index of the target node of edge <code>aEdge</code>.
+	 */
+	public int getTarget(int aEdge) {
+		return targets[aEdge];
+	}
+
+	/**
+	 * Checks if the given edge is directed.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return <code>true</code> if edge <code>aEdge</code> is directed; <code>false</code> otherwise.
+	 */
+	public boolean isDirected(int aEdge) {
+		return directed[aEdge];
+	}
+
+	/**
+	 * Gets the ID of the node pair connected by the given edge.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return ID of the unordered node pair connected by <code>aEdge</code>; <code>-1</code> if the
+	 *         edge is a self-loop.
+	 */
+	public int getPairID(int aEdge) {
+		final int s = sources[aEdge];
+		final int t = targets[aEdge];
+		return s == t ? -1 : pairIndex.get(LongIntHashMap.pairKey(s, t));
+	}
+
+	/**
+	 * Gets the ID of the arc from the source to the target of the given edge.
+	 *
+	 * @param aEdge Index of the edge.
+	 * @return ID of the arc from the source to the target of <code>aEdge</code>; <code>-1</code> if
+	 *         the edge is a self-loop.
+	 */
+	public int getArcID(int aEdge) {
+		final int s = sources[aEdge];
+		final int t = targets[aEdge];
+		return s == t ? -1 : findArc(s, t);
+	}
+
+	/**
+	 * Gets the offsets of the incidence lists.
+	 *
+	 * @return Array of length <code>getNodeCount() + 1</code>; the edges incident on node
+	 *         <code>v</code> are stored at positions <code>[offsets[v], offsets[v + 1])</code> of
+	 *         {@link #getIncidentEdges()}.
+	 */
+	public int[] getIncidentOffsets() {
+		return incidentOffsets;
+	}
+
+	/**
+	 * Gets the incidence lists of all nodes.
+	 * <p>
+	 * Every edge is listed at both its end nodes; a self-loop is listed once.
+	 * </p>
+	 *
+	 * @return Array of edge indices.
+	 */
+	public int[] getIncidentEdges() {
+		return incidentEdges;
+	}
+
+	/**
+	 * Gets the offsets of the neighbor lists in the undirected view.
+	 *
+	 * @return Array of length <code>getNodeCount() + 1</code>.
+	 */
+	public int[] getNeighborOffsets() {
+		return neighborOffsets;
+	}
+
+	/**
+	 * Gets the neighbor lists in the undirected view.
+	 *
+	 * @return Array of node indices.
+	 */
+	public int[] getNeighbors() {
+		return neighbors;
+	}
+
+	/**
+	 * Gets the IDs of the node pairs in the undirected view.
+	 *
+	 * @return Array parallel to {@link #getNeighbors()}, storing the ID of the pair of a node and its
+	 *         neighbor.
+	 */
+	public int[] getPairIDs() {
+		return pairIDs;
+	}
+
+	/**
+	 * Gets the number of edges connecting every node with its neighbors in the undirected view.
+	 *
+	 * @return Array parallel to {@link #getNeighbors()}.
+	 */
+	public int[] getPairMultiplicities() {
+		return pairMultiplicities;
+	}
+
+	/**
+	 * Gets the number of connected node pairs.
+	 *
+	 * @return Number of pairs of distinct nodes connected by at least one edge.
+	 */
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 * Gets the offsets of the neighbor lists in the out-view.
+	 *
+	 * @return Array of length <code>getNodeCount() + 1</code>.
+	 */
+	public int[] getOutOffsets() {
+		return outOffsets;
+	}
+
+	/**
+	 * Gets the neighbor lists in the out-view.
+	 *
+	 * @return Array of node indices; the position of a neighbor in this array is the ID of the arc
+	 *         leading to it.
+	 */
+	public int[] getOutNeighbors() {
+		return outNeighbors;
+	}
+
+	/**
+	 * Gets the number of arcs, i.e. the number of entries in the out-view.
+	 *
+	 * @return Number of ordered pairs of distinct nodes <code>(u, v)</code>, such that <code>v</code>
+	 *         can be reached from <code>u</code> by traversing a single edge.
+	 */
+	public int getArcCount() {
+		return outNeighbors.length;
+	}
+
+	/**
+	 * Gets the offsets of the neighbor lists in the in-view.
+	 *
+	 * @return Array of length <code>getNodeCount() + 1</code>.
+	 */
+	public int[] getInOffsets() {
+		return inOffsets;
+	}
+
+	/**
+	 * Gets the neighbor lists in the in-view.
+	 *
+	 * @return Array of node indices.
+	 */
+	public int[] getInNeighbors() {
+		return inNeighbors;
+	}
+
+	/**
+	 * Gets the IDs of the arcs in the in-view.
+	 *
+	 * @return Array parallel to {@link #getInNeighbors()}, storing the ID of the arc from the
+	 *         neighbor to the node.
+	 */
+	public int[] getInArcIDs() {
+		return inArcIDs;
+	}
+
+	/**
+	 * Gets the number of directed edges entering the given node, including directed self-loops.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of directed edges whose target is <code>aNode</code>.
+	 */
+	public int getInDirectedCount(int aNode) {
+		return inDirected[aNode];
+	}
+
+	/**
+	 * Gets the number of directed edges leaving the given node, including directed self-loops.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of directed edges whose source is <code>aNode</code>.
+	 */
+	public int getOutDirectedCount(int aNode) {
+		return outDirected[aNode];
+	}
+
+	/**
+	 * Gets the number of undirected edges incident on the given node.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of undirected edges incident on <code>aNode</code>, where an undirected self-loop
+	 *         is counted once.
+	 */
+	public int getUndirectedCount(int aNode) {
+		return undirected[aNode];
+	}
+
+	/**
+	 * Gets the number of directed self-loops on the given node.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of directed edges connecting <code>aNode</code> with itself.
+	 */
+	public int getDirectedLoopCount(int aNode) {
+		return directedLoops[aNode];
+	}
+
+	/**
+	 * Gets the number of undirected self-loops on the given node.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of undirected edges connecting <code>aNode</code> with itself.
+	 */
+	public int getUndirectedLoopCount(int aNode) {
+		return undirectedLoops[aNode];
+	}
+
+	/**
+	 * Gets the number of neighbors the given node is connected to by more than one edge.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of neighbors of <code>aNode</code> in the undirected view with edge multiplicity
+	 *         greater than 1.
+	 */
+	public int getMultiPartnerCount(int aNode) {
+		return multiPartners[aNode];
+	}
+
+	/**
+	 * Gets the number of neighbors the given node is connected to by more than one undirected or
+	 * incoming directed edge.
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of neighbors of <code>aNode</code> in the in-view with edge multiplicity greater
+	 *         than 1.
+	 */
+	public int getInMultiPartnerCount(int aNode) {
+		return inMultiPartners[aNode];
+	}
+
+	/**
+	 * Finds the ID of the arc between the given nodes.
+	 *
+	 * @param aSource Index of the source node.
+	 * @param aTarget Index of the target node.
+	 * @return ID of the arc from <code>aSource</code> to <code>aTarget</code>; a negative value if no
+	 *         such arc exists.
+	 */
+	private int findArc(int aSource, int aTarget) {
+		return Arrays.binarySearch(outNeighbors, outOffsets[aSource], outOffsets[aSource + 1], aTarget);
+	}
+
+	/**
+	 * Converts an array of list sizes, in place, into an array of list offsets.
+	 *
+	 * @param aSizes Array of length <code>n + 1</code> whose first <code>n</code> elements store list
+	 *        sizes.
+	 */
+	private static void toOffsets(int[] aSizes) {
+		int offset = 0;
+		for (int i = 0; i < aSizes.length; i++) {
+			final int size = aSizes[i];
+			aSizes[i] = offset;
+			offset += size;
+		}
+	}
+
+	/**
+	 * Sorts the given neighbor lists and removes the repeated entries from them.
+	 *
+	 * @param aLists Neighbor lists of all nodes; the array is modified by this method.
+	 * @param aOffsets Offsets of the lists in <code>aLists</code>; updated to point to the collapsed
+	 *        lists.
+	 * @param aMultiplicities Optional array to store the number of repetitions of every remaining
+	 *        entry in; <code>null</code> if these are not needed.
+	 * @param aMultiCounts Optional array to store the number of entries with multiplicity greater than
+	 *        1 for every node in; must be given if <code>aMultiplicities</code> is.
+	 * @return Array of the collapsed neighbor lists.
+	 */
+	private static int[] collapse(int[] aLists, int[] aOffsets, int[] aMultiplicities, int[] aMultiCounts) {
+		final int nodeCount = aOffsets.length - 1;
+		int w = 0;
+		for (int v = 0; v < nodeCount; v++) {
+			final int first = aOffsets[v];
+			final int last = aOffsets[v + 1];
+			aOffsets[v] = w;
+			Arrays.sort(aLists, first, last);
+			for (int i = first; i < last; i++) {
+				if (i > first && aLists[i] == aLists[i - 1]) {
+					if (aMultiplicities != null && aMultiplicities[w - 1]++ == 1) {
+						aMultiCounts[v]++;
+					}
+					continue;
+				}
+				if (aMultiplicities != null) {
+					aMultiplicities[w] = 1;
+				}
+				aLists[w++] = aLists[i];
+			}
+		}
+		aOffsets[nodeCount] = w;
+		return Arrays.copyOf(aLists, w);
+	}
+
+	/**
+	 * Nodes of the graph.
+	 */
+	private final CyNode[] nodes;
+
+	/**
+	 * Map from node SUIDs to node indices.
+	 */
+	private final LongIntHashMap nodeIndex;
+
+	/**
+	 * Edges of the graph.
+	 */
+	private final CyEdge[] edges;
+
+	/**
+	 * Source node index of every edge.
+	 */
+	private final int[] sources;
+
+	/**
+	 * Target node index of every edge.
+	 */
+	private final int[] targets;
+
+	/**
+	 * Directedness flag of every edge.
+	 */
+	private final boolean[] directed;
+
+	/**
+	 * Offsets of the incidence lists in {@link #incidentEdges}.
+	 */
+	private final int[] incidentOffsets;
+
+	/**
+	 * Incidence lists of all nodes.
+	 */
+	private final int[] incidentEdges;
+
+	/**
+	 * Offsets of the neighbor lists in the undirected view.
+	 */
+	private final int[] neighborOffsets;
+
+	/**
+	 * Neighbor lists in the undirected view.
+	 */
+	private final int[] neighbors;
+
+	/**
+	 * Node pair IDs, parallel to {@link #neighbors}.
+	 */
+	private final int[] pairIDs;
+
+	/**
+	 * Edge multiplicities, parallel to {@link #neighbors}.
+	 */
+	private final int[] pairMultiplicities;
+
+	/**
+	 * Map from node pair keys to node pair IDs.
+	 */
+	private final LongIntHashMap pairIndex;
+
+	/**
+	 * Number of connected node pairs.
+	 */
+	private final int pairCount;
+
+	/**
+	 * Offsets of the neighbor lists in the out-view.
+	 */
+	private final int[] outOffsets;
+
+	/**
+	 * Neighbor lists in the out-view.
+	 */
+	private final int[] outNeighbors;
+
+	/**
+	 * Offsets of the neighbor lists in the in-view.
+	 */
+	private final int[] inOffsets;
+
+	/**
+	 * Neighbor lists in the in-view.
+	 */
+	private final int[] inNeighbors;
+
+	/**
+	 * Arc IDs, parallel to {@link #inNeighbors}.
+	 */
+	private final int[] inArcIDs;
+
+	/**
+	 * Number of incoming directed edges of every node.
+	 */
+	private final int[] inDirected;
+
+	/**
+	 * Number of outgoing directed edges of every node.
+	 */
+	private final int[] outDirected;
+
+	/**
+	 * Number of undirected edges incident on every node.
+	 */
+	private final int[] undirected;
+
+	/**
+	 * Number of directed self-loops of every node.
+	 */
+	private final int[] directedLoops;
+
+	/**
+	 * Number of undirected self-loops of every node.
+	 */
+	private final int[] undirectedLoops;
+
+	/**
+	 * Number of multi-edge partners of every node in the undirected view.
+	 */
+	private final int[] multiPartners;
+
+	/**
+	 * Number of multi-edge partners of every node in the in-view.
+	 */
+	private final int[] inMultiPartners;
+
+	/**
+	 * View of this snapshot without undirected self-loops; <code>null</code> until first requested.
+	 */
+	private GraphSnapshot loopFree;
+}
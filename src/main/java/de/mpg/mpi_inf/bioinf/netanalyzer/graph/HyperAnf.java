@@ -0,0 +1,523 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Estimate of the neighbourhood function of a graph by HyperANF.
+ * <p>
+ * The neighbourhood function <code>N(t)</code> is the number of ordered pairs of nodes
+ * <code>(u, v)</code> such that <code>v</code> can be reached from <code>u</code> in at most
+ * <code>t</code> steps. HyperANF (P. Boldi, M. Rosa and S. Vigna: HyperANF: Approximating the
+ * Neighbourhood Function of Very Large Graphs on a Budget. WWW 2011) keeps a HyperLogLog counter of
+ * the ball of radius <code>t</code> around every node. The ball of radius <code>t + 1</code> is the
+ * union of the node and the balls of radius <code>t</code> around its neighbors, and a union of
+ * HyperLogLog counters is their register-wise maximum, so every iteration is a single pass over the
+ * neighbor lists. The memory is proportional to the number of nodes times the number of registers of
+ * a counter, and every iteration is split among several threads by ranges of nodes with about the
+ * same number of edges.
+ * </p>
+ * <p>
+ * The differences of the neighbourhood function give the distribution of the shortest path lengths,
+ * from which the average shortest path length and the effective diameter follow. The growth of the
+ * ball of every node also gives an estimate of its harmonic closeness centrality.
+ * </p>
+ */
+public final class HyperAnf {
+
+	/**
+	 * Default base-2 logarithm of the number of registers of a counter; the relative standard error
+	 * of a single counter is about <code>1.04 / sqrt(2^6)</code>, or 13%.
+	 */
+	public static final int DEFAULT_LOG2_REGISTERS = 6;
+
+	/**
+	 * Estimates the neighbourhood function of the given graph by a single thread.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; for directed graphs, the lists must
+	 *        contain the out-neighbors of the nodes.
+	 * @return Estimate of the neighbourhood function of the graph.
+	 */
+	public static HyperAnf compute(int aNodeCount, int[] aOffsets, int[] aNeighbors) {
+		return compute(aNodeCount, aOffsets, aNeighbors, DEFAULT_LOG2_REGISTERS, null, 1, null);
+	}
+
+	/**
+	 * Estimates the neighbourhood function of the given graph, splitting the iterations among the
+	 * threads of the given executor.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; for directed graphs, the lists must
+	 *        contain the out-neighbors of the nodes.
+	 * @param aLog2Registers Base-2 logarithm of the number of registers of a counter, in the range
+	 *        <code>[4, 16]</code>. It is decreased if the counters would not fit in an array.
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation, evaluated before every
+	 *        iteration; <code>null</code> if the computation cannot be cancelled.
+	 * @return Estimate of the neighbourhood function of the graph; an estimate of the distances up to
+	 *         the last completed iteration only if the computation was cancelled.
+	 * @throws IllegalArgumentException If <code>aLog2Registers</code> is not in the range
+	 *         <code>[4, 16]</code>.
+	 */
+	public static HyperAnf compute(int aNodeCount, int[] aOffsets, int[] aNeighbors, int aLog2Registers,
+			ExecutorService aExecutor, int aParallelism, BooleanSupplier aCancelled) {
+		if (aLog2Registers < 4 || aLog2Registers > 16) {
+			throw new IllegalArgumentException();
+		}
+		int log2Registers = aLog2Registers;
+		while (log2Registers > 4 && ((long) aNodeCount << (log2Registers - 3)) > Integer.MAX_VALUE - 8) {
+			log2Registers--;
+		}
+		final HyperAnf anf = new HyperAnf(aNodeCount, log2Registers);
+		anf.run(aOffsets, aNeighbors, aExecutor, aParallelism, aCancelled);
+		return anf;
+	}
+
+	/**
+	 * Gets the number of iterations until the counters stopped changing.
+	 *
+	 * @return Largest distance <code>t</code> for which the neighbourhood function is estimated; an
+	 *         estimate of the largest finite distance in the graph.
+	 */
+	public int getIterationCount() {
+		return function.length - 1;
+	}
+
+	/**
+	 * Gets the estimated neighbourhood function.
+	 *
+	 * @return Array storing the estimated number of ordered pairs of nodes, including the pairs of a
+	 *         node with itself, at distance at most <code>t</code>, for every <code>t</code> up to
+	 *         {@link #getIterationCount()}; the array is shared and must not be modified.
+	 */
+	public double[] getNeighbourhoodFunction() {
+		return function;
+	}
+
+	/**
+	 * Gets the estimated distribution of the shortest path lengths.
+	 *
+	 * @return Array storing the estimated number of ordered pairs of distinct nodes at distance
+	 *         <code>t</code>, for every <code>t</code> up to {@link #getIterationCount()}; the entry at
+	 *         index <code>0</code> is <code>0</code>.
+	 */
+	public long[] getPathLengthCounts() {
+		final long[] counts = new long[function.length];
+		for (int t = 1; t < function.length; t++) {
+			counts[t] = Math.round(Math.max(0, function[t] - function[t - 1]));
+		}
+		return counts;
+	}
+
+	/**
+	 * Gets the estimated number of connected pairs of nodes.
+	 *
+	 * @return Estimated number of ordered pairs of distinct nodes <code>(u, v)</code>, such that
+	 *         <code>v</code> can be reached from <code>u</code>.
+	 */
+	public double getConnectedPairs() {
+		return function[function.length - 1] - function[0];
+	}
+
+	/**
+	 * Gets the estimated average shortest path length.
+	 *
+	 * @return Average distance between the connected pairs of distinct nodes; <code>0</code> if there
+	 *         are no such pairs.
+	 */
+	public double getAverageLength() {
+		double total = 0;
+		for (int t = 1; t < function.length; t++) {
+			total += t * (function[t] - function[t - 1]);
+		}
+		final double pairs = getConnectedPairs();
+		return pairs > 0 ? total / pairs : 0;
+	}
+
+	/**
+	 * Gets the estimated effective diameter.
+	 * <p>
+	 * The effective diameter is the smallest distance within which the given fraction of the connected
+	 * pairs of distinct nodes lie, linearly interpolated between consecutive distances.
+	 * </p>
+	 *
+	 * @param aFraction Fraction of the connected pairs, in the range <code>(0, 1]</code>; usually
+	 *        <code>0.9</code>.
+	 * @return Effective diameter of the graph; <code>0</code> if there are no connected pairs.
+	 */
+	public double getEffectiveDiameter(double aFraction) {
+		final double target = aFraction * getConnectedPairs();
+		if (!(target > 0)) {
+			return 0;
+		}
+		for (int t = 1; t < function.length; t++) {
+			final double reached = function[t] - function[0];
+			if (reached >= target) {
+				final double previous = function[t - 1] - function[0];
+				return t - 1 + (target - previous) / (reached - previous);
+			}
+		}
+		return getIterationCount();
+	}
+
+	/**
+	 * Gets the estimated harmonic closeness centrality of the nodes.
+	 *
+	 * @return Array storing, for every node <code>u</code>, the estimated sum of
+	 *         <code>1 / d(u, v)</code> over all nodes <code>v</code> reachable from <code>u</code>; the
+	 *         array is shared and must not be modified.
+	 */
+	public double[] getHarmonicCloseness() {
+		return harmonic;
+	}
+
+	/**
+	 * Initializes a new instance of <code>HyperAnf</code> with every counter containing its own node.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aLog2Registers Base-2 logarithm of the number of registers of a counter.
+	 */
+	private HyperAnf(int aNodeCount, int aLog2Registers) {
+		log2Registers = aLog2Registers;
+		registerCount = 1 << aLog2Registers;
+		wordShift = aLog2Registers - 3;
+		wordCount = 1 << wordShift;
+		current = new long[aNodeCount << wordShift];
+		next = new long[current.length];
+		size = new double[aNodeCount];
+		harmonic = new double[aNodeCount];
+		inversePowers = new double[Long.SIZE + 2];
+		for (int r = 0; r < inversePowers.length; r++) {
+			inversePowers[r] = Math.scalb(1.0, -r);
+		}
+		final double m = registerCount;
+		if (registerCount == 16) {
+			alphaMM = 0.673 * m * m;
+		} else if (registerCount == 32) {
+			alphaMM = 0.697 * m * m;
+		} else if (registerCount == 64) {
+			alphaMM = 0.709 * m * m;
+		} else {
+			alphaMM = 0.7213 / (1 + 1.079 / m) * m * m;
+		}
+
+		double total = 0;
+		for (int v = 0; v < aNodeCount; v++) {
+			final int base = v << wordShift;
+			addNode(v, base);
+			size[v] = estimate(current, base);
+			total += size[v];
+		}
+		function = new double[] { total };
+	}
+
+	/**
+	 * Iterates the counters until they no longer change.
+	 *
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes.
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation; <code>null</code> if the
+	 *        computation cannot be cancelled.
+	 */
+	private void run(int[] aOffsets, int[] aNeighbors, ExecutorService aExecutor, int aParallelism,
+			BooleanSupplier aCancelled) {
+		final int nodeCount = size.length;
+		final int edgeCount = aOffsets[nodeCount];
+		final int taskCount = aExecutor == null ? 1
+				: Math.max(1, Math.min(aParallelism, (edgeCount + nodeCount) / MIN_SLOTS_PER_TASK));
+
+		// Split the nodes into ranges with about the same number of edges
+		final int[] rangeStart = new int[taskCount + 1];
+		for (int t = 1, v = 0; t < taskCount; t++) {
+			final long goal = (long) (edgeCount + nodeCount) * t / taskCount;
+			while (v < nodeCount && aOffsets[v] + v < goal) {
+				v++;
+			}
+			rangeStart[t] = v;
+		}
+		rangeStart[taskCount] = nodeCount;
+
+		final double[] rangeTotal = new double[taskCount];
+		final boolean[] rangeChanged = new boolean[taskCount];
+		final List<Double> values = new ArrayList<Double>();
+		for (final double value : function) {
+			values.add(value);
+		}
+
+		for (int distance = 1; aCancelled == null || !aCancelled.getAsBoolean(); distance++) {
+			final int t = distance;
+			final boolean[] complete = new boolean[taskCount];
+			if (taskCount > 1) {
+				final List<Future<?>> futures = new ArrayList<Future<?>>(taskCount);
+				for (int r = 0; r < taskCount; r++) {
+					final int range = r;
+					futures.add(aExecutor.submit(new Runnable() {
+						public void run() {
+							iterate(rangeStart[range], rangeStart[range + 1], t, aOffsets, aNeighbors,
+									rangeTotal, rangeChanged, range);
+						}
+					}));
+				}
+				// Wait for all the tasks, so that no task runs while a failed range is processed again
+				boolean interrupted = false;
+				for (int r = 0; r < taskCount; r++) {
+					while (true) {
+						try {
+							futures.get(r).get();
+							complete[r] = true;
+							break;
+						} catch (InterruptedException ex) {
+							interrupted = true;
+						} catch (ExecutionException ex) {
+							// The range is processed again below
+							break;
+						}
+					}
+				}
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			for (int r = 0; r < taskCount; r++) {
+				if (!complete[r]) {
+					iterate(rangeStart[r], rangeStart[r + 1], t, aOffsets, aNeighbors, rangeTotal,
+							rangeChanged, r);
+				}
+			}
+
+			boolean changed = false;
+			double total = 0;
+			for (int r = 0; r < taskCount; r++) {
+				changed |= rangeChanged[r];
+				total += rangeTotal[r];
+			}
+			if (!changed) {
+				break;
+			}
+			values.add(total);
+			final long[] swap = current;
+			current = next;
+			next = swap;
+		}
+
+		function = new double[values.size()];
+		for (int t = 0; t < function.length; t++) {
+			function[t] = values.get(t);
+		}
+	}
+
+	/**
+	 * Computes the counters of the next iteration for a range of nodes.
+	 * <p>
+	 * The task of a range writes only the counters, sizes and harmonic centralities of its own nodes,
+	 * hence the ranges can be processed concurrently. Processing a range again gives the same result.
+	 * </p>
+	 *
+	 * @param aFirst First node of the range.
+	 * @param aLast Node following the last node of the range.
+	 * @param aDistance Radius of the balls counted after this iteration.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes.
+	 * @param aTotals Array to store the sum of the ball sizes of the range in.
+	 * @param aChanged Array to store the flag indicating if a counter of the range changed in.
+	 * @param aRange Index of the range in <code>aTotals</code> and <code>aChanged</code>.
+	 */
+	private void iterate(int aFirst, int aLast, int aDistance, int[] aOffsets, int[] aNeighbors,
+			double[] aTotals, boolean[] aChanged, int aRange) {
+		double total = 0;
+		boolean rangeChanged = false;
+		for (int v = aFirst; v < aLast; v++) {
+			final int base = v << wordShift;
+			System.arraycopy(current, base, next, base, wordCount);
+			for (int ei = aOffsets[v]; ei < aOffsets[v + 1]; ei++) {
+				final int neighborBase = aNeighbors[ei] << wordShift;
+				for (int k = 0; k < wordCount; k++) {
+					next[base + k] = max(next[base + k], current[neighborBase + k]);
+				}
+			}
+			boolean changed = false;
+			for (int k = 0; k < wordCount; k++) {
+				if (next[base + k] != current[base + k]) {
+					changed = true;
+					break;
+				}
+			}
+			if (changed) {
+				rangeChanged = true;
+				final double ballSize = Math.max(size[v], estimate(next, base));
+				harmonic[v] += (ballSize - size[v]) / aDistance;
+				size[v] = ballSize;
+			}
+			total += size[v];
+		}
+		aTotals[aRange] = total;
+		aChanged[aRange] = rangeChanged;
+	}
+
+	/**
+	 * Adds a node to its own counter.
+	 *
+	 * @param aNode Node to be added.
+	 * @param aBase Position of the first word of the counter in {@link #current}.
+	 */
+	private void addNode(int aNode, int aBase) {
+		// Mix the bits of the node index (finalizer of SplitMix64)
+		long hash = aNode + 0x9E3779B97F4A7C15L;
+		hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+		hash ^= hash >>> 31;
+
+		final int register = (int) (hash >>> (Long.SIZE - log2Registers));
+		final int rank = Long.numberOfLeadingZeros((hash << log2Registers) | (1L << (log2Registers - 1))) + 1;
+		current[aBase + (register >>> 3)] |= (long) rank << ((register & 7) << 3);
+	}
+
+	/**
+	 * Computes the register-wise maximum of two words of registers.
+	 * <p>
+	 * The eight registers in a word are compared at once: as the registers are smaller than
+	 * <code>2^7</code>, subtracting a register from the other one with the highest bit set leaves the
+	 * highest bit set if and only if the other register is not smaller.
+	 * </p>
+	 *
+	 * @param aWord First word of registers.
+	 * @param aOther Second word of registers.
+	 * @return Word of the larger registers.
+	 */
+	private static long max(long aWord, long aOther) {
+		final long notSmaller = (((aWord | HIGH_BITS) - aOther) & HIGH_BITS) >>> 7;
+		final long mask = notSmaller * 0xFF;
+		return (aWord & mask) | (aOther & ~mask);
+	}
+
+	/**
+	 * Estimates the number of elements of a counter.
+	 *
+	 * @param aRegisters Array containing the counter.
+	 * @param aBase Position of the first word of the counter.
+	 * @return Estimated number of distinct elements added to the counter.
+	 */
+	private double estimate(long[] aRegisters, int aBase) {
+		double sum = 0;
+		int zeros = 0;
+		for (int k = 0; k < wordCount; k++) {
+			final long word = aRegisters[aBase + k];
+			for (int shift = 0; shift < Long.SIZE; shift += 8) {
+				final int register = (int) (word >>> shift) & 0xFF;
+				sum += inversePowers[register];
+				if (register == 0) {
+					zeros++;
+				}
+			}
+		}
+		final double estimate = alphaMM / sum;
+		if (zeros != 0 && estimate <= 2.5 * registerCount) {
+			// Small range correction
+			return registerCount * Math.log((double) registerCount / zeros);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Minimum number of neighbor list entries and nodes processed by a parallel iteration task.
+	 */
+	private static final int MIN_SLOTS_PER_TASK = 1 << 14;
+
+	/**
+	 * Word with the highest bit of every byte set.
+	 */
+	private static final long HIGH_BITS = 0x8080808080808080L;
+
+	/**
+	 * Base-2 logarithm of {@link #registerCount}.
+	 */
+	private final int log2Registers;
+
+	/**
+	 * Base-2 logarithm of {@link #wordCount}.
+	 */
+	private final int wordShift;
+
+	/**
+	 * Number of words of a counter; every word holds eight registers of one byte.
+	 */
+	private final int wordCount;
+
+	/**
+	 * Number of registers of a counter.
+	 */
+	private final int registerCount;
+
+	/**
+	 * Bias correction constant of HyperLogLog, multiplied by the squared number of registers.
+	 */
+	private final double alphaMM;
+
+	/**
+	 * Values of <code>2^-r</code> for every possible register value <code>r</code>.
+	 */
+	private final double[] inversePowers;
+
+	/**
+	 * Counters of the balls of the last completed iteration, {@link #wordCount} words per node.
+	 */
+	private long[] current;
+
+	/**
+	 * Counters of the balls of the running iteration.
+	 */
+	private long[] next;
+
+	/**
+	 * Estimated size of the ball of every node in the last completed iteration.
+	 */
+	private final double[] size;
+
+	/**
+	 * Estimated harmonic closeness centrality of every node.
+	 */
+	private final double[] harmonic;
+
+	/**
+	 * Estimated neighbourhood function.
+	 */
+	private double[] function;
+}
@@ -0,0 +1,175 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from <code>long</code> keys to non-negative <code>int</code> values.
+ * <p>
+ * The map stores its keys and values in two primitive arrays and uses linear probing, so no objects are
+ * created per entry. It is used for translating node SUIDs and node pair keys into array indices.
+ * Entries cannot be removed.
+ * </p>
+ */
+public final class LongIntHashMap {
+
+	/**
+	 * Initializes a new instance of <code>LongIntHashMap</code>.
+	 *
+	 * @param aExpectedSize Expected number of entries to be stored in the map.
+	 */
+	public LongIntHashMap(int aExpectedSize) {
+		int capacity = 4;
+		while (capacity * 2 < aExpectedSize * 3) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Gets the value mapped to the given key.
+	 *
+	 * @param aKey Key to look up.
+	 * @return Value associated with <code>aKey</code>; <code>-1</code> if the map does not contain the
+	 *         key.
+	 */
+	public int get(long aKey) {
+		for (int i = slot(aKey);; i = (i + 1) & mask) {
+			final int value = values[i];
+			if (value < 0 || keys[i] == aKey) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Associates the given value with the given key, replacing any previous value.
+	 *
+	 * @param aKey Key.
+	 * @param aValue Value to be associated with <code>aKey</code>; must be non-negative.
+	 * @throws IllegalArgumentException If <code>aValue</code> is negative.
+	 */
+	public void put(long aKey, int aValue) {
+		if (aValue < 0) {
+			throw new IllegalArgumentException();
+		}
+		int i = slot(aKey);
+		while (values[i] >= 0 && keys[i] != aKey) {
+			i = (i + 1) & mask;
+		}
+		if (values[i] < 0) {
+			if (++size * 4 > values.length * 3) {
+				size--;
+				rehash();
+				put(aKey, aValue);
+				return;
+			}
+			keys[i] = aKey;
+		}
+		values[i] = aValue;
+	}
+
+	/**
+	 * Gets the number of entries in this map.
+	 *
+	 * @return Number of keys stored in this map.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Computes the key of a node pair for which the order of the nodes is irrelevant.
+	 *
+	 * @param aNode1 Index of the first node.
+	 * @param aNode2 Index of the second node.
+	 * @return Key with the smaller index in the upper and the larger index in the lower 32 bits.
+	 */
+	public static long pairKey(int aNode1, int aNode2) {
+		return aNode1 < aNode2 ? (((long) aNode1) << 32) | aNode2 : (((long) aNode2) << 32) | aNode1;
+	}
+
+	/**
+	 * Creates empty key and value arrays of the given capacity.
+	 *
+	 * @param aCapacity Capacity of the arrays; must be a power of 2.
+	 */
+	private void allocate(int aCapacity) {
+		keys = new long[aCapacity];
+		values = new int[aCapacity];
+		Arrays.fill(values, -1);
+		mask = aCapacity - 1;
+	}
+
+	/**
+	 * Doubles the capacity of this map.
+	 */
+	private void rehash() {
+		final long[] oldKeys = keys;
+		final int[] oldValues = values;
+		allocate(oldValues.length * 2);
+		size = 0;
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] >= 0) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Computes the first slot probed for the given key.
+	 *
+	 * @param aKey Key.
+	 * @return Index in the arrays of this map.
+	 */
+	private int slot(long aKey) {
+		long h = aKey * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return (int) (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Keys of the entries; meaningful only at positions with non-negative value.
+	 */
+	private long[] keys;
+
+	/**
+	 * Values of the entries; <code>-1</code> marks an empty slot.
+	 */
+	private int[] values;
+
+	/**
+	 * Bit mask applied on hash codes; equal to the capacity minus 1.
+	 */
+	private int mask;
+
+	/**
+	 * Number of entries in the map.
+	 */
+	private int size;
+}
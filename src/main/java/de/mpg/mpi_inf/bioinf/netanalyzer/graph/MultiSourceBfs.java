@@ -0,0 +1,442 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first traversals from up to {@link #WIDTH} sources at once.
+ * <p>
+ * Each source is assigned a bit (a <i>lane</i>) of a <code>long</code>. For every node, the sources
+ * that have already reached it and the sources whose traversal frontier contains it are stored as
+ * bit sets, so a single scan of the neighbor lists advances all the traversals by one level. This
+ * computes the same distances as separate traversals, but every neighbor list is read once per level
+ * instead of once per source.
+ * </p>
+ * <p>
+ * The traversals give the distance-related values only - eccentricity, average shortest path length,
+ * shortest path length distribution and, for undirected graphs, the distribution of shared neighbors.
+ * Betweenness and stress require the shortest path DAG of every source and are computed by the
+ * single-source kernels.
+ * </p>
+ * <p>
+ * An instance is owned by a single thread and reuses its arrays for all the traversals it performs.
+ * </p>
+ */
+public final class MultiSourceBfs {
+
+	/**
+	 * Maximum number of sources traversed at once.
+	 */
+	public static final int WIDTH = Long.SIZE;
+
+	/**
+	 * Ratio of the edges checked bottom-up to the edges of the frontier, below which a traversal
+	 * switches from top-down to bottom-up. It is lower than the value suggested for single-source
+	 * traversals, as a bottom-up scan of a node stops early only once all the missing sources are found.
+	 */
+	private static final int ALPHA = 2;
+
+	/**
+	 * Ratio of the scanned nodes to the nodes in the frontier, above which a traversal switches from
+	 * bottom-up back to top-down.
+	 */
+	private static final int BETA = 24;
+
+	/**
+	 * Initializes a new instance of <code>MultiSourceBfs</code>.
+	 * <p>
+	 * The arrays indexed by node are allocated on the first traversal.
+	 * </p>
+	 */
+	public MultiSourceBfs() {
+		seen = frontier = next = firstLevel = EMPTY_LONGS;
+		eccentricity = new int[WIDTH];
+		reached = new int[WIDTH];
+		totalLength = new long[WIDTH];
+		counter = new long[Integer.SIZE];
+	}
+
+	/**
+	 * Traverses the graph from the given sources.
+	 * <p>
+	 * The graph is given in compressed sparse row form; for directed graphs, the lists must contain
+	 * the out-neighbors of the nodes.
+	 * </p>
+	 * 
+	 * @param aSources
+	 *            Array containing the source nodes.
+	 * @param aFirst
+	 *            Index in <code>aSources</code> of the first source to traverse from.
+	 * @param aCount
+	 *            Number of sources to traverse from, at most {@link #WIDTH}; the sources must be
+	 *            distinct.
+	 * @param aNodeCount
+	 *            Number of nodes in the graph.
+	 * @param aEdges
+	 *            Concatenated neighbor lists of the nodes.
+	 * @param aEdgeOffsets
+	 *            Offsets of the neighbor lists in <code>aEdges</code>.
+	 * @param aSharedNeighborsHist
+	 *            Histogram of the numbers of neighbors shared with the sources, updated as by
+	 *            <code>UndirNetworkAnalyzer.computeSPandNB</code>; <code>null</code> if not needed or
+	 *            if the graph is directed.
+	 * @param aSPathLengths
+	 *            Histogram of the shortest path lengths, updated with the paths from every source;
+	 *            <code>null</code> if not needed.
+	 * @throws IllegalArgumentException
+	 *             If <code>aCount</code> is not in the range <code>[1, WIDTH]</code>.
+	 */
+	public void run(int[] aSources, int aFirst, int aCount, int aNodeCount, int[] aEdges, int[] aEdgeOffsets,
+			long[] aSharedNeighborsHist, long[] aSPathLengths) {
+		run(aSources, aFirst, aCount, aNodeCount, aEdges, aEdgeOffsets, null, null, null, 0,
+				aSharedNeighborsHist, aSPathLengths);
+	}
+
+	/**
+	 * Traverses the graph from the given sources, choosing the direction of every level and scanning
+	 * only a suffix of a node order.
+	 * <p>
+	 * A level is expanded either <i>top-down</i>, by pushing the frontier of every node to its
+	 * neighbors, or <i>bottom-up</i>, by collecting, for every node not yet reached by all the sources,
+	 * the frontiers of the nodes it can be reached from. A bottom-up scan of a node stops as soon as all
+	 * the sources missing at the node are found, which saves most of the edge reads in the middle
+	 * levels of graphs with a small diameter, where the frontier covers a large part of the graph. The
+	 * direction is chosen by the heuristic of Beamer et al. (S. Beamer, K. Asanovic and D. Patterson:
+	 * Direction-Optimizing Breadth-First Search. SC '12): the traversal switches to bottom-up when the
+	 * edges of the frontier exceed the edges to be checked bottom-up divided by {@link #ALPHA}, and
+	 * back to top-down when the frontier shrinks below the scanned nodes divided by {@link #BETA}. Both
+	 * directions compute the same levels, hence the results do not depend on the choice.
+	 * </p>
+	 * <p>
+	 * In a directed graph, the nodes reachable from the sources are confined to the components of the
+	 * condensation that follow the components of the sources in topological order. Given the nodes in
+	 * such an order (see {@link StrongComponents#getOrderedNodes()}), the levels of the traversal are
+	 * scanned from the first position of the components of the sources onwards, instead of over all
+	 * nodes.
+	 * </p>
+	 * 
+	 * @param aSources
+	 *            Array containing the source nodes.
+	 * @param aFirst
+	 *            Index in <code>aSources</code> of the first source to traverse from.
+	 * @param aCount
+	 *            Number of sources to traverse from, at most {@link #WIDTH}; the sources must be
+	 *            distinct.
+	 * @param aNodeCount
+	 *            Number of nodes in the graph.
+	 * @param aEdges
+	 *            Concatenated neighbor lists of the nodes.
+	 * @param aEdgeOffsets
+	 *            Offsets of the neighbor lists in <code>aEdges</code>.
+	 * @param aReverseEdges
+	 *            Concatenated lists of the nodes every node can be reached from by a single edge -
+	 *            <code>aEdges</code> for undirected graphs, the in-neighbor lists for directed graphs;
+	 *            <code>null</code> to traverse top-down only.
+	 * @param aReverseEdgeOffsets
+	 *            Offsets of the lists in <code>aReverseEdges</code>.
+	 * @param aOrder
+	 *            Permutation of the nodes such that every node reachable from the sources is stored at
+	 *            position <code>aStart</code> or later; <code>null</code> for the identity.
+	 * @param aStart
+	 *            First position in <code>aOrder</code> to scan.
+	 * @param aSharedNeighborsHist
+	 *            Histogram of the numbers of neighbors shared with the sources, updated as by
+	 *            <code>UndirNetworkAnalyzer.computeSPandNB</code>; <code>null</code> if not needed or
+	 *            if the graph is directed.
+	 * @param aSPathLengths
+	 *            Histogram of the shortest path lengths, updated with the paths from every source;
+	 *            <code>null</code> if not needed.
+	 * @throws IllegalArgumentException
+	 *             If <code>aCount</code> is not in the range <code>[1, WIDTH]</code>.
+	 */
+	public void run(int[] aSources, int aFirst, int aCount, int aNodeCount, int[] aEdges, int[] aEdgeOffsets,
+			int[] aReverseEdges, int[] aReverseEdgeOffsets, int[] aOrder, int aStart,
+			long[] aSharedNeighborsHist, long[] aSPathLengths) {
+		if (aCount < 1 || aCount > WIDTH) {
+			throw new IllegalArgumentException();
+		}
+		begin(aNodeCount);
+		sourceCount = aCount;
+		final long allLanes = aCount == WIDTH ? -1L : (1L << aCount) - 1;
+		long frontierEdges = 0;
+		for (int lane = 0; lane < aCount; lane++) {
+			final int source = aSources[aFirst + lane];
+			seen[source] = frontier[source] = 1L << lane;
+			frontierEdges += aEdgeOffsets[source + 1] - aEdgeOffsets[source];
+		}
+		int frontierNodes = aCount;
+		long uncheckedEdges = 0; // edges to be checked by a bottom-up level
+		if (aReverseEdges != null) {
+			for (int i = aStart; i < aNodeCount; i++) {
+				final int node = aOrder == null ? i : aOrder[i];
+				if (seen[node] != allLanes) {
+					uncheckedEdges += aReverseEdgeOffsets[node + 1] - aReverseEdgeOffsets[node];
+				}
+			}
+		}
+		final int scannedNodes = aNodeCount - aStart;
+		boolean bottomUp = false;
+		long reachedTotal = aCount;
+		long secondLevelTotal = 0;
+
+		for (int level = 1; frontierNodes != 0; level++) {
+			if (aReverseEdges != null) {
+				bottomUp = bottomUp ? frontierNodes * BETA >= scannedNodes : frontierEdges * ALPHA > uncheckedEdges;
+			}
+			if (bottomUp) {
+				// Pull the frontiers of the nodes every incompletely reached node can be reached from
+				for (int i = aStart; i < aNodeCount; i++) {
+					final int node = aOrder == null ? i : aOrder[i];
+					final long missing = allLanes & ~seen[node];
+					if (missing == 0) {
+						continue;
+					}
+					long bits = 0;
+					for (int ei = aReverseEdgeOffsets[node]; ei < aReverseEdgeOffsets[node + 1]; ei++) {
+						bits |= frontier[aReverseEdges[ei]];
+						if ((bits & missing) == missing) {
+							break;
+						}
+					}
+					next[node] = bits;
+				}
+			} else {
+				// Push the frontier of every node to its neighbors
+				for (int i = aStart; i < aNodeCount; i++) {
+					final int node = aOrder == null ? i : aOrder[i];
+					final long bits = frontier[node];
+					if (bits == 0) {
+						continue;
+					}
+					for (int ei = aEdgeOffsets[node]; ei < aEdgeOffsets[node + 1]; ei++) {
+						next[aEdges[ei]] |= bits;
+					}
+				}
+			}
+
+			// Keep the sources reaching a node for the first time
+			long levelLanes = 0;
+			frontierNodes = 0;
+			frontierEdges = 0;
+			for (int i = aStart; i < aNodeCount; i++) {
+				final int node = aOrder == null ? i : aOrder[i];
+				final long bits = next[node] & ~seen[node];
+				next[node] = 0;
+				frontier[node] = bits;
+				if (bits == 0) {
+					continue;
+				}
+				seen[node] |= bits;
+				levelLanes |= bits;
+				frontierNodes++;
+				frontierEdges += aEdgeOffsets[node + 1] - aEdgeOffsets[node];
+				if (aReverseEdges != null && seen[node] == allLanes) {
+					uncheckedEdges -= aReverseEdgeOffsets[node + 1] - aReverseEdgeOffsets[node];
+				}
+				final int count = Long.bitCount(bits);
+				reachedTotal += count;
+				if (aSPathLengths != null) {
+					aSPathLengths[level] += count;
+				}
+				for (long rest = bits; rest != 0; rest &= rest - 1) {
+					final int lane = Long.numberOfTrailingZeros(rest);
+					reached[lane]++;
+					totalLength[lane] += level;
+				}
+				if (level == 2 && aSharedNeighborsHist != null) {
+					secondLevelTotal += count;
+					countSharedNeighbors(node, bits, aEdges, aEdgeOffsets, aSharedNeighborsHist);
+				}
+			}
+			for (long rest = levelLanes; rest != 0; rest &= rest - 1) {
+				eccentricity[Long.numberOfTrailingZeros(rest)] = level;
+			}
+			if (level == 1 && aSharedNeighborsHist != null) {
+				System.arraycopy(frontier, 0, firstLevel, 0, aNodeCount);
+			}
+		}
+
+		if (aSharedNeighborsHist != null) {
+			aSharedNeighborsHist[0] += reachedTotal - secondLevelTotal;
+		}
+	}
+
+	/**
+	 * Gets the eccentricity of a source of the last traversal.
+	 * 
+	 * @param aLane
+	 *            Index of the source among the traversed ones.
+	 * @return Largest distance from the source to a node it reaches.
+	 */
+	public int getEccentricity(int aLane) {
+		checkLane(aLane);
+		return eccentricity[aLane];
+	}
+
+	/**
+	 * Gets the average shortest path length of a source of the last traversal.
+	 * 
+	 * @param aLane
+	 *            Index of the source among the traversed ones.
+	 * @return Average distance from the source to the other nodes it reaches; <code>0</code> if it
+	 *         reaches no other node.
+	 */
+	public double getAverageLength(int aLane) {
+		checkLane(aLane);
+		return reached[aLane] > 0 ? ((double) totalLength[aLane]) / reached[aLane] : 0;
+	}
+
+	/**
+	 * Prepares the arrays for traversing a graph with the given number of nodes.
+	 * 
+	 * @param aNodeCount
+	 *            Number of nodes in the graph.
+	 */
+	private void begin(int aNodeCount) {
+		if (seen.length < aNodeCount) {
+			final int capacity = Math.max(aNodeCount, seen.length + (seen.length >> 1));
+			seen = new long[capacity];
+			frontier = new long[capacity];
+			next = new long[capacity];
+			firstLevel = new long[capacity];
+		} else {
+			Arrays.fill(seen, 0, aNodeCount, 0);
+			Arrays.fill(frontier, 0, aNodeCount, 0);
+		}
+		Arrays.fill(eccentricity, 0);
+		Arrays.fill(reached, 0);
+		Arrays.fill(totalLength, 0);
+	}
+
+	/**
+	 * Updates the shared neighbors histogram for a node at distance 2 from some of the sources.
+	 * <p>
+	 * The neighbors of the node at distance 1 from a source are the neighbors it shares with the
+	 * source. They are counted for all these sources at once in a bit-sliced counter, in which plane
+	 * <code>k</code> holds bit <code>k</code> of the count of every source.
+	 * </p>
+	 * 
+	 * @param aNode
+	 *            Node at distance 2 from the sources in <code>aLanes</code>.
+	 * @param aLanes
+	 *            Sources at distance 2 from the node.
+	 * @param aEdges
+	 *            Concatenated neighbor lists of the nodes.
+	 * @param aEdgeOffsets
+	 *            Offsets of the neighbor lists in <code>aEdges</code>.
+	 * @param aSharedNeighborsHist
+	 *            Histogram of the numbers of shared neighbors to be updated.
+	 */
+	private void countSharedNeighbors(int aNode, long aLanes, int[] aEdges, int[] aEdgeOffsets,
+			long[] aSharedNeighborsHist) {
+		int planes = 0;
+		for (int ei = aEdgeOffsets[aNode]; ei < aEdgeOffsets[aNode + 1]; ei++) {
+			long carry = firstLevel[aEdges[ei]] & aLanes;
+			for (int k = 0; carry != 0; k++) {
+				if (k == planes) {
+					counter[planes++] = 0;
+				}
+				final long sum = counter[k] ^ carry;
+				carry &= counter[k];
+				counter[k] = sum;
+			}
+		}
+		for (long rest = aLanes; rest != 0; rest &= rest - 1) {
+			final int lane = Long.numberOfTrailingZeros(rest);
+			int count = 0;
+			for (int k = 0; k < planes; k++) {
+				count |= (int) ((counter[k] >>> lane) & 1) << k;
+			}
+			aSharedNeighborsHist[count]++;
+		}
+	}
+
+	/**
+	 * Checks that a lane refers to a source of the last traversal.
+	 * 
+	 * @param aLane
+	 *            Lane to check.
+	 * @throws IndexOutOfBoundsException
+	 *             If <code>aLane</code> is not in the range <code>[0, sourceCount)</code>.
+	 */
+	private void checkLane(int aLane) {
+		if (aLane < 0 || aLane >= sourceCount) {
+			throw new IndexOutOfBoundsException(String.valueOf(aLane));
+		}
+	}
+
+	/**
+	 * Sources that have reached each node.
+	 */
+	private long[] seen;
+
+	/**
+	 * Sources whose traversal frontier contains each node.
+	 */
+	private long[] frontier;
+
+	/**
+	 * Sources whose traversal frontier will contain each node in the next level.
+	 */
+	private long[] next;
+
+	/**
+	 * Sources adjacent to each node, i.e. the frontier of the first level.
+	 */
+	private long[] firstLevel;
+
+	/**
+	 * Eccentricity of every source of the last traversal.
+	 */
+	private final int[] eccentricity;
+
+	/**
+	 * Number of nodes reached by every source of the last traversal, excluding the source itself.
+	 */
+	private final int[] reached;
+
+	/**
+	 * Sum of the distances to the nodes reached by every source of the last traversal.
+	 */
+	private final long[] totalLength;
+
+	/**
+	 * Planes of the bit-sliced counter of shared neighbors.
+	 */
+	private final long[] counter;
+
+	/**
+	 * Number of sources of the last traversal.
+	 */
+	private int sourceCount;
+
+	/**
+	 * Shared empty array of <code>long</code>s.
+	 */
+	private static final long[] EMPTY_LONGS = new long[0];
+}
@@ -0,0 +1,832 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spectral centralities of the nodes of a graph: PageRank, eigenvector centrality and Katz
+ * centrality.
+ * <p>
+ * Each of these centralities is the fixed point of an iteration <code>x' = f(x)</code>, in which the
+ * value of a node is computed from the values of its in-neighbors. Every iteration is therefore a
+ * single pass over the in-neighbor lists, a sparse matrix-vector product. The value of a node is
+ * pulled from its in-neighbors, so a task writes the values of its own nodes only; as in
+ * {@link HyperAnf}, every iteration is split among several threads by ranges of nodes with about the
+ * same number of edges. The iteration stops when the relative change of the values, in the
+ * <code>L1</code> norm, falls below {@link #DEFAULT_TOLERANCE}.
+ * </p>
+ * <p>
+ * In undirected graphs, the in-neighbor and the out-neighbor lists are the neighbor lists. In
+ * directed graphs, PageRank flows along the arcs, and a node has high eigenvector and Katz centrality
+ * if it is pointed to by central nodes.
+ * </p>
+ */
+public final class SpectralCentrality {
+
+	/**
+	 * Method for computing the fixed point of the iteration.
+	 */
+	public enum Solver {
+
+		/**
+		 * Every iteration computes the new values from the values of the previous iteration only.
+		 */
+		JACOBI("jacobi"),
+
+		/**
+		 * The values already updated in the current iteration are used for the following nodes of the
+		 * same range; the ranges are updated in parallel from the values of the previous iteration.
+		 * Eigenvector centrality is computed by the Jacobi method, as the iteration is normalized as a
+		 * whole.
+		 */
+		GAUSS_SEIDEL("gaussseidel"),
+
+		/**
+		 * Jacobi method, in which the values are extrapolated by Aitken's delta-squared process from
+		 * the last three iterations every {@link SpectralCentrality#EXTRAPOLATION_PERIOD} iterations.
+		 */
+		EXTRAPOLATION("extrapolation");
+
+		/**
+		 * Finds the solver with the given key.
+		 * 
+		 * @param aKey Key of the solver, as returned by {@link #getKey()}; the case is ignored.
+		 * @return Solver identified by <code>aKey</code>.
+		 * @throws IllegalArgumentException If no solver has the given key.
+		 */
+		public static Solver forKey(String aKey) {
+			for (final Solver solver : values()) {
+				if (solver.key.equalsIgnoreCase(aKey)) {
+					return solver;
+				}
+			}
+			throw new IllegalArgumentException(aKey);
+		}
+
+		/**
+		 * Finds the solver with the given key, falling back to a default solver if the key is unknown.
+		 *
+		 * @param aKey Key of the solver, as returned by {@link #getKey()}; the case is ignored.
+		 * @param aDefault Solver to return if no solver has the given key.
+		 * @return Solver identified by <code>aKey</code>; <code>aDefault</code> if <code>aKey</code> is
+		 *         <code>null</code> or unknown.
+		 */
+		public static Solver forKey(String aKey, Solver aDefault) {
+			for (final Solver solver : values()) {
+				if (solver.key.equalsIgnoreCase(aKey)) {
+					return solver;
+				}
+			}
+			return aDefault;
+		}
+
+		/**
+		 * Gets the key of this solver.
+		 * 
+		 * @return Short name identifying this solver in the settings.
+		 */
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * Initializes a new solver.
+		 * 
+		 * @param aKey Short name identifying the solver.
+		 */
+		private Solver(String aKey) {
+			key = aKey;
+		}
+
+		/**
+		 * Short name identifying this solver.
+		 */
+		private final String key;
+	}
+
+	/**
+	 * Largest relative change of the values, in the <code>L1</code> norm, at which the iteration stops.
+	 */
+	public static final double DEFAULT_TOLERANCE = 1e-9;
+
+	/**
+	 * Largest number of iterations performed if the values do not converge.
+	 */
+	public static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+	/**
+	 * Number of iterations between two extrapolations by {@link Solver#EXTRAPOLATION}.
+	 */
+	public static final int EXTRAPOLATION_PERIOD = 10;
+
+	/**
+	 * Computes the PageRank of the nodes of the given graph.
+	 * <p>
+	 * A random surfer follows a random out-arc of the current node with probability
+	 * <code>aDamping</code> and jumps to a random node otherwise; from a node without out-arcs, it
+	 * always jumps to a random node. The PageRank of a node is the probability that the surfer is at
+	 * this node in the stationary distribution.
+	 * </p>
+	 * 
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @param aOutOffsets Offsets of the out-neighbor lists of the nodes; only the out-degrees are used.
+	 * @param aDamping Probability of following an arc, in the range <code>[0, 1)</code>; usually
+	 *        <code>0.85</code>.
+	 * @param aSolver Method for computing the fixed point.
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation, evaluated after every iteration;
+	 *        <code>null</code> if the computation cannot be cancelled.
+	 * @return PageRank of the nodes; the values sum up to <code>1</code>.
+	 * @throws IllegalArgumentException If <code>aDamping</code> is not in the range
+	 *         <code>[0, 1)</code>.
+	 */
+	public static SpectralCentrality pageRank(int aNodeCount, int[] aInOffsets, int[] aInNeighbors,
+			int[] aOutOffsets, double aDamping, Solver aSolver, ExecutorService aExecutor, int aParallelism,
+			BooleanSupplier aCancelled) {
+		if (!(aDamping >= 0 && aDamping < 1)) {
+			throw new IllegalArgumentException();
+		}
+		final SpectralCentrality centrality = new SpectralCentrality(PAGE_RANK, aNodeCount, aInOffsets,
+				aInNeighbors, aOutOffsets, aDamping, aSolver);
+		centrality.run(aExecutor, aParallelism, aCancelled);
+		return centrality;
+	}
+
+	/**
+	 * Computes the eigenvector centrality of the nodes of the given graph.
+	 * <p>
+	 * The eigenvector centrality is the Perron eigenvector of the transposed adjacency matrix
+	 * <code>A</code>, found by power iteration on <code>A + I</code>; the shift by the identity
+	 * matrix makes the iteration converge on bipartite graphs, too. It is well defined for connected
+	 * undirected graphs and strongly connected directed graphs only; in directed acyclic graphs, the
+	 * values concentrate on the sinks.
+	 * </p>
+	 * 
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @param aOutOffsets Offsets of the out-neighbor lists of the nodes; only the out-degrees are used.
+	 * @param aSolver Method for computing the fixed point.
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation, evaluated after every iteration;
+	 *        <code>null</code> if the computation cannot be cancelled.
+	 * @return Eigenvector centrality of the nodes, scaled so that the largest value is <code>1</code>.
+	 */
+	public static SpectralCentrality eigenvector(int aNodeCount, int[] aInOffsets, int[] aInNeighbors,
+			int[] aOutOffsets, Solver aSolver, ExecutorService aExecutor, int aParallelism,
+			BooleanSupplier aCancelled) {
+		final SpectralCentrality centrality = new SpectralCentrality(EIGENVECTOR, aNodeCount, aInOffsets,
+				aInNeighbors, aOutOffsets, 0, aSolver == Solver.GAUSS_SEIDEL ? Solver.JACOBI : aSolver);
+		centrality.run(aExecutor, aParallelism, aCancelled);
+		return centrality;
+	}
+
+	/**
+	 * Computes the Katz centrality of the nodes of the given graph.
+	 * <p>
+	 * The Katz centrality is the solution of <code>x = aAttenuation A<sup>T</sup> x + 1</code>, i.e.
+	 * the number of walks ending at a node, where a walk of length <code>t</code> is weighted by
+	 * <code>aAttenuation<sup>t</sup></code>. The iteration converges if the attenuation factor is
+	 * smaller than the inverse of the largest eigenvalue of the adjacency matrix <code>A</code>; see
+	 * {@link #getSpectralRadiusBound()}.
+	 * </p>
+	 * 
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @param aOutOffsets Offsets of the out-neighbor lists of the nodes; only the out-degrees are used.
+	 * @param aAttenuation Weight of a single edge of a walk; must not be negative.
+	 * @param aSolver Method for computing the fixed point.
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation, evaluated after every iteration;
+	 *        <code>null</code> if the computation cannot be cancelled.
+	 * @return Katz centrality of the nodes; every value is at least <code>1</code>.
+	 * @throws IllegalArgumentException If <code>aAttenuation</code> is negative.
+	 */
+	public static SpectralCentrality katz(int aNodeCount, int[] aInOffsets, int[] aInNeighbors,
+			int[] aOutOffsets, double aAttenuation, Solver aSolver, ExecutorService aExecutor, int aParallelism,
+			BooleanSupplier aCancelled) {
+		if (!(aAttenuation >= 0)) {
+			throw new IllegalArgumentException();
+		}
+		final SpectralCentrality centrality = new SpectralCentrality(KATZ, aNodeCount, aInOffsets,
+				aInNeighbors, aOutOffsets, aAttenuation, aSolver);
+		centrality.run(aExecutor, aParallelism, aCancelled);
+		return centrality;
+	}
+
+	/**
+	 * Gets the computed centralities.
+	 * 
+	 * @return Array storing the centrality of every node; the array is shared and must not be
+	 *         modified.
+	 */
+	public double[] getValues() {
+		return current;
+	}
+
+	/**
+	 * Gets the number of performed iterations.
+	 * 
+	 * @return Number of passes over the in-neighbor lists, not counting extrapolations.
+	 */
+	public int getIterationCount() {
+		return iterationCount;
+	}
+
+	/**
+	 * Checks if the iteration converged.
+	 * 
+	 * @return <code>true</code> if the relative change of the values in the last iteration was below
+	 *         {@link #DEFAULT_TOLERANCE}; <code>false</code> if the iteration was stopped after
+	 *         {@link #DEFAULT_MAX_ITERATIONS} iterations.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	/**
+	 * Gets an upper bound on the largest eigenvalue of the adjacency matrix of the graph.
+	 * <p>
+	 * The bound is the smaller one of the largest in-degree and the largest out-degree. For
+	 * eigenvector centrality, it is improved by the Collatz-Wielandt bound of the last iteration, the
+	 * largest ratio of <code>(A<sup>T</sup> x)[v]</code> to <code>x[v]</code> over the nodes
+	 * <code>v</code>, which approaches the largest eigenvalue as the iteration converges.
+	 * </p>
+	 * 
+	 * @return Upper bound on the spectral radius of the adjacency matrix; Katz centrality converges
+	 *         for all attenuation factors below its inverse.
+	 */
+	public double getSpectralRadiusBound() {
+		return radiusBound;
+	}
+
+	/**
+	 * Initializes a new instance of <code>SpectralCentrality</code> with the values at the starting
+	 * point of the iteration.
+	 * 
+	 * @param aKind Centrality to be computed; one of {@link #PAGE_RANK}, {@link #EIGENVECTOR} and
+	 *        {@link #KATZ}.
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @param aOutOffsets Offsets of the out-neighbor lists of the nodes.
+	 * @param aParameter Damping factor of PageRank or attenuation factor of Katz centrality.
+	 * @param aSolver Method for computing the fixed point.
+	 */
+	private SpectralCentrality(int aKind, int aNodeCount, int[] aInOffsets, int[] aInNeighbors,
+			int[] aOutOffsets, double aParameter, Solver aSolver) {
+		kind = aKind;
+		inOffsets = aInOffsets;
+		inNeighbors = aInNeighbors;
+		outOffsets = aOutOffsets;
+		parameter = aParameter;
+		solver = aSolver;
+		current = new double[aNodeCount];
+		next = new double[aNodeCount];
+		older = aSolver == Solver.EXTRAPOLATION ? new double[aNodeCount] : null;
+		previous = aSolver == Solver.EXTRAPOLATION ? new double[aNodeCount] : null;
+		if (aKind == PAGE_RANK) {
+			inverseOutDegrees = new double[aNodeCount];
+			contributions = new double[aNodeCount];
+			nextContributions = new double[aNodeCount];
+		} else {
+			inverseOutDegrees = null;
+			contributions = current;
+			nextContributions = next;
+		}
+
+		int maxInDegree = 0, maxOutDegree = 0;
+		final double start = aKind == KATZ ? 1 : 1.0 / aNodeCount;
+		for (int v = 0; v < aNodeCount; v++) {
+			final int outDegree = aOutOffsets[v + 1] - aOutOffsets[v];
+			maxInDegree = Math.max(maxInDegree, aInOffsets[v + 1] - aInOffsets[v]);
+			maxOutDegree = Math.max(maxOutDegree, outDegree);
+			current[v] = start;
+			if (aKind == PAGE_RANK && outDegree != 0) {
+				inverseOutDegrees[v] = 1.0 / outDegree;
+				contributions[v] = start / outDegree;
+			}
+		}
+		radiusBound = Math.min(maxInDegree, maxOutDegree);
+	}
+
+	/**
+	 * Iterates the values until they converge.
+	 * 
+	 * @param aExecutor Executor to run the iteration tasks; <code>null</code> to use the calling
+	 *        thread only.
+	 * @param aParallelism Maximum number of tasks to split every iteration into.
+	 * @param aCancelled Check of the cancellation of the computation; <code>null</code> if the
+	 *        computation cannot be cancelled. A cancelled iteration stops without converging.
+	 */
+	private void run(ExecutorService aExecutor, int aParallelism, BooleanSupplier aCancelled) {
+		final int nodeCount = current.length;
+		if (nodeCount == 0) {
+			converged = true;
+			return;
+		}
+		final int edgeCount = inOffsets[nodeCount];
+		final int taskCount = aExecutor == null ? 1
+				: Math.max(1, Math.min(aParallelism, (edgeCount + nodeCount) / MIN_SLOTS_PER_TASK));
+
+		// Split the nodes into ranges with about the same number of edges
+		rangeStart = new int[taskCount + 1];
+		for (int t = 1, v = 0; t < taskCount; t++) {
+			final long goal = (long) (edgeCount + nodeCount) * t / taskCount;
+			while (v < nodeCount && inOffsets[v] + v < goal) {
+				v++;
+			}
+			rangeStart[t] = v;
+		}
+		rangeStart[taskCount] = nodeCount;
+		rangeResidual = new double[taskCount];
+		rangeTotal = new double[taskCount];
+		rangeMass = new double[taskCount];
+		rangeRatio = new double[taskCount];
+
+		runRanges(MASS, aExecutor);
+		double mass = sum(rangeMass), total = sum(rangeTotal);
+		for (iterationCount = 1; iterationCount <= DEFAULT_MAX_ITERATIONS; iterationCount++) {
+			// PageRank spreads the damped rank of the dangling nodes and the teleport uniformly, and
+			// reads the last values normalized to a sum of 1, which the Gauss-Seidel sweeps do not keep;
+			// eigenvector centrality is normalized to a sum of 1
+			inverseTotal = kind == PAGE_RANK ? 1 / total : 1;
+			scale = kind == PAGE_RANK ? ((1 - parameter) + parameter * mass * inverseTotal) / nodeCount
+					: 1.0 / mass;
+			runRanges(SWEEP, aExecutor);
+			rotate();
+			if (kind == EIGENVECTOR) {
+				double ratio = 0;
+				for (final double rangeMax : rangeRatio) {
+					ratio = Math.max(ratio, rangeMax);
+				}
+				radiusBound = Math.min(radiusBound, ratio);
+			}
+			total = sum(rangeTotal);
+			if (sum(rangeResidual) <= DEFAULT_TOLERANCE * total) {
+				converged = true;
+				break;
+			}
+			mass = sum(rangeMass);
+			if (solver == Solver.EXTRAPOLATION && iterationCount % EXTRAPOLATION_PERIOD == 0) {
+				runRanges(EXTRAPOLATE, aExecutor);
+				swapExtrapolated();
+				mass = sum(rangeMass);
+				total = sum(rangeTotal);
+			}
+			if (aCancelled != null && aCancelled.getAsBoolean()) {
+				break;
+			}
+		}
+		if (iterationCount > DEFAULT_MAX_ITERATIONS) {
+			iterationCount = DEFAULT_MAX_ITERATIONS;
+		}
+
+		// Scale the values of the last iteration
+		if (kind != KATZ) {
+			double norm = 0;
+			for (int v = 0; v < nodeCount; v++) {
+				norm = kind == PAGE_RANK ? norm + current[v] : Math.max(norm, current[v]);
+			}
+			if (norm > 0) {
+				for (int v = 0; v < nodeCount; v++) {
+					current[v] /= norm;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs a pass over the ranges of nodes, splitting it among the threads of the given executor.
+	 * <p>
+	 * All the passes are idempotent, hence a range whose task fails is processed again by the calling
+	 * thread.
+	 * </p>
+	 * 
+	 * @param aPass Pass to be run; one of {@link #MASS}, {@link #SWEEP} and {@link #EXTRAPOLATE}.
+	 * @param aExecutor Executor to run the tasks; <code>null</code> to use the calling thread only.
+	 */
+	private void runRanges(final int aPass, ExecutorService aExecutor) {
+		final int taskCount = rangeTotal.length;
+		final boolean[] complete = new boolean[taskCount];
+		if (taskCount > 1) {
+			final List<Future<?>> futures = new ArrayList<Future<?>>(taskCount);
+			for (int r = 0; r < taskCount; r++) {
+				final int range = r;
+				futures.add(aExecutor.submit(new Runnable() {
+					public void run() {
+						runRange(aPass, range);
+					}
+				}));
+			}
+			// Wait for all the tasks, so that no task runs while a failed range is processed again
+			boolean interrupted = false;
+			for (int r = 0; r < taskCount; r++) {
+				while (true) {
+					try {
+						futures.get(r).get();
+						complete[r] = true;
+						break;
+					} catch (InterruptedException ex) {
+						interrupted = true;
+					} catch (ExecutionException ex) {
+						// The range is processed again below
+						break;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		for (int r = 0; r < taskCount; r++) {
+			if (!complete[r]) {
+				runRange(aPass, r);
+			}
+		}
+	}
+
+	/**
+	 * Runs a pass over a range of nodes.
+	 * 
+	 * @param aPass Pass to be run.
+	 * @param aRange Index of the range.
+	 */
+	private void runRange(int aPass, int aRange) {
+		final int first = rangeStart[aRange], last = rangeStart[aRange + 1];
+		if (aPass == SWEEP) {
+			sweep(first, last, aRange);
+		} else if (aPass == EXTRAPOLATE) {
+			extrapolate(first, last, aRange);
+		} else {
+			double total = 0, mass = 0;
+			for (int v = first; v < last; v++) {
+				total += current[v];
+				mass += mass(v, current[v]);
+			}
+			rangeTotal[aRange] = total;
+			rangeMass[aRange] = mass;
+		}
+	}
+
+	/**
+	 * Computes the values of the next iteration for a range of nodes.
+	 * <p>
+	 * The task of a range writes only the values of its own nodes to {@link #next} and
+	 * {@link #nextContributions}, hence the ranges can be processed concurrently. Processing a range
+	 * again gives the same result.
+	 * </p>
+	 * 
+	 * @param aFirst First node of the range.
+	 * @param aLast Node following the last node of the range.
+	 * @param aRange Index of the range in the arrays of the partial sums.
+	 */
+	private void sweep(int aFirst, int aLast, int aRange) {
+		final double[] x = current, y = next, c = contributions, nextC = nextContributions;
+		final int[] offsets = inOffsets, neighbors = inNeighbors;
+		final boolean gaussSeidel = solver == Solver.GAUSS_SEIDEL;
+		final double lastScale = inverseTotal;
+		double residual = 0, total = 0, mass = 0, ratio = 0;
+		for (int v = aFirst; v < aLast; v++) {
+			double updated = 0, sum = 0;
+			if (gaussSeidel) {
+				for (int ei = offsets[v]; ei < offsets[v + 1]; ei++) {
+					final int u = neighbors[ei];
+					if (u >= aFirst && u < v) {
+						updated += nextC[u];
+					} else {
+						sum += c[u];
+					}
+				}
+			} else {
+				for (int ei = offsets[v]; ei < offsets[v + 1]; ei++) {
+					sum += c[neighbors[ei]];
+				}
+			}
+			sum = updated + sum * lastScale;
+			final double last = x[v] * lastScale;
+
+			final double value;
+			if (kind == PAGE_RANK) {
+				value = scale + parameter * sum;
+				nextC[v] = value * inverseOutDegrees[v];
+			} else if (kind == EIGENVECTOR) {
+				// Collatz-Wielandt bound; a node without value leaves the bound to the degrees
+				ratio = last > 0 ? Math.max(ratio, sum / last) : Double.POSITIVE_INFINITY;
+				value = (last + sum) * scale;
+			} else {
+				value = parameter * sum + 1;
+			}
+			y[v] = value;
+			residual += Math.abs(value - last);
+			total += value;
+			mass += mass(v, value);
+		}
+		rangeResidual[aRange] = residual;
+		rangeTotal[aRange] = total;
+		rangeMass[aRange] = mass;
+		rangeRatio[aRange] = ratio;
+	}
+
+	/**
+	 * Extrapolates the values of the last iteration for a range of nodes by Aitken's delta-squared
+	 * process.
+	 * <p>
+	 * A value is extrapolated only if its last two changes have the same sign and decrease, i.e. if it
+	 * converges monotonically; otherwise it is kept. The results are written to {@link #older} and
+	 * {@link #nextContributions}, hence processing a range again gives the same result.
+	 * </p>
+	 * 
+	 * @param aFirst First node of the range.
+	 * @param aLast Node following the last node of the range.
+	 * @param aRange Index of the range in the arrays of the partial sums.
+	 */
+	private void extrapolate(int aFirst, int aLast, int aRange) {
+		double total = 0, mass = 0;
+		for (int v = aFirst; v < aLast; v++) {
+			final double x2 = current[v];
+			final double change = x2 - previous[v];
+			final double lastChange = previous[v] - older[v];
+			double value = x2;
+			if (change * lastChange > 0 && Math.abs(change) < Math.abs(lastChange)) {
+				value = x2 - change * change / (change - lastChange);
+				if (!(value > 0)) {
+					value = x2;
+				}
+			}
+			older[v] = value;
+			if (kind == PAGE_RANK) {
+				nextContributions[v] = value * inverseOutDegrees[v];
+			}
+			total += value;
+			mass += mass(v, value);
+		}
+		rangeTotal[aRange] = total;
+		rangeMass[aRange] = mass;
+	}
+
+	/**
+	 * Computes the share of a node in the normalization of the next iteration.
+	 * 
+	 * @param aNode Index of the node.
+	 * @param aValue Value of the node.
+	 * @return For PageRank, <code>aValue</code> if the node has no out-arcs and <code>0</code>
+	 *         otherwise; for eigenvector centrality, the sum of the value over the node and its
+	 *         out-arcs; <code>0</code> for Katz centrality.
+	 */
+	private double mass(int aNode, double aValue) {
+		if (kind == PAGE_RANK) {
+			return outOffsets[aNode + 1] == outOffsets[aNode] ? aValue : 0;
+		}
+		if (kind == EIGENVECTOR) {
+			return aValue * (1 + outOffsets[aNode + 1] - outOffsets[aNode]);
+		}
+		return 0;
+	}
+
+	/**
+	 * Makes the values of the last sweep the current values, keeping the two previous iterations for
+	 * extrapolation.
+	 */
+	private void rotate() {
+		final double[] free = older != null ? older : current;
+		if (older != null) {
+			older = previous;
+			previous = current;
+		}
+		current = next;
+		next = free;
+		if (kind == PAGE_RANK) {
+			final double[] swap = contributions;
+			contributions = nextContributions;
+			nextContributions = swap;
+		} else {
+			contributions = current;
+			nextContributions = next;
+		}
+	}
+
+	/**
+	 * Makes the extrapolated values the current values.
+	 */
+	private void swapExtrapolated() {
+		final double[] swap = current;
+		current = older;
+		older = swap;
+		if (kind == PAGE_RANK) {
+			final double[] swapC = contributions;
+			contributions = nextContributions;
+			nextContributions = swapC;
+		} else {
+			contributions = current;
+		}
+	}
+
+	/**
+	 * Computes the sum of the partial sums of the ranges.
+	 * 
+	 * @param aPartialSums Partial sums, one per range.
+	 * @return Sum of all elements of <code>aPartialSums</code>.
+	 */
+	private static double sum(double[] aPartialSums) {
+		double sum = 0;
+		for (final double partial : aPartialSums) {
+			sum += partial;
+		}
+		return sum;
+	}
+
+	/**
+	 * Minimum number of neighbor list entries and nodes processed by a parallel iteration task.
+	 */
+	private static final int MIN_SLOTS_PER_TASK = 1 << 14;
+
+	/**
+	 * Identifier of PageRank.
+	 */
+	private static final int PAGE_RANK = 0;
+
+	/**
+	 * Identifier of eigenvector centrality.
+	 */
+	private static final int EIGENVECTOR = 1;
+
+	/**
+	 * Identifier of Katz centrality.
+	 */
+	private static final int KATZ = 2;
+
+	/**
+	 * Pass computing the normalization of the first iteration.
+	 */
+	private static final int MASS = 0;
+
+	/**
+	 * Pass computing the values of the next iteration.
+	 */
+	private static final int SWEEP = 1;
+
+	/**
+	 * Pass extrapolating the values of the last iteration.
+	 */
+	private static final int EXTRAPOLATE = 2;
+
+	/**
+	 * Computed centrality; one of {@link #PAGE_RANK}, {@link #EIGENVECTOR} and {@link #KATZ}.
+	 */
+	private final int kind;
+
+	/**
+	 * Offsets of the in-neighbor lists in {@link #inNeighbors}.
+	 */
+	private final int[] inOffsets;
+
+	/**
+	 * Concatenated in-neighbor lists of the nodes.
+	 */
+	private final int[] inNeighbors;
+
+	/**
+	 * Offsets of the out-neighbor lists; only the out-degrees are used.
+	 */
+	private final int[] outOffsets;
+
+	/**
+	 * Damping factor of PageRank or attenuation factor of Katz centrality.
+	 */
+	private final double parameter;
+
+	/**
+	 * Method for computing the fixed point.
+	 */
+	private final Solver solver;
+
+	/**
+	 * Inverse out-degree of every node for PageRank; <code>0</code> for the nodes without out-arcs.
+	 */
+	private final double[] inverseOutDegrees;
+
+	/**
+	 * Values of the last completed iteration.
+	 */
+	private double[] current;
+
+	/**
+	 * Values of the running iteration.
+	 */
+	private double[] next;
+
+	/**
+	 * Values of the iteration before the last one; <code>null</code> unless extrapolating.
+	 */
+	private double[] previous;
+
+	/**
+	 * Values of the third to last iteration, overwritten by the extrapolated values; <code>null</code>
+	 * unless extrapolating.
+	 */
+	private double[] older;
+
+	/**
+	 * Values of the last completed iteration passed to the out-neighbors of every node; for PageRank,
+	 * the values divided by the out-degrees, otherwise {@link #current} itself.
+	 */
+	private double[] contributions;
+
+	/**
+	 * Values of the running iteration passed to the out-neighbors of every node.
+	 */
+	private double[] nextContributions;
+
+	/**
+	 * Additive term of PageRank or the normalization factor of eigenvector centrality in the running
+	 * iteration.
+	 */
+	private double scale;
+
+	/**
+	 * Factor normalizing the values of the last iteration read by the running one; the inverse of
+	 * their sum for PageRank, <code>1</code> otherwise.
+	 */
+	private double inverseTotal;
+
+	/**
+	 * First node of every range, followed by the number of nodes.
+	 */
+	private int[] rangeStart;
+
+	/**
+	 * Change of the values of every range in the last pass.
+	 */
+	private double[] rangeResidual;
+
+	/**
+	 * Sum of the values of every range in the last pass.
+	 */
+	private double[] rangeTotal;
+
+	/**
+	 * Share of every range in the normalization of the next iteration; see
+	 * {@link #mass(int, double)}.
+	 */
+	private double[] rangeMass;
+
+	/**
+	 * Largest Collatz-Wielandt ratio of every range in the last pass.
+	 */
+	private double[] rangeRatio;
+
+	/**
+	 * Upper bound on the spectral radius of the adjacency matrix.
+	 */
+	private double radiusBound;
+
+	/**
+	 * Number of performed iterations.
+	 */
+	private int iterationCount;
+
+	/**
+	 * Flag indicating if the iteration converged.
+	 */
+	private boolean converged;
+}
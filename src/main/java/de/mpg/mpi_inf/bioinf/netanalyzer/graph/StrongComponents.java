@@ -0,0 +1,267 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Decomposition of a directed graph into strongly connected components.
+ * <p>
+ * The components are found by an iterative version of Tarjan's algorithm in time linear in the size
+ * of the graph. They are indexed in a topological order of the condensation, i.e. every arc between
+ * two different components leads from a component with a smaller index to one with a larger index.
+ * Consequently, a node can only reach nodes whose component index is at least as large as its own.
+ * </p>
+ */
+public final class StrongComponents {
+
+	/**
+	 * Finds the strongly connected components of the given directed graph.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the out-neighbor lists in <code>aTargets</code>.
+	 * @param aTargets Concatenated out-neighbor lists of the nodes.
+	 * @return Decomposition of the graph into strongly connected components.
+	 */
+	public static StrongComponents create(int aNodeCount, int[] aOffsets, int[] aTargets) {
+		final int[] index = new int[aNodeCount];	// Discovery index + 1; 0 for unvisited nodes
+		final int[] lowLink = new int[aNodeCount];
+		final int[] finished = new int[aNodeCount];	// Component in order of completion, -1 while on the stack
+		final int[] stack = new int[aNodeCount];	// Tarjan's stack of visited nodes
+		final int[] callNode = new int[aNodeCount];	// Recursion stack - node and position in its list
+		final int[] callEdge = new int[aNodeCount];
+		int nextIndex = 0, stackSize = 0, componentCount = 0;
+
+		for (int root = 0; root < aNodeCount; root++) {
+			if (index[root] != 0) {
+				continue;
+			}
+			int depth = 0;
+			callNode[0] = root;
+			callEdge[0] = aOffsets[root];
+			index[root] = lowLink[root] = ++nextIndex;
+			finished[root] = -1;
+			stack[stackSize++] = root;
+
+			while (depth >= 0) {
+				final int node = callNode[depth];
+				final int edge = callEdge[depth];
+				if (edge < aOffsets[node + 1]) {
+					callEdge[depth] = edge + 1;
+					final int target = aTargets[edge];
+					if (index[target] == 0) {
+						// Descend into the target
+						index[target] = lowLink[target] = ++nextIndex;
+						finished[target] = -1;
+						stack[stackSize++] = target;
+						callNode[++depth] = target;
+						callEdge[depth] = aOffsets[target];
+					} else if (finished[target] < 0 && index[target] < lowLink[node]) {
+						lowLink[node] = index[target];
+					}
+					continue;
+				}
+
+				// All targets of the node are processed
+				if (lowLink[node] == index[node]) {
+					int member;
+					do {
+						member = stack[--stackSize];
+						finished[member] = componentCount;
+					} while (member != node);
+					componentCount++;
+				}
+				if (--depth >= 0) {
+					final int parent = callNode[depth];
+					if (lowLink[node] < lowLink[parent]) {
+						lowLink[parent] = lowLink[node];
+					}
+				}
+			}
+		}
+
+		// Tarjan's algorithm completes the components in reverse topological order
+		final int[] labels = finished;
+		for (int v = 0; v < aNodeCount; v++) {
+			labels[v] = componentCount - 1 - labels[v];
+		}
+		return new StrongComponents(componentCount, labels, aOffsets, aTargets);
+	}
+
+	/**
+	 * Gets the number of strongly connected components.
+	 *
+	 * @return Number of strongly connected components in the graph.
+	 */
+	public int getComponentCount() {
+		return componentOffsets.length - 1;
+	}
+
+	/**
+	 * Gets the component of every node.
+	 *
+	 * @return Array storing the index of the strongly connected component of every node; the array is
+	 *         shared and must not be modified.
+	 */
+	public int[] getLabels() {
+		return labels;
+	}
+
+	/**
+	 * Gets the number of nodes in a strongly connected component.
+	 *
+	 * @param aComponent Index of the component.
+	 * @return Number of nodes in the component.
+	 */
+	public int getSize(int aComponent) {
+		return componentOffsets[aComponent + 1] - componentOffsets[aComponent];
+	}
+
+	/**
+	 * Gets the nodes sorted by component.
+	 *
+	 * @return Array listing the nodes in ascending order of their component indices, hence in a
+	 *         topological order of the condensation; the nodes of component <code>c</code> are stored
+	 *         in the range <code>[getComponentOffsets()[c], getComponentOffsets()[c + 1])</code>. The
+	 *         array is shared and must not be modified.
+	 */
+	public int[] getOrderedNodes() {
+		return orderedNodes;
+	}
+
+	/**
+	 * Gets the offsets of the components in {@link #getOrderedNodes()}.
+	 *
+	 * @return Array of length {@link #getComponentCount()} <code>+ 1</code>; the array is shared and
+	 *         must not be modified.
+	 */
+	public int[] getComponentOffsets() {
+		return componentOffsets;
+	}
+
+	/**
+	 * Gets the offsets of the arc lists of the condensation.
+	 *
+	 * @return Array of length {@link #getComponentCount()} <code>+ 1</code>; the components that
+	 *         component <code>c</code> has arcs to are listed in
+	 *         <code>getCondensationTargets()</code> in the range
+	 *         <code>[getCondensationOffsets()[c], getCondensationOffsets()[c + 1])</code>. The array is
+	 *         shared and must not be modified.
+	 */
+	public int[] getCondensationOffsets() {
+		return dagOffsets;
+	}
+
+	/**
+	 * Gets the arc lists of the condensation.
+	 *
+	 * @return Array of the concatenated lists of the components every component has arcs to; every
+	 *         list is sorted in ascending order and contains no duplicates. The array is shared and
+	 *         must not be modified.
+	 */
+	public int[] getCondensationTargets() {
+		return dagTargets;
+	}
+
+	/**
+	 * Initializes a new instance of <code>StrongComponents</code> and builds the condensation.
+	 *
+	 * @param aComponentCount Number of strongly connected components.
+	 * @param aLabels Component of every node, in topological order.
+	 * @param aOffsets Offsets of the out-neighbor lists in <code>aTargets</code>.
+	 * @param aTargets Concatenated out-neighbor lists of the nodes.
+	 */
+	private StrongComponents(int aComponentCount, int[] aLabels, int[] aOffsets, int[] aTargets) {
+		final int nodeCount = aLabels.length;
+		labels = aLabels;
+
+		// Group the nodes by component
+		componentOffsets = new int[aComponentCount + 1];
+		for (int v = 0; v < nodeCount; v++) {
+			componentOffsets[labels[v] + 1]++;
+		}
+		for (int c = 0; c < aComponentCount; c++) {
+			componentOffsets[c + 1] += componentOffsets[c];
+		}
+		orderedNodes = new int[nodeCount];
+		final int[] next = Arrays.copyOf(componentOffsets, aComponentCount);
+		for (int v = 0; v < nodeCount; v++) {
+			orderedNodes[next[labels[v]]++] = v;
+		}
+
+		// Collect the distinct arcs between components, using the last source as duplicate marker
+		final int[] lastSource = new int[aComponentCount];
+		Arrays.fill(lastSource, -1);
+		dagOffsets = new int[aComponentCount + 1];
+		int[] targets = new int[Math.min(aTargets.length, 16)];
+		int arcCount = 0;
+		for (int c = 0; c < aComponentCount; c++) {
+			final int first = arcCount;
+			for (int i = componentOffsets[c]; i < componentOffsets[c + 1]; i++) {
+				final int v = orderedNodes[i];
+				for (int e = aOffsets[v]; e < aOffsets[v + 1]; e++) {
+					final int target = labels[aTargets[e]];
+					if (target != c && lastSource[target] != c) {
+						lastSource[target] = c;
+						if (arcCount == targets.length) {
+							targets = Arrays.copyOf(targets, arcCount * 2);
+						}
+						targets[arcCount++] = target;
+					}
+				}
+			}
+			Arrays.sort(targets, first, arcCount);
+			dagOffsets[c + 1] = arcCount;
+		}
+		dagTargets = Arrays.copyOf(targets, arcCount);
+	}
+
+	/**
+	 * Component of every node.
+	 */
+	private final int[] labels;
+
+	/**
+	 * Nodes sorted by component.
+	 */
+	private final int[] orderedNodes;
+
+	/**
+	 * Offsets of the components in {@link #orderedNodes}.
+	 */
+	private final int[] componentOffsets;
+
+	/**
+	 * Offsets of the arc lists of the condensation.
+	 */
+	private final int[] dagOffsets;
+
+	/**
+	 * Arc lists of the condensation.
+	 */
+	private final int[] dagTargets;
+}
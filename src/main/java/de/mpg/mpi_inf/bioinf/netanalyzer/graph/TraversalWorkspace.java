@@ -0,0 +1,208 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Reusable storage for the breadth-first traversal and betweenness kernels.
+ * <p>
+ * A workspace is owned by a single thread and reused for all the traversals this thread performs, so
+ * that no arrays are allocated per source node. Instead of clearing the arrays before every
+ * traversal, a node is marked as visited by storing the current <i>epoch</i> in {@link #stamp}. The
+ * per-node values of a node are initialized by the kernels when the node is first reached, hence only
+ * entries touched by the current traversal are ever reset.
+ * </p>
+ */
+public final class TraversalWorkspace {
+
+	/**
+	 * Initializes a new, empty instance of <code>TraversalWorkspace</code>.
+	 * <p>
+	 * The arrays are allocated on the first call to {@link #begin(int, int)}.
+	 * </p>
+	 */
+	public TraversalWorkspace() {
+		epoch = 0;
+		queue = stamp = distance = sigma = predCount = descCount = EMPTY_INTS;
+		pred = predEdge = descEdge = EMPTY_INTS;
+		delta = edgeDependency = EMPTY_DOUBLES;
+		stressDependency = EMPTY_LONGS;
+	}
+
+	/**
+	 * Prepares this workspace for a new traversal.
+	 * <p>
+	 * The arrays indexed by node are enlarged to hold at least <code>aNodeCount</code> entries and the
+	 * arrays indexed by neighbor list position or by edge ID - at least <code>aSlotCount</code>
+	 * entries. After this call, no node is marked as visited.
+	 * </p>
+	 *
+	 * @param aNodeCount Number of nodes in the traversed graph.
+	 * @param aSlotCount Length of the neighbor lists array of the traversed graph.
+	 * @return Epoch of the new traversal; a node <code>v</code> has been visited in this traversal
+	 *         if and only if <code>stamp[v]</code> equals the returned value.
+	 */
+	public int begin(int aNodeCount, int aSlotCount) {
+		if (queue.length < aNodeCount) {
+			final int capacity = Math.max(aNodeCount, queue.length + (queue.length >> 1));
+			queue = new int[capacity];
+			stamp = new int[capacity];
+			distance = new int[capacity];
+			sigma = new int[capacity];
+			predCount = new int[capacity];
+			descCount = new int[capacity];
+			delta = new double[capacity];
+			stressDependency = new long[capacity];
+		}
+		if (pred.length < aSlotCount) {
+			final int capacity = Math.max(aSlotCount, pred.length + (pred.length >> 1));
+			pred = new int[capacity];
+			predEdge = new int[capacity];
+			descEdge = new int[capacity];
+			edgeDependency = new double[capacity];
+		}
+		if (epoch == Integer.MAX_VALUE) {
+			Arrays.fill(stamp, 0);
+			epoch = 0;
+		}
+		return ++epoch;
+	}
+
+	/**
+	 * Gets the storage for traversals from multiple sources at once.
+	 *
+	 * @return Multi-source traversal owned by the thread of this workspace; created on the first call.
+	 */
+	public MultiSourceBfs getMultiSourceBfs() {
+		if (multiSource == null) {
+			multiSource = new MultiSourceBfs();
+		}
+		return multiSource;
+	}
+
+	/**
+	 * Resets the betweenness-related values of a node reached for the first time in the current
+	 * traversal.
+	 *
+	 * @param aNode Index of the node.
+	 * @param aSigma Initial number of shortest paths to the node - 1 for the source, 0 otherwise.
+	 */
+	public void resetNode(int aNode, int aSigma) {
+		sigma[aNode] = aSigma;
+		predCount[aNode] = 0;
+		descCount[aNode] = 0;
+		delta[aNode] = 0.0;
+		stressDependency[aNode] = 0;
+	}
+
+	/**
+	 * Traversal queue; after the traversal, it lists the visited nodes in order of non-decreasing
+	 * distance.
+	 */
+	public int[] queue;
+
+	/**
+	 * Epoch of the last traversal that visited each node.
+	 */
+	public int[] stamp;
+
+	/**
+	 * Distance of each visited node from the source.
+	 */
+	public int[] distance;
+
+	/**
+	 * Number of shortest paths from the source to each visited node.
+	 */
+	public int[] sigma;
+
+	/**
+	 * Number of predecessors of each visited node.
+	 */
+	public int[] predCount;
+
+	/**
+	 * Number of descendant edges of each visited node.
+	 */
+	public int[] descCount;
+
+	/**
+	 * Dependency of the source on each visited node.
+	 */
+	public double[] delta;
+
+	/**
+	 * Stress dependency of the source on each visited node.
+	 */
+	public long[] stressDependency;
+
+	/**
+	 * Predecessors of the nodes, stored at the neighbor list positions of the nodes.
+	 */
+	public int[] pred;
+
+	/**
+	 * IDs of the edges from the predecessors, parallel to {@link #pred}.
+	 */
+	public int[] predEdge;
+
+	/**
+	 * IDs of the edges to descendants, stored at the neighbor list positions of the nodes.
+	 */
+	public int[] descEdge;
+
+	/**
+	 * Dependency of the source on each edge, indexed by edge ID.
+	 */
+	public double[] edgeDependency;
+
+	/**
+	 * Epoch of the current traversal.
+	 */
+	private int epoch;
+
+	/**
+	 * Multi-source traversal; <code>null</code> until first requested.
+	 */
+	private MultiSourceBfs multiSource;
+
+	/**
+	 * Shared empty array of <code>int</code>s.
+	 */
+	private static final int[] EMPTY_INTS = new int[0];
+
+	/**
+	 * Shared empty array of <code>double</code>s.
+	 */
+	private static final double[] EMPTY_DOUBLES = new double[0];
+
+	/**
+	 * Shared empty array of <code>long</code>s.
+	 */
+	private static final long[] EMPTY_LONGS = new long[0];
+}
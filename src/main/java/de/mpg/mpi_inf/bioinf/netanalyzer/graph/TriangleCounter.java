@@ -0,0 +1,425 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.graph;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+/**
+ * Triangle and wedge counts of a graph with simple, sorted neighbor lists.
+ * <p>
+ * Every edge is oriented from the end node of lower degree towards the end node of higher degree, ties
+ * broken by index, and only the higher-ranked neighbors of a node are kept in its <i>forward</i> list.
+ * Every triangle is then found exactly once, from its lowest-ranked node, by intersecting the forward
+ * lists of two of its nodes. The forward lists of hubs are short, so a hub costs about as much as an
+ * average node instead of the square of its degree. The lists are intersected by merging, or by
+ * galloping through the longer list when the lengths differ much.
+ * </p>
+ * <p>
+ * The nodes can also be ranked by a degeneracy ordering (see {@link CoreDecomposition}), which bounds
+ * the length of every forward list by the degeneracy of the graph.
+ * </p>
+ * <p>
+ * For directed graphs, the triangles are those of the undirected view, and every node pair of a
+ * triangle is weighted by the number of arcs between its nodes, so that the counts give the number of
+ * arcs among the neighbors of a node. For undirected graphs, every pair counts as two arcs.
+ * </p>
+ * <p>
+ * The counts are accumulated by the calling threads, each into its own array; an instance holds no
+ * mutable state and can be shared between threads.
+ * </p>
+ */
+public final class TriangleCounter {
+
+	/**
+	 * Creates a counter for the given undirected graph.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; every list must be sorted in
+	 *        ascending order and free of duplicates and of the node itself.
+	 * @return Triangle counter for the graph.
+	 */
+	public static TriangleCounter create(int aNodeCount, int[] aOffsets, int[] aNeighbors) {
+		return create(aNodeCount, aOffsets, aNeighbors, null);
+	}
+
+	/**
+	 * Creates a counter for the given undirected graph with the given ranking of the nodes.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the nodes; every list must be sorted in
+	 *        ascending order and free of duplicates and of the node itself.
+	 * @param aRanks Distinct rank of every node, such as its position in a degeneracy ordering;
+	 *        <code>null</code> to rank the nodes by degree.
+	 * @return Triangle counter for the graph.
+	 */
+	public static TriangleCounter create(int aNodeCount, int[] aOffsets, int[] aNeighbors, int[] aRanks) {
+		return new TriangleCounter(aNodeCount, aOffsets, aNeighbors, aOffsets, aNeighbors, null, null, aRanks);
+	}
+
+	/**
+	 * Creates a counter for the given directed graph.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists of the undirected view in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the undirected view; like all other lists, they
+	 *        must be sorted in ascending order and free of duplicates and of the node itself.
+	 * @param aOutOffsets Offsets of the out-neighbor lists in <code>aOutNeighbors</code>.
+	 * @param aOutNeighbors Concatenated out-neighbor lists of the nodes.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @return Triangle counter for the graph.
+	 */
+	public static TriangleCounter create(int aNodeCount, int[] aOffsets, int[] aNeighbors, int[] aOutOffsets,
+			int[] aOutNeighbors, int[] aInOffsets, int[] aInNeighbors) {
+		return create(aNodeCount, aOffsets, aNeighbors, aOutOffsets, aOutNeighbors, aInOffsets, aInNeighbors,
+				null);
+	}
+
+	/**
+	 * Creates a counter for the given directed graph with the given ranking of the nodes.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists of the undirected view in <code>aNeighbors</code>.
+	 * @param aNeighbors Concatenated neighbor lists of the undirected view; like all other lists, they
+	 *        must be sorted in ascending order and free of duplicates and of the node itself.
+	 * @param aOutOffsets Offsets of the out-neighbor lists in <code>aOutNeighbors</code>.
+	 * @param aOutNeighbors Concatenated out-neighbor lists of the nodes.
+	 * @param aInOffsets Offsets of the in-neighbor lists in <code>aInNeighbors</code>.
+	 * @param aInNeighbors Concatenated in-neighbor lists of the nodes.
+	 * @param aRanks Distinct rank of every node, such as its position in a degeneracy ordering of the
+	 *        undirected view; <code>null</code> to rank the nodes by degree.
+	 * @return Triangle counter for the graph.
+	 */
+	public static TriangleCounter create(int aNodeCount, int[] aOffsets, int[] aNeighbors, int[] aOutOffsets,
+			int[] aOutNeighbors, int[] aInOffsets, int[] aInNeighbors, int[] aRanks) {
+		return new TriangleCounter(aNodeCount, aOffsets, aNeighbors, aOutOffsets, aOutNeighbors, aInOffsets,
+				aInNeighbors, aRanks);
+	}
+
+	/**
+	 * Lists the triangles whose lowest-ranked node is the given node.
+	 * <p>
+	 * For every such triangle, each of its nodes is credited with the number of arcs between the two
+	 * other nodes. After this method has been called for all nodes, the entry of every node equals
+	 * {@link #countAt(int)}.
+	 * </p>
+	 *
+	 * @param aNode Index of the node.
+	 * @param aArcs Array to accumulate the number of arcs among the neighbors of every node in.
+	 * @return Number of triangles found.
+	 */
+	public long countFrom(int aNode, long[] aArcs) {
+		long triangles = 0;
+		final int first = forwardOffsets[aNode], last = forwardOffsets[aNode + 1];
+		for (int i = first; i < last; i++) {
+			final int v = forward[i];
+			int j = first, k = forwardOffsets[v];
+			final int lastK = forwardOffsets[v + 1];
+			final boolean gallop = (last - first) > GALLOP_RATIO * (lastK - k)
+					|| (lastK - k) > GALLOP_RATIO * (last - first);
+			while (j < last && k < lastK) {
+				final int a = forward[j], b = forward[k];
+				if (a < b) {
+					j = gallop ? advance(forward, j, last, b) : j + 1;
+				} else if (a > b) {
+					k = gallop ? advance(forward, k, lastK, a) : k + 1;
+				} else {
+					aArcs[aNode] += weight(k);
+					aArcs[v] += weight(j);
+					aArcs[a] += weight(i);
+					triangles++;
+					j++;
+					k++;
+				}
+			}
+		}
+		return triangles;
+	}
+
+	/**
+	 * Counts the arcs among the neighbors of the given node directly.
+	 * <p>
+	 * Unlike {@link #countFrom(int, long[])}, this method does not need the other nodes to be
+	 * processed, which suits analyses of a few selected nodes.
+	 * </p>
+	 *
+	 * @param aNode Index of the node.
+	 * @return Number of ordered pairs <code>(a, b)</code> of neighbors of <code>aNode</code>, such
+	 *         that <code>b</code> is an out-neighbor of <code>a</code>.
+	 */
+	public long countAt(int aNode) {
+		long arcs = 0;
+		final int first = offsets[aNode], last = offsets[aNode + 1];
+		for (int i = first; i < last; i++) {
+			final int a = neighbors[i];
+			arcs += intersectionSize(neighbors, first, last, outNeighbors, outOffsets[a], outOffsets[a + 1]);
+		}
+		return arcs;
+	}
+
+	/**
+	 * Computes the topological coefficient of the given node in the undirected view.
+	 * <p>
+	 * The topological coefficient is the average number of neighbors the node shares with the nodes
+	 * sharing at least one neighbor with it, plus one if they are adjacent, divided by the number of
+	 * its neighbors. The nodes at distance two are marked in the stamps of the given workspace, so no
+	 * arrays are allocated.
+	 * </p>
+	 *
+	 * @param aNode Index of the node.
+	 * @param aWorkspace Workspace of the calling thread; the traversal stamps are overwritten.
+	 * @return Topological coefficient of <code>aNode</code>; <code>NaN</code> if no other node shares
+	 *         a neighbor with it.
+	 */
+	public double getTopologicalCoefficient(int aNode, TraversalWorkspace aWorkspace) {
+		final int epoch = aWorkspace.begin(nodeCount, 0);
+		final int[] stamp = aWorkspace.stamp;
+		final int first = offsets[aNode], last = offsets[aNode + 1];
+		long shared = 0;
+		int reached = 0;
+		for (int i = first; i < last; i++) {
+			final int neighbor = neighbors[i];
+			for (int j = offsets[neighbor]; j < offsets[neighbor + 1]; j++) {
+				final int node = neighbors[j];
+				if (node != aNode) {
+					shared++;
+					if (stamp[node] != epoch) {
+						stamp[node] = epoch;
+						reached++;
+					}
+				}
+			}
+		}
+		for (int i = first; i < last; i++) {
+			if (stamp[neighbors[i]] == epoch) {
+				shared++;
+			}
+		}
+		return (double) shared / ((double) reached * (double) (last - first));
+	}
+
+	/**
+	 * Initializes a new instance of <code>TriangleCounter</code> and builds the forward lists.
+	 *
+	 * @param aNodeCount Number of nodes in the graph.
+	 * @param aOffsets Offsets of the neighbor lists of the undirected view.
+	 * @param aNeighbors Neighbor lists of the undirected view.
+	 * @param aOutOffsets Offsets of the out-neighbor lists.
+	 * @param aOutNeighbors Out-neighbor lists.
+	 * @param aInOffsets Offsets of the in-neighbor lists; <code>null</code> for undirected graphs.
+	 * @param aInNeighbors In-neighbor lists; <code>null</code> for undirected graphs.
+	 * @param aRanks Rank of every node; <code>null</code> to rank the nodes by degree.
+	 */
+	private TriangleCounter(int aNodeCount, int[] aOffsets, int[] aNeighbors, int[] aOutOffsets,
+			int[] aOutNeighbors, int[] aInOffsets, int[] aInNeighbors, int[] aRanks) {
+		nodeCount = aNodeCount;
+		ranks = aRanks;
+		offsets = aOffsets;
+		neighbors = aNeighbors;
+		outOffsets = aOutOffsets;
+		outNeighbors = aOutNeighbors;
+		forwardOffsets = new int[aNodeCount + 1];
+		for (int u = 0; u < aNodeCount; u++) {
+			int count = 0;
+			for (int i = aOffsets[u]; i < aOffsets[u + 1]; i++) {
+				if (precedes(u, aNeighbors[i])) {
+					count++;
+				}
+			}
+			forwardOffsets[u + 1] = forwardOffsets[u] + count;
+		}
+		forward = new int[forwardOffsets[aNodeCount]];
+		forwardArcs = aInNeighbors != null ? new byte[forward.length] : null;
+		for (int u = 0; u < aNodeCount; u++) {
+			int pos = forwardOffsets[u];
+			int out = aOutOffsets[u], in = aInNeighbors != null ? aInOffsets[u] : 0;
+			for (int i = aOffsets[u]; i < aOffsets[u + 1]; i++) {
+				final int v = aNeighbors[i];
+				if (!precedes(u, v)) {
+					continue;
+				}
+				if (forwardArcs != null) {
+					// Both the out- and the in-neighbors are sorted, so they are merged with the neighbors
+					while (out < aOutOffsets[u + 1] && aOutNeighbors[out] < v) {
+						out++;
+					}
+					while (in < aInOffsets[u + 1] && aInNeighbors[in] < v) {
+						in++;
+					}
+					int arcs = 0;
+					if (out < aOutOffsets[u + 1] && aOutNeighbors[out] == v) {
+						arcs++;
+					}
+					if (in < aInOffsets[u + 1] && aInNeighbors[in] == v) {
+						arcs++;
+					}
+					forwardArcs[pos] = (byte) arcs;
+				}
+				forward[pos++] = v;
+			}
+		}
+	}
+
+	/**
+	 * Checks if the edge between the given nodes is oriented from the first to the second node.
+	 *
+	 * @param aNode1 Index of the first node.
+	 * @param aNode2 Index of the second node.
+	 * @return <code>true</code> if <code>aNode2</code> has a higher rank than <code>aNode1</code> or,
+	 *         without ranks, a higher degree, or the same degree and a higher index; <code>false</code>
+	 *         otherwise.
+	 */
+	private boolean precedes(int aNode1, int aNode2) {
+		if (ranks != null) {
+			return ranks[aNode1] < ranks[aNode2];
+		}
+		final int degree1 = offsets[aNode1 + 1] - offsets[aNode1];
+		final int degree2 = offsets[aNode2 + 1] - offsets[aNode2];
+		return degree1 < degree2 || (degree1 == degree2 && aNode1 < aNode2);
+	}
+
+	/**
+	 * Gets the number of arcs between the end nodes of the given forward edge.
+	 *
+	 * @param aPosition Position of the edge in {@link #forward}.
+	 * @return <code>1</code> or <code>2</code>; always <code>2</code> for undirected graphs.
+	 */
+	private int weight(int aPosition) {
+		return forwardArcs != null ? forwardArcs[aPosition] : 2;
+	}
+
+	/**
+	 * Counts the common entries of two sorted ranges of node indices.
+	 *
+	 * @param aList1 Array storing the first range.
+	 * @param aFirst1 Start of the first range.
+	 * @param aLast1 End (exclusive) of the first range.
+	 * @param aList2 Array storing the second range.
+	 * @param aFirst2 Start of the second range.
+	 * @param aLast2 End (exclusive) of the second range.
+	 * @return Number of node indices contained in both ranges.
+	 */
+	private static int intersectionSize(int[] aList1, int aFirst1, int aLast1, int[] aList2, int aFirst2,
+			int aLast2) {
+		final boolean gallop = (aLast1 - aFirst1) > GALLOP_RATIO * (aLast2 - aFirst2)
+				|| (aLast2 - aFirst2) > GALLOP_RATIO * (aLast1 - aFirst1);
+		int i = aFirst1, j = aFirst2, common = 0;
+		while (i < aLast1 && j < aLast2) {
+			final int a = aList1[i], b = aList2[j];
+			if (a < b) {
+				i = gallop ? advance(aList1, i, aLast1, b) : i + 1;
+			} else if (a > b) {
+				j = gallop ? advance(aList2, j, aLast2, a) : j + 1;
+			} else {
+				common++;
+				i++;
+				j++;
+			}
+		}
+		return common;
+	}
+
+	/**
+	 * Finds the first entry of a sorted range that is not less than the given value, by doubling the
+	 * step and then searching binarily.
+	 *
+	 * @param aList Array storing the range.
+	 * @param aFrom Position to start from; its entry is less than <code>aValue</code>.
+	 * @param aLast End (exclusive) of the range.
+	 * @param aValue Value to search for.
+	 * @return Position of the first entry not less than <code>aValue</code>; <code>aLast</code> if
+	 *         there is no such entry.
+	 */
+	private static int advance(int[] aList, int aFrom, int aLast, int aValue) {
+		int low = aFrom + 1, step = 1;
+		while (low + step < aLast && aList[low + step] < aValue) {
+			low += step;
+			step <<= 1;
+		}
+		int high = Math.min(low + step, aLast);
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (aList[mid] < aValue) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Number of nodes in the graph.
+	 */
+	private final int nodeCount;
+
+	/**
+	 * Offsets of the neighbor lists of the undirected view.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * Neighbor lists of the undirected view.
+	 */
+	private final int[] neighbors;
+
+	/**
+	 * Offsets of the out-neighbor lists; the same as {@link #offsets} for undirected graphs.
+	 */
+	private final int[] outOffsets;
+
+	/**
+	 * Out-neighbor lists; the same as {@link #neighbors} for undirected graphs.
+	 */
+	private final int[] outNeighbors;
+
+	/**
+	 * Rank of every node; <code>null</code> if the nodes are ranked by degree.
+	 */
+	private final int[] ranks;
+
+	/**
+	 * Offsets of the forward lists in {@link #forward}.
+	 */
+	private final int[] forwardOffsets;
+
+	/**
+	 * Forward lists - the neighbors of higher rank of every node, sorted by index.
+	 */
+	private final int[] forward;
+
+	/**
+	 * Number of arcs along every forward edge, parallel to {@link #forward}; <code>null</code> for
+	 * undirected graphs.
+	 */
+	private final byte[] forwardArcs;
+
+	/**
+	 * Ratio of the lengths of two lists above which the shorter one gallops through the longer one.
+	 */
+	private static final int GALLOP_RATIO = 16;
+}
@@ -36,13 +36,16 @@ import org.cytoscape.task.AbstractNetworkCollectionTask;
 import org.cytoscape.work.TaskMonitor;
 import org.cytoscape.work.Tunable;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisPlan;
 import de.mpg.mpi_inf.bioinf.netanalyzer.CyNetworkUtils;
 import de.mpg.mpi_inf.bioinf.netanalyzer.DirNetworkAnalyzer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.NetworkAnalyzer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.UndirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInspection;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStatus;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 
 public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 
@@ -52,6 +55,41 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 	//@Tunable(description = "Analyze only selected nodes?")
 	public Boolean selectedOnly = false;
 	
+	/**
+	 * Comma-separated keys of the metrics to be computed, or <code>all</code>; when empty, the metrics
+	 * selected in the plugin settings are computed.
+	 * 
+	 * @see Metric#getKey()
+	 */
+	@Tunable(description = "Metrics to compute (comma-separated: clustering, topologicalcoefficient, "
+			+ "neighborhoodconnectivity, diameter, shortestpaths, closeness, radiality, betweenness, stress, "
+			+ "pagerank, eigenvector, katz, coreness; "
+			+ "empty for the metrics selected in the settings)")
+	public String metrics = "";
+	
+	/**
+	 * Maximum error of approximated betweenness; when <code>0</code>, the approximation selected in the
+	 * plugin settings is used.
+	 */
+	@Tunable(description = "Maximum error of approximate betweenness and stress (0 for the settings)")
+	public double betweennessEpsilon = 0.0;
+	
+	/**
+	 * Probability that the error of approximated betweenness exceeds {@link #betweennessEpsilon}.
+	 */
+	@Tunable(description = "Probability of exceeding the error of approximate betweenness")
+	public double betweennessDelta = 0.1;
+	
+	/**
+	 * Number of top-ranked nodes for which closeness and betweenness are computed; when
+	 * <code>0</code>, the number selected in the plugin settings is used.
+	 */
+	@Tunable(description = "Number of top-ranked nodes by closeness and betweenness (0 for the settings)")
+	public int topK = 0;
+	
+	/** Analyzer of the network currently being analyzed; <code>null</code> if no analysis is running. */
+	private NetworkAnalyzer analyzer;
+	
 	
 	public AnalyzeNetworkTask(final Collection<CyNetwork> networks) {
 		super(networks);
@@ -64,8 +102,18 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 		
 		taskMonitor.setProgress(processed);
 		taskMonitor.setTitle("Analyzing Networks");
+		AnalysisPlan plan = (metrics == null || metrics.trim().length() == 0) ? 
+				AnalysisPlan.fromSettings(SettingsSerializer.getPluginSettings()) : AnalysisPlan.parse(metrics);
+		if (betweennessEpsilon > 0) {
+			plan = plan.approximate(betweennessEpsilon, betweennessDelta);
+		}
+		if (topK > 0) {
+			plan = plan.topK(topK);
+		}
 
 		for (final CyNetwork network : networks) {
+			if (cancelled)
+				return;
 			taskMonitor.setStatusMessage("Analyzing Network: "
 					+ network.getRow(network).get(CyNetwork.NAME, String.class));
 			
@@ -79,13 +127,13 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 			} else {
 				selectedNodes = null;
 			}
-			analyze(network, selectedNodes);
+			analyze(network, selectedNodes, plan);
 			processed = processed+increment;
 			taskMonitor.setProgress(processed);
 		}
 	}
 
-	private void analyze(final CyNetwork network, final Set<CyNode> nodes) {
+	private void analyze(final CyNetwork network, final Set<CyNode> nodes, final AnalysisPlan plan) {
 		final NetworkInspection status = CyNetworkUtils.inspectNetwork(network);
 		final NetworkInterpretation interpr = interpretNetwork(status);
 		
@@ -97,8 +145,27 @@ public class AnalyzeNetworkTask extends AbstractNetworkCollectionTask {
 			analyzer = new DirNetworkAnalyzer(network, nodes, interpr);
 		else
 			analyzer = new UndirNetworkAnalyzer(network, nodes, interpr);
+		analyzer.setPlan(plan);
 		
+		synchronized (this) {
+			if (cancelled)
+				return;
+			this.analyzer = analyzer;
+		}
 		analyzer.computeAll();
+		synchronized (this) {
+			this.analyzer = null;
+		}
+	}
+
+	@Override
+	public void cancel() {
+		super.cancel();
+		// Stop the workers of the running analysis in the shared thread pool
+		synchronized (this) {
+			if (analyzer != null)
+				analyzer.cancel();
+		}
 	}
 	
 	private final NetworkInterpretation interpretNetwork(NetworkInspection aInsp) {
@@ -62,6 +62,7 @@ import de.mpg.mpi_inf.bioinf.netanalyzer.data.ComplexParam;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Decorators;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkStats;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.RankedNodes;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.StatsSerializer;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
@@ -231,13 +232,31 @@ public class AnalysisResultPanel extends JPanel implements ActionListener, CytoP
 				if (useExpandable) {
 					this.add(new ChartExpandablePanel(owner, id, v, (i == 0), decs));
 				} else {
-					tabs.addTab(v.getTitle(), new ChartDisplayPanel(owner, id, v, decs));
+					String title = v.getTitle();
+					if ((stats.contains("betweennessError") && ("nodeBetween".equals(id) || "stressDist".equals(id)))
+							|| (stats.contains("effDiameter") && "splDist".equals(id))
+							|| (stats.contains("clusteringError") && "cksDist".equals(id))) {
+						title += Messages.DI_ESTIMATE;
+					}
+					tabs.addTab(title, new ChartDisplayPanel(owner, id, v, decs));
 				}
 			} catch (Exception ex) {
 				throw new InnerException(ex);
 			}
 		}
 
+		for (final String id : stats.getComputedRanked()) {
+			final RankedNodes ranking = stats.getRanked(id);
+			final String title = ranking.getErrorBound() > 0 ? Messages.get(id) + Messages.DI_ESTIMATE : Messages.get(id);
+			final JComponent rankingPanel = new RankedNodesPanel(stats.getNetwork(), ranking);
+			if (useExpandable) {
+				rankingPanel.setBorder(LookAndFeelUtil.createTitledBorder(title));
+				this.add(rankingPanel);
+			} else {
+				tabs.addTab(title, rankingPanel);
+			}
+		}
+
 		this.add(Box.createVerticalStrut(Utils.BORDER_SIZE));
 		
 		saveButton = new JButton(Messages.DI_SAVESTATISTICS);
@@ -33,8 +33,6 @@ import java.awt.Component;
 import java.awt.Frame;
 import java.awt.HeadlessException;
 import java.awt.event.ActionEvent;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
 
 import javax.swing.AbstractAction;
@@ -182,7 +180,7 @@ public class ConnComponentsDialog extends JDialog implements DocumentListener, L
 					network.getRow(edge).set(CyNetwork.SELECTED, false);
 				
 				CCInfo comp = components[listComp.getSelectedIndex()];
-				final List<CyNode> nodes = new ArrayList<CyNode>(ConnComponentAnalyzer.getNodesOf(network, comp));
+				final Set<CyNode> nodes = ConnComponentAnalyzer.getNodesOf(network, comp);
 				final Set<CyEdge> edges = CyNetworkUtils.getAllConnectingEdges(network,nodes);
 				
 				for(CyNode node: nodes)
@@ -46,6 +46,7 @@ import org.slf4j.LoggerFactory;
 
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
 import de.mpg.mpi_inf.bioinf.netanalyzer.data.io.SettingsSerializer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
 
 /**
  * Dialog for viewing and editing plugin's settings.
@@ -107,6 +108,12 @@ public class PluginSettingsDialog extends JDialog {
 		btnOK = Utils.createButton(new AbstractAction(Messages.DI_OK) {
 			@Override
 			public void actionPerformed(ActionEvent e) {
+				final String error = checkFactors();
+				if (error != null) {
+					// Keep the dialog open, so that the user can correct the value
+					Utils.showErrorBox(PluginSettingsDialog.this, Messages.DT_WRONGDATA, error);
+					return;
+				}
 				try {
 					panSettings.updateData();
 					SettingsSerializer.save();
@@ -154,4 +161,35 @@ public class PluginSettingsDialog extends JDialog {
 		getRootPane().setDefaultButton(btnOK);
 		btnOK.requestFocusInWindow();
 	}
+
+	/**
+	 * Checks the probability of exceeding the error of approximated betweenness, the number of sampled
+	 * pairs of neighbors, the damping factor of PageRank and the attenuation factor of Katz centrality
+	 * entered by the user.
+	 * 
+	 * @return Message describing the invalid value; <code>null</code> if all values are valid.
+	 */
+	private String checkFactors() {
+		final Object delta = panSettings.getValueOf("BetweennessDelta");
+		if (delta instanceof Number
+				&& !PluginSettings.isValidBetweennessDelta(((Number) delta).doubleValue())) {
+			return Messages.SM_BETWEENNESSDELTA;
+		}
+		final Object samples = panSettings.getValueOf("ClusteringSamples");
+		if (samples instanceof Number
+				&& !PluginSettings.isValidClusteringSamples(((Number) samples).intValue())) {
+			return Messages.SM_CLUSTERINGSAMPLES;
+		}
+		final Object damping = panSettings.getValueOf("PageRankDamping");
+		if (damping instanceof Number
+				&& !PluginSettings.isValidPageRankDamping(((Number) damping).doubleValue())) {
+			return Messages.SM_PAGERANKDAMPING;
+		}
+		final Object attenuation = panSettings.getValueOf("KatzAttenuation");
+		if (attenuation instanceof Number
+				&& !PluginSettings.isValidKatzAttenuation(((Number) attenuation).doubleValue())) {
+			return Messages.SM_KATZATTENUATION;
+		}
+		return null;
+	}
 }
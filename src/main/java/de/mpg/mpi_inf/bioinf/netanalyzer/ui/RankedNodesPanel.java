@@ -0,0 +1,218 @@
+package de.mpg.mpi_inf.bioinf.netanalyzer.ui;
+
+/*
+ * #%L
+ * Cytoscape NetworkAnalyzer Impl (network-analyzer-impl)
+ * $Id:$
+ * $HeadURL:$
+ * %%
+ * Copyright (C) 2006 - 2013
+ *   Max Planck Institute for Informatics, Saarbruecken, Germany
+ *   The Cytoscape Consortium
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as 
+ * published by the Free Software Foundation, either version 2.1 of the 
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Lesser Public 
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.table.AbstractTableModel;
+
+import org.cytoscape.model.CyNetwork;
+import org.cytoscape.model.CyNode;
+import org.cytoscape.util.swing.LookAndFeelUtil;
+
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Messages;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.RankedNodes;
+
+/**
+ * Panel displaying the top nodes by a centrality measure in a table, with a button that selects them
+ * in the network.
+ */
+public class RankedNodesPanel extends JPanel implements ActionListener {
+
+	/**
+	 * Initializes a new instance of <code>RankedNodesPanel</code>.
+	 * 
+	 * @param aNetwork
+	 *            Analyzed network; <code>null</code> if the results were loaded from a file.
+	 * @param aRanking
+	 *            Ranking of the top nodes to be displayed.
+	 */
+	public RankedNodesPanel(CyNetwork aNetwork, RankedNodes aRanking) {
+		super(new BorderLayout(0, Utils.BORDER_SIZE));
+		network = aNetwork;
+		ranking = aRanking;
+
+		table = new JTable(new RankingTableModel());
+		table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+		add(new JScrollPane(table), BorderLayout.CENTER);
+
+		selectButton = new JButton(Messages.DI_SELECTNODES);
+		selectButton.addActionListener(this);
+		selectButton.setEnabled(network != null);
+		final JPanel buttonPane = LookAndFeelUtil.createOkCancelPanel(null, null, selectButton);
+		if (LookAndFeelUtil.isAquaLAF()) {
+			buttonPane.setOpaque(false);
+		}
+		add(buttonPane, BorderLayout.SOUTH);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.awt.event.ActionListener#actionPerformed(java.awt.event.ActionEvent)
+	 */
+	public void actionPerformed(ActionEvent e) {
+		if (e.getSource() == selectButton) {
+			selectNodes();
+		}
+	}
+
+	/**
+	 * Selects the ranked nodes chosen in the table, or all ranked nodes if none is chosen, and
+	 * deselects all other nodes of the network.
+	 */
+	private void selectNodes() {
+		for (final CyNode node : network.getNodeList()) {
+			network.getRow(node).set(CyNetwork.SELECTED, false);
+		}
+		int[] rows = table.getSelectedRows();
+		if (rows.length == 0) {
+			rows = new int[ranking.size()];
+			for (int i = 0; i < rows.length; i++) {
+				rows[i] = i;
+			}
+		}
+		for (final int row : rows) {
+			final CyNode node = network.getNode(ranking.getSUID(table.convertRowIndexToModel(row)));
+			if (node != null) {
+				network.getRow(node).set(CyNetwork.SELECTED, true);
+			}
+		}
+	}
+
+	/**
+	 * Table model listing the rank, the name and the value of every ranked node.
+	 */
+	private final class RankingTableModel extends AbstractTableModel {
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getRowCount()
+		 */
+		public int getRowCount() {
+			return ranking.size();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getColumnCount()
+		 */
+		public int getColumnCount() {
+			return 3;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.AbstractTableModel#getColumnName(int)
+		 */
+		@Override
+		public String getColumnName(int aColumn) {
+			switch (aColumn) {
+			case 0:
+				return Messages.DI_RANK;
+			case 1:
+				return Messages.DI_NODE;
+			default:
+				return ranking.getErrorBound() > 0 ? Messages.DI_VALUE + Messages.DI_ESTIMATE : Messages.DI_VALUE;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.AbstractTableModel#getColumnClass(int)
+		 */
+		@Override
+		public Class<?> getColumnClass(int aColumn) {
+			switch (aColumn) {
+			case 0:
+				return Integer.class;
+			case 1:
+				return String.class;
+			default:
+				return Double.class;
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see javax.swing.table.TableModel#getValueAt(int, int)
+		 */
+		public Object getValueAt(int aRow, int aColumn) {
+			switch (aColumn) {
+			case 0:
+				return Integer.valueOf(aRow + 1);
+			case 1:
+				final String name = ranking.getName(aRow);
+				return name != null ? name : String.valueOf(ranking.getSUID(aRow));
+			default:
+				return Double.valueOf(ranking.getValue(aRow));
+			}
+		}
+
+		/**
+		 * Unique ID for this version of this class. It is used in serialization.
+		 */
+		private static final long serialVersionUID = -2716250811694823157L;
+	}
+
+	/**
+	 * Unique ID for this version of this class. It is used in serialization.
+	 */
+	private static final long serialVersionUID = 4870336919577204108L;
+
+	/**
+	 * Analyzed network, in which the ranked nodes are selected.
+	 */
+	private final CyNetwork network;
+
+	/**
+	 * Ranking of the top nodes displayed in this panel.
+	 */
+	private final RankedNodes ranking;
+
+	/**
+	 * Table listing the ranked nodes.
+	 */
+	private final JTable table;
+
+	/**
+	 * &quot;Select Nodes&quot; button.
+	 */
+	private final JButton selectButton;
+}
@@ -40,7 +40,9 @@ import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JSpinner;
 import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 
 import org.cytoscape.util.swing.ColorButton;
@@ -135,8 +137,8 @@ public class SettingsPanel extends JPanel {
 	 * 
 	 * @param aPropName Name of the property to get the value of.
 	 * @return Value of the property as instance of <code>Boolean</code>, <code>Color</code>,
-	 *         <code>PointShape</code> or <code>String</code>; <code>null</code> if the property could
-	 *         not be found.
+	 *         <code>Double</code>, <code>Integer</code>, <code>PointShape</code> or <code>String</code>;
+	 *         <code>null</code> if the property could not be found.
 	 */
 	public Object getValueOf(String aPropName) {
 		final Component[] comps = getComponents();
@@ -153,6 +155,8 @@ public class SettingsPanel extends JPanel {
 					return ((JTextField) c).getText();
 				} else if (c instanceof JComboBox) {
 					return PointShape.parse(((JComboBox) c).getSelectedItem().toString());
+				} else if (c instanceof JSpinner) {
+					return ((JSpinner) c).getValue();
 				}
 			}
 		}
@@ -273,6 +277,10 @@ public class SettingsPanel extends JPanel {
 					c = createColorInput(aPropName, (Color) aValue);
 				else if (PointShape.class.getName().equals(typeName))
 					c = createPointShapeInput(aPropName, (PointShape) aValue);
+				else if (int.class.getName().equals(typeName))
+					c = createIntegerInput(aPropName, (Integer) aValue);
+				else if (double.class.getName().equals(typeName))
+					c = createDoubleInput(aPropName, (Double) aValue);
 			}
 			
 			if (c != null)
@@ -312,6 +320,35 @@ public class SettingsPanel extends JPanel {
 		return inputField;
 	}
 
+	/**
+	 * Creates a spinner to present a non-negative integer property.
+	 * 
+	 * @param aPropName Name of the property to be presented.
+	 * @param aValue Value of the property in the form of an <code>Integer</code> instance.
+	 */
+	private JSpinner createIntegerInput(String aPropName, Integer aValue) {
+		final int value = Math.max(0, aValue.intValue());
+		final JSpinner spinner = new JSpinner(new SpinnerNumberModel(value, 0, Integer.MAX_VALUE, 1));
+		spinner.setName(aPropName);
+		
+		return spinner;
+	}
+
+	/**
+	 * Creates a spinner to present a probability or another real-valued property in the range [0, 1].
+	 * 
+	 * @param aPropName Name of the property to be presented.
+	 * @param aValue Value of the property in the form of a <code>Double</code> instance.
+	 */
+	private JSpinner createDoubleInput(String aPropName, Double aValue) {
+		final double value = Math.min(Math.max(0, aValue.doubleValue()), 1);
+		final JSpinner spinner = new JSpinner(new SpinnerNumberModel(value, 0.0, 1.0, 0.001));
+		spinner.setEditor(new JSpinner.NumberEditor(spinner, "0.000"));
+		spinner.setName(aPropName);
+		
+		return spinner;
+	}
+
 	/**
 	 * Creates a label and a button to present a <code>Color</code> property.
 	 * 
@@ -2,9 +2,22 @@ package de.mpg.mpi_inf.bioinf.netanalyzer.tests;
 
 import static org.junit.Assert.*;
 
+import java.awt.geom.Point2D;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.cytoscape.model.CyEdge;
 import org.cytoscape.model.CyIdentifiable;
@@ -15,10 +28,38 @@ import org.cytoscape.model.CyRow;
 import org.cytoscape.model.CyTable;
 import org.cytoscape.model.SavePolicy;
 import org.cytoscape.model.CyEdge.Type;
+import org.jdom.input.SAXBuilder;
 import org.junit.Test;
 
+import de.mpg.mpi_inf.bioinf.netanalyzer.AnalysisPlan;
+import de.mpg.mpi_inf.bioinf.netanalyzer.BatchResultCache;
+import de.mpg.mpi_inf.bioinf.netanalyzer.BetweennessSampler;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ClusteringSampler;
+import de.mpg.mpi_inf.bioinf.netanalyzer.ConnComponentAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.CyNetworkUtils;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.CCInfo;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Interpretations;
 import de.mpg.mpi_inf.bioinf.netanalyzer.DirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.NetworkSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.Plugin;
 import de.mpg.mpi_inf.bioinf.netanalyzer.UndirNetworkAnalyzer;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.Metric;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.NetworkInterpretation;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.PathLengthData;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.SumCountPair;
+import de.mpg.mpi_inf.bioinf.netanalyzer.data.settings.PluginSettings;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.BlockBetweenness;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.BlockDecomposition;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.ComponentLabeling;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.CoreDecomposition;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.EccentricityBounds;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.GraphSnapshot;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.HyperAnf;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.MultiSourceBfs;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.SpectralCentrality;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.StrongComponents;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TraversalWorkspace;
+import de.mpg.mpi_inf.bioinf.netanalyzer.graph.TriangleCounter;
 
 // Tests some of the methods in the NetworkAnalyzer classes that don't make table entries
 public class DirUndirNetworkAnalyzerTest 
@@ -162,4 +203,868 @@ public class DirUndirNetworkAnalyzerTest
 			}
 	}
 
+	@Test
+	public void testSharedWorkspace() 
+	{
+		// One workspace reused for all sources of both graphs must give the same results as fresh storage
+		TraversalWorkspace workspace = new TraversalWorkspace();
+		
+		// Undirected graph from testUndirected, with one ID per edge list entry
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		int[] edgeIDs = new int[edges.length];
+		for (int i = 0; i < edgeIDs.length; i++)
+			edgeIDs[i] = i;
+		
+		double[] nodeBetweenness = new double[numNodes], sharedNodeBetweenness = new double[numNodes];
+		double[] edgeBetweenness = new double[edges.length], sharedEdgeBetweenness = new double[edges.length];
+		long[] stress = new long[numNodes], sharedStress = new long[numNodes];
+		long[] sharedNeighbors = new long[numNodes], sharedSharedNeighbors = new long[numNodes];
+		long[] pathLengths = new long[numNodes], sharedPathLengths = new long[numNodes];
+		for (int i = 0; i < numNodes; i++)
+		{
+			PathLengthData data = UndirNetworkAnalyzer.computeSPandSN(i, numNodes, edges, edgeOffsets, sharedNeighbors, pathLengths);
+			UndirNetworkAnalyzer.computeNBandEB(i, numNodes, edges, edgeOffsets, edgeIDs, nodeBetweenness, stress, edgeBetweenness);
+			PathLengthData sharedData = UndirNetworkAnalyzer.computeSPandNB(i, numNodes, edges, edgeOffsets, edgeIDs, 
+					sharedSharedNeighbors, sharedPathLengths, sharedNodeBetweenness, sharedStress, sharedEdgeBetweenness, workspace);
+			assertEquals(data.getCount(), sharedData.getCount());
+			assertEquals(data.getTotalLength(), sharedData.getTotalLength());
+			assertEquals(data.getMaxLength(), sharedData.getMaxLength());
+		}
+		assertArrayEquals(nodeBetweenness, sharedNodeBetweenness, 1e-9);
+		assertArrayEquals(edgeBetweenness, sharedEdgeBetweenness, 1e-9);
+		assertArrayEquals(stress, sharedStress);
+		assertArrayEquals(sharedNeighbors, sharedSharedNeighbors);
+		assertArrayEquals(pathLengths, sharedPathLengths);
+		
+		// Directed graph from testDirected
+		int[] inEdgeOffsets = new int[] { 0, 1, 2, 4, 5, 6, 7, 7, 8 };		
+		int[] inoutEdgeOffsets = new int[] { 0, 2, 4, 7, 8, 9, 12, 15, 16 };
+		int[] inoutEdges = new int[] { 2, 1, 0, 2, 1, 0, 6, 6, 5, 4, 7, 6, 2, 3, 5, 5 };
+		int[] inoutEdgeIDs = new int[] { 0, 1, 1, 2, 2, 0, 7, 6, 3, 3, 4, 5, 7, 6, 5, 4 };
+		
+		nodeBetweenness = new double[numNodes];
+		sharedNodeBetweenness = new double[numNodes];
+		edgeBetweenness = new double[inoutEdges.length];
+		sharedEdgeBetweenness = new double[inoutEdges.length];
+		stress = new long[numNodes];
+		sharedStress = new long[numNodes];
+		for (int i = 0; i < numNodes; i++)
+		{
+			DirNetworkAnalyzer.computeNBandEB(i, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, inEdgeOffsets, 
+					nodeBetweenness, stress, edgeBetweenness);
+			DirNetworkAnalyzer.computeSPandNB(i, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, inEdgeOffsets, null, 
+					sharedNodeBetweenness, sharedStress, sharedEdgeBetweenness, workspace);
+		}
+		assertArrayEquals(nodeBetweenness, sharedNodeBetweenness, 1e-9);
+		assertArrayEquals(edgeBetweenness, sharedEdgeBetweenness, 1e-9);
+		assertArrayEquals(stress, sharedStress);
+	}
+
+	@Test
+	public void testMultiSourceBfs() 
+	{
+		// Multi-source traversals in two batches must give the same distances as single-source ones
+		MultiSourceBfs bfs = new MultiSourceBfs();
+		
+		// Undirected graph from testUndirected
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		int[] sources = new int[] { 0, 1, 2, 3, 4, 5, 6, 7 };
+		
+		long[] sharedNeighbors = new long[numNodes], multiSharedNeighbors = new long[numNodes];
+		long[] pathLengths = new long[numNodes], multiPathLengths = new long[numNodes];
+		long[] hybridSharedNeighbors = new long[numNodes], hybridPathLengths = new long[numNodes];
+		MultiSourceBfs hybridBfs = new MultiSourceBfs();
+		PathLengthData[] data = new PathLengthData[numNodes];
+		for (int i = 0; i < numNodes; i++)
+			data[i] = UndirNetworkAnalyzer.computeSPandSN(i, numNodes, edges, edgeOffsets, sharedNeighbors, pathLengths);
+		for (int first = 0; first < numNodes; first += 5)
+		{
+			int count = Math.min(5, numNodes - first);
+			bfs.run(sources, first, count, numNodes, edges, edgeOffsets, multiSharedNeighbors, multiPathLengths);
+			hybridBfs.run(sources, first, count, numNodes, edges, edgeOffsets, edges, edgeOffsets, null, 0, 
+					hybridSharedNeighbors, hybridPathLengths);
+			for (int lane = 0; lane < count; lane++)
+			{
+				assertEquals(data[first + lane].getMaxLength(), bfs.getEccentricity(lane));
+				assertEquals(data[first + lane].getAverageLength(), bfs.getAverageLength(lane), 1e-9);
+				assertEquals(data[first + lane].getMaxLength(), hybridBfs.getEccentricity(lane));
+				assertEquals(data[first + lane].getAverageLength(), hybridBfs.getAverageLength(lane), 1e-9);
+			}
+		}
+		assertArrayEquals(sharedNeighbors, multiSharedNeighbors);
+		assertArrayEquals(pathLengths, multiPathLengths);
+		assertArrayEquals(sharedNeighbors, hybridSharedNeighbors);
+		assertArrayEquals(pathLengths, hybridPathLengths);
+		
+		// Directed graph from testDirected, traversed along its out-neighbors
+		int[] inEdgeOffsets = new int[] { 0, 1, 2, 4, 5, 6, 7, 7, 8 };		
+		int[] inoutEdgeOffsets = new int[] { 0, 2, 4, 7, 8, 9, 12, 15, 16 };
+		int[] inoutEdges = new int[] { 2, 1, 0, 2, 1, 0, 6, 6, 5, 4, 7, 6, 2, 3, 5, 5 };
+		int[] inoutEdgeIDs = new int[] { 0, 1, 1, 2, 2, 0, 7, 6, 3, 3, 4, 5, 7, 6, 5, 4 };
+		int[] outEdgeOffsets = new int[] { 0, 1, 2, 3, 3, 3, 5, 8, 8 };
+		int[] outEdges = new int[] { 2, 0, 1, 4, 7, 2, 3, 5 };
+		
+		pathLengths = new long[numNodes];
+		multiPathLengths = new long[numNodes];
+		bfs.run(sources, 0, numNodes, numNodes, outEdges, outEdgeOffsets, null, multiPathLengths);
+		for (int i = 0; i < numNodes; i++)
+		{
+			PathLengthData dirData = DirNetworkAnalyzer.computeSPandNB(i, numNodes, inoutEdges, inoutEdgeOffsets, inoutEdgeIDs, 
+					inEdgeOffsets, pathLengths, null, null, null);
+			assertEquals(dirData.getMaxLength(), bfs.getEccentricity(i));
+			assertEquals(dirData.getCount() > 0 ? dirData.getAverageLength() : 0, bfs.getAverageLength(i), 1e-9);
+		}
+		assertArrayEquals(pathLengths, multiPathLengths);
+	}
+
+	@Test
+	public void testBetweennessSampler() 
+	{
+		// Complete binary tree with 1023 nodes; the betweenness of the root is about 0.5
+		int numNodes = 1023;
+		int[] edgeOffsets = new int[numNodes + 1];
+		int[] edges = new int[2 * (numNodes - 1)];
+		for (int i = 0, e = 0; i < numNodes; i++)
+		{
+			if (i > 0)
+				edges[e++] = (i - 1) / 2;
+			for (int child = 2 * i + 1; child <= 2 * i + 2 && child < numNodes; child++)
+				edges[e++] = child;
+			edgeOffsets[i + 1] = e;
+		}
+		int[] edgeIDs = new int[edges.length];
+		HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
+		for (int n1 = 0; n1 < numNodes; n1++)
+			for (int n2 = edgeOffsets[n1]; n2 < edgeOffsets[n1 + 1]; n2++)
+			{
+				long id = UndirNetworkAnalyzer.computeEdgeHash(n1, edges[n2]);
+				if (!edgeHash2Int.containsKey(id))
+					edgeHash2Int.put(id, edgeHash2Int.size());
+				edgeIDs[n2] = edgeHash2Int.get(id);
+			}
+		
+		// The sample size is the smallest one for which Hoeffding's inequality and the union bound 
+		// over all nodes give the error bound
+		double epsilon = 0.1, delta = 0.1;
+		BetweennessSampler sampler = new BetweennessSampler(new AnalysisPlan(Arrays.asList(Metric.BETWEENNESS), 
+				epsilon, delta), numNodes);
+		double range = (double) numNodes / (numNodes - 1);
+		int sampleSize = (int) Math.ceil(range * range * Math.log(2.0 * numNodes / delta) / (2 * epsilon * epsilon));
+		assertEquals(sampleSize, sampler.getSampleSize(numNodes));
+		assertTrue(sampler.getErrorBound(numNodes, sampleSize) <= epsilon);
+		assertTrue(sampler.getErrorBound(numNodes, sampleSize - 1) > epsilon);
+		assertEquals(2, sampler.getSampleSize(2));
+		assertEquals(100, sampler.getSampleSize(100));
+		assertNull(sampler.sample(100));
+		assertFalse(sampler.isSampled());
+		assertEquals(0.9, sampler.getConfidence(), 1e-12);
+		
+		// Betweenness accumulated from the sampled sources stays within the error bound of the exact values
+		boolean[] sources = sampler.sample(numNodes);
+		assertTrue(sampler.isSampled());
+		int sourceCount = 0;
+		for (boolean source : sources)
+			if (source)
+				sourceCount++;
+		assertEquals(sampleSize, sourceCount);
+		assertEquals(sampler.getErrorBound(numNodes, sampleSize), sampler.getErrorBound(), 0);
+		
+		double[] nodeBetweenness = new double[numNodes], sampledBetweenness = new double[numNodes];
+		double[] edgeBetweenness = new double[edgeHash2Int.size()], sampledEdgeBetweenness = new double[edgeHash2Int.size()];
+		long[] stress = new long[numNodes], sampledStress = new long[numNodes];
+		for (int i = 0; i < numNodes; i++)
+		{
+			UndirNetworkAnalyzer.computeNBandEB(i, numNodes, edges, edgeOffsets, edgeIDs, nodeBetweenness, stress, edgeBetweenness);
+			if (sources[i])
+				UndirNetworkAnalyzer.computeNBandEB(i, numNodes, edges, edgeOffsets, edgeIDs, sampledBetweenness, 
+						sampledStress, sampledEdgeBetweenness);
+		}
+		BetweennessSampler.scale(sources, sampledBetweenness, sampledEdgeBetweenness, sampledStress);
+		double normFactor = UndirNetworkAnalyzer.computeNormFactor(numNodes);
+		assertEquals(0.5, nodeBetweenness[0] * normFactor, 0.01);
+		for (int i = 0; i < numNodes; i++)
+			assertEquals(nodeBetweenness[i] * normFactor, sampledBetweenness[i] * normFactor, sampler.getErrorBound());
+	}
+
+	@Test
+	public void testEccentricityBounds() 
+	{
+		// Undirected graph from testUndirected; the bounds must give the extreme eccentricities
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		int diameter = 0, radius = Integer.MAX_VALUE;
+		for (int i = 0; i < numNodes; i++)
+		{
+			int eccentricity = UndirNetworkAnalyzer.computeSPandSN(i, numNodes, edges, edgeOffsets, null, null).getMaxLength();
+			diameter = Math.max(diameter, eccentricity);
+			radius = Math.min(radius, eccentricity);
+		}
+		
+		EccentricityBounds bounds = EccentricityBounds.compute(numNodes, edges, edgeOffsets);
+		assertEquals(diameter, bounds.getDiameter());
+		assertEquals(radius, bounds.getRadius());
+		assertTrue(bounds.getTraversalCount() <= numNodes);
+		for (int i = 0; i < numNodes; i++)
+			assertTrue(bounds.getLowerBounds()[i] <= bounds.getUpperBounds()[i]);
+	}
+
+	@Test
+	public void testHyperAnf() 
+	{
+		// Undirected graph from testUndirected; with many registers, the counters of a small graph are nearly exact
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		int diameter = 0;
+		long connPairs = 0, totalLength = 0;
+		for (int i = 0; i < numNodes; i++)
+		{
+			PathLengthData pathLengths = UndirNetworkAnalyzer.computeSPandSN(i, numNodes, edges, edgeOffsets, null, null);
+			diameter = Math.max(diameter, pathLengths.getMaxLength());
+			connPairs += pathLengths.getCount();
+			totalLength += pathLengths.getTotalLength();
+		}
+		
+		HyperAnf anf = HyperAnf.compute(numNodes, edgeOffsets, edges, 10, null, 1, null);
+		assertEquals(diameter, anf.getIterationCount());
+		assertEquals(connPairs, anf.getConnectedPairs(), 0.05 * connPairs);
+		assertEquals((double) totalLength / connPairs, anf.getAverageLength(), 0.05);
+		assertTrue(anf.getEffectiveDiameter(0.9) <= diameter);
+		double harmonic = 0;
+		for (int i = 0; i < numNodes; i++)
+			harmonic += anf.getHarmonicCloseness()[i];
+		assertTrue(harmonic > 0 && harmonic <= connPairs);
+	}
+
+	@Test
+	public void testTriangleCounter() 
+	{
+		// Undirected graph from testUndirected; the counts must match the direct computation
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		TriangleCounter triangles = TriangleCounter.create(numNodes, edgeOffsets, edges);
+		TraversalWorkspace workspace = new TraversalWorkspace();
+		long[] arcs = new long[numNodes];
+		long triangleCount = 0;
+		for (int i = 0; i < numNodes; i++)
+			triangleCount += triangles.countFrom(i, arcs);
+		assertEquals(1, triangleCount);
+		for (int i = 0; i < numNodes; i++)
+		{
+			int[] neighbors = Arrays.copyOfRange(edges, edgeOffsets[i], edgeOffsets[i + 1]);
+			assertEquals(arcs[i], triangles.countAt(i));
+			if (neighbors.length > 1)
+			{
+				double cc = (double) arcs[i] / (neighbors.length * (neighbors.length - 1));
+				assertEquals(UndirNetworkAnalyzer.computeCC(neighbors, numNodes, edges, edgeOffsets), cc, 1e-12);
+				assertEquals(UndirNetworkAnalyzer.computeTC(i, numNodes, edges, edgeOffsets), 
+						triangles.getTopologicalCoefficient(i, workspace), 1e-12);
+			}
+		}
+		
+		// Directed graph from testDirected; pairs of neighbors are weighted by the arcs between them
+		edgeOffsets = new int[] { 0, 2, 4, 7, 8, 9, 12, 15, 16  };
+		edges = new int[] { 1, 2, 0, 2, 0, 1, 6, 6, 5, 4, 6, 7, 2, 3, 5, 5 };
+		int[] outEdgeOffsets = new int[] { 0, 1, 2, 3, 3, 3, 5, 8, 8 };
+		int[] outEdges = new int[] { 2, 0, 1, 4, 7, 2, 3, 5 };
+		int[] inEdgeOffsets = new int[] { 0, 1, 2, 4, 5, 6, 7, 7, 8 };
+		int[] inEdges = new int[] { 1, 2, 0, 6, 6, 5, 6, 5 };
+		triangles = TriangleCounter.create(numNodes, edgeOffsets, edges, outEdgeOffsets, outEdges, inEdgeOffsets, inEdges);
+		arcs = new long[numNodes];
+		for (int i = 0; i < numNodes; i++)
+			triangles.countFrom(i, arcs);
+		for (int i = 0; i < numNodes; i++)
+		{
+			int[] neighbors = Arrays.copyOfRange(edges, edgeOffsets[i], edgeOffsets[i + 1]);
+			assertEquals(arcs[i], triangles.countAt(i));
+			if (neighbors.length > 1)
+			{
+				double cc = (double) arcs[i] / (neighbors.length * (neighbors.length - 1));
+				assertEquals(DirNetworkAnalyzer.computeCC(neighbors, numNodes, outEdges, outEdgeOffsets), cc, 1e-12);
+			}
+		}
+		assertEquals(1, arcs[0]);
+	}
+
+	@Test
+	public void testCoreDecomposition() 
+	{
+		// Clique of nodes 0-3, node 4 linked to 0 and 1, pendant node 5 on node 4 and isolated node 6
+		int numNodes = 7;
+		int[] edgeOffsets = new int[] { 0, 4, 8, 11, 14, 17, 18, 18 };
+		int[] edges = new int[] { 1, 2, 3, 4, 0, 2, 3, 4, 0, 1, 3, 0, 1, 2, 0, 1, 5, 4 };
+		CoreDecomposition cores = CoreDecomposition.create(numNodes, edgeOffsets, edges);
+		int[] refCoreness = new int[] { 3, 3, 3, 3, 2, 1, 0 };
+		for (int i = 0; i < numNodes; i++)
+			assertEquals(refCoreness[i], cores.getCoreness(i));
+		assertEquals(3, cores.getDegeneracy());
+		
+		// Every node has at most as many neighbors later in the order as its coreness
+		int[] ranks = cores.getRanks();
+		for (int i = 0; i < numNodes; i++)
+		{
+			assertEquals(i, cores.getOrder()[ranks[i]]);
+			int later = 0;
+			for (int ei = edgeOffsets[i]; ei < edgeOffsets[i + 1]; ei++)
+				if (ranks[edges[ei]] > ranks[i])
+					later++;
+			assertTrue(later <= cores.getCoreness(i));
+		}
+		
+		// Ranking by the degeneracy ordering gives the same triangle counts
+		TriangleCounter triangles = TriangleCounter.create(numNodes, edgeOffsets, edges, ranks);
+		long[] arcs = new long[numNodes];
+		long triangleCount = 0;
+		for (int i = 0; i < numNodes; i++)
+			triangleCount += triangles.countFrom(i, arcs);
+		assertEquals(5, triangleCount);
+		for (int i = 0; i < numNodes; i++)
+			assertEquals(triangles.countAt(i), arcs[i]);
+	}
+
+	@Test
+	public void testBlockBetweenness() 
+	{
+		// A square and a triangle sharing node 3, with pendant nodes 6 and 7; opposite nodes of the square 
+		// are connected by two shortest paths
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 2, 5, 7, 11, 13, 16, 17, 18 };
+		int[] edges = new int[] { 1, 3, 0, 2, 6, 1, 3, 0, 2, 4, 5, 3, 5, 3, 4, 7, 1, 5 };
+		int[] edgeIDs = new int[edges.length];
+		HashMap<Long, Integer> edgeHash2Int = new HashMap<>();
+		for (int n1 = 0; n1 < numNodes; n1++)
+			for (int n2 = edgeOffsets[n1]; n2 < edgeOffsets[n1 + 1]; n2++)
+			{
+				long id = UndirNetworkAnalyzer.computeEdgeHash(n1, edges[n2]);
+				if (!edgeHash2Int.containsKey(id))
+					edgeHash2Int.put(id, edgeHash2Int.size());
+				edgeIDs[n2] = edgeHash2Int.get(id);
+			}
+		int pairCount = edgeHash2Int.size();
+		
+		BlockDecomposition blocks = BlockDecomposition.create(numNodes, edgeOffsets, edges);
+		assertEquals(4, blocks.getBlockCount());
+		boolean[] refArticulation = new boolean[] { false, true, false, true, false, true, false, false };
+		for (int i = 0; i < numNodes; i++)
+			assertEquals(refArticulation[i], blocks.isArticulationPoint(i));
+		for (int n1 = 0; n1 < numNodes; n1++)
+			for (int n2 = edgeOffsets[n1]; n2 < edgeOffsets[n1 + 1]; n2++)
+				assertEquals(edges[n2] == 6 || edges[n2] == 7 || n1 == 6 || n1 == 7, blocks.isBridge(n2));
+		
+		// Betweenness and stress computed block by block must equal the ones from all nodes
+		double[] nodeBetweenness = new double[numNodes];
+		double[] edgeBetweenness = new double[pairCount];
+		long[] stress = new long[numNodes];
+		for (int i = 0; i < numNodes; i++)
+			UndirNetworkAnalyzer.computeNBandEB(i, numNodes, edges, edgeOffsets, edgeIDs, nodeBetweenness, stress, edgeBetweenness);
+		
+		BlockBetweenness blockBetweenness = BlockBetweenness.create(blocks, edgeOffsets, edges, edgeIDs, pairCount, true);
+		TraversalWorkspace workspace = new TraversalWorkspace();
+		double[] blockNodeBetweenness = new double[numNodes];
+		double[] blockEdgeBetweenness = new double[pairCount];
+		long[] blockStress = new long[numNodes];
+		for (int i = 0; i < blockBetweenness.getSourceCount(); i++)
+			blockBetweenness.accumulate(i, workspace, blockNodeBetweenness, blockStress, blockEdgeBetweenness);
+		blockBetweenness.finish(blockNodeBetweenness, blockStress, blockEdgeBetweenness);
+		assertArrayEquals(nodeBetweenness, blockNodeBetweenness, 1e-9);
+		assertArrayEquals(edgeBetweenness, blockEdgeBetweenness, 1e-9);
+		assertArrayEquals(stress, blockStress);
+	}
+
+	@Test
+	public void testStrongComponents() 
+	{
+		// Directed graph from testDirected: cycle 0 -> 2 -> 1 -> 0, the other nodes are components on their own
+		int numNodes = 8;
+		int[] outEdgeOffsets = new int[] { 0, 1, 2, 3, 3, 3, 5, 8, 8 };
+		int[] outEdges = new int[] { 2, 0, 1, 4, 7, 2, 3, 5 };
+		int[] inEdgeOffsets = new int[] { 0, 1, 2, 4, 5, 6, 7, 7, 8 };
+		int[] inEdges = new int[] { 1, 2, 0, 6, 6, 5, 6, 5 };
+		StrongComponents scc = StrongComponents.create(numNodes, outEdgeOffsets, outEdges);
+		
+		assertEquals(6, scc.getComponentCount());
+		int[] labels = scc.getLabels();
+		assertEquals(labels[0], labels[1]);
+		assertEquals(labels[0], labels[2]);
+		assertEquals(3, scc.getSize(labels[0]));
+		assertEquals(1, scc.getSize(labels[5]));
+		
+		// Every arc leads to the same or a later component, and so does every condensation arc
+		for (int v = 0; v < numNodes; v++)
+			for (int ei = outEdgeOffsets[v]; ei < outEdgeOffsets[v + 1]; ei++)
+				assertTrue(labels[v] <= labels[outEdges[ei]]);
+		int[] dagOffsets = scc.getCondensationOffsets();
+		int[] dagTargets = scc.getCondensationTargets();
+		assertEquals(5, dagTargets.length);
+		for (int c = 0; c < scc.getComponentCount(); c++)
+			for (int i = dagOffsets[c]; i < dagOffsets[c + 1]; i++)
+				assertTrue(c < dagTargets[i]);
+		
+		// Traversals scanning only the components of the sources and later must give the same distances
+		MultiSourceBfs bfs = new MultiSourceBfs(), prunedBfs = new MultiSourceBfs();
+		int[] order = scc.getOrderedNodes();
+		int[] offsets = scc.getComponentOffsets();
+		long[] pathLengths = new long[numNodes], prunedPathLengths = new long[numNodes];
+		for (int c = 0; c < scc.getComponentCount(); c++)
+		{
+			int count = scc.getSize(c);
+			bfs.run(order, offsets[c], count, numNodes, outEdges, outEdgeOffsets, null, pathLengths);
+			prunedBfs.run(order, offsets[c], count, numNodes, outEdges, outEdgeOffsets, inEdges, inEdgeOffsets, order, offsets[c], 
+					null, prunedPathLengths);
+			for (int lane = 0; lane < count; lane++)
+			{
+				assertEquals(bfs.getEccentricity(lane), prunedBfs.getEccentricity(lane));
+				assertEquals(bfs.getAverageLength(lane), prunedBfs.getAverageLength(lane), 1e-9);
+			}
+		}
+		assertArrayEquals(pathLengths, prunedPathLengths);
+	}
+
+	@Test
+	public void testClusteringSampler() 
+	{
+		// Hub 0 linked to the nodes 1-80, which form a ring; only the hub exceeds the degree limit
+		int numNodes = 81, leaves = numNodes - 1;
+		int[] edgeOffsets = new int[numNodes + 1];
+		int[] edges = new int[4 * leaves];
+		for (int i = 1; i <= leaves; i++)
+			edges[i - 1] = i;
+		edgeOffsets[1] = leaves;
+		for (int i = 1; i <= leaves; i++)
+		{
+			int[] neighbors = new int[] { 0, i == 1 ? leaves : i - 1, i == leaves ? 1 : i + 1 };
+			Arrays.sort(neighbors);
+			System.arraycopy(neighbors, 0, edges, edgeOffsets[i], 3);
+			edgeOffsets[i + 1] = edgeOffsets[i] + 3;
+		}
+		
+		AnalysisPlan plan = new AnalysisPlan(Arrays.asList(Metric.CLUSTERING)).approximateClustering(200, 10);
+		ClusteringSampler sampler = new ClusteringSampler(plan, edgeOffsets);
+		HashMap<Integer, SumCountPair> CCps = new HashMap<>();
+		double[] exact = new double[numNodes], cco = new double[numNodes];
+		for (int i = 0; i < numNodes; i++)
+		{
+			int[] neighbors = Arrays.copyOfRange(edges, edgeOffsets[i], edgeOffsets[i + 1]);
+			exact[i] = UndirNetworkAnalyzer.computeCC(neighbors, numNodes, edges, edgeOffsets);
+			int sampleSize = sampler.getSampleSize(neighbors.length);
+			if (sampleSize > 0)
+			{
+				cco[i] = ClusteringSampler.estimate(i, sampleSize, i, edgeOffsets, edges, edgeOffsets, edges);
+				sampler.record(neighbors.length, sampleSize);
+			}
+			else
+				cco[i] = exact[i];
+			if (CCps.containsKey(neighbors.length))
+				CCps.get(neighbors.length).add(cco[i]);
+			else
+				CCps.put(neighbors.length, new SumCountPair(cco[i]));
+		}
+		
+		// Nodes below the limit keep their exact coefficients, the hub is sampled
+		assertTrue(sampler.isSampled());
+		assertEquals(200, sampler.getSampleSize(leaves));
+		for (int i = 1; i < numNodes; i++)
+			assertEquals(0, sampler.getSampleSize(edgeOffsets[i + 1] - edgeOffsets[i]));
+		assertEquals(2.0 / 3, exact[1], 1e-12);
+		
+		// The estimate of the hub deviates from the exact value by no more than the bound of its degree
+		List<Point2D.Double> bounds = sampler.getErrorBounds(CCps);
+		assertEquals(1, bounds.size());
+		assertEquals(leaves, bounds.get(0).x, 0);
+		assertTrue(bounds.get(0).y > 0 && bounds.get(0).y < 0.1);
+		assertEquals(exact[0], cco[0], bounds.get(0).y);
+	}
+
+	@Test
+	public void testComponentLabeling() throws Exception
+	{
+		// Components {0, 1, 2} with a self-loop and a directed edge, {3, 4, 5} with a duplicate edge and 
+		// {8, 9, 10}; node 6 has only a self-loop and node 7 is isolated
+		int numNodes = 11;
+		int[][] edges = new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 1, 1 }, { 3, 4 }, { 4, 3 }, { 5, 4 }, 
+				{ 6, 6 }, { 8, 9 }, { 10, 9 } };
+		boolean[] directed = new boolean[] { false, false, true, false, false, false, true, false, false, true };
+		CyNetwork network = createNetwork(numNodes, edges, directed);
+		GraphSnapshot graph = GraphSnapshot.create(network);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			for (ComponentLabeling labeling : new ComponentLabeling[] { ComponentLabeling.create(graph), 
+					ComponentLabeling.create(graph, executor, 2) })
+			{
+				// Every component holds the nodes found by traversing the network from any of its nodes
+				assertEquals(5, labeling.getComponentCount());
+				Set<CyNode> covered = new HashSet<CyNode>();
+				for (int c = 0; c < labeling.getComponentCount(); c++)
+				{
+					Set<CyNode> nodes = new HashSet<CyNode>(labeling.getCyNodes(c));
+					assertEquals(labeling.getSize(c), nodes.size());
+					for (CyNode node : nodes)
+					{
+						assertEquals(c, labeling.getLabels()[graph.indexOf(node)]);
+						assertEquals(nodes, ConnComponentAnalyzer.getNodesOf(network, new CCInfo(nodes.size(), node)));
+						assertTrue(covered.add(node));
+					}
+				}
+				assertEquals(numNodes, covered.size());
+				
+				// Components found by the labeling give the same nodes as the traversal
+				CCInfo component = new CCInfo(labeling, labeling.getLabels()[6]);
+				assertEquals(1, component.getSize());
+				assertEquals(ConnComponentAnalyzer.getNodesOf(network, new CCInfo(1, component.getNode())), 
+						ConnComponentAnalyzer.getNodesOf(network, component));
+			}
+			
+			// Nodes removed from the network after the components were found are not returned
+			ComponentLabeling labeling = ComponentLabeling.create(graph);
+			CyNode first = network.getNodeList().get(3), removed = network.getNodeList().get(5);
+			CCInfo component = new CCInfo(labeling, labeling.getLabels()[graph.indexOf(first)]);
+			assertEquals(first, component.getNode());
+			network.getEdgeList().removeAll(network.getAdjacentEdgeList(removed, Type.ANY));
+			network.getNodeList().remove(removed);
+			assertEquals(new HashSet<CyNode>(Arrays.asList(first, network.getNodeList().get(4))), 
+					ConnComponentAnalyzer.getNodesOf(network, component));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPairConnCount() throws Exception
+	{
+		// Nodes {0, 1, 2} with a duplicate edge between 0 and 1, reciprocal directed edges between 1 and 2 
+		// and a self-loop on 2; node 3 is outside the examined set
+		int[][] edges = new int[][] { { 0, 1 }, { 0, 1 }, { 1, 2 }, { 2, 1 }, { 2, 2 }, { 0, 3 } };
+		boolean[] directed = new boolean[] { false, false, true, true, false, false };
+		CyNetwork network = createNetwork(4, edges, directed);
+		List<CyNode> nodes = network.getNodeList().subList(0, 3);
+		
+		assertEquals(4, CyNetworkUtils.getAllConnectingEdges(network, nodes).size());
+		assertEquals(2, CyNetworkUtils.getPairConnCount(network, nodes, true));
+		assertEquals(3, CyNetworkUtils.getPairConnCount(network, nodes, false));
+		assertEquals(3, CyNetworkUtils.getPairConnCount(network, new HashSet<CyNode>(network.getNodeList()), true));
+		
+		// A node with a self-loop and two nodes without edges between them have no pair connections
+		assertEquals(0, CyNetworkUtils.getPairConnCount(network, nodes.subList(2, 3), false));
+		assertEquals(0, CyNetworkUtils.getPairConnCount(network, Arrays.asList(nodes.get(0), nodes.get(2)), true));
+	}
+
+	@Test
+	public void testNetworkSnapshot() throws Exception
+	{
+		// Components {0, 1, 2} with an undirected self-loop on 1 and {3, 4} with reciprocal directed edges
+		int[][] edges = new int[][] { { 0, 1 }, { 1, 2 }, { 1, 1 }, { 3, 4 }, { 4, 3 } };
+		boolean[] directed = new boolean[] { false, true, false, true, true };
+		CyNetwork network = createNetwork(5, edges, directed);
+		List<CyNode> nodes = new ArrayList<CyNode>(network.getNodeList());
+		List<CyEdge> edgeList = new ArrayList<CyEdge>(network.getEdgeList());
+		
+		NetworkSnapshot snapshot = new NetworkSnapshot(network);
+		NetworkInterpretation[] interprs = new NetworkInterpretation[] { new NetworkInterpretation(null, true, false), 
+				new NetworkInterpretation(null, true, true), new NetworkInterpretation(null, false, false), 
+				new NetworkInterpretation(null, false, true) };
+		GraphSnapshot graph = snapshot.getGraph(interprs[0]);
+		List<GraphSnapshot> components = snapshot.getComponents(interprs[0]);
+		assertEquals(2, components.size());
+		for (NetworkInterpretation interpr : interprs)
+		{
+			// Every interpretation gets the same view and component list on every request
+			GraphSnapshot view = snapshot.getGraph(interpr);
+			assertSame(view, snapshot.getGraph(interpr));
+			assertSame(snapshot.getComponents(interpr), snapshot.getComponents(interpr));
+			assertSame(snapshot.getLabeling(), snapshot.getLabeling());
+			
+			// Only the interpretation ignoring undirected self-loops reads a different view
+			int loops = view.getUndirectedLoopCount(view.indexOf(nodes.get(1)));
+			if (interpr.isIgnoreUSL())
+			{
+				assertNotSame(graph, view);
+				assertNotSame(components, snapshot.getComponents(interpr));
+				assertEquals(0, loops);
+				assertEquals(components.size(), snapshot.getComponents(interpr).size());
+			}
+			else
+			{
+				assertSame(graph, view);
+				assertSame(components, snapshot.getComponents(interpr));
+				assertEquals(1, loops);
+			}
+		}
+		
+		// The network is not modified; the other mutators of the network are not supported
+		assertEquals(nodes, network.getNodeList());
+		assertEquals(edgeList, network.getEdgeList());
+	}
+
+	@Test
+	public void testBatchResultCache() throws Exception
+	{
+		PluginSettings settings = loadSettings();
+		File directory = Files.createTempDirectory("netanalyzer").toFile();
+		try
+		{
+			File input = new File(directory, "network.sif");
+			File netstats = new File(directory, "network.netstats");
+			File attributes = new File(directory, "network.nattributes");
+			Files.write(input.toPath(), "a pp b\nb pp c\n".getBytes("UTF-8"));
+			Files.write(netstats.toPath(), "networkTitle network.sif-d\nnodeCount 3\n".getBytes("UTF-8"));
+			Files.write(attributes.toPath(), "Node\tDegree\na\t1\n".getBytes("UTF-8"));
+			File cacheDir = new File(directory, "cache");
+			String hash = BatchResultCache.hashFile(input);
+			BatchResultCache cache = new BatchResultCache(cacheDir, settings, Interpretations.ALL);
+			assertNull(cache.getInterpretations(hash, input));
+			storeResults(cache, hash, input, netstats, attributes);
+			
+			// An unchanged file analyzed with unchanged settings is restored
+			cache = new BatchResultCache(cacheDir, loadSettings(), Interpretations.ALL);
+			assertArrayEquals(new String[] { "-d", "-u" }, cache.getInterpretations(hash, input));
+			File restored = new File(directory, "restored.netstats");
+			File restoredAttributes = new File(directory, "restored.nattributes");
+			cache.restore(hash, input, "-d", restored, restoredAttributes);
+			assertArrayEquals(Files.readAllBytes(netstats.toPath()), Files.readAllBytes(restored.toPath()));
+			assertArrayEquals(Files.readAllBytes(attributes.toPath()), Files.readAllBytes(restoredAttributes.toPath()));
+			
+			// A changed file, other interpretations or a change of any setting in the key are misses
+			Files.write(input.toPath(), "a pp c\n".getBytes("UTF-8"));
+			assertNull(cache.getInterpretations(BatchResultCache.hashFile(input), input));
+			assertNull(new BatchResultCache(cacheDir, settings, Interpretations.DIRECTED).getInterpretations(hash, input));
+			PluginSettings[] changed = new PluginSettings[5];
+			for (int i = 0; i < changed.length; i++)
+				changed[i] = loadSettings();
+			changed[0].setComputeCoreness(!settings.getComputeCoreness());
+			changed[1].setPageRankDamping(settings.getPageRankDamping() / 2);
+			changed[2].setKatzAttenuation(settings.getKatzAttenuation() / 2);
+			changed[3].setSpectralSolver(SpectralCentrality.Solver.GAUSS_SEIDEL.getKey());
+			changed[4].setUseNodeAttributes(!settings.getUseNodeAttributes());
+			assertEquals(SpectralCentrality.Solver.JACOBI.getKey(), settings.getSpectralSolver());
+			for (PluginSettings s : changed)
+				assertNull(new BatchResultCache(cacheDir, s, Interpretations.ALL).getInterpretations(hash, input));
+			
+			// Truncated or modified entries are misses, and storing the results again repairs them
+			for (String name : new String[] { "result.netstats", "result.nattributes", "result.sha256", "interpretations" })
+			{
+				for (File entry : cacheDir.listFiles())
+				{
+					File file = new File(entry, name);
+					if (file.isFile())
+					{
+						byte[] contents = Files.readAllBytes(file.toPath());
+						Files.write(file.toPath(), Arrays.copyOf(contents, contents.length / 2));
+					}
+				}
+				assertNull(cache.getInterpretations(hash, input));
+				storeResults(cache, hash, input, netstats, attributes);
+				assertEquals(2, cache.getInterpretations(hash, input).length);
+			}
+			for (File entry : cacheDir.listFiles())
+				if (new File(entry, "interpretations").isFile())
+					Files.write(new File(entry, "interpretations").toPath(), new byte[0]);
+			assertNull(cache.getInterpretations(hash, input));
+		}
+		finally
+		{
+			delete(directory);
+		}
+	}
+
+	@Test
+	public void testTopKPlan() 
+	{
+		// Ranked closeness and betweenness need neither the path lengths of all nodes nor the dependencies
+		AnalysisPlan plan = new AnalysisPlan(Arrays.asList(Metric.CLOSENESS, Metric.BETWEENNESS)).topK(5);
+		assertEquals(5, plan.getTopK());
+		assertTrue(plan.isRanked(Metric.CLOSENESS));
+		assertTrue(plan.isRanked(Metric.BETWEENNESS));
+		assertFalse(plan.computes(Metric.SHORTEST_PATHS));
+		assertFalse(plan.needsTraversal());
+		assertFalse(plan.needsDependencies());
+		assertTrue(plan.toString().endsWith(";top;5"));
+		
+		// Other metrics keep their dependencies; stress still needs them
+		AnalysisPlan all = AnalysisPlan.ALL.topK(5);
+		assertTrue(all.computes(Metric.SHORTEST_PATHS));
+		assertTrue(all.needsDependencies());
+		assertFalse(all.isRanked(Metric.STRESS));
+		
+		// Without top-k, the values of all nodes are computed
+		AnalysisPlan full = plan.topK(0);
+		assertFalse(full.isRanked(Metric.CLOSENESS));
+		assertTrue(full.computes(Metric.SHORTEST_PATHS));
+		assertTrue(full.needsDependencies());
+	}
+
+	@Test
+	public void testSpectralCentrality() 
+	{
+		// Graph structure from testUndirected
+		int numNodes = 8;
+		int[] edgeOffsets = new int[] { 0, 3, 6, 7, 8, 11, 13, 15, 16  };
+		int[] edges = new int[] { 1, 3, 4, 0, 2, 7, 1, 0, 0, 5, 6, 4, 6, 4, 5, 1 };
+		
+		for (SpectralCentrality.Solver solver : SpectralCentrality.Solver.values())
+		{
+			// PageRank is a probability distribution and a fixed point of the random surfer
+			double[] pageRank = SpectralCentrality.pageRank(numNodes, edgeOffsets, edges, edgeOffsets, 0.85, 
+					solver, null, 1, null).getValues();
+			double total = 0;
+			for (int i = 0; i < numNodes; i++)
+				total += pageRank[i];
+			assertEquals(1.0, total, 1e-9);
+			for (int i = 0; i < numNodes; i++)
+			{
+				double sum = 0;
+				for (int n = edgeOffsets[i]; n < edgeOffsets[i + 1]; n++)
+					sum += pageRank[edges[n]] / (edgeOffsets[edges[n] + 1] - edgeOffsets[edges[n]]);
+				assertEquals(0.15 / numNodes + 0.85 * sum, pageRank[i], 1e-8);
+			}
+			
+			// Eigenvector centrality satisfies A x = lambda x, with the largest value 1
+			SpectralCentrality eigenvector = SpectralCentrality.eigenvector(numNodes, edgeOffsets, edges, 
+					edgeOffsets, solver, null, 1, null);
+			double[] ev = eigenvector.getValues();
+			double max = 0, lambda = 0;
+			for (int i = 0; i < numNodes; i++)
+				max = Math.max(max, ev[i]);
+			assertEquals(1.0, max, 1e-12);
+			for (int n = edgeOffsets[0]; n < edgeOffsets[1]; n++)
+				lambda += ev[edges[n]] / ev[0];
+			for (int i = 0; i < numNodes; i++)
+			{
+				double sum = 0;
+				for (int n = edgeOffsets[i]; n < edgeOffsets[i + 1]; n++)
+					sum += ev[edges[n]];
+				assertEquals(lambda * ev[i], sum, 1e-6);
+			}
+			assertTrue(eigenvector.getSpectralRadiusBound() >= lambda - 1e-6);
+			assertTrue(eigenvector.getSpectralRadiusBound() <= 3);
+			
+			// Katz centrality solves x = alpha A x + 1
+			double alpha = 0.5 / eigenvector.getSpectralRadiusBound();
+			double[] katz = SpectralCentrality.katz(numNodes, edgeOffsets, edges, edgeOffsets, alpha, solver, 
+					null, 1, null).getValues();
+			for (int i = 0; i < numNodes; i++)
+			{
+				double sum = 0;
+				for (int n = edgeOffsets[i]; n < edgeOffsets[i + 1]; n++)
+					sum += katz[edges[n]];
+				assertEquals(alpha * sum + 1, katz[i], 1e-7);
+			}
+		}
+		
+		// Directed graph from testDirected: PageRank flows along the arcs
+		int[] outEdgeOffsets = new int[] { 0, 1, 2, 3, 3, 3, 5, 8, 8 };
+		int[] inEdgeOffsets = new int[] { 0, 1, 2, 4, 5, 6, 7, 7, 8 };
+		int[] inEdges = new int[] { 1, 2, 0, 6, 6, 5, 6, 5 };
+		double[] pageRank = SpectralCentrality.pageRank(numNodes, inEdgeOffsets, inEdges, outEdgeOffsets, 0.85, 
+				SpectralCentrality.Solver.JACOBI, null, 1, null).getValues();
+		// Node 6 has no in-arcs and passes a third of its rank to node 3, which has no other in-arcs
+		for (int i = 0; i < numNodes; i++)
+			assertTrue(pageRank[6] <= pageRank[i] + 1e-12);
+		assertEquals(pageRank[6] * (1 + 0.85 / 3), pageRank[3], 1e-9);
+	}
+
+	// Loads the default plugin settings
+	private static PluginSettings loadSettings() throws Exception
+	{
+		return new PluginSettings(new SAXBuilder().build(Plugin.class.getResource(Plugin.settingsFileName))
+				.getRootElement().getChild(PluginSettings.tag));
+	}
+
+	// Stores the results of a directed and an undirected interpretation, as the batch analysis does
+	private static void storeResults(BatchResultCache aCache, String aHash, File aInput, File aNetstats, 
+			File aAttributes) throws IOException
+	{
+		aCache.store(aHash, aInput, "-d", aNetstats, aAttributes);
+		aCache.store(aHash, aInput, "-u", aNetstats, null);
+		aCache.storeInterpretations(aHash, aInput, Arrays.asList("-d", "-u"));
+	}
+
+	// Deletes the given file or directory with all its contents
+	private static void delete(File aFile) throws IOException
+	{
+		File[] files = aFile.listFiles();
+		if (files != null)
+			for (File file : files)
+				delete(file);
+		Files.deleteIfExists(aFile.toPath());
+	}
+
+	// Creates a network of the given edges, which supports the methods used by GraphSnapshot and CyNetworkUtils
+	private static CyNetwork createNetwork(int aNodeCount, int[][] aEdges, boolean[] aDirected)
+	{
+		final List<CyNode> nodes = new ArrayList<CyNode>();
+		for (int i = 0; i < aNodeCount; i++)
+			nodes.add(createProxy(CyNode.class, new Object[] { Long.valueOf(i + 1) }));
+		final List<CyEdge> edges = new ArrayList<CyEdge>();
+		for (int e = 0; e < aEdges.length; e++)
+			edges.add(createProxy(CyEdge.class, new Object[] { Long.valueOf(aNodeCount + e + 1), 
+					nodes.get(aEdges[e][0]), nodes.get(aEdges[e][1]), Boolean.valueOf(aDirected[e]) }));
+		return (CyNetwork) Proxy.newProxyInstance(CyNetwork.class.getClassLoader(), new Class<?>[] { CyNetwork.class }, 
+				new InvocationHandler()
+				{
+					public Object invoke(Object aProxy, Method aMethod, Object[] aArgs)
+					{
+						final String name = aMethod.getName();
+						if (name.equals("getNodeList"))
+							return nodes;
+						if (name.equals("getEdgeList"))
+							return edges;
+						if (name.equals("containsNode"))
+							return Boolean.valueOf(nodes.contains(aArgs[0]));
+						if (name.equals("getAdjacentEdgeList"))
+						{
+							List<CyEdge> adjacent = new ArrayList<CyEdge>();
+							for (CyEdge edge : edges)
+								if (edge.getSource() == aArgs[0] || edge.getTarget() == aArgs[0])
+									adjacent.add(edge);
+							return adjacent;
+						}
+						return invokeObjectMethod(aProxy, aMethod, aArgs);
+					}
+				});
+	}
+
+	// Creates a node (SUID) or an edge (SUID, source, target, directed) backed by the given values
+	private static <T> T createProxy(Class<T> aType, final Object[] aValues)
+	{
+		return aType.cast(Proxy.newProxyInstance(aType.getClassLoader(), new Class<?>[] { aType }, 
+				new InvocationHandler()
+				{
+					public Object invoke(Object aProxy, Method aMethod, Object[] aArgs)
+					{
+						final String name = aMethod.getName();
+						if (name.equals("getSUID"))
+							return aValues[0];
+						if (name.equals("getSource"))
+							return aValues[1];
+						if (name.equals("getTarget"))
+							return aValues[2];
+						if (name.equals("isDirected"))
+							return aValues[3];
+						return invokeObjectMethod(aProxy, aMethod, aArgs);
+					}
+				}));
+	}
+
+	// Implements the methods of Object by identity; other methods are not supported
+	private static Object invokeObjectMethod(Object aProxy, Method aMethod, Object[] aArgs)
+	{
+		if (aMethod.getName().equals("equals"))
+			return Boolean.valueOf(aProxy == aArgs[0]);
+		if (aMethod.getName().equals("hashCode"))
+			return Integer.valueOf(System.identityHashCode(aProxy));
+		if (aMethod.getName().equals("toString"))
+			return "proxy" + System.identityHashCode(aProxy);
+		throw new UnsupportedOperationException(aMethod.getName());
+	}
+
 }